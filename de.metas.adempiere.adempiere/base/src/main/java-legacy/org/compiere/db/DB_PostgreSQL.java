@@ -34,19 +34,23 @@ import org.adempiere.ad.trx.api.ITrx;
 import org.adempiere.exceptions.DBConnectionAcquireTimeoutException;
 import org.adempiere.exceptions.DBException;
 import org.adempiere.exceptions.DBNoConnectionException;
+import org.adempiere.util.jmx.JMXRegistry;
+import org.adempiere.util.jmx.JMXRegistry.OnJMXAlreadyExistsPolicy;
 import org.compiere.dbPort.Convert;
 import org.compiere.dbPort.Convert_PostgreSQL;
 import org.compiere.dbPort.Convert_PostgreSQL_Native;
 import org.compiere.util.DB;
 import org.compiere.util.DisplayType;
-import org.compiere.util.Ini;
 import org.slf4j.Logger;
 
 import com.google.common.base.Supplier;
 import com.google.common.base.Suppliers;
-import com.mchange.v2.c3p0.ComboPooledDataSource;
 
-import de.metas.connection.impl.DB_PostgreSQL_ConnectionCustomizer;
+import de.metas.connection.IConnectionPool;
+import de.metas.connection.impl.C3P0ConnectionPool;
+import de.metas.connection.impl.ConnectionAcquireStatistics;
+import de.metas.connection.impl.HikariConnectionPool;
+import de.metas.connection.jmx.JMXConnectionPool;
 import de.metas.logging.LogManager;
 import de.metas.util.Check;
 import de.metas.util.SystemUtils;
@@ -67,8 +71,6 @@ public class DB_PostgreSQL implements AdempiereDatabase
 	private static final String CONFIG_UseNativeConverter = "org.compiere.db.DB_PostgreSQL.UseNativeConverter";
 	private static final String CONFIG_UseNativeConverter_DefaultValue = "true";
 
-	private static final String CONFIG_CheckoutTimeout_SwingClient = "org.compiere.db.DB_PostgreSQL.CheckoutTimeout";
-
 	private static final String CONFIG_UnreturnedConnectionTimeoutMillis = "db.postgresql.unreturnedConnectionTimeoutMillis";
 	private static final int CONFIG_UnreturnedConnectionTimeoutMillis_DefaultValue = 0;
 
@@ -111,7 +113,8 @@ public class DB_PostgreSQL implements AdempiereDatabase
 	public static final int DEFAULT_PORT = 5432;
 
 	/** Data Source */
-	private transient ComboPooledDataSource _dataSource = null;
+	private transient IConnectionPool _dataSource = null;
+	private final ConnectionAcquireStatistics connectionAcquireStatistics = new ConnectionAcquireStatistics();
 	private transient volatile boolean _dataSourceInitialized = false;
 	private final Object _dataSourceLock = new Object();
 
@@ -328,7 +331,7 @@ public class DB_PostgreSQL implements AdempiereDatabase
 	@Override
 	public String getStatus()
 	{
-		final ComboPooledDataSource m_ds = getDataSourceOrNull();
+		final IConnectionPool m_ds = getDataSourceOrNull();
 		if (m_ds == null)
 		{
 			return "No datasource";
@@ -340,7 +343,7 @@ public class DB_PostgreSQL implements AdempiereDatabase
 			sb.append("# Connections: ").append(m_ds.getNumConnections());
 			sb.append(" , # Busy Connections: ").append(m_ds.getNumBusyConnections()).append("/").append(m_maxbusyconnectionsThreshold);
 			sb.append(" , # Idle Connections: ").append(m_ds.getNumIdleConnections());
-			sb.append(" , # Orphaned Connections: ").append(m_ds.getNumUnclosedOrphanedConnections());
+			sb.append(" , # Threads awaiting Connection: ").append(m_ds.getNumThreadsAwaitingConnection());
 		}
 		catch (Exception e)
 		{
@@ -348,6 +351,14 @@ public class DB_PostgreSQL implements AdempiereDatabase
 		return sb.toString();
 	}	// getStatus
 
+	/**
+	 * @return the connection pool or {@code null} if it was not created yet
+	 */
+	public IConnectionPool getConnectionPoolOrNull()
+	{
+		return getDataSourceOrNull();
+	}
+
 	/*************************************************************************
 	 * Convert an individual Oracle Style statements to target database statement syntax
 	 *
@@ -442,15 +453,20 @@ public class DB_PostgreSQL implements AdempiereDatabase
 	{
 		Connection conn = null;
 		boolean connOk = false;
+		IConnectionPool m_ds = null;
 		try
 		{
-			final ComboPooledDataSource m_ds = getDataSource(connection);
+			getDataSource(connection);
+			m_ds = getDataSourceOrNull();
 			if (m_ds == null)
 			{
 				throw new DBNoConnectionException("Data source could not be retrieved for " + connection);
 			}
 
+			final long acquireStartNanos = System.nanoTime();
 			conn = m_ds.getConnection();
+			connectionAcquireStatistics.recordAcquired(System.nanoTime() - acquireStartNanos);
+
 			conn.setAutoCommit(autoCommit);
 			conn.setTransactionIsolation(transactionIsolation);
 
@@ -481,9 +497,9 @@ public class DB_PostgreSQL implements AdempiereDatabase
 		}
 		catch (final SQLException sqlException)
 		{
-			final Throwable cause = sqlException.getCause();
-			if (cause instanceof com.mchange.v2.resourcepool.TimeoutException)
+			if (m_ds != null && m_ds.isAcquireTimeout(sqlException))
 			{
+				connectionAcquireStatistics.recordTimeout();
 				throw new DBConnectionAcquireTimeoutException(sqlException);
 			}
 
@@ -505,7 +521,7 @@ public class DB_PostgreSQL implements AdempiereDatabase
 	 *
 	 * @return current data source our null
 	 */
-	private final ComboPooledDataSource getDataSourceOrNull()
+	private final IConnectionPool getDataSourceOrNull()
 	{
 		if (!_dataSourceInitialized)
 		{
@@ -524,7 +540,7 @@ public class DB_PostgreSQL implements AdempiereDatabase
 	 * @return data source or null if database could not be initialized
 	 */
 	@Override
-	public ComboPooledDataSource getDataSource(final CConnection connection)
+	public DataSource getDataSource(final CConnection connection)
 	{
 		if (!_dataSourceInitialized)
 		{
@@ -532,11 +548,12 @@ public class DB_PostgreSQL implements AdempiereDatabase
 			{
 				if (!_dataSourceInitialized)
 				{
-					_dataSource = createDataSource(connection);
+					_dataSource = createConnectionPool(connection);
 					if (_dataSource != null)
 					{
 						m_maxbusyconnectionsThreshold = (int)(_dataSource.getMaxPoolSize() * 0.80);
 						_dataSourceInitialized = true;
+						JMXRegistry.get().registerJMX(new JMXConnectionPool(_dataSource, connectionAcquireStatistics), OnJMXAlreadyExistsPolicy.Replace);
 					}
 					else
 					{
@@ -546,79 +563,35 @@ public class DB_PostgreSQL implements AdempiereDatabase
 				}
 			}
 		}
-		return _dataSource;
+		return _dataSource != null ? _dataSource.getDataSource() : null;
 	}
 
 	/**
-	 * Creates {@link DataSource} based on {@link CConnection} properties.
-	 *
-	 * NOTE: this method never throws exception but just logs it.
+	 * Creates the connection pool based on {@link CConnection} properties.
+	 * The pool implementation is selected by the system property {@value IConnectionPool#SYSTEM_PROPERTY_Implementation}.
 	 *
 	 * @param connection
-	 * @return {@link DataSource} or <code>null</code> if it cannot be created
+	 * @return connection pool; never <code>null</code>
 	 */
-	private ComboPooledDataSource createDataSource(final CConnection connection)
+	private IConnectionPool createConnectionPool(final CConnection connection)
 	{
-		try
-		{
-			System.setProperty("com.mchange.v2.log.MLog", com.mchange.v2.log.slf4j.Slf4jMLog.class.getName());
-			// System.setProperty("com.mchange.v2.log.FallbackMLog.DEFAULT_CUTOFF_LEVEL", "ALL");
-			final ComboPooledDataSource cpds = new ComboPooledDataSource();
-			cpds.setDataSourceName("AdempiereDS");
-			cpds.setDriverClass(DRIVER);
-			// loads the jdbc driver
-			cpds.setJdbcUrl(getConnectionURL(connection));
-			cpds.setUser(connection.getDbUid());
-			cpds.setPassword(connection.getDbPwd());
-			cpds.setPreferredTestQuery(DEFAULT_CONN_TEST_SQL);
-			cpds.setIdleConnectionTestPeriod(1200);
-			// cpds.setTestConnectionOnCheckin(true);
-			// cpds.setTestConnectionOnCheckout(true);
-			cpds.setAcquireRetryAttempts(2);
-
-			if (Ini.isSwingClient())
-			{
-				// Set checkout timeout to avoid forever locking when trying to connect to a not existing host.
-				cpds.setCheckoutTimeout(SystemUtils.getSystemProperty(CONFIG_CheckoutTimeout_SwingClient, 20 * 1000));
-
-				cpds.setInitialPoolSize(1);
-				cpds.setMinPoolSize(1);
-				cpds.setMaxPoolSize(20);
-				cpds.setMaxIdleTimeExcessConnections(1200);
-				cpds.setMaxIdleTime(900);
-				m_maxbusyconnectionsThreshold = 15;
-			}
-			else
-			{
-				// these are set in c3p0.properties files
-				// cpds.setInitialPoolSize(10);
-				// cpds.setMinPoolSize(5);
-				// cpds.setMaxPoolSize(150);
-				cpds.setMaxIdleTimeExcessConnections(1200);
-				cpds.setMaxIdleTime(1200);
-				m_maxbusyconnectionsThreshold = 120;
-			}
-
-			//
-			// Timeout unreturned connections
-			// i.e. kill them and get them back to the pool.
-			final int unreturnedConnectionTimeoutMillis = SystemUtils.getSystemProperty(CONFIG_UnreturnedConnectionTimeoutMillis, CONFIG_UnreturnedConnectionTimeoutMillis_DefaultValue);
-			if (unreturnedConnectionTimeoutMillis > 0)
-			{
-				cpds.setUnreturnedConnectionTimeout(unreturnedConnectionTimeoutMillis);
-				cpds.setDebugUnreturnedConnectionStackTraces(true);
-			}
-
-			// 04006: add a customizer to set the log level for message that are send to the client
-			// background: if there are too many messages sent (e.g. from a verbose and long-running DB function)
-			// then the whole JVM might suffer an OutOfMemoryError
-			cpds.setConnectionCustomizerClassName(DB_PostgreSQL_ConnectionCustomizer.class.getName());
+		final String jdbcUrl = getConnectionURL(connection);
+		final int unreturnedConnectionTimeoutMillis = SystemUtils.getSystemProperty(CONFIG_UnreturnedConnectionTimeoutMillis, CONFIG_UnreturnedConnectionTimeoutMillis_DefaultValue);
 
-			return cpds;
+		final String implementation = System.getProperty(IConnectionPool.SYSTEM_PROPERTY_Implementation, IConnectionPool.IMPLEMENTATION_C3P0);
+		if (IConnectionPool.IMPLEMENTATION_Hikari.equalsIgnoreCase(implementation))
+		{
+			log.info("Using the {} connection pool", IConnectionPool.IMPLEMENTATION_Hikari);
+			return new HikariConnectionPool(jdbcUrl, connection.getDbUid(), connection.getDbPwd(), unreturnedConnectionTimeoutMillis);
 		}
-		catch (Exception ex)
+		else if (IConnectionPool.IMPLEMENTATION_C3P0.equalsIgnoreCase(implementation))
+		{
+			return new C3P0ConnectionPool(jdbcUrl, connection.getDbUid(), connection.getDbPwd(), unreturnedConnectionTimeoutMillis);
+		}
+		else
 		{
-			throw new DBNoConnectionException("Could not initialise C3P0 Datasource", ex);
+			throw new DBNoConnectionException("Unknown connection pool implementation '" + implementation + "'; "
+					+ "the system property " + IConnectionPool.SYSTEM_PROPERTY_Implementation + " shall be one of " + IConnectionPool.IMPLEMENTATION_C3P0 + ", " + IConnectionPool.IMPLEMENTATION_Hikari);
 		}
 	}
 
@@ -25,6 +25,7 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Types;
+import java.util.List;
 import java.util.Properties;
 
 import org.adempiere.ad.migration.logger.IMigrationLogger;
@@ -34,12 +35,17 @@ import org.adempiere.exceptions.AdempiereException;
 import org.adempiere.exceptions.DBException;
 import org.adempiere.service.ISysConfigBL;
 import org.adempiere.util.LegacyAdapters;
+import org.adempiere.util.lang.IMutable;
+import org.adempiere.util.lang.Mutable;
 import org.compiere.Adempiere.RunMode;
 import org.compiere.util.DB;
 import org.compiere.util.Ini;
 import org.slf4j.Logger;
 
+import com.google.common.collect.ImmutableList;
+
 import de.metas.document.sequence.IDocumentNoBuilder;
+import de.metas.document.sequence.ISequenceBlockAllocator;
 import de.metas.logging.LogManager;
 import de.metas.util.Check;
 import de.metas.util.Services;
@@ -94,6 +100,20 @@ public class MSequence extends X_AD_Sequence
 
 		s_log.trace("{} - AdempiereSys={} [{}]", TableName, adempiereSys, trxName);
 
+		// If configured for this table, take the ID from a block of IDs which was reserved in advance
+		if (!adempiereSys && !isQueryCentralizedIDServer(TableName, AD_Client_ID) && !isQueryProjectIDServer(TableName, AD_Client_ID))
+		{
+			final ISequenceBlockAllocator sequenceBlockAllocator = Services.get(ISequenceBlockAllocator.class);
+			final int blockSize = sequenceBlockAllocator.getBlockSize(TableName, false);
+			if (blockSize > 1)
+			{
+				return sequenceBlockAllocator.nextNo(
+						ISequenceBlockAllocator.BlockKey.ofTableName(TableName),
+						blockSize,
+						count -> reserveTableIDs(TableName, count));
+			}
+		}
+
 		final String selectSQL = "SELECT CurrentNext, CurrentNextSys, IncrementNo, AD_Sequence_ID "
 				+ "FROM AD_Sequence "
 				+ "WHERE Name=?"
@@ -246,6 +266,64 @@ public class MSequence extends X_AD_Sequence
 		}
 	}	// getNextID
 
+	/**
+	 * Gets the given number of next IDs, reserving them from {@code AD_Sequence} with one single update where possible.
+	 *
+	 * @return list of {@code count} IDs
+	 */
+	public static List<Integer> getNextIDs(final int AD_Client_ID, final String TableName, final int count)
+	{
+		Check.assumeNotEmpty(TableName, "The given parameter tableName is not empty");
+		if (count <= 0)
+		{
+			return ImmutableList.of();
+		}
+
+		final ImmutableList.Builder<Integer> ids = ImmutableList.builder();
+		if (count == 1
+				|| isAdempiereSys(AD_Client_ID)
+				|| isQueryCentralizedIDServer(TableName, AD_Client_ID)
+				|| isQueryProjectIDServer(TableName, AD_Client_ID))
+		{
+			for (int i = 0; i < count; i++)
+			{
+				ids.add(getNextID(AD_Client_ID, TableName, ITrx.TRXNAME_None));
+			}
+			return ids.build();
+		}
+
+		final ISequenceBlockAllocator.ReservedBlock block = reserveTableIDs(TableName, count);
+		for (int i = 0; i < count; i++)
+		{
+			ids.add(block.getFirstNo() + i * block.getIncrementNo());
+		}
+		return ids.build();
+	}
+
+	/**
+	 * Increments the given table's ID sequence by {@code count} IDs, out of trx.
+	 */
+	private static ISequenceBlockAllocator.ReservedBlock reserveTableIDs(final String tableName, final int count)
+	{
+		final String sql = "UPDATE AD_Sequence SET CurrentNext = CurrentNext + IncrementNo * ?"
+				+ " WHERE Name=?"
+				+ " AND IsActive='Y' AND IsTableID='Y' AND IsAutoSequence='Y'"
+				+ " RETURNING CurrentNext - IncrementNo * ?, IncrementNo";
+
+		final IMutable<ISequenceBlockAllocator.ReservedBlock> reservedBlock = new Mutable<>();
+		DB.executeUpdateEx(sql,
+				new Object[] { count, tableName, count },
+				ITrx.TRXNAME_None,
+				QUERY_TIME_OUT,
+				rs -> reservedBlock.setValue(ISequenceBlockAllocator.ReservedBlock.of(rs.getInt(1), rs.getInt(2))));
+
+		if (reservedBlock.getValue() == null)
+		{
+			throw new AdempiereException("No AD_Sequence found for " + tableName);
+		}
+		return reservedBlock.getValue();
+	}
+
 	/**
 	 * Get Next ID
 	 *
@@ -134,13 +134,13 @@ class CacheInterceptor implements Serializable
 			});
 
 	private static final CacheBuilder<Object, Object> _cacheStorageBuilder = CacheBuilder.newBuilder();
-	private final Cache<String, CCache<ArrayKey, Object>> _cacheStorage = _cacheStorageBuilder.build();
+	private final Cache<String, CCache<Object, Object>> _cacheStorage = _cacheStorageBuilder.build();
 
 	private static final String TRX_PROPERTY_CacheStorage = CacheInterceptor.class.getName() + ".CacheStorage";
-	private static final Supplier<Cache<String, CCache<ArrayKey, Object>>> TRX_PROPERTY_CacheStorageInitializer = new Supplier<Cache<String, CCache<ArrayKey, Object>>>()
+	private static final Supplier<Cache<String, CCache<Object, Object>>> TRX_PROPERTY_CacheStorageInitializer = new Supplier<Cache<String, CCache<Object, Object>>>()
 	{
 		@Override
-		public Cache<String, CCache<ArrayKey, Object>> get()
+		public Cache<String, CCache<Object, Object>> get()
 		{
 			return _cacheStorageBuilder.build();
 		}
@@ -196,6 +196,19 @@ class CacheInterceptor implements Serializable
 			return result;
 		}
 
+		//
+		// Fast path: the key consists only of a few plain parameters and there is no trxName,
+		// so we can go directly for our local cache storage, without collecting the key parts first
+		if (methodDescriptor.isFastPath())
+		{
+			final Object cacheKey = methodDescriptor.createFastPathKey(invCtx.getParameters());
+			final CCache<Object, Object> methodCache = methodDescriptor.getMethodCache(_cacheStorage, false);
+			final Object cacheResult = methodCache.get(cacheKey, invCtx);
+
+			// Unbox the NullResult and return the cached value
+			return cacheResult == IInvocationContext.NullResult ? null : cacheResult;
+		}
+
 		//
 		// Build cache key
 		final CacheKeyBuilder cacheKeyBuilder = methodDescriptor.createKeyBuilder(invCtx.getTarget(), invCtx.getParameters());
@@ -209,7 +222,7 @@ class CacheInterceptor implements Serializable
 		//
 		// Get the Cache Storage.
 		// In case the cache storage could not be retrieved, we are invoking the cached method directly (by-pass the cache).
-		final Cache<String, CCache<ArrayKey, Object>> cacheStorage = getCacheStorage(cacheKeyBuilder.getTrxName());
+		final Cache<String, CCache<Object, Object>> cacheStorage = getCacheStorage(cacheKeyBuilder.getTrxName());
 		if (cacheStorage == null)
 		{
 			final CacheGetException ex = new CacheGetException("Could not get the cache storage, maybe because transaction was not found"
@@ -228,7 +241,7 @@ class CacheInterceptor implements Serializable
 		//
 		// Get the method level cache container (Method's parameters key -> cached value) 
 		final ArrayKey cacheKey = cacheKeyBuilder.buildKey();
-		final CCache<ArrayKey, Object> methodCache = cacheStorage.get(methodDescriptor.getCacheName(), methodDescriptor.createCCacheCallable());
+		final CCache<Object, Object> methodCache = methodDescriptor.getMethodCache(cacheStorage, cacheStorage != _cacheStorage);
 
 		//
 		// Get method's cached value / update method's cached value
@@ -251,7 +264,7 @@ class CacheInterceptor implements Serializable
 	 * @param trxName
 	 * @return cache storage or null if not found
 	 */
-	private final Cache<String, CCache<ArrayKey, Object>> getCacheStorage(final String trxName)
+	private final Cache<String, CCache<Object, Object>> getCacheStorage(final String trxName)
 	{
 		//
 		// If we have a transaction, we shall use transaction's cache
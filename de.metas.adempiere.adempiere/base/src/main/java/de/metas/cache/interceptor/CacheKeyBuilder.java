@@ -39,11 +39,24 @@ import org.compiere.util.Util.ArrayKey;
  */
 final class CacheKeyBuilder
 {
-	private final List<Object> keyParts = new ArrayList<>();
+	private final List<Object> keyParts;
 	private String trxName;
 	private boolean skipCaching;
 	private boolean cacheReload = false;
 
+	public CacheKeyBuilder()
+	{
+		keyParts = new ArrayList<>();
+	}
+
+	/**
+	 * @param expectedKeyPartsCount how many key parts are expected; used to avoid growing the internal list
+	 */
+	public CacheKeyBuilder(final int expectedKeyPartsCount)
+	{
+		keyParts = new ArrayList<>(expectedKeyPartsCount);
+	}
+
 	@Override
 	public String toString()
 	{
@@ -29,13 +29,14 @@ import java.lang.reflect.Modifier;
 import java.util.Arrays;
 import java.util.List;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
 
 import org.adempiere.util.lang.EqualsBuilder;
 import org.adempiere.util.lang.HashcodeBuilder;
 import org.adempiere.util.lang.ObjectUtils;
 import org.adempiere.util.proxy.Cached;
-import org.compiere.util.Util.ArrayKey;
 
+import com.google.common.cache.Cache;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableList.Builder;
 
@@ -59,11 +60,18 @@ import de.metas.util.Check;
 	private final boolean staticMethod;
 	private final String cacheName;
 	private final List<ICachedMethodPartDescriptor> descriptors;
-	
-	private final Callable<CCache<ArrayKey, Object>> createCCacheCallable = new Callable<CCache<ArrayKey,Object>>()
+
+	/** Identifies the method in cache keys. Same instance for all keys, so comparing it is cheap. */
+	private final String methodKeyPart;
+	/** Indexes of the parameters which make up the whole cache key, or <code>null</code> if {@link #isFastPath()} is not applicable */
+	private final int[] fastPathParameterIndexes;
+	/** Method level cache, as resolved from the last cache storage which was not transaction scoped */
+	private volatile ResolvedMethodCache resolvedMethodCache;
+
+	private final Callable<CCache<Object, Object>> createCCacheCallable = new Callable<CCache<Object, Object>>()
 	{
 		@Override
-		public CCache<ArrayKey, Object> call() throws Exception
+		public CCache<Object, Object> call() throws Exception
 		{
 			return createCCache();
 		}
@@ -165,6 +173,33 @@ import de.metas.util.Check;
 		}
 
 		descriptors = descriptorsBuilder.build();
+
+		// NOTE: avoid adding Class/Field/Method etc to key => would lead to ClassLoader(s) memory leaks/fucked-up
+		methodKeyPart = method.getDeclaringClass().getName() + "#" + method.getName() + "#" + method.getReturnType().getName();
+		fastPathParameterIndexes = extractFastPathParameterIndexes(descriptors);
+	}
+
+	/**
+	 * @return the indexes of the parameters, if the cache key consists only of a few plain method parameters; <code>null</code> otherwise
+	 */
+	private static int[] extractFastPathParameterIndexes(final List<ICachedMethodPartDescriptor> descriptors)
+	{
+		if (descriptors.size() > MethodParamsCacheKey.MAX_PARAMS)
+		{
+			return null;
+		}
+
+		final int[] parameterIndexes = new int[descriptors.size()];
+		for (int i = 0; i < parameterIndexes.length; i++)
+		{
+			final ICachedMethodPartDescriptor descriptor = descriptors.get(i);
+			if (!(descriptor instanceof GenericParamDescriptor) || !((GenericParamDescriptor)descriptor).isPlain())
+			{
+				return null;
+			}
+			parameterIndexes[i] = ((GenericParamDescriptor)descriptor).getParameterIndex();
+		}
+		return parameterIndexes;
 	}
 
 	private static final String mkCacheName(final Cached annotation)
@@ -255,14 +290,11 @@ import de.metas.util.Check;
 		final Class<?> methodDeclaringClass = method.getDeclaringClass();
 		final Object targetObjToUse = staticMethod ? methodDeclaringClass : targetObject;
 
-		final CacheKeyBuilder keyBuilder = new CacheKeyBuilder();
+		final CacheKeyBuilder keyBuilder = new CacheKeyBuilder(1 + descriptors.size());
 
 		//
 		// Key: Method signature
-		// NOTE: avoid adding Class/Field/Method etc to key => would lead to ClassLoader(s) memory leaks/fucked-up
-		keyBuilder.add(methodDeclaringClass.getName());
-		keyBuilder.add(method.getName());
-		keyBuilder.add(method.getReturnType().getName());
+		keyBuilder.add(methodKeyPart);
 
 		for (final ICachedMethodPartDescriptor descriptor : descriptors)
 		{
@@ -276,13 +308,68 @@ import de.metas.util.Check;
 		return keyBuilder;
 	}
 	
+	/**
+	 * @return true if the cache key can be built by {@link #createFastPathKey(Object[])}, i.e. the key consists only of up to {@value MethodParamsCacheKey#MAX_PARAMS} plain method parameters.
+	 *         Such a method never skips caching, never asks for cache reload and has no trxName, so the caller can go directly for the non-transactional cache storage.
+	 */
+	public boolean isFastPath()
+	{
+		return fastPathParameterIndexes != null;
+	}
+
+	/**
+	 * @return cache key equivalent to what {@link #createKeyBuilder(Object, Object[])} would build, but cheaper
+	 * @see #isFastPath()
+	 */
+	public Object createFastPathKey(final Object[] methodArgs)
+	{
+		return MethodParamsCacheKey.of(methodKeyPart, methodArgs, fastPathParameterIndexes);
+	}
+
+	/**
+	 * Gets the method level cache from given cache storage.
+	 * <p>
+	 * The cache which was resolved from the non-transactional cache storage is remembered, so the next invocations don't have to look it up by cache name.
+	 *
+	 * @param cacheStorageIsTransactional if true, then the resolved cache is not remembered, because the cache storage lives only as long as the transaction
+	 */
+	public CCache<Object, Object> getMethodCache(final Cache<String, CCache<Object, Object>> cacheStorage, final boolean cacheStorageIsTransactional) throws ExecutionException
+	{
+		if (cacheStorageIsTransactional)
+		{
+			return cacheStorage.get(cacheName, createCCacheCallable);
+		}
+
+		final ResolvedMethodCache resolvedMethodCache = this.resolvedMethodCache;
+		if (resolvedMethodCache != null && resolvedMethodCache.cacheStorage == cacheStorage)
+		{
+			return resolvedMethodCache.methodCache;
+		}
+
+		final CCache<Object, Object> methodCache = cacheStorage.get(cacheName, createCCacheCallable);
+		this.resolvedMethodCache = new ResolvedMethodCache(cacheStorage, methodCache);
+		return methodCache;
+	}
+
+	private static final class ResolvedMethodCache
+	{
+		private final Cache<String, CCache<Object, Object>> cacheStorage;
+		private final CCache<Object, Object> methodCache;
+
+		private ResolvedMethodCache(final Cache<String, CCache<Object, Object>> cacheStorage, final CCache<Object, Object> methodCache)
+		{
+			this.cacheStorage = cacheStorage;
+			this.methodCache = methodCache;
+		}
+	}
+
 	/**
 	 * Creates a new {@link CCache} based on given {@link CachedMethodDescriptor}.
 	 * 
 	 * @param methodDescriptor
 	 * @return {@link CCache}; never returns null
 	 */
-	private final CCache<ArrayKey, Object> createCCache()
+	private final CCache<Object, Object> createCCache()
 	{
 		final String cacheName = getCacheName();
 
@@ -302,15 +389,7 @@ import de.metas.util.Check;
 			expireMinutes = DEFAULT_CacheExpireMinutes;
 		}
 
-		final CCache<ArrayKey, Object> cache = new CCache<>(cacheName, initialCapacity, expireMinutes);
+		final CCache<Object, Object> cache = new CCache<>(cacheName, initialCapacity, expireMinutes);
 		return cache;
 	}
-
-	/**
-	 * Callable used to create method level cache container.
-	 */
-	public Callable<CCache<ArrayKey, Object>> createCCacheCallable()
-	{
-		return createCCacheCallable;
-	}
 }
@@ -158,6 +158,19 @@ final class GenericParamDescriptor implements ICachedMethodPartDescriptor
 		return ObjectUtils.toString(this);
 	}
 
+	/**
+	 * @return true if the parameter is added to the cache key as it is (i.e. no conversion and no skip caching rule)
+	 */
+	public boolean isPlain()
+	{
+		return argumentConverter == null && skipCachingPredicate == null;
+	}
+
+	public int getParameterIndex()
+	{
+		return parameterIndex;
+	}
+
 	@Override
 	public void extractKeyParts(final CacheKeyBuilder keyBuilder, final Object targetObject, final Object[] params)
 	{
@@ -0,0 +1,194 @@
+package de.metas.cache.interceptor;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2019 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+import java.util.Objects;
+
+/**
+ * Small cache keys for cached methods whose key consists only of up to 3 plain method parameters (e.g. an ID or two).
+ * Compared to a {@link org.compiere.util.Util.ArrayKey} built via {@link CacheKeyBuilder}, creating such a key needs just one small allocation.
+ *
+ * @see CachedMethodDescriptor#isFastPath()
+ */
+/* package */final class MethodParamsCacheKey
+{
+	public static final int MAX_PARAMS = 3;
+
+	/**
+	 * @param methodKeyPart identifies the method; shall be the same instance on each invocation
+	 * @param params method invocation parameters
+	 * @param parameterIndexes the indexes of the parameters which make up the key; at most {@link #MAX_PARAMS}
+	 */
+	public static Object of(final String methodKeyPart, final Object[] params, final int[] parameterIndexes)
+	{
+		switch (parameterIndexes.length)
+		{
+			case 0:
+				return methodKeyPart;
+			case 1:
+				return new Key1(methodKeyPart, params[parameterIndexes[0]]);
+			case 2:
+				return new Key2(methodKeyPart, params[parameterIndexes[0]], params[parameterIndexes[1]]);
+			case 3:
+				return new Key3(methodKeyPart, params[parameterIndexes[0]], params[parameterIndexes[1]], params[parameterIndexes[2]]);
+			default:
+				throw new IllegalArgumentException("At most " + MAX_PARAMS + " parameters are supported: " + methodKeyPart);
+		}
+	}
+
+	private MethodParamsCacheKey()
+	{
+	}
+
+	private static final class Key1
+	{
+		private final String methodKeyPart;
+		private final Object param1;
+
+		private Key1(final String methodKeyPart, final Object param1)
+		{
+			this.methodKeyPart = methodKeyPart;
+			this.param1 = param1;
+		}
+
+		@Override
+		public int hashCode()
+		{
+			return 31 * methodKeyPart.hashCode() + Objects.hashCode(param1);
+		}
+
+		@Override
+		public boolean equals(final Object obj)
+		{
+			if (this == obj)
+			{
+				return true;
+			}
+			if (!(obj instanceof Key1))
+			{
+				return false;
+			}
+
+			final Key1 other = (Key1)obj;
+			return methodKeyPart.equals(other.methodKeyPart)
+					&& Objects.equals(param1, other.param1);
+		}
+
+		@Override
+		public String toString()
+		{
+			return methodKeyPart + "#" + param1;
+		}
+	}
+
+	private static final class Key2
+	{
+		private final String methodKeyPart;
+		private final Object param1;
+		private final Object param2;
+
+		private Key2(final String methodKeyPart, final Object param1, final Object param2)
+		{
+			this.methodKeyPart = methodKeyPart;
+			this.param1 = param1;
+			this.param2 = param2;
+		}
+
+		@Override
+		public int hashCode()
+		{
+			return (31 * methodKeyPart.hashCode() + Objects.hashCode(param1)) * 31 + Objects.hashCode(param2);
+		}
+
+		@Override
+		public boolean equals(final Object obj)
+		{
+			if (this == obj)
+			{
+				return true;
+			}
+			if (!(obj instanceof Key2))
+			{
+				return false;
+			}
+
+			final Key2 other = (Key2)obj;
+			return methodKeyPart.equals(other.methodKeyPart)
+					&& Objects.equals(param1, other.param1)
+					&& Objects.equals(param2, other.param2);
+		}
+
+		@Override
+		public String toString()
+		{
+			return methodKeyPart + "#" + param1 + "#" + param2;
+		}
+	}
+
+	private static final class Key3
+	{
+		private final String methodKeyPart;
+		private final Object param1;
+		private final Object param2;
+		private final Object param3;
+
+		private Key3(final String methodKeyPart, final Object param1, final Object param2, final Object param3)
+		{
+			this.methodKeyPart = methodKeyPart;
+			this.param1 = param1;
+			this.param2 = param2;
+			this.param3 = param3;
+		}
+
+		@Override
+		public int hashCode()
+		{
+			return ((31 * methodKeyPart.hashCode() + Objects.hashCode(param1)) * 31 + Objects.hashCode(param2)) * 31 + Objects.hashCode(param3);
+		}
+
+		@Override
+		public boolean equals(final Object obj)
+		{
+			if (this == obj)
+			{
+				return true;
+			}
+			if (!(obj instanceof Key3))
+			{
+				return false;
+			}
+
+			final Key3 other = (Key3)obj;
+			return methodKeyPart.equals(other.methodKeyPart)
+					&& Objects.equals(param1, other.param1)
+					&& Objects.equals(param2, other.param2)
+					&& Objects.equals(param3, other.param3);
+		}
+
+		@Override
+		public String toString()
+		{
+			return methodKeyPart + "#" + param1 + "#" + param2 + "#" + param3;
+		}
+	}
+}
@@ -0,0 +1,71 @@
+package de.metas.connection;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+import javax.sql.DataSource;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2019 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * The database connection pool behind {@link org.compiere.db.DB_PostgreSQL}.
+ * <p>
+ * The implementation is selected using the system property {@value #SYSTEM_PROPERTY_Implementation}.
+ */
+public interface IConnectionPool
+{
+	String SYSTEM_PROPERTY_Implementation = "db.postgresql.connectionPool";
+
+	String IMPLEMENTATION_C3P0 = "c3p0";
+	String IMPLEMENTATION_Hikari = "hikari";
+
+	/** @return the pool's name, e.g. {@value #IMPLEMENTATION_C3P0} */
+	String getImplementationName();
+
+	DataSource getDataSource();
+
+	/**
+	 * Checks out a connection from the pool. The connection is returned to the pool by closing it.
+	 */
+	Connection getConnection() throws SQLException;
+
+	/**
+	 * @return true if the given exception was thrown by {@link #getConnection()} because no connection became available in time
+	 */
+	boolean isAcquireTimeout(SQLException ex);
+
+	int getMaxPoolSize();
+
+	/** @return number of connections, busy and idle ones */
+	int getNumConnections();
+
+	/** @return number of connections which are currently checked out */
+	int getNumBusyConnections();
+
+	int getNumIdleConnections();
+
+	/** @return number of threads which are waiting for a connection */
+	int getNumThreadsAwaitingConnection();
+
+	void close();
+}
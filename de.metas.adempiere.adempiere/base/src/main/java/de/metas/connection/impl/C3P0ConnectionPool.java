@@ -0,0 +1,211 @@
+package de.metas.connection.impl;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+import javax.sql.DataSource;
+
+import org.adempiere.exceptions.DBNoConnectionException;
+import org.compiere.db.AdempiereDatabase;
+import org.compiere.db.DB_PostgreSQL;
+import org.compiere.util.Ini;
+
+import com.mchange.v2.c3p0.ComboPooledDataSource;
+
+import de.metas.connection.IConnectionPool;
+import de.metas.util.SystemUtils;
+import lombok.NonNull;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2019 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * The c3p0 based connection pool, which is the default.
+ * <p>
+ * Note that on server side, the pool sizes are set in {@code c3p0.properties} files.
+ */
+public final class C3P0ConnectionPool implements IConnectionPool
+{
+	private static final String CONFIG_CheckoutTimeout_SwingClient = "org.compiere.db.DB_PostgreSQL.CheckoutTimeout";
+
+	private final ComboPooledDataSource dataSource;
+
+	public C3P0ConnectionPool(
+			@NonNull final String jdbcUrl,
+			@NonNull final String user,
+			@NonNull final String password,
+			final int unreturnedConnectionTimeoutMillis)
+	{
+		try
+		{
+			System.setProperty("com.mchange.v2.log.MLog", com.mchange.v2.log.slf4j.Slf4jMLog.class.getName());
+			// System.setProperty("com.mchange.v2.log.FallbackMLog.DEFAULT_CUTOFF_LEVEL", "ALL");
+			final ComboPooledDataSource cpds = new ComboPooledDataSource();
+			cpds.setDataSourceName("AdempiereDS");
+			cpds.setDriverClass(DB_PostgreSQL.DRIVER);
+			// loads the jdbc driver
+			cpds.setJdbcUrl(jdbcUrl);
+			cpds.setUser(user);
+			cpds.setPassword(password);
+			cpds.setPreferredTestQuery(AdempiereDatabase.DEFAULT_CONN_TEST_SQL);
+			cpds.setIdleConnectionTestPeriod(1200);
+			// cpds.setTestConnectionOnCheckin(true);
+			// cpds.setTestConnectionOnCheckout(true);
+			cpds.setAcquireRetryAttempts(2);
+
+			if (Ini.isSwingClient())
+			{
+				// Set checkout timeout to avoid forever locking when trying to connect to a not existing host.
+				cpds.setCheckoutTimeout(SystemUtils.getSystemProperty(CONFIG_CheckoutTimeout_SwingClient, 20 * 1000));
+
+				cpds.setInitialPoolSize(1);
+				cpds.setMinPoolSize(1);
+				cpds.setMaxPoolSize(20);
+				cpds.setMaxIdleTimeExcessConnections(1200);
+				cpds.setMaxIdleTime(900);
+			}
+			else
+			{
+				// these are set in c3p0.properties files
+				// cpds.setInitialPoolSize(10);
+				// cpds.setMinPoolSize(5);
+				// cpds.setMaxPoolSize(150);
+				cpds.setMaxIdleTimeExcessConnections(1200);
+				cpds.setMaxIdleTime(1200);
+			}
+
+			//
+			// Timeout unreturned connections
+			// i.e. kill them and get them back to the pool.
+			if (unreturnedConnectionTimeoutMillis > 0)
+			{
+				cpds.setUnreturnedConnectionTimeout(unreturnedConnectionTimeoutMillis);
+				cpds.setDebugUnreturnedConnectionStackTraces(true);
+			}
+
+			// 04006: add a customizer to set the log level for message that are send to the client
+			// background: if there are too many messages sent (e.g. from a verbose and long-running DB function)
+			// then the whole JVM might suffer an OutOfMemoryError
+			cpds.setConnectionCustomizerClassName(DB_PostgreSQL_ConnectionCustomizer.class.getName());
+
+			this.dataSource = cpds;
+		}
+		catch (final Exception ex)
+		{
+			throw new DBNoConnectionException("Could not initialise C3P0 Datasource", ex);
+		}
+	}
+
+	@Override
+	public String toString()
+	{
+		return dataSource.toString();
+	}
+
+	@Override
+	public String getImplementationName()
+	{
+		return IMPLEMENTATION_C3P0;
+	}
+
+	@Override
+	public DataSource getDataSource()
+	{
+		return dataSource;
+	}
+
+	@Override
+	public Connection getConnection() throws SQLException
+	{
+		return dataSource.getConnection();
+	}
+
+	@Override
+	public boolean isAcquireTimeout(@NonNull final SQLException ex)
+	{
+		return ex.getCause() instanceof com.mchange.v2.resourcepool.TimeoutException;
+	}
+
+	@Override
+	public int getMaxPoolSize()
+	{
+		return dataSource.getMaxPoolSize();
+	}
+
+	@Override
+	public int getNumConnections()
+	{
+		try
+		{
+			return dataSource.getNumConnectionsDefaultUser();
+		}
+		catch (final SQLException e)
+		{
+			return -1;
+		}
+	}
+
+	@Override
+	public int getNumBusyConnections()
+	{
+		try
+		{
+			return dataSource.getNumBusyConnectionsDefaultUser();
+		}
+		catch (final SQLException e)
+		{
+			return -1;
+		}
+	}
+
+	@Override
+	public int getNumIdleConnections()
+	{
+		try
+		{
+			return dataSource.getNumIdleConnectionsDefaultUser();
+		}
+		catch (final SQLException e)
+		{
+			return -1;
+		}
+	}
+
+	@Override
+	public int getNumThreadsAwaitingConnection()
+	{
+		try
+		{
+			return dataSource.getNumThreadsAwaitingCheckoutDefaultUser();
+		}
+		catch (final SQLException e)
+		{
+			return -1;
+		}
+	}
+
+	@Override
+	public void close()
+	{
+		dataSource.close();
+	}
+}
@@ -0,0 +1,127 @@
+package de.metas.connection.impl;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2019 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Collects how long it took to check out connections from the pool, as a simple histogram with fixed buckets.
+ */
+public final class ConnectionAcquireStatistics
+{
+	private static final long[] BUCKET_UPPER_BOUNDS_MILLIS = { 1, 5, 10, 50, 100, 500, 1000, 5000 };
+
+	private final AtomicLongArray bucketCounts = new AtomicLongArray(BUCKET_UPPER_BOUNDS_MILLIS.length + 1);
+	private final LongAdder countAcquired = new LongAdder();
+	private final LongAdder countTimeouts = new LongAdder();
+	private final LongAdder totalAcquireNanos = new LongAdder();
+	private final AtomicLong maxAcquireNanos = new AtomicLong();
+
+	public void recordAcquired(final long acquireNanos)
+	{
+		countAcquired.increment();
+		totalAcquireNanos.add(acquireNanos);
+		maxAcquireNanos.accumulateAndGet(acquireNanos, Math::max);
+		bucketCounts.incrementAndGet(getBucketIndex(TimeUnit.NANOSECONDS.toMillis(acquireNanos)));
+	}
+
+	public void recordTimeout()
+	{
+		countTimeouts.increment();
+	}
+
+	private static int getBucketIndex(final long acquireMillis)
+	{
+		for (int i = 0; i < BUCKET_UPPER_BOUNDS_MILLIS.length; i++)
+		{
+			if (acquireMillis <= BUCKET_UPPER_BOUNDS_MILLIS[i])
+			{
+				return i;
+			}
+		}
+		return BUCKET_UPPER_BOUNDS_MILLIS.length;
+	}
+
+	public long getCountAcquired()
+	{
+		return countAcquired.sum();
+	}
+
+	public long getCountTimeouts()
+	{
+		return countTimeouts.sum();
+	}
+
+	public double getAverageAcquireMillis()
+	{
+		final long count = countAcquired.sum();
+		return count > 0 ? totalAcquireNanos.sum() / 1_000_000d / count : 0;
+	}
+
+	public double getMaxAcquireMillis()
+	{
+		return maxAcquireNanos.get() / 1_000_000d;
+	}
+
+	/**
+	 * @return the histogram's buckets, e.g. {@code "<=5ms"}; the last one is for everything that took longer than the biggest upper bound
+	 */
+	public String[] getHistogramBucketNames()
+	{
+		final String[] names = new String[BUCKET_UPPER_BOUNDS_MILLIS.length + 1];
+		for (int i = 0; i < BUCKET_UPPER_BOUNDS_MILLIS.length; i++)
+		{
+			names[i] = "<=" + BUCKET_UPPER_BOUNDS_MILLIS[i] + "ms";
+		}
+		names[BUCKET_UPPER_BOUNDS_MILLIS.length] = ">" + BUCKET_UPPER_BOUNDS_MILLIS[BUCKET_UPPER_BOUNDS_MILLIS.length - 1] + "ms";
+		return names;
+	}
+
+	/**
+	 * @return number of checkouts per bucket; same order as {@link #getHistogramBucketNames()}
+	 */
+	public long[] getHistogramCounts()
+	{
+		final long[] counts = new long[bucketCounts.length()];
+		for (int i = 0; i < counts.length; i++)
+		{
+			counts[i] = bucketCounts.get(i);
+		}
+		return counts;
+	}
+
+	public void reset()
+	{
+		for (int i = 0; i < bucketCounts.length(); i++)
+		{
+			bucketCounts.set(i, 0);
+		}
+		countAcquired.reset();
+		countTimeouts.reset();
+		totalAcquireNanos.reset();
+		maxAcquireNanos.set(0);
+	}
+}
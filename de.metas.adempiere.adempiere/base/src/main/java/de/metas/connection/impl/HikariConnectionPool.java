@@ -0,0 +1,260 @@
+package de.metas.connection.impl;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.TimeUnit;
+
+import javax.sql.DataSource;
+
+import org.adempiere.exceptions.DBNoConnectionException;
+import org.compiere.db.DB_PostgreSQL;
+import org.compiere.util.DB;
+import org.compiere.util.Ini;
+import org.slf4j.Logger;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+
+import de.metas.connection.IConnectionCustomizerService;
+import de.metas.connection.IConnectionPool;
+import de.metas.logging.LogManager;
+import de.metas.util.Services;
+import de.metas.util.SystemUtils;
+import lombok.NonNull;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2019 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * HikariCP based connection pool. Enable it by setting the system property {@value IConnectionPool#SYSTEM_PROPERTY_Implementation} to {@value IConnectionPool#IMPLEMENTATION_Hikari}.
+ * <p>
+ * Pool settings can be provided in a properties file which is referenced by the system property {@value #SYSTEM_PROPERTY_ConfigurationFile}.
+ * The pool sizes and timeouts can also be set using the system properties {@value #CONFIG_MaximumPoolSize}, {@value #CONFIG_MinimumIdle},
+ * {@value #CONFIG_ConnectionTimeoutMillis} and {@value #CONFIG_IdleTimeoutMillis}; those which are set win over the file.
+ * If there is no such file, then the settings which are not given as system properties default to the same values as the c3p0 pool's.
+ * <p>
+ * Hikari's own pool MBean is registered as well (see {@link HikariConfig#setRegisterMbeans(boolean)}).
+ */
+public final class HikariConnectionPool implements IConnectionPool
+{
+	private static final String CONFIG_MaximumPoolSize = "db.postgresql.hikari.maximumPoolSize";
+	private static final String CONFIG_MinimumIdle = "db.postgresql.hikari.minimumIdle";
+	private static final String CONFIG_ConnectionTimeoutMillis = "db.postgresql.hikari.connectionTimeoutMillis";
+	private static final String CONFIG_IdleTimeoutMillis = "db.postgresql.hikari.idleTimeoutMillis";
+	private static final String SYSTEM_PROPERTY_ConfigurationFile = "hikaricp.configurationFile";
+
+	private static final Logger logger = LogManager.getLogger(HikariConnectionPool.class);
+
+	private static final String CLIENTINFO_ApplicationName = "ApplicationName";
+
+	private final HikariDataSource dataSource;
+
+	public HikariConnectionPool(
+			@NonNull final String jdbcUrl,
+			@NonNull final String user,
+			@NonNull final String password,
+			final int unreturnedConnectionTimeoutMillis)
+	{
+		try
+		{
+			// also loads the file given by the "hikaricp.configurationFile" system property, if any
+			final HikariConfig config = new HikariConfig();
+			config.setPoolName("AdempiereDS");
+			config.setDriverClassName(DB_PostgreSQL.DRIVER);
+			config.setJdbcUrl(jdbcUrl);
+			config.setUsername(user);
+			config.setPassword(password);
+			config.setRegisterMbeans(true);
+
+			// don't override what was configured in the file, unless the respective system property was explicitly set
+			final boolean useDefaults = System.getProperty(SYSTEM_PROPERTY_ConfigurationFile) == null;
+			final boolean swingClient = Ini.isSwingClient();
+			if (useDefaults || isSystemPropertySet(CONFIG_MaximumPoolSize))
+			{
+				config.setMaximumPoolSize(SystemUtils.getSystemProperty(CONFIG_MaximumPoolSize, swingClient ? 20 : 150));
+			}
+			if (useDefaults || isSystemPropertySet(CONFIG_MinimumIdle))
+			{
+				config.setMinimumIdle(SystemUtils.getSystemProperty(CONFIG_MinimumIdle, swingClient ? 1 : 5));
+			}
+			if (useDefaults || isSystemPropertySet(CONFIG_ConnectionTimeoutMillis))
+			{
+				config.setConnectionTimeout(SystemUtils.getSystemProperty(CONFIG_ConnectionTimeoutMillis, swingClient ? 20 * 1000 : 30 * 1000));
+			}
+			if (useDefaults || isSystemPropertySet(CONFIG_IdleTimeoutMillis))
+			{
+				config.setIdleTimeout(SystemUtils.getSystemProperty(CONFIG_IdleTimeoutMillis, (int)TimeUnit.SECONDS.toMillis(swingClient ? 900 : 1200)));
+			}
+
+			// same as DB_PostgreSQL_ConnectionCustomizer.onAcquire (task 04006)
+			config.setConnectionInitSql("SET client_min_messages=WARNING");
+			config.addDataSourceProperty(CLIENTINFO_ApplicationName, "metasfresh");
+
+			if (unreturnedConnectionTimeoutMillis > 0)
+			{
+				// unlike c3p0, hikari only logs such connections, including the stack trace of their checkout
+				config.setLeakDetectionThreshold(unreturnedConnectionTimeoutMillis);
+			}
+
+			this.dataSource = new HikariDataSource(config);
+		}
+		catch (final Exception ex)
+		{
+			throw new DBNoConnectionException("Could not initialise Hikari Datasource", ex);
+		}
+	}
+
+	private static boolean isSystemPropertySet(final String name)
+	{
+		return System.getProperty(name) != null;
+	}
+
+	@Override
+	public String toString()
+	{
+		return dataSource.toString();
+	}
+
+	@Override
+	public String getImplementationName()
+	{
+		return IMPLEMENTATION_Hikari;
+	}
+
+	@Override
+	public DataSource getDataSource()
+	{
+		return dataSource;
+	}
+
+	@Override
+	public Connection getConnection() throws SQLException
+	{
+		final Connection conn = dataSource.getConnection();
+		boolean ok = false;
+		try
+		{
+			// same as DB_PostgreSQL_ConnectionCustomizer.onCheckOut
+			conn.setClientInfo(CLIENTINFO_ApplicationName, "metasfresh/checked-out-from-pool"); // task 08353
+			Services.get(IConnectionCustomizerService.class).fireRegisteredCustomizers(conn);
+
+			ok = true;
+			return wrapToResetApplicationNameOnClose(conn);
+		}
+		finally
+		{
+			if (!ok)
+			{
+				DB.close(conn);
+			}
+		}
+	}
+
+	/**
+	 * Hikari has no check-in hook, so the connection is wrapped to do what {@code DB_PostgreSQL_ConnectionCustomizer.onCheckIn} does before it's returned to the pool.
+	 * Note that unlike with c3p0, this is done in the thread which closes the connection.
+	 */
+	private static Connection wrapToResetApplicationNameOnClose(final Connection conn)
+	{
+		return (Connection)Proxy.newProxyInstance(
+				HikariConnectionPool.class.getClassLoader(),
+				new Class<?>[] { Connection.class },
+				(proxy, method, args) -> {
+					if ("close".equals(method.getName()) && method.getParameterCount() == 0 && !conn.isClosed())
+					{
+						resetApplicationName(conn);
+					}
+
+					try
+					{
+						return method.invoke(conn, args);
+					}
+					catch (final InvocationTargetException ex)
+					{
+						throw ex.getCause();
+					}
+				});
+	}
+
+	private static void resetApplicationName(final Connection conn)
+	{
+		try
+		{
+			conn.setClientInfo(CLIENTINFO_ApplicationName, "metasfresh/returned-to-pool"); // task 08353
+		}
+		catch (final SQLException ex)
+		{
+			// don't fail the close; hikari will check the connection anyway
+			logger.debug("Failed resetting the ApplicationName of {}", conn, ex);
+		}
+	}
+
+	@Override
+	public boolean isAcquireTimeout(@NonNull final SQLException ex)
+	{
+		return ex instanceof SQLTransientConnectionException;
+	}
+
+	@Override
+	public int getMaxPoolSize()
+	{
+		return dataSource.getMaximumPoolSize();
+	}
+
+	@Override
+	public int getNumConnections()
+	{
+		final HikariPoolMXBean pool = dataSource.getHikariPoolMXBean();
+		return pool != null ? pool.getTotalConnections() : 0;
+	}
+
+	@Override
+	public int getNumBusyConnections()
+	{
+		final HikariPoolMXBean pool = dataSource.getHikariPoolMXBean();
+		return pool != null ? pool.getActiveConnections() : 0;
+	}
+
+	@Override
+	public int getNumIdleConnections()
+	{
+		final HikariPoolMXBean pool = dataSource.getHikariPoolMXBean();
+		return pool != null ? pool.getIdleConnections() : 0;
+	}
+
+	@Override
+	public int getNumThreadsAwaitingConnection()
+	{
+		final HikariPoolMXBean pool = dataSource.getHikariPoolMXBean();
+		return pool != null ? pool.getThreadsAwaitingConnection() : 0;
+	}
+
+	@Override
+	public void close()
+	{
+		dataSource.close();
+	}
+}
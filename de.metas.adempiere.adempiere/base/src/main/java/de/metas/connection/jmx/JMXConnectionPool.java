@@ -0,0 +1,129 @@
+package de.metas.connection.jmx;
+
+import org.adempiere.util.jmx.IJMXNameAware;
+
+import de.metas.connection.IConnectionPool;
+import de.metas.connection.impl.ConnectionAcquireStatistics;
+import lombok.NonNull;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2019 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class JMXConnectionPool implements JMXConnectionPoolMBean, IJMXNameAware
+{
+	public static final String JMX_NAME = "de.metas.connection:type=ConnectionPool";
+
+	private final IConnectionPool pool;
+	private final ConnectionAcquireStatistics acquireStatistics;
+
+	public JMXConnectionPool(
+			@NonNull final IConnectionPool pool,
+			@NonNull final ConnectionAcquireStatistics acquireStatistics)
+	{
+		this.pool = pool;
+		this.acquireStatistics = acquireStatistics;
+	}
+
+	@Override
+	public final String getJMXName()
+	{
+		return JMX_NAME;
+	}
+
+	@Override
+	public String getImplementationName()
+	{
+		return pool.getImplementationName();
+	}
+
+	@Override
+	public int getMaxPoolSize()
+	{
+		return pool.getMaxPoolSize();
+	}
+
+	@Override
+	public int getNumConnections()
+	{
+		return pool.getNumConnections();
+	}
+
+	@Override
+	public int getNumBusyConnections()
+	{
+		return pool.getNumBusyConnections();
+	}
+
+	@Override
+	public int getNumIdleConnections()
+	{
+		return pool.getNumIdleConnections();
+	}
+
+	@Override
+	public int getNumThreadsAwaitingConnection()
+	{
+		return pool.getNumThreadsAwaitingConnection();
+	}
+
+	@Override
+	public long getCountAcquired()
+	{
+		return acquireStatistics.getCountAcquired();
+	}
+
+	@Override
+	public long getCountAcquireTimeouts()
+	{
+		return acquireStatistics.getCountTimeouts();
+	}
+
+	@Override
+	public double getAverageAcquireMillis()
+	{
+		return acquireStatistics.getAverageAcquireMillis();
+	}
+
+	@Override
+	public double getMaxAcquireMillis()
+	{
+		return acquireStatistics.getMaxAcquireMillis();
+	}
+
+	@Override
+	public String[] getAcquireMillisHistogramBuckets()
+	{
+		return acquireStatistics.getHistogramBucketNames();
+	}
+
+	@Override
+	public long[] getAcquireMillisHistogramCounts()
+	{
+		return acquireStatistics.getHistogramCounts();
+	}
+
+	@Override
+	public void resetAcquireStatistics()
+	{
+		acquireStatistics.reset();
+	}
+}
@@ -26,6 +26,8 @@ public class DocumentSequenceInfo
 	private final boolean autoSequence;
 	private final boolean startNewYear;
 	private final String dateColumn;
+	/** audited sequences are expected to have no gaps */
+	private final boolean audited;
 
 	private final CustomSequenceNoProvider customSequenceNoProvider;
 
@@ -40,6 +42,7 @@ public class DocumentSequenceInfo
 			final boolean autoSequence,
 			final boolean startNewYear,
 			final String dateColumn,
+			final boolean audited,
 			final CustomSequenceNoProvider customSequenceNoProvider)
 	{
 		this.adSequenceId = adSequenceId;
@@ -51,6 +54,7 @@ public class DocumentSequenceInfo
 		this.autoSequence = autoSequence;
 		this.startNewYear = startNewYear;
 		this.dateColumn = dateColumn;
+		this.audited = audited;
 		this.customSequenceNoProvider = customSequenceNoProvider;
 	}
 }
@@ -136,6 +136,7 @@ public class DocumentSequenceDAO implements IDocumentSequenceDAO
 				.autoSequence(record.isAutoSequence())
 				.startNewYear(record.isStartNewYear())
 				.dateColumn(record.getDateColumn())
+				.audited(record.isAudited())
 				//
 				.customSequenceNoProvider(createCustomSequenceNoProviderOrNull(record))
 				//
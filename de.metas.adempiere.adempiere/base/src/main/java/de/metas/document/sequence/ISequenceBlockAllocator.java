@@ -0,0 +1,88 @@
+package de.metas.document.sequence;
+
+import java.util.function.IntFunction;
+
+import javax.annotation.Nullable;
+
+import de.metas.util.ISingletonService;
+import lombok.NonNull;
+import lombok.Value;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2019 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Hands out sequence numbers from blocks which were reserved in {@code AD_Sequence} (or {@code AD_Sequence_No}) in advance.
+ *
+ * @see de.metas.document.sequence.impl.SequenceBlockAllocator
+ */
+public interface ISequenceBlockAllocator extends ISingletonService
+{
+	/**
+	 * @param gapFree if true, then the block size is always 1
+	 * @return the configured block size; if it's greater than 1, then the caller shall use {@link #nextNo(BlockKey, int, IntFunction)}.
+	 */
+	int getBlockSize(String sequenceName, boolean gapFree);
+
+	/**
+	 * @param blockReserver reserves the given number of sequence numbers in the database.
+	 *            It shall do so out of trx, because the block is then used by other trxs as well.
+	 */
+	int nextNo(BlockKey key, int blockSize, IntFunction<ReservedBlock> blockReserver);
+
+	/**
+	 * @return the number which {@link #nextNo(BlockKey, int, IntFunction)} would return next from the current block (without taking it),
+	 *         or {@code -1} if there is no current block or it's exhausted, i.e. the next number will be the first one of a newly reserved block.
+	 */
+	int peekNextNo(BlockKey key);
+
+	/**
+	 * Identifies one series of numbers, i.e. the table IDs of a given table or the document numbers of a given {@code AD_Sequence} in a given calendar year.
+	 */
+	@Value
+	class BlockKey
+	{
+		public static BlockKey ofTableName(@NonNull final String tableName)
+		{
+			return new BlockKey(tableName, -1, "");
+		}
+
+		public static BlockKey ofDocumentSequence(final int adSequenceId, @Nullable final String calendarYear)
+		{
+			return new BlockKey("", adSequenceId, calendarYear != null ? calendarYear : "");
+		}
+
+		String tableName;
+		int adSequenceId;
+		String calendarYear;
+	}
+
+	/**
+	 * The numbers which were reserved in the database: {@code firstNo}, {@code firstNo + incrementNo}, {@code firstNo + 2 * incrementNo} etc.
+	 */
+	@Value(staticConstructor = "of")
+	class ReservedBlock
+	{
+		int firstNo;
+		int incrementNo;
+	}
+}
@@ -30,6 +30,7 @@ import de.metas.document.IDocumentSequenceDAO;
 import de.metas.document.sequence.DocSequenceId;
 import de.metas.document.sequence.IDocumentNoBuilder;
 import de.metas.document.sequence.IDocumentNoBuilderFactory;
+import de.metas.document.sequence.ISequenceBlockAllocator;
 import de.metas.document.sequenceno.CustomSequenceNoProvider;
 import de.metas.i18n.IMsgBL;
 import de.metas.i18n.ITranslatableString;
@@ -53,6 +54,7 @@ class DocumentNoBuilder implements IDocumentNoBuilder
 	private static final transient Logger logger = LogManager.getLogger(DocumentNoBuilder.class);
 	private final transient IDocumentSequenceDAO documentSequenceDAO = Services.get(IDocumentSequenceDAO.class);
 	final IMsgBL msgBL = Services.get(IMsgBL.class);
+	private final transient ISequenceBlockAllocator sequenceBlockAllocator = Services.get(ISequenceBlockAllocator.class);
 
 	private static final String MSG_PROVIDER_NOT_APPLICABLE = "de.metas.document.CustomSequenceNotProviderNoApplicable";
 
@@ -236,33 +238,71 @@ class DocumentNoBuilder implements IDocumentNoBuilder
 
 	private int retrieveAndIncrementSequenceCurrentNext(final DocumentSequenceInfo docSeqInfo)
 	{
-		final String trxName = getTrxName();
+		final int blockSize = getBlockSize(docSeqInfo);
+		if (blockSize > 1)
+		{
+			// the sequence may have gaps, so take the number from a block which was reserved out of trx
+			return sequenceBlockAllocator.nextNo(
+					toBlockKey(docSeqInfo),
+					blockSize,
+					count -> ISequenceBlockAllocator.ReservedBlock.of(
+							retrieveAndIncrementSequenceCurrentNext(docSeqInfo, docSeqInfo.getIncrementNo() * count, ITrx.TRXNAME_None),
+							docSeqInfo.getIncrementNo()));
+		}
+
+		return retrieveAndIncrementSequenceCurrentNext(docSeqInfo, docSeqInfo.getIncrementNo(), getTrxName());
+	}
+
+	private int getBlockSize(final DocumentSequenceInfo docSeqInfo)
+	{
+		if (isAdempiereSys())
+		{
+			return 1;
+		}
+		return sequenceBlockAllocator.getBlockSize(docSeqInfo.getName(), docSeqInfo.isAudited());
+	}
+
+	private ISequenceBlockAllocator.BlockKey toBlockKey(final DocumentSequenceInfo docSeqInfo)
+	{
+		final String calendarYear = docSeqInfo.isStartNewYear() ? getCalendarYear(docSeqInfo.getDateColumn()) : null;
+		return ISequenceBlockAllocator.BlockKey.ofDocumentSequence(docSeqInfo.getAdSequenceId(), calendarYear);
+	}
+
+	/**
+	 * @param increment the value to add to the sequence's current next number; either the sequence's increment or a multiple of it, if a whole block is reserved.
+	 * @return the current next number before it was incremented
+	 */
+	private int retrieveAndIncrementSequenceCurrentNext(
+			final DocumentSequenceInfo docSeqInfo,
+			final int increment,
+			final String trxName)
+	{
 		final List<Object> sqlParams = new ArrayList<>();
 		final String sql;
 		if (isAdempiereSys())
 		{
 			sql = "UPDATE AD_Sequence SET CurrentNextSys = CurrentNextSys + ? WHERE AD_Sequence_ID=? RETURNING CurrentNextSys - ?";
-			sqlParams.add(docSeqInfo.getIncrementNo());
+			sqlParams.add(increment);
 			sqlParams.add(docSeqInfo.getAdSequenceId());
-			sqlParams.add(docSeqInfo.getIncrementNo());
+			sqlParams.add(increment);
 		}
 		else if (docSeqInfo.isStartNewYear())
 		{
 			final String calendarYear = getCalendarYear(docSeqInfo.getDateColumn());
 
 			sql = "UPDATE AD_Sequence_No SET CurrentNext = CurrentNext + ? WHERE AD_Sequence_ID = ? AND CalendarYear = ? RETURNING CurrentNext - ?";
-			sqlParams.add(docSeqInfo.getIncrementNo());
+			sqlParams.add(increment);
 			sqlParams.add(docSeqInfo.getAdSequenceId());
 			sqlParams.add(calendarYear);
-			sqlParams.add(docSeqInfo.getIncrementNo());
+			sqlParams.add(increment);
 
 		}
 		else
 		{
 			sql = "UPDATE AD_Sequence SET CurrentNext = CurrentNext + ? WHERE AD_Sequence_ID = ? RETURNING CurrentNext - ?";
-			sqlParams.add(docSeqInfo.getIncrementNo());
+			sqlParams.add(increment);
 			sqlParams.add(docSeqInfo.getAdSequenceId());
-			sqlParams.add(docSeqInfo.getIncrementNo());
+			sqlParams.add(increment);
 		}
 
 		final IMutable<Integer> currentSeq = new Mutable<>(-1);
@@ -277,6 +317,16 @@ class DocumentNoBuilder implements IDocumentNoBuilder
 
 	private int retrieveSequenceCurrentNext(final DocumentSequenceInfo docSeqInfo)
 	{
+		// if numbers are handed out from a reserved block, the database is already one block ahead
+		if (getBlockSize(docSeqInfo) > 1)
+		{
+			final int nextNo = sequenceBlockAllocator.peekNextNo(toBlockKey(docSeqInfo));
+			if (nextNo >= 0)
+			{
+				return nextNo;
+			}
+		}
+
 		final int adSequenceId = docSeqInfo.getAdSequenceId();
 		final String trxName = getTrxName();
 
@@ -0,0 +1,182 @@
+package de.metas.document.sequence.impl;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+
+import org.adempiere.exceptions.AdempiereException;
+import org.adempiere.service.ISysConfigBL;
+import org.compiere.model.I_AD_Sequence;
+import org.compiere.model.I_AD_Sequence_No;
+import org.slf4j.Logger;
+
+import de.metas.cache.CacheMgt;
+import de.metas.cache.model.CacheInvalidateMultiRequest;
+import de.metas.document.sequence.ISequenceBlockAllocator;
+import de.metas.logging.LogManager;
+import de.metas.util.Services;
+import lombok.NonNull;
+
+/**
+ * Hands out sequence numbers from blocks which were reserved in {@code AD_Sequence} (or {@code AD_Sequence_No}) in advance.
+ * <p>
+ * Reserving a block of N numbers needs one {@code UPDATE} on the sequence's row, and the numbers of that block are then handed out from memory without locking the row.
+ * The price is that numbers which were reserved but not used (e.g. because the server was stopped or the document's trx was rolled back) are lost,
+ * so this shall be enabled only for sequences that may have gaps.
+ * <p>
+ * The block size is configured per {@code AD_Sequence.Name}, using the sysconfig {@value #SYSCONFIG_BLOCK_SIZE_PREFIX}{@code <AD_Sequence.Name>}.
+ * The default is 1, which means that the block allocation is not used and each number is taken from the database with its own {@code UPDATE}, as before.
+ * Note that {@link DocumentNoBuilder} and {@code MSequence} run that {@code UPDATE} out of trx, too, so a number whose document's trx is rolled back is lost either way.
+ * What the block allocation adds is that the not yet handed out numbers of a block are lost when the server is stopped.
+ * They are also dropped when the cache of {@code AD_Sequence} or {@code AD_Sequence_No} is reset, e.g. because a user changed a sequence's next number.
+ * <p>
+ * Sequences which are expected to have no gaps at all (i.e. audited document sequences) always use a block size of 1, whatever is configured.
+ *
+ * @see DocumentNoBuilder
+ * @see org.compiere.model.MSequence#getNextID(int, String)
+ */
+public class SequenceBlockAllocator implements ISequenceBlockAllocator
+{
+	private static final Logger logger = LogManager.getLogger(SequenceBlockAllocator.class);
+
+	public static final String SYSCONFIG_BLOCK_SIZE_PREFIX = "de.metas.document.sequence.BlockSize.";
+
+	private final ConcurrentHashMap<BlockKey, BlockHolder> blockHolders = new ConcurrentHashMap<>();
+
+	public SequenceBlockAllocator()
+	{
+		// if a sequence was changed (e.g. its CurrentNext was set back by a user), then our blocks might contain numbers which are not reserved anymore
+		final CacheMgt cacheMgt = CacheMgt.get();
+		cacheMgt.addCacheResetListener(I_AD_Sequence.Table_Name, this::onSequenceChanged);
+		cacheMgt.addCacheResetListener(I_AD_Sequence_No.Table_Name, this::onSequenceChanged);
+	}
+
+	@Override
+	public int getBlockSize(@NonNull final String sequenceName, final boolean gapFree)
+	{
+		final int blockSize = Services.get(ISysConfigBL.class).getIntValue(SYSCONFIG_BLOCK_SIZE_PREFIX + sequenceName, 1);
+		if (blockSize <= 1)
+		{
+			return 1;
+		}
+		if (gapFree)
+		{
+			logger.warn("Ignoring the configured block size {} for sequence {}, because it shall be gap-free", blockSize, sequenceName);
+			return 1;
+		}
+		return blockSize;
+	}
+
+	@Override
+	public int nextNo(
+			@NonNull final BlockKey key,
+			final int blockSize,
+			@NonNull final IntFunction<ReservedBlock> blockReserver)
+	{
+		return blockHolders
+				.computeIfAbsent(key, k -> new BlockHolder())
+				.nextNo(blockSize, blockReserver, key);
+	}
+
+	@Override
+	public int peekNextNo(@NonNull final BlockKey key)
+	{
+		final BlockHolder blockHolder = blockHolders.get(key);
+		return blockHolder != null ? blockHolder.peekNextNo() : -1;
+	}
+
+	/**
+	 * Forget about all reserved blocks. The numbers which were not yet handed out are lost.
+	 * <p>
+	 * Note: table ID blocks are keyed by table name and not by {@code AD_Sequence_ID}, so we can't tell which blocks belong to the changed sequence and drop them all.
+	 */
+	private long onSequenceChanged(final CacheInvalidateMultiRequest request)
+	{
+		final int blocksCount = blockHolders.size();
+		blockHolders.clear();
+		logger.debug("Dropped {} reserved sequence blocks because of {}", blocksCount, request);
+		return blocksCount;
+	}
+
+	private static final class BlockHolder
+	{
+		private volatile Block currentBlock;
+
+		public int peekNextNo()
+		{
+			final Block block = currentBlock;
+			return block != null ? block.peekNextNoOrMinusOne() : -1;
+		}
+
+		public int nextNo(
+				final int blockSize,
+				final IntFunction<ReservedBlock> blockReserver,
+				final BlockKey key)
+		{
+			final Block block = currentBlock;
+			if (block != null)
+			{
+				final int nextNo = block.nextNoOrMinusOne();
+				if (nextNo >= 0)
+				{
+					return nextNo;
+				}
+			}
+
+			synchronized (this)
+			{
+				// maybe another thread already reserved a new block while we were waiting
+				if (currentBlock != block)
+				{
+					final int nextNo = currentBlock.nextNoOrMinusOne();
+					if (nextNo >= 0)
+					{
+						return nextNo;
+					}
+				}
+
+				final ReservedBlock reservedBlock = blockReserver.apply(blockSize);
+				if (reservedBlock == null || reservedBlock.getFirstNo() < 0)
+				{
+					throw new AdempiereException("Failed reserving a block of " + blockSize + " sequence numbers for " + key);
+				}
+				logger.debug("Reserved {} sequence numbers for {}: {}", blockSize, key, reservedBlock);
+
+				final Block newBlock = new Block(reservedBlock.getFirstNo(), reservedBlock.getIncrementNo(), blockSize);
+				final int nextNo = newBlock.nextNoOrMinusOne();
+				currentBlock = newBlock;
+				return nextNo;
+			}
+		}
+	}
+
+	private static final class Block
+	{
+		private final int firstNo;
+		private final int incrementNo;
+		private final int size;
+		private final AtomicInteger nextIndex = new AtomicInteger(0);
+
+		private Block(final int firstNo, final int incrementNo, final int size)
+		{
+			this.firstNo = firstNo;
+			this.incrementNo = incrementNo > 0 ? incrementNo : 1;
+			this.size = size;
+		}
+
+		public int nextNoOrMinusOne()
+		{
+			return toNoOrMinusOne(nextIndex.getAndIncrement());
+		}
+
+		public int peekNextNoOrMinusOne()
+		{
+			return toNoOrMinusOne(nextIndex.get());
+		}
+
+		private int toNoOrMinusOne(final int index)
+		{
+			return index < size ? firstNo + index * incrementNo : -1;
+		}
+	}
+}
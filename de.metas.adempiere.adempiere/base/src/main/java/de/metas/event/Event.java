@@ -33,6 +33,8 @@ import java.util.Set;
 import java.util.UUID;
 import java.util.function.Supplier;
 
+import javax.annotation.Nullable;
+
 import org.adempiere.exceptions.AdempiereException;
 import org.adempiere.util.lang.ITableRecordReference;
 import org.compiere.util.DisplayType;
@@ -75,6 +77,7 @@ public final class Event
 	}
 
 	private static final String PROPERTY_Record = "record";
+	private static final String PROPERTY_PartitionKey = "partitionKey";
 	public static final String PROPERTY_SuggestedWindowId = "suggestedWindowId";
 
 	// put this first, because this is imho the most interesting part of the event's json representation, at least when shown in the event log
@@ -236,6 +239,16 @@ public final class Event
 		return value != null ? value.toString() : null;
 	}
 
+	/**
+	 * @return the key of the partition this event belongs to or {@code null}; async event busses which dispatch on more than one thread
+	 *         make sure that events with the same partition key are handled in the order they were posted.
+	 *         Events without partition key are all dispatched by the same thread, so they are handled in the order they were posted, too.
+	 */
+	public String getPartitionKey()
+	{
+		return getPropertyAsString(PROPERTY_PartitionKey);
+	}
+
 	public boolean getPropertyAsBoolean(final String name)
 	{
 		final Object value = getProperty(name);
@@ -563,6 +576,14 @@ public final class Event
 			return this;
 		}
 
+		/**
+		 * @param partitionKey see {@link Event#getPartitionKey()}
+		 */
+		public Builder setPartitionKey(@Nullable final String partitionKey)
+		{
+			return putPropertyFromObject(PROPERTY_PartitionKey, partitionKey);
+		}
+
 		public Builder putPropertyFromObject(final String name, final Object value)
 		{
 			if (value == null)
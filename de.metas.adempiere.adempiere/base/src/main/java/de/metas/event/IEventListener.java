@@ -34,9 +34,20 @@ public interface IEventListener
 {
 	/**
 	 * Called when a new event was received.
+	 * <p>
+	 * Unless {@link #isAllowConcurrentEvents()} returns {@code true}, this method is invoked for one event at a time.
 	 *
 	 * @param eventBus event bus on which the event was received.
 	 * @param event received event.
 	 */
 	void onEvent(final IEventBus eventBus, final Event event);
+
+	/**
+	 * @return {@code true} if {@link #onEvent(IEventBus, Event)} is thread-safe and may be invoked for several events at the same time.
+	 *         That's only the case if the bus dispatches its events asynchronously with more than one thread, and for events with different partition keys (see {@link Event#getPartitionKey()}).
+	 */
+	default boolean isAllowConcurrentEvents()
+	{
+		return false;
+	}
 }
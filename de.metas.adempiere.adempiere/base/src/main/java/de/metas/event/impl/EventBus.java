@@ -23,17 +23,17 @@ package de.metas.event.impl;
  */
 
 import java.lang.ref.WeakReference;
-import java.util.concurrent.ExecutorService;
 import java.util.function.Consumer;
 
 import javax.annotation.Nullable;
 
+import org.adempiere.context.ContextSnapshot;
 import org.compiere.Adempiere;
 import org.compiere.SpringContextHolder;
 import org.slf4j.Logger;
 
 import com.google.common.base.MoreObjects;
-import com.google.common.eventbus.AsyncEventBus;
+import com.google.common.eventbus.AllowConcurrentEvents;
 import com.google.common.eventbus.Subscribe;
 import com.google.common.eventbus.SubscriberExceptionContext;
 import com.google.common.eventbus.SubscriberExceptionHandler;
@@ -86,26 +86,18 @@ final class EventBus implements IEventBus
 	@Getter
 	private Type type = Type.LOCAL;
 
-	private final ExecutorService executorOrNull;
+	private final PartitionedEventExecutor executorOrNull;
 
 	/**
-	 * @param executor if not null, the system creates an {@link AsyncEventBus}; also, it shuts down this executor on {@link #destroy()}
+	 * @param executor if not null, the events are dispatched asynchronously, using this executor (see {@link Event#getPartitionKey()}); also, it shuts down this executor on {@link #destroy()}
 	 */
 	public EventBus(
 			@NonNull final String topicName,
-			@Nullable final ExecutorService executor)
+			@Nullable final PartitionedEventExecutor executor)
 	{
 		this.executorOrNull = executor;
 		this.topicName = Check.assumeNotEmpty(topicName, "name not empty");
-
-		if (executor == null)
-		{
-			this.eventBus = new com.google.common.eventbus.EventBus(exceptionHandler);
-		}
-		else
-		{
-			this.eventBus = new com.google.common.eventbus.AsyncEventBus(executor, exceptionHandler);
-		}
+		this.eventBus = new com.google.common.eventbus.EventBus(exceptionHandler);
 	}
 
 	@Override
@@ -218,7 +210,17 @@ final class EventBus implements IEventBus
 		}
 
 		logger.debug("{} - Posting event: {}", this, event);
-		eventBus.post(eventToPost);
+
+		final com.google.common.eventbus.EventBus eventBus = this.eventBus;
+		if (executorOrNull == null)
+		{
+			eventBus.post(eventToPost);
+		}
+		else
+		{
+			// the listeners shall see the poster's context, not the one the executor's thread inherited when it was created
+			executorOrNull.execute(eventToPost.getPartitionKey(), ContextSnapshot.propagate(() -> eventBus.post(eventToPost)));
+		}
 	}
 
 	private static class TypedConsumerAsEventListener<T> implements IEventListener
@@ -246,6 +248,10 @@ final class EventBus implements IEventBus
 
 	}
 
+	/**
+	 * Annotated with {@link AllowConcurrentEvents}, so that guava does not serialize the invocations itself.
+	 * Instead, {@link #invokeEventListener(Object, IEventListener, Event)} serializes them, unless the listener opted in to concurrent events.
+	 */
 	@AllArgsConstructor
 	@ToString
 	private class GuavaEventListenerAdapter
@@ -254,12 +260,14 @@ final class EventBus implements IEventBus
 		private final IEventListener eventListener;
 
 		@Subscribe
+		@AllowConcurrentEvents
 		public void onEvent(@NonNull final Event event)
 		{
-			invokeEventListener(this.eventListener, event);
+			invokeEventListener(this, this.eventListener, event);
 		}
 	}
 
+	/** See {@link GuavaEventListenerAdapter} about {@link AllowConcurrentEvents}. */
 	@ToString
 	private class WeakGuavaEventListenerAdapter
 	{
@@ -272,6 +280,7 @@ final class EventBus implements IEventBus
 		}
 
 		@Subscribe
+		@AllowConcurrentEvents
 		public void onEvent(final Event event)
 		{
 			final IEventListener eventListener = eventListenerRef.get();
@@ -285,8 +294,30 @@ final class EventBus implements IEventBus
 				return;
 			}
 
+			invokeEventListener(this, eventListener, event);
+		}
+	}
+
+	/**
+	 * @param listenerLock used to invoke the given listener for one event at a time, unless it allows concurrent events (see {@link IEventListener#isAllowConcurrentEvents()}).
+	 *            Events can be dispatched concurrently if the bus posts them on more than one thread, or if it's synchronous and they are posted from different threads.
+	 */
+	private void invokeEventListener(
+			@NonNull final Object listenerLock,
+			@NonNull final IEventListener eventListener,
+			@NonNull final Event event)
+	{
+		if (eventListener.isAllowConcurrentEvents())
+		{
 			invokeEventListener(eventListener, event);
 		}
+		else
+		{
+			synchronized (listenerLock)
+			{
+				invokeEventListener(eventListener, event);
+			}
+		}
 	}
 
 	private void invokeEventListener(
@@ -3,11 +3,9 @@ package de.metas.event.impl;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 
 import org.adempiere.exceptions.AdempiereException;
-import org.adempiere.util.concurrent.CustomizableThreadFactory;
+import org.adempiere.service.ISysConfigBL;
 import org.adempiere.util.jmx.JMXRegistry;
 import org.adempiere.util.jmx.JMXRegistry.OnJMXAlreadyExistsPolicy;
 import org.slf4j.Logger;
@@ -31,6 +29,7 @@ import de.metas.event.Type;
 import de.metas.event.jmx.JMXEventBusManager;
 import de.metas.event.remote.IEventBusRemoteEndpoint;
 import de.metas.logging.LogManager;
+import de.metas.util.Services;
 import lombok.NonNull;
 
 @Service
@@ -39,6 +38,8 @@ public class EventBusFactory implements IEventBusFactory
 
 	private static final Logger logger = LogManager.getLogger(EventBusFactory.class);
 
+	private static final String SYSCONFIG_AsyncThreadsPrefix = "de.metas.event.impl.EventBusFactory.AsyncThreads.";
+
 	/**
 	 * Map of "topic name" to list of {@link IEventListener}s.
 	 */
@@ -162,19 +163,36 @@ public class EventBusFactory implements IEventBusFactory
 		return eventBus;
 	}
 
-	private ExecutorService createExecutorOrNull(@NonNull final String eventBusName)
+	private PartitionedEventExecutor createExecutorOrNull(@NonNull final String eventBusName)
 	{
 		// Setup EventBus executor
 		if (EventBusConstants.isEventBusPostEventsAsync())
 		{
-			return Executors.newSingleThreadExecutor(CustomizableThreadFactory.builder()
-					.setThreadNamePrefix(getClass().getName() + "-" + eventBusName + "-AsyncExecutor")
-					.setDaemon(true)
-					.build());
+			return new PartitionedEventExecutor(
+					getClass().getName() + "-" + eventBusName + "-AsyncExecutor",
+					getAsyncThreads(eventBusName));
 		}
 		return null;
 	}
 
+	/**
+	 * @return how many threads shall dispatch the events of the given bus; events with the same partition key are always dispatched by the same thread.
+	 */
+	private static int getAsyncThreads(@NonNull final String eventBusName)
+	{
+		try
+		{
+			final int threads = Services.get(ISysConfigBL.class).getIntValue(SYSCONFIG_AsyncThreadsPrefix + eventBusName, 1);
+			return threads > 0 ? threads : 1;
+		}
+		catch (final Exception ex)
+		{
+			// e.g. no database connection yet
+			logger.warn("Failed fetching the number of async threads for {}. Using one thread.", eventBusName, ex);
+			return 1;
+		}
+	}
+
 	private void destroyEventBus(@NonNull final EventBus eventBus)
 	{
 		eventBus.destroy();
@@ -0,0 +1,79 @@
+package de.metas.event.impl;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import javax.annotation.Nullable;
+
+import org.adempiere.util.concurrent.CustomizableThreadFactory;
+
+import com.google.common.collect.ImmutableList;
+
+import de.metas.util.Check;
+import lombok.NonNull;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2019 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Executes tasks on a fixed number of single threaded executors (partitions).
+ * Tasks with the same partition key are always executed on the same executor, so they are executed in the order they were submitted.
+ * Tasks without a partition key are all executed on the first executor, so they are executed in the order they were submitted, too.
+ */
+final class PartitionedEventExecutor
+{
+	private final ImmutableList<ExecutorService> executors;
+
+	public PartitionedEventExecutor(@NonNull final String threadNamePrefix, final int partitions)
+	{
+		Check.assume(partitions > 0, "partitions > 0");
+
+		final ImmutableList.Builder<ExecutorService> executors = ImmutableList.builder();
+		for (int i = 0; i < partitions; i++)
+		{
+			executors.add(Executors.newSingleThreadExecutor(CustomizableThreadFactory.builder()
+					.setThreadNamePrefix(threadNamePrefix + "-" + i)
+					.setDaemon(true)
+					.build()));
+		}
+		this.executors = executors.build();
+	}
+
+	public void execute(@Nullable final String partitionKey, @NonNull final Runnable task)
+	{
+		executors.get(getPartitionIndex(partitionKey)).execute(task);
+	}
+
+	private int getPartitionIndex(@Nullable final String partitionKey)
+	{
+		if (partitionKey == null || executors.size() == 1)
+		{
+			return 0;
+		}
+		return Math.floorMod(partitionKey.hashCode(), executors.size());
+	}
+
+	public void shutdown()
+	{
+		executors.forEach(ExecutorService::shutdown);
+	}
+}
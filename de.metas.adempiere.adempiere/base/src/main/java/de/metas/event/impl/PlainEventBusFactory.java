@@ -1,7 +1,6 @@
 package de.metas.event.impl;
 
 import java.util.HashMap;
-import java.util.concurrent.ExecutorService;
 
 import org.compiere.Adempiere;
 
@@ -66,7 +65,7 @@ public class PlainEventBusFactory implements IEventBusFactory
 
 	private EventBus createEventBus(final Topic topic)
 	{
-		final ExecutorService executor = null;
+		final PartitionedEventExecutor executor = null;
 		return new EventBus(topic.getName(), executor);
 	}
 
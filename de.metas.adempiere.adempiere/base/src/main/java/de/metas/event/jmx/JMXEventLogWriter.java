@@ -0,0 +1,101 @@
+package de.metas.event.jmx;
+
+import org.adempiere.util.jmx.IJMXNameAware;
+
+import de.metas.event.EventBusConstants;
+import de.metas.event.log.AsyncEventLogWriter;
+import lombok.NonNull;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2019 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class JMXEventLogWriter implements JMXEventLogWriterMBean, IJMXNameAware
+{
+	private final String jmxName;
+	private final AsyncEventLogWriter writer;
+
+	public JMXEventLogWriter(@NonNull final AsyncEventLogWriter writer)
+	{
+		this.jmxName = EventBusConstants.JMX_BASE_NAME + ":type=EventLogWriter";
+		this.writer = writer;
+	}
+
+	@Override
+	public final String getJMXName()
+	{
+		return jmxName;
+	}
+
+	@Override
+	public int getQueueSize()
+	{
+		return writer.getQueueSize();
+	}
+
+	@Override
+	public int getQueueRemainingCapacity()
+	{
+		return writer.getQueueRemainingCapacity();
+	}
+
+	@Override
+	public long getCountWritten()
+	{
+		return writer.getCountWritten();
+	}
+
+	@Override
+	public long getCountWriteBatches()
+	{
+		return writer.getCountWriteBatches();
+	}
+
+	@Override
+	public long getCountWrittenOnCallerThread()
+	{
+		return writer.getCountWrittenOnCallerThread();
+	}
+
+	@Override
+	public long getCountFailed()
+	{
+		return writer.getCountFailed();
+	}
+
+	@Override
+	public long getLastWriteBatchMillis()
+	{
+		return writer.getLastWriteBatchMillis();
+	}
+
+	@Override
+	public long getMaxWriteBatchMillis()
+	{
+		return writer.getMaxWriteBatchMillis();
+	}
+
+	@Override
+	public long getAverageWriteBatchMillis()
+	{
+		return writer.getAverageWriteBatchMillis();
+	}
+}
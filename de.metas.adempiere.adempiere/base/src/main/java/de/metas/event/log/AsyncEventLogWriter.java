@@ -0,0 +1,304 @@
+package de.metas.event.log;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import org.adempiere.util.concurrent.CustomizableThreadFactory;
+import org.slf4j.Logger;
+
+import com.google.common.base.Stopwatch;
+import com.google.common.collect.ImmutableList;
+
+import de.metas.logging.LogManager;
+import lombok.Builder;
+import lombok.NonNull;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2019 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Write-behind buffer for {@code AD_EventLog} records.
+ * <p>
+ * Event logs are collected in a bounded queue and written in batches by a background thread.
+ * If the queue is full, {@link #enqueue(PendingEventLog)} blocks for a while and then writes the record on the caller's thread (backpressure),
+ * so no event log is ever dropped because of a full queue.
+ */
+public final class AsyncEventLogWriter
+{
+	private static final Logger logger = LogManager.getLogger(AsyncEventLogWriter.class);
+
+	private static final long FLUSH_TIMEOUT_MILLIS = 10_000;
+
+	private final Consumer<List<PendingEventLog>> batchWriter;
+	private final int maxBatchSize;
+	private final long enqueueTimeoutMillis;
+
+	private final BlockingQueue<PendingEventLog> queue;
+	/** UUIDs of events which were enqueued but not yet written (i.e. still in queue or in the batch which is currently written) */
+	private final Set<UUID> pendingUUIDs = ConcurrentHashMap.newKeySet();
+	private final ExecutorService writerExecutor;
+	private volatile boolean shutdown = false;
+
+	// metrics
+	private final AtomicLong countWritten = new AtomicLong();
+	private final AtomicLong countWriteBatches = new AtomicLong();
+	private final AtomicLong countWrittenOnCallerThread = new AtomicLong();
+	private final AtomicLong countFailed = new AtomicLong();
+	private final AtomicLong totalWriteNanos = new AtomicLong();
+	private final AtomicLong maxWriteNanos = new AtomicLong();
+	private volatile long lastWriteNanos = 0;
+
+	@Builder
+	private AsyncEventLogWriter(
+			@NonNull final Consumer<List<PendingEventLog>> batchWriter,
+			final int queueCapacity,
+			final int maxBatchSize,
+			final long enqueueTimeoutMillis)
+	{
+		this.batchWriter = batchWriter;
+		this.maxBatchSize = maxBatchSize > 0 ? maxBatchSize : 500;
+		this.enqueueTimeoutMillis = enqueueTimeoutMillis >= 0 ? enqueueTimeoutMillis : 1000;
+		this.queue = new ArrayBlockingQueue<>(queueCapacity > 0 ? queueCapacity : 10_000);
+
+		writerExecutor = Executors.newSingleThreadExecutor(CustomizableThreadFactory.builder()
+				.setThreadNamePrefix(AsyncEventLogWriter.class.getName())
+				.setDaemon(true)
+				.build());
+		writerExecutor.execute(this::runWriterLoop);
+	}
+
+	void enqueue(@NonNull final PendingEventLog eventLog)
+	{
+		pendingUUIDs.add(eventLog.getUuid());
+
+		boolean enqueued;
+		try
+		{
+			enqueued = !shutdown && queue.offer(eventLog, enqueueTimeoutMillis, TimeUnit.MILLISECONDS);
+		}
+		catch (final InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+			enqueued = false;
+		}
+
+		if (!enqueued)
+		{
+			countWrittenOnCallerThread.incrementAndGet();
+			write(ImmutableList.of(eventLog));
+		}
+	}
+
+	/**
+	 * Makes sure the event logs of the given UUIDs are written to database (if they were enqueued at all).
+	 */
+	void flush(@NonNull final Collection<UUID> uuids)
+	{
+		final Stopwatch stopwatch = Stopwatch.createStarted();
+		while (isAnyPending(uuids))
+		{
+			writeQueuedEventLogs();
+
+			// some of them might be in the batch which is currently written by our background thread
+			if (isAnyPending(uuids))
+			{
+				if (stopwatch.elapsed(TimeUnit.MILLISECONDS) > FLUSH_TIMEOUT_MILLIS)
+				{
+					logger.warn("Event logs for {} are still not written after {}", uuids, stopwatch);
+					return;
+				}
+				sleep(1);
+			}
+		}
+	}
+
+	private boolean isAnyPending(final Collection<UUID> uuids)
+	{
+		return !pendingUUIDs.isEmpty() && uuids.stream().anyMatch(pendingUUIDs::contains);
+	}
+
+	/**
+	 * Stops accepting new event logs, lets the background thread finish its current batch and writes all event logs which are still in queue.
+	 * <p>
+	 * The background thread is not interrupted unless it did not finish within {@value #FLUSH_TIMEOUT_MILLIS}ms,
+	 * because interrupting it in the middle of a JDBC batch would lose the rows of that batch.
+	 */
+	void shutdown()
+	{
+		shutdown = true;
+		writerExecutor.shutdown();
+		try
+		{
+			if (!writerExecutor.awaitTermination(FLUSH_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS))
+			{
+				logger.warn("Event log writer thread did not finish within {}ms; interrupting it", FLUSH_TIMEOUT_MILLIS);
+				writerExecutor.shutdownNow();
+			}
+		}
+		catch (final InterruptedException e)
+		{
+			writerExecutor.shutdownNow();
+			Thread.currentThread().interrupt();
+		}
+
+		writeQueuedEventLogs();
+	}
+
+	private void runWriterLoop()
+	{
+		while (!shutdown || !queue.isEmpty())
+		{
+			try
+			{
+				final PendingEventLog firstEventLog = queue.poll(shutdown ? 0 : 1000, TimeUnit.MILLISECONDS);
+				if (firstEventLog == null)
+				{
+					continue;
+				}
+
+				final List<PendingEventLog> batch = new ArrayList<>(maxBatchSize);
+				batch.add(firstEventLog);
+				queue.drainTo(batch, maxBatchSize - 1);
+				write(batch);
+			}
+			catch (final InterruptedException e)
+			{
+				Thread.currentThread().interrupt();
+				return;
+			}
+			catch (final Throwable e)
+			{
+				logger.warn("Got exception in event log writer loop. Continuing.", e);
+			}
+		}
+	}
+
+	private void writeQueuedEventLogs()
+	{
+		final List<PendingEventLog> batch = new ArrayList<>(maxBatchSize);
+		while (queue.drainTo(batch, maxBatchSize) > 0)
+		{
+			write(batch);
+			batch.clear();
+		}
+	}
+
+	private void write(@NonNull final List<PendingEventLog> batch)
+	{
+		if (batch.isEmpty())
+		{
+			return;
+		}
+
+		try
+		{
+			final long startNanos = System.nanoTime();
+			batchWriter.accept(batch);
+			final long durationNanos = System.nanoTime() - startNanos;
+
+			countWritten.addAndGet(batch.size());
+			countWriteBatches.incrementAndGet();
+			totalWriteNanos.addAndGet(durationNanos);
+			maxWriteNanos.accumulateAndGet(durationNanos, Math::max);
+			lastWriteNanos = durationNanos;
+		}
+		catch (final Exception ex)
+		{
+			// log only, don't fail; the events themselves were already posted
+			countFailed.addAndGet(batch.size());
+			logger.error("Failed writing {} event logs: {}", batch.size(), batch, ex);
+		}
+		finally
+		{
+			batch.forEach(eventLog -> pendingUUIDs.remove(eventLog.getUuid()));
+		}
+	}
+
+	private static void sleep(final long millis)
+	{
+		try
+		{
+			Thread.sleep(millis);
+		}
+		catch (final InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	public int getQueueSize()
+	{
+		return queue.size();
+	}
+
+	public int getQueueRemainingCapacity()
+	{
+		return queue.remainingCapacity();
+	}
+
+	public long getCountWritten()
+	{
+		return countWritten.get();
+	}
+
+	public long getCountWriteBatches()
+	{
+		return countWriteBatches.get();
+	}
+
+	public long getCountWrittenOnCallerThread()
+	{
+		return countWrittenOnCallerThread.get();
+	}
+
+	public long getCountFailed()
+	{
+		return countFailed.get();
+	}
+
+	public long getLastWriteBatchMillis()
+	{
+		return TimeUnit.NANOSECONDS.toMillis(lastWriteNanos);
+	}
+
+	public long getMaxWriteBatchMillis()
+	{
+		return TimeUnit.NANOSECONDS.toMillis(maxWriteNanos.get());
+	}
+
+	public long getAverageWriteBatchMillis()
+	{
+		final long countWriteBatches = this.countWriteBatches.get();
+		return countWriteBatches > 0 ? TimeUnit.NANOSECONDS.toMillis(totalWriteNanos.get() / countWriteBatches) : 0;
+	}
+}
@@ -7,14 +7,32 @@ import static org.adempiere.model.InterfaceWrapperHelper.save;
 import static org.adempiere.model.InterfaceWrapperHelper.saveRecord;
 import static org.adempiere.model.InterfaceWrapperHelper.setValue;
 
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
 import java.sql.Timestamp;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Properties;
 import java.util.UUID;
+import java.util.stream.Collectors;
+
+import javax.annotation.PreDestroy;
 
 import org.adempiere.ad.dao.IQueryBL;
+import org.adempiere.ad.trx.api.ITrx;
 import org.adempiere.exceptions.AdempiereException;
+import org.adempiere.exceptions.DBException;
 import org.adempiere.model.PlainContextAware;
+import org.adempiere.service.ISysConfigBL;
+import org.adempiere.util.jmx.JMXRegistry;
+import org.adempiere.util.jmx.JMXRegistry.OnJMXAlreadyExistsPolicy;
+import org.compiere.Adempiere;
+import org.compiere.model.MSequence;
+import org.compiere.util.DB;
+import org.compiere.util.Env;
 import org.slf4j.Logger;
 import org.springframework.stereotype.Service;
 
@@ -26,6 +44,8 @@ import de.metas.cache.CCache;
 import de.metas.error.AdIssueId;
 import de.metas.event.Event;
 import de.metas.event.IEventBus;
+import de.metas.event.Type;
+import de.metas.event.jmx.JMXEventLogWriter;
 import de.metas.event.model.I_AD_EventLog;
 import de.metas.event.model.I_AD_EventLog_Entry;
 import de.metas.event.remote.JacksonJsonEventSerializer;
@@ -33,6 +53,7 @@ import de.metas.logging.LogManager;
 import de.metas.util.GuavaCollectors;
 import de.metas.util.NumberUtils;
 import de.metas.util.Services;
+import de.metas.util.time.SystemTime;
 import lombok.NonNull;
 
 /*
@@ -62,6 +83,14 @@ public class EventLogService
 {
 	private static final Logger logger = LogManager.getLogger(EventLogService.class);
 
+	/** If enabled, the {@code AD_EventLog} records are written asynchronously, in batches. Event logs which are not yet written get lost if the JVM dies. */
+	private static final String SYSCONFIG_AsyncWrite = "de.metas.event.log.EventLogService.AsyncWrite";
+	private static final String SYSCONFIG_AsyncWrite_QueueCapacity = "de.metas.event.log.EventLogService.AsyncWrite.QueueCapacity";
+	private static final String SYSCONFIG_AsyncWrite_BatchSize = "de.metas.event.log.EventLogService.AsyncWrite.BatchSize";
+	private static final String SYSCONFIG_AsyncWrite_EnqueueTimeoutMillis = "de.metas.event.log.EventLogService.AsyncWrite.EnqueueTimeoutMillis";
+
+	private volatile AsyncEventLogWriter asyncWriter;
+
 	private final CCache<UUID, EventLogId> uuid2eventLogId = CCache.newLRUCache(
 			I_AD_EventLog.Table_Name + "#by#" + I_AD_EventLog.COLUMNNAME_Event_UUID,
 			500,
@@ -99,10 +128,23 @@ public class EventLogService
 				.build();
 	}
 
+	/**
+	 * Saves the given event's {@code AD_EventLog} record.
+	 * <p>
+	 * Note that events of {@link Type#REMOTE} busses are always written synchronously, even if async write is enabled:
+	 * they are also handled on other nodes which don't have our write-behind buffer,
+	 * so the {@code AD_EventLog} record needs to be in database before the event is forwarded, or the remote node won't find it when saving its log entries.
+	 */
 	public void saveEvent(
 			@NonNull final Event event,
 			@NonNull final IEventBus eventBus)
 	{
+		if (eventBus.getType() == Type.LOCAL && isAsyncWrite())
+		{
+			getOrCreateAsyncWriter().enqueue(toPendingEventLog(event, eventBus));
+			return;
+		}
+
 		final String eventString = JacksonJsonEventSerializer.instance.toString(event);
 
 		final I_AD_EventLog eventLogRecord = newInstanceOutOfTrx(I_AD_EventLog.class);
@@ -115,6 +157,162 @@ public class EventLogService
 		save(eventLogRecord);
 	}
 
+	private static boolean isAsyncWrite()
+	{
+		if (Adempiere.isUnitTestMode())
+		{
+			return false;
+		}
+		return Services.get(ISysConfigBL.class).getBooleanValue(SYSCONFIG_AsyncWrite, false);
+	}
+
+	private AsyncEventLogWriter getOrCreateAsyncWriter()
+	{
+		AsyncEventLogWriter asyncWriter = this.asyncWriter;
+		if (asyncWriter == null)
+		{
+			synchronized (this)
+			{
+				asyncWriter = this.asyncWriter;
+				if (asyncWriter == null)
+				{
+					final ISysConfigBL sysConfigBL = Services.get(ISysConfigBL.class);
+					asyncWriter = this.asyncWriter = AsyncEventLogWriter.builder()
+							.batchWriter(this::insertEventLogs)
+							.queueCapacity(sysConfigBL.getIntValue(SYSCONFIG_AsyncWrite_QueueCapacity, 10_000))
+							.maxBatchSize(sysConfigBL.getIntValue(SYSCONFIG_AsyncWrite_BatchSize, 500))
+							.enqueueTimeoutMillis(sysConfigBL.getIntValue(SYSCONFIG_AsyncWrite_EnqueueTimeoutMillis, 1000))
+							.build();
+
+					JMXRegistry.get().registerJMX(new JMXEventLogWriter(asyncWriter), OnJMXAlreadyExistsPolicy.Replace);
+				}
+			}
+		}
+		return asyncWriter;
+	}
+
+	@PreDestroy
+	public void shutdownAsyncWriter()
+	{
+		final AsyncEventLogWriter asyncWriter = this.asyncWriter;
+		if (asyncWriter != null)
+		{
+			asyncWriter.shutdown();
+		}
+	}
+
+	private static PendingEventLog toPendingEventLog(
+			@NonNull final Event event,
+			@NonNull final IEventBus eventBus)
+	{
+		final Properties ctx = Env.getCtx();
+		return PendingEventLog.builder()
+				.uuid(event.getUuid())
+				.eventTime(event.getWhen())
+				.eventData(JacksonJsonEventSerializer.instance.toString(event))
+				.eventTopicName(eventBus.getTopicName())
+				.eventTypeName(eventBus.getType().toString())
+				.clientId(Env.getAD_Client_ID(ctx))
+				.orgId(Env.getAD_Org_ID(ctx))
+				.userId(Env.getAD_User_ID(ctx))
+				.build();
+	}
+
+	private static final String SQL_InsertInto_AD_EventLog = "INSERT INTO " + I_AD_EventLog.Table_Name
+			+ " (" + I_AD_EventLog.COLUMNNAME_AD_EventLog_ID
+			+ ", " + I_AD_EventLog.COLUMNNAME_AD_Client_ID
+			+ ", " + I_AD_EventLog.COLUMNNAME_AD_Org_ID
+			+ ", " + I_AD_EventLog.COLUMNNAME_IsActive
+			+ ", " + I_AD_EventLog.COLUMNNAME_Created
+			+ ", " + I_AD_EventLog.COLUMNNAME_CreatedBy
+			+ ", " + I_AD_EventLog.COLUMNNAME_Updated
+			+ ", " + I_AD_EventLog.COLUMNNAME_UpdatedBy
+			+ ", " + I_AD_EventLog.COLUMNNAME_Event_UUID
+			+ ", " + I_AD_EventLog.COLUMNNAME_EventTime
+			+ ", " + I_AD_EventLog.COLUMNNAME_EventData
+			+ ", " + I_AD_EventLog.COLUMNNAME_EventTopicName
+			+ ", " + I_AD_EventLog.COLUMNNAME_EventTypeName
+			+ ", " + I_AD_EventLog.COLUMNNAME_IsError
+			+ ", " + I_AD_EventLog.COLUMNNAME_IsErrorAcknowledged
+			+ ") VALUES (?, ?, ?, 'Y', ?, ?, ?, ?, ?, ?, ?, ?, ?, 'N', 'N')";
+
+	/**
+	 * Inserts the given event logs using one JDBC batch and puts their IDs into our UUID->EventLogId cache.
+	 */
+	private void insertEventLogs(@NonNull final List<PendingEventLog> eventLogs)
+	{
+		final Map<UUID, EventLogId> eventLogIdsByUUID = new HashMap<>(eventLogs.size());
+		final Map<Integer, Iterator<Integer>> eventLogRepoIdsByClientId = allocateEventLogRepoIds(eventLogs);
+
+		PreparedStatement pstmt = null;
+		try
+		{
+			pstmt = DB.prepareStatement(SQL_InsertInto_AD_EventLog, ITrx.TRXNAME_None);
+			for (final PendingEventLog eventLog : eventLogs)
+			{
+				final EventLogId eventLogId = EventLogId.ofRepoId(eventLogRepoIdsByClientId.get(eventLog.getClientId()).next());
+				final Timestamp now = SystemTime.asTimestamp();
+
+				final Object[] sqlParams = new Object[] {
+						eventLogId.getRepoId(),
+						eventLog.getClientId(),
+						eventLog.getOrgId(),
+						now,
+						eventLog.getUserId(),
+						now,
+						eventLog.getUserId(),
+						eventLog.getUuid().toString(),
+						Timestamp.from(eventLog.getEventTime()),
+						eventLog.getEventData(),
+						eventLog.getEventTopicName(),
+						eventLog.getEventTypeName()
+				};
+				DB.setParameters(pstmt, sqlParams);
+				pstmt.addBatch();
+
+				eventLogIdsByUUID.put(eventLog.getUuid(), eventLogId);
+			}
+
+			pstmt.executeBatch();
+		}
+		catch (final SQLException ex)
+		{
+			throw new DBException(ex, SQL_InsertInto_AD_EventLog);
+		}
+		finally
+		{
+			DB.close(pstmt);
+		}
+
+		uuid2eventLogId.putAll(eventLogIdsByUUID);
+	}
+
+	/**
+	 * Allocates the {@code AD_EventLog_ID}s for the given event logs in one go per client, instead of fetching them one by one.
+	 *
+	 * @return for each client, an iterator over as many IDs as the given list has event logs of that client
+	 */
+	private static Map<Integer, Iterator<Integer>> allocateEventLogRepoIds(@NonNull final List<PendingEventLog> eventLogs)
+	{
+		final Map<Integer, Long> countsByClientId = eventLogs.stream()
+				.collect(Collectors.groupingBy(PendingEventLog::getClientId, Collectors.counting()));
+
+		final Map<Integer, Iterator<Integer>> repoIdsByClientId = new HashMap<>(countsByClientId.size());
+		countsByClientId.forEach((clientId, count) -> repoIdsByClientId.put(clientId, allocateEventLogRepoIds(clientId, count.intValue()).iterator()));
+		return repoIdsByClientId;
+	}
+
+	private static List<Integer> allocateEventLogRepoIds(final int clientId, final int count)
+	{
+		if (DB.isUseNativeSequences(clientId, I_AD_EventLog.Table_Name))
+		{
+			final String sql = "SELECT " + DB.TO_TABLESEQUENCE_NEXTVAL(I_AD_EventLog.Table_Name) + " FROM generate_series(1, ?)";
+			return DB.retrieveRowsOutOfTrx(sql, ImmutableList.of(count), rs -> rs.getInt(1));
+		}
+
+		return MSequence.getNextIDs(clientId, I_AD_EventLog.Table_Name, count);
+	}
+
 	public void saveEventLogEntries(@NonNull final Collection<EventLogEntry> eventLogEntries)
 	{
 		if (eventLogEntries.isEmpty())
@@ -123,8 +321,16 @@ public class EventLogService
 		}
 
 		//
-		// warn up UUID->EventLogId cache
+		// make sure the event logs themselves were written
 		final ImmutableSet<UUID> uuids = eventLogEntries.stream().map(EventLogEntry::getUuid).collect(ImmutableSet.toImmutableSet());
+		final AsyncEventLogWriter asyncWriter = this.asyncWriter;
+		if (asyncWriter != null)
+		{
+			asyncWriter.flush(uuids);
+		}
+
+		//
+		// warn up UUID->EventLogId cache
 		getEventLogIdsUsingCacheOutOfTrx(uuids);
 
 		//
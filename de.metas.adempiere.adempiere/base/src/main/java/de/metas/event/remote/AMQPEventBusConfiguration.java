@@ -1,12 +1,14 @@
 package de.metas.event.remote;
 
-import org.springframework.amqp.core.AmqpTemplate;
 import org.springframework.amqp.core.AnonymousQueue;
 import org.springframework.amqp.core.Binding;
 import org.springframework.amqp.core.BindingBuilder;
 import org.springframework.amqp.core.FanoutExchange;
 import org.springframework.amqp.rabbit.annotation.EnableRabbit;
+import org.springframework.amqp.rabbit.connection.CachingConnectionFactory;
+import org.springframework.amqp.rabbit.connection.ConnectionFactory;
 import org.springframework.amqp.rabbit.connection.ConnectionNameStrategy;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
@@ -54,6 +56,20 @@ public class AMQPEventBusConfiguration
 	@Value("${spring.application.name:spring.application.name-not-set}")
 	private String appName;
 
+	/** If false, the events are sent as plain json */
+	@Value("${metasfresh.events.rabbitmq.binary:true}")
+	private boolean binarySerializer;
+
+	@Value("${metasfresh.events.rabbitmq.batch.maxSize:100}")
+	private int maxBatchSize;
+
+	/** How long events may be collected before they are sent. Zero means that each event is sent as soon as possible. */
+	@Value("${metasfresh.events.rabbitmq.batch.maxDelayMillis:10}")
+	private long maxBatchDelayMillis;
+
+	@Value("${metasfresh.events.rabbitmq.send.maxAttempts:3}")
+	private int maxSendAttempts;
+
 	@Bean
 	public AnonymousQueue.NamingStrategy namingStrategy()
 	{
@@ -112,9 +128,22 @@ public class AMQPEventBusConfiguration
 		return connectionFactory -> appName;
 	}
 
+	/**
+	 * Note: if {@code spring.rabbitmq.publisher-confirms=true}, the endpoint waits for the broker's confirmation and retries if it doesn't get one.
+	 */
 	@Bean
-	public RabbitMQEventBusRemoteEndpoint eventBusRemoteEndpoint(@NonNull final AmqpTemplate amqpTemplate)
+	public RabbitMQEventBusRemoteEndpoint eventBusRemoteEndpoint(@NonNull final ConnectionFactory connectionFactory)
 	{
-		return new RabbitMQEventBusRemoteEndpoint(amqpTemplate);
+		final boolean publisherConfirms = connectionFactory instanceof CachingConnectionFactory
+				&& ((CachingConnectionFactory)connectionFactory).isPublisherConfirms();
+
+		return RabbitMQEventBusRemoteEndpoint.builder()
+				.rabbitTemplate(new RabbitTemplate(connectionFactory)) // our own template, because we set our own confirm callback on it
+				.serializer(binarySerializer ? JacksonEventBatchSerializer.SMILE : JacksonEventBatchSerializer.JSON)
+				.maxBatchSize(maxBatchSize)
+				.maxBatchDelayMillis(maxBatchDelayMillis)
+				.maxSendAttempts(maxSendAttempts)
+				.publisherConfirms(publisherConfirms)
+				.build();
 	}
 }
@@ -0,0 +1,40 @@
+package de.metas.event.remote;
+
+import java.util.List;
+
+import de.metas.event.Event;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2019 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Serialize/Deserialize a list of {@link Event}s to/from bytes, e.g. to send them as one message.
+ */
+public interface IEventBatchSerializer
+{
+	/** @return the MIME type of the bytes which are produced by this serializer */
+	String getContentType();
+
+	byte[] toBytes(List<Event> events);
+
+	List<Event> fromBytes(byte[] bytes);
+}
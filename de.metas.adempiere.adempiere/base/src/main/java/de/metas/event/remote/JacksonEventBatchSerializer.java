@@ -0,0 +1,145 @@
+package de.metas.event.remote;
+
+import java.io.IOException;
+import java.util.List;
+
+import org.adempiere.exceptions.AdempiereException;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+import de.metas.JsonObjectMapperHolder;
+import de.metas.event.Event;
+import lombok.NonNull;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2019 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * {@link IEventBatchSerializer} which uses jackson.
+ * <p>
+ * Use {@link #SMILE} for the compact binary encoding or {@link #JSON} to send plain (human readable) json.
+ */
+public final class JacksonEventBatchSerializer implements IEventBatchSerializer
+{
+	public static final String CONTENT_TYPE_SMILE = "application/x-jackson-smile";
+	public static final String CONTENT_TYPE_JSON = "application/json";
+
+	public static final transient JacksonEventBatchSerializer SMILE = new JacksonEventBatchSerializer(
+			CONTENT_TYPE_SMILE,
+			new ObjectMapper(new SmileFactory())
+					.findAndRegisterModules()
+					.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+					.disable(DeserializationFeature.ADJUST_DATES_TO_CONTEXT_TIME_ZONE));
+
+	public static final transient JacksonEventBatchSerializer JSON = new JacksonEventBatchSerializer(
+			CONTENT_TYPE_JSON,
+			JsonObjectMapperHolder.newJsonObjectMapper());
+
+	/**
+	 * @return the serializer for given content type or {@code null}
+	 */
+	public static JacksonEventBatchSerializer ofContentTypeOrNull(final String contentType)
+	{
+		if (CONTENT_TYPE_SMILE.equals(contentType))
+		{
+			return SMILE;
+		}
+		else if (CONTENT_TYPE_JSON.equals(contentType))
+		{
+			return JSON;
+		}
+		else
+		{
+			return null;
+		}
+	}
+
+	private final String contentType;
+	private final ObjectWriter writer;
+	private final ObjectReader listReader;
+	private final ObjectReader eventReader;
+
+	private JacksonEventBatchSerializer(@NonNull final String contentType, @NonNull final ObjectMapper objectMapper)
+	{
+		this.contentType = contentType;
+
+		final TypeReference<List<Event>> eventsListType = new TypeReference<List<Event>>()
+		{
+		};
+		this.writer = objectMapper.writerFor(eventsListType);
+		this.listReader = objectMapper.readerFor(eventsListType);
+		this.eventReader = objectMapper.readerFor(Event.class);
+	}
+
+	@Override
+	public String getContentType()
+	{
+		return contentType;
+	}
+
+	@Override
+	public byte[] toBytes(@NonNull final List<Event> events)
+	{
+		try
+		{
+			return writer.writeValueAsBytes(events);
+		}
+		catch (final IOException ex)
+		{
+			throw new AdempiereException("Failed serializing events: " + events, ex);
+		}
+	}
+
+	@Override
+	public List<Event> fromBytes(@NonNull final byte[] bytes)
+	{
+		try
+		{
+			return listReader.readValue(bytes);
+		}
+		catch (final IOException ex)
+		{
+			throw new AdempiereException("Failed deserializing events from " + bytes.length + " bytes of " + contentType, ex);
+		}
+	}
+
+	/**
+	 * Reads a single event, as it was sent before we started to send batches.
+	 */
+	public Event singleEventFromBytes(@NonNull final byte[] bytes)
+	{
+		try
+		{
+			return eventReader.readValue(bytes);
+		}
+		catch (final IOException ex)
+		{
+			throw new AdempiereException("Failed deserializing event from " + bytes.length + " bytes of " + contentType, ex);
+		}
+	}
+}
@@ -0,0 +1,493 @@
+package de.metas.event.remote;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.adempiere.util.concurrent.CustomizableThreadFactory;
+import org.slf4j.Logger;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageBuilder;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.rabbit.support.CorrelationData;
+
+import com.google.common.collect.ImmutableList;
+
+import de.metas.event.Event;
+import de.metas.logging.LogManager;
+import lombok.Builder;
+import lombok.NonNull;
+import lombok.Value;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2019 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Collects the events which shall be sent to RabbitMQ per topic and sends each topic's events as one message,
+ * either when {@code maxBatchSize} events were collected or {@code maxBatchDelayMillis} after the first one was collected.
+ * <p>
+ * Messages which failed to be sent are sent again, up to {@code maxSendAttempts} times.
+ * Until then, the later messages of the same topic wait, so the messages of a topic are sent in order.
+ * <p>
+ * If the given {@link RabbitTemplate}'s connection factory has publisher confirms enabled, then messages which were not confirmed by the broker
+ * (negative acknowledge or no confirm within {@code confirmTimeoutMillis}, default {@value #DEFAULT_CONFIRM_TIMEOUT_MILLIS}ms) are sent again as well.
+ * They are sent ahead of the topic's messages which were not yet sent, but after those which were already sent while waiting for the confirm.
+ * So in this (rare) case, the topic's order is not kept. Waiting for each message's confirm before sending the next one would keep it,
+ * but would cost one broker roundtrip per message.
+ * <p>
+ * On {@link #shutdown()}, the collected events and the messages which wait for a retry are sent right away, and delayed tasks (e.g. confirm timeouts) are cancelled.
+ * Events which are sent after that are sent synchronously, without batching and without retries.
+ */
+final class RabbitMQEventBatchSender
+{
+	private static final Logger logger = LogManager.getLogger(RabbitMQEventBatchSender.class);
+
+	private static final long DEFAULT_RETRY_DELAY_MILLIS = 200;
+	private static final long DEFAULT_CONFIRM_TIMEOUT_MILLIS = 30_000;
+	private static final long SHUTDOWN_TIMEOUT_MILLIS = 5_000;
+
+	private final RabbitTemplate rabbitTemplate;
+	private final String exchangeName;
+	private final IEventBatchSerializer serializer;
+	private final Map<String, Object> headers;
+	private final String topicNameHeader;
+	private final int maxBatchSize;
+	private final long maxBatchDelayMillis;
+	private final int maxSendAttempts;
+	private final long retryDelayMillis;
+	private final boolean publisherConfirms;
+	private final long confirmTimeoutMillis;
+
+	/**
+	 * Single threaded, so the messages of a topic are sent in the same order as their events were collected.
+	 * Delayed tasks are cancelled on shutdown.
+	 */
+	private final ScheduledThreadPoolExecutor executor;
+
+	/** Guarded by itself, like {@link #shutdown} */
+	private final HashMap<String, List<Event>> batchesByTopicName = new HashMap<>();
+	/** Guarded by {@link #batchesByTopicName}; if true, {@link #executor} does not accept new tasks */
+	private boolean shutdown = false;
+
+	private final ConcurrentHashMap<String, PendingMessage> messagesWaitingForConfirm = new ConcurrentHashMap<>();
+	private final ConcurrentHashMap<String, ScheduledFuture<?>> confirmTimeoutsByCorrelationId = new ConcurrentHashMap<>();
+
+	/** Messages which were not yet sent, per topic. Only accessed by our executor's thread. */
+	private final HashMap<String, ArrayDeque<PendingMessage>> outboxesByTopicName = new HashMap<>();
+	/** Topics whose first outbox message failed to be sent and shall be sent again after a delay. Only accessed by our executor's thread. */
+	private final HashSet<String> topicNamesWaitingForRetry = new HashSet<>();
+
+	@Value
+	private static class PendingMessage
+	{
+		String topicName;
+		Message message;
+		int countEvents;
+		int attempt;
+
+		public PendingMessage withNextAttempt()
+		{
+			return new PendingMessage(topicName, message, countEvents, attempt + 1);
+		}
+	}
+
+	@Builder
+	private RabbitMQEventBatchSender(
+			@NonNull final RabbitTemplate rabbitTemplate,
+			@NonNull final String exchangeName,
+			@NonNull final IEventBatchSerializer serializer,
+			@NonNull final Map<String, Object> headers,
+			@NonNull final String topicNameHeader,
+			final int maxBatchSize,
+			final long maxBatchDelayMillis,
+			final int maxSendAttempts,
+			final long retryDelayMillis,
+			final boolean publisherConfirms,
+			final long confirmTimeoutMillis)
+	{
+		this.rabbitTemplate = rabbitTemplate;
+		this.exchangeName = exchangeName;
+		this.serializer = serializer;
+		this.headers = headers;
+		this.topicNameHeader = topicNameHeader;
+		this.maxBatchSize = maxBatchSize > 0 ? maxBatchSize : 1;
+		this.maxBatchDelayMillis = maxBatchDelayMillis > 0 ? maxBatchDelayMillis : 0;
+		this.maxSendAttempts = maxSendAttempts > 0 ? maxSendAttempts : 1;
+		this.retryDelayMillis = retryDelayMillis > 0 ? retryDelayMillis : DEFAULT_RETRY_DELAY_MILLIS;
+		this.publisherConfirms = publisherConfirms;
+		this.confirmTimeoutMillis = confirmTimeoutMillis > 0 ? confirmTimeoutMillis : DEFAULT_CONFIRM_TIMEOUT_MILLIS;
+
+		executor = new ScheduledThreadPoolExecutor(1, CustomizableThreadFactory.builder()
+				.setThreadNamePrefix(RabbitMQEventBatchSender.class.getName())
+				.setDaemon(true)
+				.build());
+		executor.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+		executor.setRemoveOnCancelPolicy(true);
+
+		if (publisherConfirms)
+		{
+			rabbitTemplate.setConfirmCallback(this::onConfirm);
+		}
+	}
+
+	public void send(@NonNull final String topicName, @NonNull final Event event)
+	{
+		synchronized (batchesByTopicName)
+		{
+			if (shutdown)
+			{
+				logger.warn("Sender is shut down; sending the event for topic {} synchronously, without retries: {}", topicName, event);
+				sendNow(topicName, ImmutableList.of(event));
+				return;
+			}
+
+			final List<Event> batch = batchesByTopicName.computeIfAbsent(topicName, k -> new ArrayList<>());
+			batch.add(event);
+
+			if (batch.size() >= maxBatchSize || maxBatchDelayMillis <= 0)
+			{
+				batchesByTopicName.remove(topicName);
+				executor.execute(() -> sendBatch(topicName, batch));
+			}
+			else if (batch.size() == 1)
+			{
+				executor.schedule(() -> sendCollectedBatch(topicName), maxBatchDelayMillis, TimeUnit.MILLISECONDS);
+			}
+		}
+	}
+
+	private void sendCollectedBatch(final String topicName)
+	{
+		final List<Event> batch;
+		synchronized (batchesByTopicName)
+		{
+			batch = batchesByTopicName.remove(topicName);
+		}
+
+		if (batch != null)
+		{
+			sendBatch(topicName, batch);
+		}
+	}
+
+	private void sendBatch(final String topicName, final List<Event> batch)
+	{
+		final Message message = toMessageOrNull(topicName, batch);
+		if (message != null)
+		{
+			addToOutboxAndSend(new PendingMessage(topicName, message, batch.size(), 1), false);
+		}
+	}
+
+	private Message toMessageOrNull(final String topicName, final List<Event> batch)
+	{
+		try
+		{
+			return MessageBuilder.withBody(serializer.toBytes(batch))
+					.setContentType(serializer.getContentType())
+					.copyHeaders(headers)
+					.setHeader(topicNameHeader, topicName)
+					.build();
+		}
+		catch (final Exception ex)
+		{
+			logger.error("Failed serializing {} events for topic {}. Discarded: {}", batch.size(), topicName, batch, ex);
+			return null;
+		}
+	}
+
+	/**
+	 * Sends in the caller's thread, bypassing the outbox; used after {@link #shutdown()}.
+	 */
+	private void sendNow(final String topicName, final List<Event> batch)
+	{
+		final Message message = toMessageOrNull(topicName, batch);
+		if (message == null)
+		{
+			return;
+		}
+
+		try
+		{
+			rabbitTemplate.send(exchangeName, "", message);
+		}
+		catch (final Exception ex)
+		{
+			logger.error("Failed sending {} events to topic {}. Discarded.", batch.size(), topicName, ex);
+		}
+	}
+
+	/**
+	 * Must be called from our executor's thread.
+	 *
+	 * @param first if true, the message is sent ahead of the topic's other messages which were not yet sent
+	 */
+	private void addToOutboxAndSend(final PendingMessage pendingMessage, final boolean first)
+	{
+		final String topicName = pendingMessage.getTopicName();
+		final ArrayDeque<PendingMessage> outbox = outboxesByTopicName.computeIfAbsent(topicName, k -> new ArrayDeque<>());
+		if (first)
+		{
+			outbox.addFirst(pendingMessage);
+		}
+		else
+		{
+			outbox.addLast(pendingMessage);
+		}
+
+		sendOutbox(topicName);
+	}
+
+	/**
+	 * Sends the given topic's messages in order. If a message fails to be sent, it stays first in its outbox and the outbox is sent again after a delay.
+	 * <p>
+	 * Must be called from our executor's thread.
+	 */
+	private void sendOutbox(final String topicName)
+	{
+		if (topicNamesWaitingForRetry.contains(topicName))
+		{
+			return; // the outbox will be sent when the retry is due
+		}
+
+		final ArrayDeque<PendingMessage> outbox = outboxesByTopicName.get(topicName);
+		while (outbox != null && !outbox.isEmpty())
+		{
+			final PendingMessage pendingMessage = outbox.removeFirst();
+			try
+			{
+				send(pendingMessage);
+			}
+			catch (final Exception ex)
+			{
+				if (pendingMessage.getAttempt() < maxSendAttempts)
+				{
+					logger.warn("Failed sending {} events to topic {} (attempt {}/{}); retrying: {}",
+							pendingMessage.getCountEvents(), topicName, pendingMessage.getAttempt(), maxSendAttempts, ex.getLocalizedMessage());
+
+					outbox.addFirst(pendingMessage.withNextAttempt());
+					topicNamesWaitingForRetry.add(topicName);
+
+					final long delayMillis = retryDelayMillis * pendingMessage.getAttempt();
+					if (scheduleIfNotShutdown(() -> sendOutboxAfterRetryDelay(topicName), delayMillis) == null)
+					{
+						logger.error("Sender is shut down; discarding {} messages of topic {}", outbox.size(), topicName);
+						outbox.clear();
+						topicNamesWaitingForRetry.remove(topicName);
+					}
+					return;
+				}
+				else
+				{
+					logger.error("Failed sending {} events to topic {} after {} attempts. Discarded.",
+							pendingMessage.getCountEvents(), topicName, pendingMessage.getAttempt(), ex);
+				}
+			}
+		}
+
+		outboxesByTopicName.remove(topicName);
+	}
+
+	private void sendOutboxAfterRetryDelay(final String topicName)
+	{
+		if (topicNamesWaitingForRetry.remove(topicName))
+		{
+			sendOutbox(topicName);
+		}
+	}
+
+	private void send(final PendingMessage pendingMessage)
+	{
+		if (publisherConfirms)
+		{
+			final String correlationId = UUID.randomUUID().toString();
+			messagesWaitingForConfirm.put(correlationId, pendingMessage);
+			try
+			{
+				rabbitTemplate.send(exchangeName, "", pendingMessage.getMessage(), new CorrelationData(correlationId));
+			}
+			catch (final RuntimeException ex)
+			{
+				messagesWaitingForConfirm.remove(correlationId);
+				throw ex;
+			}
+
+			final ScheduledFuture<?> confirmTimeout = scheduleIfNotShutdown(() -> onConfirmTimeout(correlationId), confirmTimeoutMillis);
+			if (confirmTimeout != null)
+			{
+				confirmTimeoutsByCorrelationId.put(correlationId, confirmTimeout);
+				if (!messagesWaitingForConfirm.containsKey(correlationId))
+				{
+					cancelConfirmTimeout(correlationId); // the confirm already arrived
+				}
+			}
+		}
+		else
+		{
+			rabbitTemplate.send(exchangeName, "", pendingMessage.getMessage());
+		}
+
+		logger.debug("Sent {} events to topic {}", pendingMessage.getCountEvents(), pendingMessage.getTopicName());
+	}
+
+	/** Called by the rabbit client's thread. */
+	private void onConfirm(final CorrelationData correlationData, final boolean ack, final String cause)
+	{
+		if (correlationData == null)
+		{
+			return;
+		}
+
+		final PendingMessage pendingMessage = messagesWaitingForConfirm.remove(correlationData.getId());
+		cancelConfirmTimeout(correlationData.getId());
+		if (pendingMessage == null || ack)
+		{
+			return;
+		}
+
+		try
+		{
+			executor.execute(() -> resendOrGiveUp(pendingMessage, "not confirmed by broker: " + cause));
+		}
+		catch (final RejectedExecutionException ex)
+		{
+			logger.error("{} events for topic {} were not confirmed by broker ({}), but the sender is already shut down. Discarded.",
+					pendingMessage.getCountEvents(), pendingMessage.getTopicName(), cause);
+		}
+	}
+
+	private void cancelConfirmTimeout(final String correlationId)
+	{
+		final ScheduledFuture<?> confirmTimeout = confirmTimeoutsByCorrelationId.remove(correlationId);
+		if (confirmTimeout != null)
+		{
+			confirmTimeout.cancel(false);
+		}
+	}
+
+	private void onConfirmTimeout(final String correlationId)
+	{
+		confirmTimeoutsByCorrelationId.remove(correlationId);
+		final PendingMessage pendingMessage = messagesWaitingForConfirm.remove(correlationId);
+		if (pendingMessage != null)
+		{
+			resendOrGiveUp(pendingMessage, "no confirm from broker within " + confirmTimeoutMillis + "ms");
+		}
+	}
+
+	/**
+	 * Must be called from our executor's thread.
+	 */
+	private void resendOrGiveUp(final PendingMessage pendingMessage, final String reason)
+	{
+		if (pendingMessage.getAttempt() < maxSendAttempts)
+		{
+			logger.warn("Failed sending {} events to topic {} (attempt {}/{}); retrying: {}",
+					pendingMessage.getCountEvents(), pendingMessage.getTopicName(), pendingMessage.getAttempt(), maxSendAttempts, reason);
+			addToOutboxAndSend(pendingMessage.withNextAttempt(), true);
+		}
+		else
+		{
+			logger.error("Failed sending {} events to topic {} after {} attempts: {}. Discarded.",
+					pendingMessage.getCountEvents(), pendingMessage.getTopicName(), pendingMessage.getAttempt(), reason);
+		}
+	}
+
+	/**
+	 * @return the scheduled task or {@code null} if the sender is shut down
+	 */
+	private ScheduledFuture<?> scheduleIfNotShutdown(final Runnable task, final long delayMillis)
+	{
+		try
+		{
+			return executor.schedule(task, delayMillis, TimeUnit.MILLISECONDS);
+		}
+		catch (final RejectedExecutionException ex)
+		{
+			logger.warn("Sender is shut down; not scheduling {}", task);
+			return null;
+		}
+	}
+
+	/**
+	 * Sends all collected events and the messages which wait for a retry, and stops the sender.
+	 * Waits up to {@value #SHUTDOWN_TIMEOUT_MILLIS}ms for that; messages which were sent but not yet confirmed by then are not sent again.
+	 */
+	public void shutdown()
+	{
+		synchronized (batchesByTopicName)
+		{
+			if (shutdown)
+			{
+				return;
+			}
+			shutdown = true;
+
+			// executed before the shutdown, so the final attempt can't be rejected
+			executor.execute(this::sendAllPending);
+			executor.shutdown(); // also cancels the delayed tasks, e.g. the scheduled batches, retries and confirm timeouts
+		}
+
+		try
+		{
+			if (!executor.awaitTermination(SHUTDOWN_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS))
+			{
+				logger.warn("Sender did not finish sending within {}ms; stopping it", SHUTDOWN_TIMEOUT_MILLIS);
+				executor.shutdownNow();
+			}
+		}
+		catch (final InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+		}
+
+		if (!messagesWaitingForConfirm.isEmpty())
+		{
+			logger.warn("Sender is shut down while {} messages are still waiting for the broker's confirm; they won't be sent again", messagesWaitingForConfirm.size());
+		}
+	}
+
+	/**
+	 * Must be called from our executor's thread.
+	 */
+	private void sendAllPending()
+	{
+		final List<String> collectedTopicNames;
+		synchronized (batchesByTopicName)
+		{
+			collectedTopicNames = ImmutableList.copyOf(batchesByTopicName.keySet());
+		}
+		collectedTopicNames.forEach(this::sendCollectedBatch);
+
+		// don't wait for the retry delays
+		ImmutableList.copyOf(topicNamesWaitingForRetry).forEach(this::sendOutboxAfterRetryDelay);
+	}
+}
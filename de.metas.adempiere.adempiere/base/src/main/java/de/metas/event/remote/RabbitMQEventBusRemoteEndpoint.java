@@ -1,13 +1,20 @@
 package de.metas.event.remote;
 
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 
+import javax.annotation.PreDestroy;
+
+import org.adempiere.exceptions.AdempiereException;
 import org.slf4j.Logger;
-import org.springframework.amqp.core.AmqpTemplate;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
 import org.springframework.amqp.rabbit.annotation.RabbitListener;
-import org.springframework.messaging.handler.annotation.Header;
-import org.springframework.messaging.handler.annotation.Payload;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 
 import de.metas.event.Event;
 import de.metas.event.EventBusConstants;
@@ -18,7 +25,7 @@ import de.metas.event.Topic;
 import de.metas.event.Type;
 import de.metas.logging.LogManager;
 import de.metas.util.Services;
-import de.metas.util.StringUtils;
+import lombok.Builder;
 import lombok.NonNull;
 
 /*
@@ -49,27 +56,53 @@ public class RabbitMQEventBusRemoteEndpoint implements IEventBusRemoteEndpoint
 
 	private static final String HEADER_SenderId = "metasfresh-events.SenderId";
 	private static final String HEADER_TopicName = "metasfresh-events.TopicName";
+	/** Set on messages which contain a list of events, serialized by an {@link IEventBatchSerializer} */
+	private static final String HEADER_Batch = "metasfresh-events.Batch";
 
 	private final String senderId;
-	private final AmqpTemplate amqpTemplate;
+	private final RabbitMQEventBatchSender sender;
 
 	private final IEventListener eventBus2amqpListener = EventBus2RemoteEndpointHandler.newInstance(this);
 
-	public RabbitMQEventBusRemoteEndpoint(@NonNull final AmqpTemplate amqpTemplate)
+	@Builder
+	private RabbitMQEventBusRemoteEndpoint(
+			@NonNull final RabbitTemplate rabbitTemplate,
+			@NonNull final IEventBatchSerializer serializer,
+			final int maxBatchSize,
+			final long maxBatchDelayMillis,
+			final int maxSendAttempts,
+			final boolean publisherConfirms)
 	{
 		senderId = EventBusConstants.getSenderId();
-		this.amqpTemplate = amqpTemplate;
+		sender = RabbitMQEventBatchSender.builder()
+				.rabbitTemplate(rabbitTemplate)
+				.exchangeName(AMQPEventBusConfiguration.EVENTS_EXCHANGE_NAME)
+				.serializer(serializer)
+				.headers(ImmutableMap.of(
+						HEADER_SenderId, senderId,
+						HEADER_Batch, true))
+				.topicNameHeader(HEADER_TopicName)
+				.maxBatchSize(maxBatchSize)
+				.maxBatchDelayMillis(maxBatchDelayMillis)
+				.maxSendAttempts(maxSendAttempts)
+				.publisherConfirms(publisherConfirms)
+				.build();
+	}
+
+	@PreDestroy
+	public void shutdown()
+	{
+		sender.shutdown();
 	}
 
 	@RabbitListener(queues = AMQPEventBusConfiguration.EVENTS_QUEUE_NAME_SPEL)
-	public void onRemoteEvent(
-			@Payload final Event event,
-			@Header(HEADER_SenderId) final String senderId,
-			@Header(HEADER_TopicName) final String topicName)
+	public void onRemoteEvent(final Message message)
 	{
+		final Map<String, Object> headers = message.getMessageProperties().getHeaders();
+		final String topicName = (String)headers.get(HEADER_TopicName);
 		try
 		{
-			if (Objects.equals(getSenderId(), senderId))
+			if (Objects.equals(getSenderId(), headers.get(HEADER_SenderId)))
 			{
 				return;
 			}
@@ -81,44 +114,56 @@ public class RabbitMQEventBusRemoteEndpoint implements IEventBusRemoteEndpoint
 				return;
 			}
 
-			event.markReceivedByEventBusId(createEventBusId(topicName));
+			final String eventBusId = createEventBusId(topicName);
+			for (final Event event : extractEvents(message))
+			{
+				event.markReceivedByEventBusId(eventBusId);
 
-			eventBus.postEvent(event);
+				eventBus.postEvent(event);
 
-			final long durationMillis = System.currentTimeMillis() - event.getWhen().toEpochMilli();
-			logger.debug("Received event in {}ms, topic={}: {}", durationMillis, topicName, event);
+				final long durationMillis = System.currentTimeMillis() - event.getWhen().toEpochMilli();
+				logger.debug("Received event in {}ms, topic={}: {}", durationMillis, topicName, event);
+			}
 		}
 		catch (final Exception ex)
 		{
-			logger.warn("Failed forwarding event to topic {}: {}", topicName, event, ex);
+			logger.warn("Failed forwarding event(s) to topic {}: {}", topicName, message, ex);
 		}
 	}
 
-	@Override
-	public void sendEvent(final String topicName, final Event event)
+	private static List<Event> extractEvents(final Message message)
 	{
-		try
+		final MessageProperties messageProperties = message.getMessageProperties();
+		final boolean batch = messageProperties.getHeaders().get(HEADER_Batch) != null;
+		final JacksonEventBatchSerializer serializer = JacksonEventBatchSerializer.ofContentTypeOrNull(messageProperties.getContentType());
+
+		if (batch)
 		{
-			// If the event comes from this bus, don't forward it back
-			final String eventBusId = createEventBusId(topicName);
-			if (event.wasReceivedByEventBusId(eventBusId))
+			if (serializer == null)
 			{
-				return;
+				throw new AdempiereException("Unsupported content type: " + messageProperties.getContentType());
 			}
-
-			amqpTemplate.convertAndSend(AMQPEventBusConfiguration.EVENTS_EXCHANGE_NAME, "", event, message -> {
-				final Map<String, Object> headers = message.getMessageProperties().getHeaders();
-				headers.put(HEADER_SenderId, getSenderId());
-				headers.put(HEADER_TopicName, topicName);
-				return message;
-			});
-
-			logger.debug("Send event; topicName={}; event={}",topicName, event);
+			return serializer.fromBytes(message.getBody());
+		}
+		else
+		{
+			// message which contains just one json event; sent by an older version
+			return ImmutableList.of(JacksonEventBatchSerializer.JSON.singleEventFromBytes(message.getBody()));
 		}
-		catch (final Exception e)
+	}
+
+	@Override
+	public void sendEvent(final String topicName, final Event event)
+	{
+		// If the event comes from this bus, don't forward it back
+		final String eventBusId = createEventBusId(topicName);
+		if (event.wasReceivedByEventBusId(eventBusId))
 		{
-			logger.warn(StringUtils.formatMessage("Failed to send event to topic name. Ignored; topicName={}; event={}", topicName, event), e);
+			return;
 		}
+
+		sender.send(topicName, event);
+		logger.debug("Enqueued event for sending; topicName={}; event={}", topicName, event);
 	}
 
 	private final String createEventBusId(final String topicName)
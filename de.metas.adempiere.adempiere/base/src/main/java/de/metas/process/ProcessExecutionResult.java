@@ -491,6 +491,9 @@ public class ProcessExecutionResult
 		reportContentType = contentType;
 	}
 
+	/**
+	 * Reads the whole given file into this result's report data, so the file may be deleted afterwards.
+	 */
 	public void setReportData(@NonNull final File file)
 	{
 		reportData = Util.readBytes(file);
@@ -8,6 +8,7 @@ import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 
 import org.adempiere.ad.service.ITaskExecutorService;
+import org.adempiere.context.ContextSnapshot;
 import org.adempiere.exceptions.AdempiereException;
 import org.adempiere.service.ISysConfigBL;
 import org.adempiere.util.concurrent.CustomizableThreadFactory;
@@ -115,7 +116,7 @@ public class TaskExecutorService implements ITaskExecutorService
 	public <T> Future<T> submit(final Callable<T> task, final String theadNamePrefix)
 	{
 		final ScheduledThreadPoolExecutor threadPoolExecutor = getCreateExecutor(theadNamePrefix);
-		return threadPoolExecutor.submit(task);
+		return threadPoolExecutor.submit(propagateContext(task));
 	}
 
 	@Override
@@ -125,14 +126,28 @@ public class TaskExecutorService implements ITaskExecutorService
 			final String theadNamePrefix)
 	{
 		final ScheduledThreadPoolExecutor threadPoolExecutor = getCreateExecutor(theadNamePrefix);
-		return threadPoolExecutor.schedule(task, time, timeUnit);
+		return threadPoolExecutor.schedule(propagateContext(task), time, timeUnit);
+	}
+
+	/**
+	 * Makes sure the task runs with a snapshot of the submitter's context, and not with whatever context the pooled thread inherited when it was created.
+	 * The swing client has only one global context, so there is nothing to propagate.
+	 */
+	private static <T> Callable<T> propagateContext(final Callable<T> task)
+	{
+		return Ini.isSwingClient() ? task : ContextSnapshot.propagate(task);
+	}
+
+	private static Runnable propagateContext(final Runnable task)
+	{
+		return Ini.isSwingClient() ? task : ContextSnapshot.propagate(task);
 	}
 
 	@Override
 	public Future<?> submit(final Runnable task, final String theadNamePrefix)
 	{
 		final ScheduledThreadPoolExecutor threadPoolExecutor = getCreateExecutor(theadNamePrefix);
-		return threadPoolExecutor.submit(task);
+		return threadPoolExecutor.submit(propagateContext(task));
 	}
 
 }
@@ -0,0 +1,194 @@
+package org.adempiere.context;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2019 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+import java.lang.reflect.Field;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.Callable;
+
+import javax.annotation.Nullable;
+
+import org.adempiere.util.lang.IAutoCloseable;
+import org.compiere.util.Env;
+import org.slf4j.Logger;
+
+import com.google.common.collect.ImmutableMap;
+
+import de.metas.logging.LogManager;
+import lombok.EqualsAndHashCode;
+import lombok.NonNull;
+import lombok.ToString;
+
+/**
+ * Copy of a context, to be handed over explicitly to tasks which run in another thread.
+ * <p>
+ * The snapshot's set of entries can't be changed, but the copy is shallow: the values themselves are shared with the original context.
+ * That's fine for the usual context values, which are strings, but a mutable value that is changed later is also changed in the snapshot.
+ * <p>
+ * Unlike relying on the inheritable thread-local context, a snapshot does not depend on which thread happened to create the executor's worker thread,
+ * and nothing which the task writes into its context leaks back to the caller, into other tasks or into the pooled worker thread.
+ * Each task gets its own mutable copy of the snapshot, which is active only while the task runs.
+ *
+ * <pre>
+ * executor.submit(ContextSnapshot.propagate(() -> doSomething()));
+ * </pre>
+ */
+@EqualsAndHashCode
+@ToString
+public final class ContextSnapshot
+{
+	public static final ContextSnapshot EMPTY = new ContextSnapshot(ImmutableMap.of());
+
+	/** @return a snapshot of the current thread's context */
+	public static ContextSnapshot ofCurrentContext()
+	{
+		return of(Env.getCtx());
+	}
+
+	/** @return a snapshot of the given context, including the values it only inherits from its defaults */
+	public static ContextSnapshot of(@NonNull final Properties ctx)
+	{
+		// start with the outermost defaults, such that each level overrides the values it inherits
+		final ArrayDeque<Properties> levels = new ArrayDeque<>();
+		for (Properties level = ctx; level != null; level = getDefaultsOrNull(level))
+		{
+			levels.push(level);
+		}
+
+		final Map<Object, Object> values = new HashMap<>();
+		for (final Properties level : levels)
+		{
+			synchronized (level)
+			{
+				values.putAll(level);
+			}
+		}
+
+		if (FIELD_Properties_defaults == null)
+		{
+			// fallback: we can't walk the defaults, so at least take over the inherited string values
+			for (final String name : ctx.stringPropertyNames())
+			{
+				values.putIfAbsent(name, ctx.getProperty(name));
+			}
+		}
+
+		return new ContextSnapshot(ImmutableMap.copyOf(values));
+	}
+
+	private static final Logger logger = LogManager.getLogger(ContextSnapshot.class);
+
+	/** {@link Properties}'s protected {@code defaults} field, or {@code null} if the JVM doesn't allow us to access it */
+	private static final Field FIELD_Properties_defaults = findPropertiesDefaultsField();
+
+	private static Field findPropertiesDefaultsField()
+	{
+		try
+		{
+			final Field field = Properties.class.getDeclaredField("defaults");
+			field.setAccessible(true);
+			return field;
+		}
+		catch (final Exception ex)
+		{
+			logger.warn("Cannot access Properties.defaults; inherited non-string context values won't be part of context snapshots", ex);
+			return null;
+		}
+	}
+
+	@Nullable
+	private static Properties getDefaultsOrNull(@NonNull final Properties ctx)
+	{
+		if (FIELD_Properties_defaults == null)
+		{
+			return null;
+		}
+
+		try
+		{
+			return (Properties)FIELD_Properties_defaults.get(ctx);
+		}
+		catch (final IllegalAccessException ex)
+		{
+			throw new IllegalStateException("Cannot get the defaults of " + ctx, ex);
+		}
+	}
+
+	/** @return the given task, wrapped such that it runs with a snapshot of the current thread's context */
+	public static Runnable propagate(@NonNull final Runnable task)
+	{
+		return ofCurrentContext().wrap(task);
+	}
+
+	/** @return the given task, wrapped such that it runs with a snapshot of the current thread's context */
+	public static <T> Callable<T> propagate(@NonNull final Callable<T> task)
+	{
+		return ofCurrentContext().wrap(task);
+	}
+
+	private final ImmutableMap<Object, Object> values;
+
+	private ContextSnapshot(@NonNull final ImmutableMap<Object, Object> values)
+	{
+		this.values = values;
+	}
+
+	/** @return a new, mutable context which contains this snapshot's values */
+	public Properties toProperties()
+	{
+		final Properties ctx = new Properties();
+		ctx.putAll(values);
+		return ctx;
+	}
+
+	/**
+	 * Makes a copy of this snapshot the current thread's context, until the returned {@link IAutoCloseable} is closed.
+	 */
+	public IAutoCloseable activate()
+	{
+		return Env.switchContext(toProperties());
+	}
+
+	public Runnable wrap(@NonNull final Runnable task)
+	{
+		return () -> {
+			try (final IAutoCloseable contextRestorer = activate())
+			{
+				task.run();
+			}
+		};
+	}
+
+	public <T> Callable<T> wrap(@NonNull final Callable<T> task)
+	{
+		return () -> {
+			try (final IAutoCloseable contextRestorer = activate())
+			{
+				return task.call();
+			}
+		};
+	}
+}
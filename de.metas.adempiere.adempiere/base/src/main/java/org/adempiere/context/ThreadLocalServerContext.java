@@ -35,6 +35,14 @@ import de.metas.util.Check;
 {
 	private static final long serialVersionUID = 794823850355755679L;
 
+	/**
+	 * System property which, if set to {@code false}, stops new threads from inheriting the context of the thread that created them.
+	 * In that case, tasks that need the caller's context shall receive it explicitly via {@link ContextSnapshot}.
+	 */
+	public static final String SYSTEM_PROPERTY_InheritContext = "org.adempiere.context.ThreadLocalServerContext.InheritContext";
+
+	private final boolean inheritContext = !"false".equalsIgnoreCase(System.getProperty(SYSTEM_PROPERTY_InheritContext));
+
 	private IContextProviderListener listener = NullContextProviderListener.instance;
 
 	private final InheritableThreadLocal<Properties> threadLocalContext = new InheritableThreadLocal<Properties>()
@@ -48,10 +56,15 @@ import de.metas.util.Check;
 			return ctx;
 		}
 
-		/** @Return a new properties instance, using the given <code>parentValue</code> for defaults */
+		/** @Return a new properties instance, using the given <code>parentValue</code> for defaults; an empty one if {@link #inheritContext} is {@code false} */
 		@Override
 		protected Properties childValue(final Properties ctx)
 		{
+			if (!inheritContext)
+			{
+				return initialValue();
+			}
+
 			final Properties childCtx = new Properties(ctx);
 			listener.onChildContextCreated(ctx, childCtx);
 			return childCtx;
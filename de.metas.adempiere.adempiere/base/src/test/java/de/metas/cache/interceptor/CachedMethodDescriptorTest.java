@@ -64,6 +64,12 @@ public class CachedMethodDescriptorTest
 		{
 			return "testId=" + testId + ", trxName=" + trxName;
 		}
+
+		@Cached
+		public Object getByIds(final int testId, final int otherId)
+		{
+			return "testId=" + testId + ", otherId=" + otherId;
+		}
 	}
 
 	@Test
@@ -134,4 +140,34 @@ public class CachedMethodDescriptorTest
 				"Keys shall be equal because trxName shall not be included (we are using different cache storages)",
 				keyBuilder1.buildKey(), keyBuilder2.buildKey());
 	}
+
+	@Test
+	public void test_FastPath() throws Exception
+	{
+		final TestClass testObj = new TestClass();
+		final Method method = testObj.getClass().getMethod("getByIds", int.class, int.class);
+		final CachedMethodDescriptor methodDescriptor = new CachedMethodDescriptor(method);
+		Assert.assertTrue("fast path shall be applicable", methodDescriptor.isFastPath());
+
+		final Object key1 = methodDescriptor.createFastPathKey(new Object[] { 100, 200 });
+		final Object key2 = methodDescriptor.createFastPathKey(new Object[] { 100, 200 });
+		final Object key3 = methodDescriptor.createFastPathKey(new Object[] { 200, 100 });
+		Assert.assertEquals(key1, key2);
+		Assert.assertEquals(key1.hashCode(), key2.hashCode());
+		Assert.assertNotEquals(key1, key3);
+	}
+
+	@Test
+	public void test_FastPath_NotApplicableForCacheTrx() throws Exception
+	{
+		final Method method = TestClass.class.getMethod("getWithTrxName", int.class, String.class);
+		Assert.assertFalse(new CachedMethodDescriptor(method).isFastPath());
+	}
+
+	@Test
+	public void test_FastPath_NotApplicableForCacheCtx() throws Exception
+	{
+		final Method method = TestClass.class.getMethod("get", Properties.class, int.class);
+		Assert.assertFalse(new CachedMethodDescriptor(method).isFastPath());
+	}
 }
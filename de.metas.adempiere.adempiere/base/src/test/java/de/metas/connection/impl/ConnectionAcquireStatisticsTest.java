@@ -0,0 +1,62 @@
+package de.metas.connection.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2019 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class ConnectionAcquireStatisticsTest
+{
+	@Test
+	public void histogram()
+	{
+		final ConnectionAcquireStatistics statistics = new ConnectionAcquireStatistics();
+		statistics.recordAcquired(TimeUnit.MICROSECONDS.toNanos(300));
+		statistics.recordAcquired(TimeUnit.MILLISECONDS.toNanos(3));
+		statistics.recordAcquired(TimeUnit.MILLISECONDS.toNanos(5));
+		statistics.recordAcquired(TimeUnit.MILLISECONDS.toNanos(200));
+		statistics.recordAcquired(TimeUnit.SECONDS.toNanos(10));
+		statistics.recordTimeout();
+
+		assertThat(statistics.getHistogramBucketNames()).containsExactly("<=1ms", "<=5ms", "<=10ms", "<=50ms", "<=100ms", "<=500ms", "<=1000ms", "<=5000ms", ">5000ms");
+		assertThat(statistics.getHistogramCounts()).containsExactly(1, 2, 0, 0, 0, 1, 0, 0, 1);
+		assertThat(statistics.getCountAcquired()).isEqualTo(5);
+		assertThat(statistics.getCountTimeouts()).isEqualTo(1);
+		assertThat(statistics.getMaxAcquireMillis()).isEqualTo(10_000d);
+	}
+
+	@Test
+	public void reset()
+	{
+		final ConnectionAcquireStatistics statistics = new ConnectionAcquireStatistics();
+		statistics.recordAcquired(TimeUnit.MILLISECONDS.toNanos(3));
+		statistics.reset();
+
+		assertThat(statistics.getCountAcquired()).isZero();
+		assertThat(statistics.getAverageAcquireMillis()).isZero();
+		assertThat(statistics.getHistogramCounts()).containsOnly(0);
+	}
+}
@@ -0,0 +1,201 @@
+package de.metas.document.sequence.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+
+import org.adempiere.service.ISysConfigBL;
+import org.adempiere.test.AdempiereTestHelper;
+import org.compiere.model.I_AD_Sequence;
+import org.compiere.model.I_AD_Sequence_No;
+import org.compiere.model.I_C_Order;
+import org.junit.Before;
+import org.junit.Test;
+
+import de.metas.cache.CacheMgt;
+import de.metas.document.sequence.ISequenceBlockAllocator;
+import de.metas.document.sequence.ISequenceBlockAllocator.BlockKey;
+import de.metas.document.sequence.ISequenceBlockAllocator.ReservedBlock;
+import de.metas.util.Services;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2019 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class SequenceBlockAllocatorTest
+{
+	private ISequenceBlockAllocator allocator;
+
+	/** simulates the {@code AD_Sequence.CurrentNext} column */
+	private AtomicInteger currentNext;
+	private AtomicInteger reservationsCount;
+
+	@Before
+	public void init()
+	{
+		AdempiereTestHelper.get().init();
+		allocator = Services.get(ISequenceBlockAllocator.class);
+		currentNext = new AtomicInteger(1000);
+		reservationsCount = new AtomicInteger(0);
+	}
+
+	private IntFunction<ReservedBlock> blockReserver(final int incrementNo)
+	{
+		return count -> {
+			reservationsCount.incrementAndGet();
+			return ReservedBlock.of(currentNext.getAndAdd(count * incrementNo), incrementNo);
+		};
+	}
+
+	@Test
+	public void numbers_are_handed_out_from_reserved_blocks()
+	{
+		final BlockKey key = BlockKey.ofTableName("C_Order");
+
+		for (int i = 0; i < 25; i++)
+		{
+			assertThat(allocator.nextNo(key, 10, blockReserver(1))).isEqualTo(1000 + i);
+		}
+		assertThat(reservationsCount.get()).isEqualTo(3);
+		assertThat(currentNext.get()).isEqualTo(1030);
+	}
+
+	@Test
+	public void incrementNo_is_respected()
+	{
+		final BlockKey key = BlockKey.ofDocumentSequence(1, "2019");
+
+		assertThat(allocator.nextNo(key, 3, blockReserver(5))).isEqualTo(1000);
+		assertThat(allocator.nextNo(key, 3, blockReserver(5))).isEqualTo(1005);
+		assertThat(allocator.nextNo(key, 3, blockReserver(5))).isEqualTo(1010);
+		assertThat(allocator.nextNo(key, 3, blockReserver(5))).isEqualTo(1015);
+		assertThat(reservationsCount.get()).isEqualTo(2);
+	}
+
+	@Test
+	public void different_keys_have_their_own_blocks()
+	{
+		assertThat(allocator.nextNo(BlockKey.ofDocumentSequence(1, "2018"), 10, blockReserver(1))).isEqualTo(1000);
+		assertThat(allocator.nextNo(BlockKey.ofDocumentSequence(1, "2019"), 10, blockReserver(1))).isEqualTo(1010);
+		assertThat(allocator.nextNo(BlockKey.ofDocumentSequence(1, "2018"), 10, blockReserver(1))).isEqualTo(1001);
+	}
+
+	@Test
+	public void peekNextNo_does_not_take_the_number()
+	{
+		final BlockKey key = BlockKey.ofTableName("M_InOut");
+		assertThat(allocator.peekNextNo(key)).isEqualTo(-1);
+
+		assertThat(allocator.nextNo(key, 2, blockReserver(1))).isEqualTo(1000);
+		assertThat(allocator.peekNextNo(key)).isEqualTo(1001);
+		assertThat(allocator.peekNextNo(key)).isEqualTo(1001);
+		assertThat(allocator.nextNo(key, 2, blockReserver(1))).isEqualTo(1001);
+
+		// block exhausted; the next number will come from a new block, starting at the database's current next
+		assertThat(allocator.peekNextNo(key)).isEqualTo(-1);
+		assertThat(currentNext.get()).isEqualTo(1002);
+	}
+
+	@Test
+	public void gapFree_sequences_have_block_size_one()
+	{
+		Services.get(ISysConfigBL.class).setValue(SequenceBlockAllocator.SYSCONFIG_BLOCK_SIZE_PREFIX + "MySequence", 50, 0);
+
+		assertThat(allocator.getBlockSize("MySequence", false)).isEqualTo(50);
+		assertThat(allocator.getBlockSize("MySequence", true)).isEqualTo(1);
+		assertThat(allocator.getBlockSize("OtherSequence", false)).isEqualTo(1);
+	}
+
+	@Test
+	public void services_return_the_same_allocator()
+	{
+		assertThat(Services.get(ISequenceBlockAllocator.class)).isSameAs(allocator);
+	}
+
+	@Test
+	public void blocks_are_dropped_when_AD_Sequence_is_changed()
+	{
+		final BlockKey key = BlockKey.ofTableName("C_Order");
+		assertThat(allocator.nextNo(key, 10, blockReserver(1))).isEqualTo(1000);
+		assertThat(allocator.peekNextNo(key)).isEqualTo(1001);
+
+		// e.g. a user changed the sequence's CurrentNext
+		currentNext.set(5000);
+		CacheMgt.get().reset(I_AD_Sequence.Table_Name, 123);
+
+		assertThat(allocator.peekNextNo(key)).isEqualTo(-1);
+		assertThat(allocator.nextNo(key, 10, blockReserver(1))).isEqualTo(5000);
+		assertThat(reservationsCount.get()).isEqualTo(2);
+	}
+
+	@Test
+	public void blocks_are_dropped_when_AD_Sequence_No_is_changed()
+	{
+		final BlockKey key = BlockKey.ofDocumentSequence(1, "2019");
+		assertThat(allocator.nextNo(key, 10, blockReserver(1))).isEqualTo(1000);
+
+		CacheMgt.get().reset(I_AD_Sequence_No.Table_Name, 456);
+
+		assertThat(allocator.peekNextNo(key)).isEqualTo(-1);
+	}
+
+	@Test
+	public void blocks_are_kept_when_other_tables_are_changed()
+	{
+		final BlockKey key = BlockKey.ofTableName("C_Order");
+		assertThat(allocator.nextNo(key, 10, blockReserver(1))).isEqualTo(1000);
+
+		CacheMgt.get().reset(I_C_Order.Table_Name, 123);
+
+		assertThat(allocator.peekNextNo(key)).isEqualTo(1001);
+		assertThat(reservationsCount.get()).isEqualTo(1);
+	}
+
+	@Test
+	public void concurrent_callers_never_get_the_same_number() throws Exception
+	{
+		final BlockKey key = BlockKey.ofTableName("C_Invoice");
+		final int threads = 8;
+		final int numbersPerThread = 1000;
+		final Set<Integer> numbers = ConcurrentHashMap.newKeySet();
+
+		final ExecutorService executor = Executors.newFixedThreadPool(threads);
+		for (int t = 0; t < threads; t++)
+		{
+			executor.execute(() -> {
+				for (int i = 0; i < numbersPerThread; i++)
+				{
+					numbers.add(allocator.nextNo(key, 7, blockReserver(1)));
+				}
+			});
+		}
+		executor.shutdown();
+		assertThat(executor.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+
+		assertThat(numbers).hasSize(threads * numbersPerThread);
+	}
+}
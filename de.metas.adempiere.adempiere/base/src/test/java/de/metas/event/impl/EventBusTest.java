@@ -0,0 +1,169 @@
+package de.metas.event.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.adempiere.test.AdempiereTestHelper;
+import org.junit.Before;
+import org.junit.Test;
+
+import de.metas.event.Event;
+import de.metas.event.IEventBus;
+import de.metas.event.IEventListener;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2019 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class EventBusTest
+{
+	@Before
+	public void init()
+	{
+		AdempiereTestHelper.get().init();
+	}
+
+	/**
+	 * The listener only returns once it was invoked for both events at the same time,
+	 * i.e. if the bus does not serialize the invocations of a listener which allows concurrent events.
+	 */
+	@Test
+	public void listener_which_allows_concurrent_events_is_invoked_concurrently_from_different_partitions() throws Exception
+	{
+		final EventBus eventBus = new EventBus("test", new PartitionedEventExecutor("test", 2));
+		try
+		{
+			final CountDownLatch invoked = new CountDownLatch(2);
+			final CountDownLatch done = new CountDownLatch(2);
+			eventBus.subscribe(new IEventListener()
+			{
+				@Override
+				public void onEvent(final IEventBus bus, final Event event)
+				{
+					invoked.countDown();
+					try
+					{
+						if (invoked.await(5, TimeUnit.SECONDS))
+						{
+							done.countDown();
+						}
+					}
+					catch (final InterruptedException e)
+					{
+						Thread.currentThread().interrupt();
+					}
+				}
+
+				@Override
+				public boolean isAllowConcurrentEvents()
+				{
+					return true;
+				}
+			});
+
+			// with two partitions, the keys "0" and "1" end up on different partitions
+			eventBus.postEvent(Event.builder().setPartitionKey("0").build());
+			eventBus.postEvent(Event.builder().setPartitionKey("1").build());
+
+			assertThat(done.await(10, TimeUnit.SECONDS)).isTrue();
+		}
+		finally
+		{
+			eventBus.destroy();
+		}
+	}
+
+	@Test
+	public void listener_is_invoked_for_one_event_at_a_time_by_default() throws Exception
+	{
+		final EventBus eventBus = new EventBus("test", new PartitionedEventExecutor("test", 4));
+		try
+		{
+			final int events = 40;
+			final CountDownLatch done = new CountDownLatch(events);
+			final AtomicInteger running = new AtomicInteger();
+			final AtomicInteger maxRunning = new AtomicInteger();
+			eventBus.subscribe((bus, event) -> {
+				maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+				try
+				{
+					Thread.sleep(5);
+				}
+				catch (final InterruptedException e)
+				{
+					Thread.currentThread().interrupt();
+				}
+				finally
+				{
+					running.decrementAndGet();
+					done.countDown();
+				}
+			});
+
+			for (int i = 0; i < events; i++)
+			{
+				eventBus.postEvent(Event.builder().setPartitionKey(String.valueOf(i)).build());
+			}
+
+			assertThat(done.await(10, TimeUnit.SECONDS)).isTrue();
+			assertThat(maxRunning.get()).isEqualTo(1);
+		}
+		finally
+		{
+			eventBus.destroy();
+		}
+	}
+
+	@Test
+	public void events_without_partitionKey_are_received_in_the_order_they_were_posted() throws Exception
+	{
+		final EventBus eventBus = new EventBus("test", new PartitionedEventExecutor("test", 4));
+		try
+		{
+			final int events = 500;
+			final CountDownLatch done = new CountDownLatch(events);
+			final List<Integer> received = Collections.synchronizedList(new ArrayList<>());
+			eventBus.subscribe((bus, event) -> {
+				received.add(event.getProperty("seqNo"));
+				done.countDown();
+			});
+
+			for (int i = 0; i < events; i++)
+			{
+				eventBus.postEvent(Event.builder().putProperty("seqNo", i).build());
+			}
+
+			assertThat(done.await(10, TimeUnit.SECONDS)).isTrue();
+			assertThat(received).hasSize(events);
+			assertThat(received).isSorted();
+		}
+		finally
+		{
+			eventBus.destroy();
+		}
+	}
+}
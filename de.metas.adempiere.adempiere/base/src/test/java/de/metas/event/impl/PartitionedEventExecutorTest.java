@@ -0,0 +1,142 @@
+package de.metas.event.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2019 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class PartitionedEventExecutorTest
+{
+	@Test
+	public void tasks_with_same_partitionKey_are_executed_in_order() throws Exception
+	{
+		final PartitionedEventExecutor executor = new PartitionedEventExecutor("test", 4);
+		try
+		{
+			final int keys = 10;
+			final int tasksPerKey = 200;
+			final CountDownLatch done = new CountDownLatch(keys * tasksPerKey);
+			final Map<String, List<Integer>> executedByKey = new ConcurrentHashMap<>();
+
+			for (int i = 0; i < tasksPerKey; i++)
+			{
+				for (int k = 0; k < keys; k++)
+				{
+					final String key = "key" + k;
+					final int seqNo = i;
+					executor.execute(key, () -> {
+						executedByKey.computeIfAbsent(key, x -> Collections.synchronizedList(new ArrayList<>())).add(seqNo);
+						done.countDown();
+					});
+				}
+			}
+
+			assertThat(done.await(10, TimeUnit.SECONDS)).isTrue();
+			assertThat(executedByKey).hasSize(keys);
+			executedByKey.forEach((key, seqNos) -> {
+				assertThat(seqNos).hasSize(tasksPerKey);
+				assertThat(seqNos).isSorted();
+			});
+		}
+		finally
+		{
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	public void tasks_without_partitionKey_are_executed_in_order() throws Exception
+	{
+		final PartitionedEventExecutor executor = new PartitionedEventExecutor("test", 4);
+		try
+		{
+			final int tasks = 1000;
+			final CountDownLatch done = new CountDownLatch(tasks);
+			final List<Integer> executed = Collections.synchronizedList(new ArrayList<>());
+
+			for (int i = 0; i < tasks; i++)
+			{
+				final int seqNo = i;
+				executor.execute(null, () -> {
+					executed.add(seqNo);
+					done.countDown();
+				});
+			}
+
+			assertThat(done.await(10, TimeUnit.SECONDS)).isTrue();
+			assertThat(executed).hasSize(tasks);
+			assertThat(executed).isSorted();
+		}
+		finally
+		{
+			executor.shutdown();
+		}
+	}
+
+	/**
+	 * Each task waits until the other one started, so they only finish if they run at the same time on different partitions.
+	 * With two partitions, the keys "0" and "1" end up on different partitions, because their hash codes are 48 and 49.
+	 */
+	@Test
+	public void tasks_with_different_partitionKeys_are_executed_concurrently() throws Exception
+	{
+		final PartitionedEventExecutor executor = new PartitionedEventExecutor("test", 2);
+		try
+		{
+			final CountDownLatch started = new CountDownLatch(2);
+			final CountDownLatch done = new CountDownLatch(2);
+			final Runnable task = () -> {
+				started.countDown();
+				try
+				{
+					if (started.await(5, TimeUnit.SECONDS))
+					{
+						done.countDown();
+					}
+				}
+				catch (final InterruptedException e)
+				{
+					Thread.currentThread().interrupt();
+				}
+			};
+
+			executor.execute("0", task);
+			executor.execute("1", task);
+
+			assertThat(done.await(10, TimeUnit.SECONDS)).isTrue();
+		}
+		finally
+		{
+			executor.shutdown();
+		}
+	}
+}
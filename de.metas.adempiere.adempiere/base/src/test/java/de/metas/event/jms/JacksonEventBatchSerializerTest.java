@@ -0,0 +1,106 @@
+package de.metas.event.jms;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import org.adempiere.test.AdempiereTestHelper;
+import org.adempiere.util.lang.impl.TableRecordReference;
+import org.compiere.model.I_C_Invoice;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+
+import de.metas.event.Event;
+import de.metas.event.remote.JacksonEventBatchSerializer;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2019 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class JacksonEventBatchSerializerTest
+{
+	@Before
+	public void init()
+	{
+		AdempiereTestHelper.get().init(); // needed for ITableRecordReference
+	}
+
+	@Test
+	public void smile()
+	{
+		testSerializeUnserialize(JacksonEventBatchSerializer.SMILE);
+	}
+
+	@Test
+	public void json()
+	{
+		testSerializeUnserialize(JacksonEventBatchSerializer.JSON);
+	}
+
+	@Test
+	public void smile_isMoreCompactThanJson()
+	{
+		final List<Event> events = createEvents();
+		assertThat(JacksonEventBatchSerializer.SMILE.toBytes(events).length)
+				.isLessThan(JacksonEventBatchSerializer.JSON.toBytes(events).length);
+	}
+
+	private void testSerializeUnserialize(final JacksonEventBatchSerializer serializer)
+	{
+		final List<Event> events = createEvents();
+
+		final byte[] bytes = serializer.toBytes(events);
+		final List<Event> eventsRestored = serializer.fromBytes(bytes);
+
+		assertThat(eventsRestored).isEqualTo(events);
+		assertThat(JacksonEventBatchSerializer.ofContentTypeOrNull(serializer.getContentType())).isSameAs(serializer);
+	}
+
+	private static List<Event> createEvents()
+	{
+		final Event event1 = Event.builder()
+				.shallBeLogged()
+				.setSummary("Summary1")
+				.setDetailPlain("Detail1")
+				.setUUID(UUID.randomUUID())
+				.setWhen(Instant.now())
+				.addRecipient_User_ID(10)
+				.putProperty("Prop_BD", new BigDecimal("3.1415"))
+				.putProperty("Prop_Bool_True", true)
+				.putProperty("Prop_TS", new Timestamp(System.currentTimeMillis()))
+				.putProperty("Prop_Int", 13)
+				.putProperty("Prop_Str", "string1")
+				.putProperty("Prop_Ref", TableRecordReference.of(I_C_Invoice.Table_Name, 123456))
+				.build();
+
+		final Event event2 = Event.builder()
+				.putProperty("Prop_Str", "string2")
+				.build();
+
+		return ImmutableList.of(event1, event2);
+	}
+}
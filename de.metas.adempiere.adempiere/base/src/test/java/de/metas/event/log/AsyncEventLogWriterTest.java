@@ -0,0 +1,134 @@
+package de.metas.event.log;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2019 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class AsyncEventLogWriterTest
+{
+	private final List<PendingEventLog> written = Collections.synchronizedList(new ArrayList<>());
+	private AsyncEventLogWriter writer;
+
+	@After
+	public void shutdown()
+	{
+		if (writer != null)
+		{
+			writer.shutdown();
+		}
+	}
+
+	@Test
+	public void flush_writesEnqueuedEventLogs()
+	{
+		writer = AsyncEventLogWriter.builder()
+				.batchWriter(written::addAll)
+				.queueCapacity(100)
+				.maxBatchSize(10)
+				.build();
+
+		final List<UUID> uuids = new ArrayList<>();
+		for (int i = 0; i < 50; i++)
+		{
+			final PendingEventLog eventLog = createPendingEventLog();
+			uuids.add(eventLog.getUuid());
+			writer.enqueue(eventLog);
+		}
+
+		writer.flush(uuids);
+
+		assertThat(written).extracting(PendingEventLog::getUuid).containsExactlyInAnyOrder(uuids.toArray(new UUID[0]));
+		assertThat(writer.getCountWritten()).isEqualTo(50);
+		assertThat(writer.getQueueSize()).isZero();
+	}
+
+	@Test
+	public void enqueue_writesOnCallerThreadIfQueueIsFull() throws Exception
+	{
+		final CountDownLatch writerBlocked = new CountDownLatch(1);
+		final CountDownLatch releaseWriter = new CountDownLatch(1);
+		writer = AsyncEventLogWriter.builder()
+				.batchWriter(batch -> {
+					if (!Thread.currentThread().getName().startsWith(AsyncEventLogWriter.class.getName()))
+					{
+						written.addAll(batch); // caller thread
+						return;
+					}
+					writerBlocked.countDown();
+					await(releaseWriter);
+					written.addAll(batch);
+				})
+				.queueCapacity(1)
+				.maxBatchSize(1)
+				.enqueueTimeoutMillis(10)
+				.build();
+
+		// the background thread takes the first one and blocks
+		writer.enqueue(createPendingEventLog());
+		assertThat(writerBlocked.await(5, TimeUnit.SECONDS)).isTrue();
+
+		writer.enqueue(createPendingEventLog()); // fills the queue
+		final PendingEventLog eventLog3 = createPendingEventLog();
+		writer.enqueue(eventLog3); // queue is full => written on our thread
+
+		assertThat(writer.getCountWrittenOnCallerThread()).isEqualTo(1);
+		assertThat(written).extracting(PendingEventLog::getUuid).containsExactly(eventLog3.getUuid());
+
+		releaseWriter.countDown();
+		writer.flush(ImmutableList.of(eventLog3.getUuid()));
+	}
+
+	private static PendingEventLog createPendingEventLog()
+	{
+		return PendingEventLog.builder()
+				.uuid(UUID.randomUUID())
+				.eventTime(Instant.now())
+				.eventData("{}")
+				.build();
+	}
+
+	private static void await(final CountDownLatch latch)
+	{
+		try
+		{
+			latch.await(5, TimeUnit.SECONDS);
+		}
+		catch (final InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+		}
+	}
+}
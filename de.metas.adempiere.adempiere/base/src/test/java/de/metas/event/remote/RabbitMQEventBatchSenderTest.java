@@ -0,0 +1,338 @@
+package de.metas.event.remote;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Collectors;
+
+import org.adempiere.exceptions.AdempiereException;
+import org.junit.After;
+import org.junit.Test;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.rabbit.support.CorrelationData;
+
+import com.google.common.collect.ImmutableMap;
+
+import de.metas.event.Event;
+import lombok.Value;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2019 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class RabbitMQEventBatchSenderTest
+{
+	private static final String TOPIC_NAME_HEADER = "topicName";
+
+	@Value
+	private static class SentMessage
+	{
+		String topicName;
+		String summaries;
+		CorrelationData correlationData;
+	}
+
+	/** Records the sent messages instead of sending them; the first {@link #failNextSends} sends fail. */
+	private static class RecordingRabbitTemplate extends RabbitTemplate
+	{
+		private final List<SentMessage> sentMessages = new CopyOnWriteArrayList<>();
+		private final AtomicInteger failNextSends = new AtomicInteger();
+		private ConfirmCallback confirmCallback;
+
+		@Override
+		public void send(final String exchange, final String routingKey, final Message message, final CorrelationData correlationData) throws AmqpException
+		{
+			if (failNextSends.getAndDecrement() > 0)
+			{
+				throw new AmqpException("send failed");
+			}
+
+			sentMessages.add(new SentMessage(
+					(String)message.getMessageProperties().getHeaders().get(TOPIC_NAME_HEADER),
+					new String(message.getBody(), StandardCharsets.UTF_8),
+					correlationData));
+		}
+
+		@Override
+		public void setConfirmCallback(final ConfirmCallback confirmCallback)
+		{
+			this.confirmCallback = confirmCallback;
+		}
+
+		public void confirm(final SentMessage sentMessage, final boolean ack)
+		{
+			confirmCallback.confirm(sentMessage.getCorrelationData(), ack, ack ? null : "nack");
+		}
+
+		public List<String> getSentSummaries()
+		{
+			return sentMessages.stream().map(SentMessage::getSummaries).collect(Collectors.toList());
+		}
+	}
+
+	/** Serializes a batch as the comma separated summaries of its events */
+	private static class SummariesSerializer implements IEventBatchSerializer
+	{
+		@Override
+		public String getContentType()
+		{
+			return "text/plain";
+		}
+
+		@Override
+		public byte[] toBytes(final List<Event> events)
+		{
+			return events.stream()
+					.map(Event::getSummary)
+					.collect(Collectors.joining(","))
+					.getBytes(StandardCharsets.UTF_8);
+		}
+
+		@Override
+		public List<Event> fromBytes(final byte[] bytes)
+		{
+			throw new UnsupportedOperationException();
+		}
+	}
+
+	private final RecordingRabbitTemplate rabbitTemplate = new RecordingRabbitTemplate();
+	private RabbitMQEventBatchSender sender;
+
+	@After
+	public void shutdown()
+	{
+		if (sender != null)
+		{
+			sender.shutdown();
+		}
+	}
+
+	private RabbitMQEventBatchSender createSender(final int maxBatchSize, final long maxBatchDelayMillis, final boolean publisherConfirms)
+	{
+		sender = RabbitMQEventBatchSender.builder()
+				.rabbitTemplate(rabbitTemplate)
+				.exchangeName("exchange")
+				.serializer(new SummariesSerializer())
+				.headers(ImmutableMap.of())
+				.topicNameHeader(TOPIC_NAME_HEADER)
+				.maxBatchSize(maxBatchSize)
+				.maxBatchDelayMillis(maxBatchDelayMillis)
+				.maxSendAttempts(3)
+				.retryDelayMillis(10)
+				.publisherConfirms(publisherConfirms)
+				.confirmTimeoutMillis(100)
+				.build();
+		return sender;
+	}
+
+	private static Event event(final String summary)
+	{
+		return Event.builder().setSummary(summary).build();
+	}
+
+	private static void waitUntil(final BooleanSupplier condition)
+	{
+		final long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(5);
+		while (!condition.getAsBoolean())
+		{
+			assertThat(System.currentTimeMillis()).as("condition not met in time").isLessThan(deadline);
+			sleep(5);
+		}
+	}
+
+	@Test
+	public void flush_by_size()
+	{
+		createSender(3, TimeUnit.MINUTES.toMillis(1), false);
+
+		sender.send("topic1", event("e1"));
+		sender.send("topic2", event("x1"));
+		sender.send("topic1", event("e2"));
+		sender.send("topic1", event("e3"));
+		sender.send("topic1", event("e4"));
+
+		waitUntil(() -> !rabbitTemplate.sentMessages.isEmpty());
+		assertThat(rabbitTemplate.sentMessages)
+				.extracting(SentMessage::getTopicName, SentMessage::getSummaries)
+				.containsExactly(tuple("topic1", "e1,e2,e3"));
+	}
+
+	@Test
+	public void flush_by_time()
+	{
+		createSender(100, 50, false);
+
+		sender.send("topic1", event("e1"));
+		sender.send("topic1", event("e2"));
+		assertThat(rabbitTemplate.sentMessages).isEmpty();
+
+		waitUntil(() -> rabbitTemplate.sentMessages.size() >= 1);
+		assertThat(rabbitTemplate.getSentSummaries()).containsExactly("e1,e2");
+
+		// the next event starts a new batch
+		sender.send("topic1", event("e3"));
+		waitUntil(() -> rabbitTemplate.sentMessages.size() >= 2);
+		assertThat(rabbitTemplate.getSentSummaries()).containsExactly("e1,e2", "e3");
+	}
+
+	@Test
+	public void failed_send_is_retried_in_order()
+	{
+		createSender(1, 0, false);
+		rabbitTemplate.failNextSends.set(2);
+
+		sender.send("topic1", event("e1"));
+		sender.send("topic1", event("e2"));
+
+		waitUntil(() -> rabbitTemplate.sentMessages.size() >= 2);
+		assertThat(rabbitTemplate.getSentSummaries()).containsExactly("e1", "e2");
+	}
+
+	@Test
+	public void failed_send_is_discarded_after_maxSendAttempts()
+	{
+		createSender(1, 0, false);
+		rabbitTemplate.failNextSends.set(3);
+
+		sender.send("topic1", event("e1"));
+		sender.send("topic1", event("e2"));
+
+		waitUntil(() -> rabbitTemplate.sentMessages.size() >= 1);
+		assertThat(rabbitTemplate.getSentSummaries()).containsExactly("e2");
+	}
+
+	@Test
+	public void nack_is_resent()
+	{
+		createSender(1, 0, true);
+
+		sender.send("topic1", event("e1"));
+		waitUntil(() -> rabbitTemplate.sentMessages.size() >= 1);
+
+		rabbitTemplate.confirm(rabbitTemplate.sentMessages.get(0), false);
+		waitUntil(() -> rabbitTemplate.sentMessages.size() >= 2);
+
+		final SentMessage resent = rabbitTemplate.sentMessages.get(1);
+		assertThat(resent.getSummaries()).isEqualTo("e1");
+		assertThat(resent.getCorrelationData().getId()).isNotEqualTo(rabbitTemplate.sentMessages.get(0).getCorrelationData().getId());
+
+		rabbitTemplate.confirm(resent, true);
+	}
+
+	@Test
+	public void ack_is_not_resent()
+	{
+		createSender(1, 0, true);
+
+		sender.send("topic1", event("e1"));
+		waitUntil(() -> rabbitTemplate.sentMessages.size() >= 1);
+		rabbitTemplate.confirm(rabbitTemplate.sentMessages.get(0), true);
+
+		sleep(300); // longer than the confirm timeout
+		assertThat(rabbitTemplate.getSentSummaries()).containsExactly("e1");
+	}
+
+	@Test
+	public void confirm_timeout_is_resent_until_maxSendAttempts()
+	{
+		createSender(1, 0, true);
+
+		sender.send("topic1", event("e1"));
+
+		waitUntil(() -> rabbitTemplate.sentMessages.size() >= 3);
+		sleep(300); // longer than the confirm timeout
+		assertThat(rabbitTemplate.getSentSummaries()).containsExactly("e1", "e1", "e1");
+	}
+
+	@Test
+	public void shutdown_sends_collected_events_and_cancels_confirm_timeouts()
+	{
+		createSender(100, TimeUnit.MINUTES.toMillis(1), true);
+
+		sender.send("topic1", event("e1"));
+		sender.send("topic2", event("x1"));
+
+		final long start = System.currentTimeMillis();
+		sender.shutdown();
+
+		assertThat(System.currentTimeMillis() - start).as("shutdown shall not wait for the confirm timeouts").isLessThan(TimeUnit.SECONDS.toMillis(5));
+		assertThat(rabbitTemplate.getSentSummaries()).containsExactlyInAnyOrder("e1", "x1");
+	}
+
+	@Test
+	public void shutdown_sends_messages_waiting_for_retry()
+	{
+		sender = RabbitMQEventBatchSender.builder()
+				.rabbitTemplate(rabbitTemplate)
+				.exchangeName("exchange")
+				.serializer(new SummariesSerializer())
+				.headers(ImmutableMap.of())
+				.topicNameHeader(TOPIC_NAME_HEADER)
+				.maxBatchSize(1)
+				.maxSendAttempts(3)
+				.retryDelayMillis(TimeUnit.MINUTES.toMillis(1))
+				.build();
+		rabbitTemplate.failNextSends.set(1);
+
+		sender.send("topic1", event("e1"));
+		sender.send("topic1", event("e2"));
+		waitUntil(() -> rabbitTemplate.failNextSends.get() == 0); // e1 failed and waits for its retry, e2 waits behind it
+		assertThat(rabbitTemplate.sentMessages).isEmpty();
+
+		sender.shutdown();
+		assertThat(rabbitTemplate.getSentSummaries()).containsExactly("e1", "e2");
+	}
+
+	@Test
+	public void send_after_shutdown_is_sent_synchronously()
+	{
+		createSender(100, TimeUnit.MINUTES.toMillis(1), true);
+		sender.shutdown();
+
+		sender.send("topic1", event("e1"));
+
+		assertThat(rabbitTemplate.sentMessages)
+				.extracting(SentMessage::getTopicName, SentMessage::getSummaries)
+				.containsExactly(tuple("topic1", "e1"));
+		assertThat(rabbitTemplate.sentMessages.get(0).getCorrelationData()).isNull();
+	}
+
+	private static void sleep(final long millis)
+	{
+		try
+		{
+			Thread.sleep(millis);
+		}
+		catch (final InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+			throw AdempiereException.wrapIfNeeded(e);
+		}
+	}
+}
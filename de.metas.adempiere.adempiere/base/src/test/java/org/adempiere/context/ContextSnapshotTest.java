@@ -0,0 +1,110 @@
+package org.adempiere.context;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Properties;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.adempiere.test.AdempiereTestHelper;
+import org.adempiere.util.lang.IAutoCloseable;
+import org.compiere.util.Env;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2019 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class ContextSnapshotTest
+{
+	private ExecutorService executor;
+
+	@BeforeEach
+	public void init()
+	{
+		AdempiereTestHelper.get().init();
+		executor = Executors.newSingleThreadExecutor();
+	}
+
+	@AfterEach
+	public void shutdown()
+	{
+		executor.shutdownNow();
+	}
+
+	@Test
+	public void of_includesDefaults()
+	{
+		final Properties parentCtx = new Properties();
+		parentCtx.setProperty("#Parent", "P");
+		final Properties ctx = new Properties(parentCtx);
+		ctx.setProperty("#Child", "C");
+
+		final Properties snapshotCtx = ContextSnapshot.of(ctx).toProperties();
+
+		assertThat(snapshotCtx.get("#Parent")).isEqualTo("P");
+		assertThat(snapshotCtx.get("#Child")).isEqualTo("C");
+	}
+
+	@Test
+	public void of_includesNonStringDefaults()
+	{
+		final Object nonStringValue = new Object();
+		final Properties grandParentCtx = new Properties();
+		grandParentCtx.put("#NonString", nonStringValue);
+		grandParentCtx.setProperty("#Overridden", "grandParent");
+		final Properties parentCtx = new Properties(grandParentCtx);
+		parentCtx.setProperty("#Overridden", "parent");
+		final Properties ctx = new Properties(parentCtx);
+
+		final Properties snapshotCtx = ContextSnapshot.of(ctx).toProperties();
+
+		assertThat(snapshotCtx.get("#NonString")).isSameAs(nonStringValue);
+		assertThat(snapshotCtx.get("#Overridden")).isEqualTo("parent");
+	}
+
+	@Test
+	public void propagate() throws Exception
+	{
+		// make sure the executor's thread was created before we set our value
+		executor.submit(() -> Env.getCtx().size()).get();
+
+		final Properties ctx = Env.newTemporaryCtx();
+		ctx.setProperty("#Key", "value1");
+		try (final IAutoCloseable contextRestorer = Env.switchContext(ctx))
+		{
+			final String valueInTask = executor.submit(ContextSnapshot.propagate(() -> {
+				final String value = Env.getCtx().getProperty("#Key");
+				Env.getCtx().setProperty("#Key", "changedByTask");
+				return value;
+			})).get();
+			assertThat(valueInTask).isEqualTo("value1");
+
+			// the task's change didn't leak back to us
+			assertThat(Env.getCtx().getProperty("#Key")).isEqualTo("value1");
+		}
+
+		// ..and neither into the executor's thread
+		assertThat(executor.submit(() -> Env.getCtx().getProperty("#Key")).get()).isNull();
+	}
+}
@@ -1,5 +1,8 @@
 package org.eevolution.costing;
 
+import java.util.Collection;
+import java.util.Map;
+
 import de.metas.product.ProductId;
 import lombok.Builder;
 import lombok.NonNull;
@@ -51,4 +54,32 @@ public class BOMCostCalculator
 			repository.resetComponentsCostPrices(productId);
 		}
 	}
+
+	/**
+	 * Rolls up the costs of the given products, in the given order.
+	 * The BOMs, BOM lines and costs are loaded and saved in bulk; computing the costs themselves is cheap compared to that.
+	 */
+	public void rollup(@NonNull final Collection<ProductId> productIds)
+	{
+		if (productIds.isEmpty())
+		{
+			return;
+		}
+
+		final Map<ProductId, BOM> bomsByProductId = repository.getBOMs(productIds);
+		for (final ProductId productId : productIds)
+		{
+			final BOM bom = bomsByProductId.get(productId);
+			if (bom != null)
+			{
+				bom.rollupCosts();
+			}
+			else
+			{
+				repository.resetComponentsCostPrices(productId);
+			}
+		}
+
+		repository.saveAll(bomsByProductId.values());
+	}
 }
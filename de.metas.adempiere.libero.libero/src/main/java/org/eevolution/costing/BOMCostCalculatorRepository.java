@@ -1,7 +1,11 @@
 package org.eevolution.costing;
 
+import java.util.Collection;
+import java.util.Map;
 import java.util.Optional;
 
+import com.google.common.collect.ImmutableMap;
+
 import de.metas.product.ProductId;
 
 /*
@@ -30,7 +34,25 @@ public interface BOMCostCalculatorRepository
 {
 	Optional<BOM> getBOM(ProductId productId);
 
+	/**
+	 * @return the BOMs of the given products; products without BOM are not included
+	 */
+	default Map<ProductId, BOM> getBOMs(final Collection<ProductId> productIds)
+	{
+		final ImmutableMap.Builder<ProductId, BOM> boms = ImmutableMap.builder();
+		for (final ProductId productId : productIds)
+		{
+			getBOM(productId).ifPresent(bom -> boms.put(productId, bom));
+		}
+		return boms.build();
+	}
+
 	void save(BOM bom);
 
+	default void saveAll(final Collection<BOM> boms)
+	{
+		boms.forEach(this::save);
+	}
+
 	void resetComponentsCostPrices(ProductId productId);
 }
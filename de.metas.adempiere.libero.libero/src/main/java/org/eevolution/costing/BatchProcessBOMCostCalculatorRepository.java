@@ -1,5 +1,10 @@
 package org.eevolution.costing;
 
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -19,6 +24,11 @@ import org.eevolution.model.I_PP_Product_BOMLine;
 import org.eevolution.model.I_PP_Product_Planning;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableListMultimap;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
 
 import de.metas.acct.api.AcctSchema;
 import de.metas.costing.CostSegment;
@@ -31,7 +41,6 @@ import de.metas.costing.CurrentCostId;
 import de.metas.costing.ICurrentCostsRepository;
 import de.metas.costing.IProductCostingBL;
 import de.metas.material.planning.IProductPlanningDAO;
-import de.metas.material.planning.IProductPlanningDAO.ProductPlanningQuery;
 import de.metas.organization.OrgId;
 import de.metas.product.IProductBL;
 import de.metas.product.ProductId;
@@ -82,6 +91,12 @@ public class BatchProcessBOMCostCalculatorRepository implements BOMCostCalculato
 	private final CostTypeId costTypeId;
 	private final CostingMethod costingMethod;
 
+	/**
+	 * The cost prices which were loaded so far. A product's cost price instance is shared by its own BOM and by all BOM lines which have the product as component,
+	 * so once a product's costs were rolled up, the BOMs of the next low level already see the new cost price.
+	 */
+	private final HashMap<ProductId, BOMCostPrice> costPricesByProductId = new HashMap<>();
+
 	@Builder
 	private BatchProcessBOMCostCalculatorRepository(
 			@NonNull final ClientId clientId,
@@ -100,48 +115,105 @@ public class BatchProcessBOMCostCalculatorRepository implements BOMCostCalculato
 	@Override
 	public Optional<BOM> getBOM(final ProductId productId)
 	{
-		final I_PP_Product_Planning productPlanning = Services.get(IProductPlanningDAO.class)
-				.find(ProductPlanningQuery.builder()
-						.orgId(orgId)
-						.productId(productId)
-						.build())
-				.orElse(null);
-
-		ProductBOMId productBOMId = null;
-		if (productPlanning != null)
-		{
-			productBOMId = ProductBOMId.ofRepoIdOrNull(productPlanning.getPP_Product_BOM_ID());
-		}
-		else
-		{
-			createNotice(productId, "@NotFound@ @PP_Product_Planning_ID@");
-		}
-		if (productBOMId == null)
-		{
-			productBOMId = productBOMsRepo.getDefaultBOMIdByProductId(productId).orElse(null);
-		}
-		if (productBOMId == null)
+		return Optional.ofNullable(getBOMs(ImmutableList.of(productId)).get(productId));
+	}
+
+	/**
+	 * Loads the product plannings, BOMs, BOM lines and current costs of all given products with one query each.
+	 * Only the default BOMs of products without a product planning BOM are still looked up one by one (cached).
+	 */
+	@Override
+	public Map<ProductId, BOM> getBOMs(@NonNull final Collection<ProductId> productIds)
+	{
+		final Map<ProductId, I_PP_Product_BOM> bomRecordsByProductId = getBOMRecords(productIds);
+		if (bomRecordsByProductId.isEmpty())
 		{
-			createNotice(productId, "@NotFound@ @PP_Product_BOM_ID@");
-			return null;
+			return ImmutableMap.of();
 		}
 
-		final I_PP_Product_BOM bomRecord = productBOMsRepo.getById(productBOMId);
-		if (bomRecord == null)
+		final ImmutableListMultimap<ProductBOMId, I_PP_Product_BOMLine> bomLineRecordsByBOMId = productBOMsRepo.retrieveLinesByBOMIds(extractBOMIds(bomRecordsByProductId.values()))
+				.stream()
+				.sorted(Comparator.comparingInt(I_PP_Product_BOMLine::getLine).thenComparingInt(I_PP_Product_BOMLine::getPP_Product_BOMLine_ID))
+				.collect(ImmutableListMultimap.toImmutableListMultimap(bomLineRecord -> ProductBOMId.ofRepoId(bomLineRecord.getPP_Product_BOM_ID()), bomLineRecord -> bomLineRecord));
+
+		final HashSet<ProductId> allProductIds = new HashSet<>();
+		bomRecordsByProductId.values().forEach(bomRecord -> allProductIds.add(ProductId.ofRepoId(bomRecord.getM_Product_ID())));
+		bomLineRecordsByBOMId.values().forEach(bomLineRecord -> allProductIds.add(ProductId.ofRepoId(bomLineRecord.getM_Product_ID())));
+		loadBOMCostPrices(allProductIds);
+
+		final ImmutableMap.Builder<ProductId, BOM> boms = ImmutableMap.builder();
+		bomRecordsByProductId.forEach((productId, bomRecord) -> {
+			final List<I_PP_Product_BOMLine> bomLineRecords = bomLineRecordsByBOMId.get(ProductBOMId.ofRepoId(bomRecord.getPP_Product_BOM_ID()));
+			boms.put(productId, toCostingBOM(bomRecord, bomLineRecords));
+		});
+		return boms.build();
+	}
+
+	/**
+	 * @return the BOM records of the given products, in the given order; products without BOM are not included
+	 */
+	private Map<ProductId, I_PP_Product_BOM> getBOMRecords(final Collection<ProductId> productIds)
+	{
+		final Map<ProductId, I_PP_Product_Planning> productPlanningsByProductId = Services.get(IProductPlanningDAO.class).findByProductIds(orgId, productIds);
+
+		final LinkedHashMap<ProductId, ProductBOMId> bomIdsByProductId = new LinkedHashMap<>();
+		for (final ProductId productId : productIds)
 		{
-			createNotice(productId, "@NotFound@ @PP_Product_BOM_ID@");
-			return Optional.empty();
+			final I_PP_Product_Planning productPlanning = productPlanningsByProductId.get(productId);
+
+			ProductBOMId productBOMId = null;
+			if (productPlanning != null)
+			{
+				productBOMId = ProductBOMId.ofRepoIdOrNull(productPlanning.getPP_Product_BOM_ID());
+			}
+			else
+			{
+				createNotice(productId, "@NotFound@ @PP_Product_Planning_ID@");
+			}
+			if (productBOMId == null)
+			{
+				productBOMId = productBOMsRepo.getDefaultBOMIdByProductId(productId).orElse(null);
+			}
+			if (productBOMId == null)
+			{
+				createNotice(productId, "@NotFound@ @PP_Product_BOM_ID@");
+				continue;
+			}
+
+			bomIdsByProductId.put(productId, productBOMId);
 		}
-		else
+		if (bomIdsByProductId.isEmpty())
 		{
-			return Optional.of(toCostingBOM(bomRecord));
+			return ImmutableMap.of();
 		}
 
+		final Map<ProductBOMId, I_PP_Product_BOM> bomRecordsById = Maps.uniqueIndex(
+				productBOMsRepo.getByIds(ImmutableSet.copyOf(bomIdsByProductId.values())),
+				bomRecord -> ProductBOMId.ofRepoId(bomRecord.getPP_Product_BOM_ID()));
+
+		final LinkedHashMap<ProductId, I_PP_Product_BOM> bomRecordsByProductId = new LinkedHashMap<>();
+		bomIdsByProductId.forEach((productId, bomId) -> {
+			final I_PP_Product_BOM bomRecord = bomRecordsById.get(bomId);
+			if (bomRecord == null)
+			{
+				createNotice(productId, "@NotFound@ @PP_Product_BOM_ID@");
+				return;
+			}
+			bomRecordsByProductId.put(productId, bomRecord);
+		});
+		return bomRecordsByProductId;
 	}
 
-	private BOM toCostingBOM(final I_PP_Product_BOM bomRecord)
+	private static ImmutableSet<ProductBOMId> extractBOMIds(final Collection<I_PP_Product_BOM> bomRecords)
 	{
-		final ImmutableList<BOMLine> bomLines = productBOMsRepo.retrieveLines(bomRecord)
+		return bomRecords.stream()
+				.map(bomRecord -> ProductBOMId.ofRepoId(bomRecord.getPP_Product_BOM_ID()))
+				.collect(ImmutableSet.toImmutableSet());
+	}
+
+	private BOM toCostingBOM(final I_PP_Product_BOM bomRecord, final List<I_PP_Product_BOMLine> bomLineRecords)
+	{
+		final ImmutableList<BOMLine> bomLines = bomLineRecords
 				.stream()
 				.map(this::toCostingBOMLine)
 				.collect(ImmutableList.toImmutableList());
@@ -155,6 +227,11 @@ public class BatchProcessBOMCostCalculatorRepository implements BOMCostCalculato
 	}
 
 	private BOMCostPrice getBOMCostPrice(final ProductId productId)
+	{
+		return costPricesByProductId.computeIfAbsent(productId, this::retrieveBOMCostPrice);
+	}
+
+	private BOMCostPrice retrieveBOMCostPrice(final ProductId productId)
 	{
 		final CostSegment costSegment = createCostSegment(productId);
 
@@ -169,6 +246,33 @@ public class BatchProcessBOMCostCalculatorRepository implements BOMCostCalculato
 				.build();
 	}
 
+	private void loadBOMCostPrices(final Set<ProductId> productIds)
+	{
+		final ImmutableList<CostSegment> costSegments = productIds.stream()
+				.filter(productId -> !costPricesByProductId.containsKey(productId))
+				.map(this::createCostSegment)
+				.collect(ImmutableList.toImmutableList());
+		if (costSegments.isEmpty())
+		{
+			return;
+		}
+
+		final ImmutableListMultimap<ProductId, BOMCostElementPrice> costElementPricesByProductId = currentCostsRepo.getByCostSegmentsAndCostingMethod(costSegments, costingMethod)
+				.stream()
+				.collect(ImmutableListMultimap.toImmutableListMultimap(
+						currentCost -> currentCost.getCostSegment().getProductId(),
+						this::toBOMCostElementPrice));
+
+		for (final CostSegment costSegment : costSegments)
+		{
+			final ProductId productId = costSegment.getProductId();
+			costPricesByProductId.put(productId, BOMCostPrice.builder()
+					.productId(productId)
+					.costElementPrices(costElementPricesByProductId.get(productId))
+					.build());
+		}
+	}
+
 	private CostSegment createCostSegment(final ProductId productId)
 	{
 		final CostingLevel costingLevel = productCostingBL.getCostingLevel(productId, acctSchema);
@@ -220,13 +324,27 @@ public class BatchProcessBOMCostCalculatorRepository implements BOMCostCalculato
 	@Override
 	public void save(final BOM bom)
 	{
-		final Set<CurrentCostId> costIds = bom.getCostIds(CurrentCostId.class);
+		saveAll(ImmutableList.of(bom));
+	}
+
+	/**
+	 * Loads the existing cost records of all given BOMs with one query and saves each cost price only once, even if it's shared by many BOMs.
+	 */
+	@Override
+	public void saveAll(@NonNull final Collection<BOM> boms)
+	{
+		final Set<CurrentCostId> costIds = boms.stream()
+				.flatMap(bom -> bom.getCostIds(CurrentCostId.class).stream())
+				.collect(ImmutableSet.toImmutableSet());
 
 		final Map<CurrentCostId, CurrentCost> existingCostsById = currentCostsRepo.getByIds(costIds)
 				.stream()
 				.collect(GuavaCollectors.toImmutableMapByKey(CurrentCost::getId));
 
-		bom.streamCostPrices()
+		final Set<BOMCostPrice> savedCostPrices = Sets.newIdentityHashSet();
+		boms.stream()
+				.flatMap(BOM::streamCostPrices)
+				.filter(savedCostPrices::add)
 				.forEach(bomCostPrice -> save(bomCostPrice, existingCostsById));
 	}
 
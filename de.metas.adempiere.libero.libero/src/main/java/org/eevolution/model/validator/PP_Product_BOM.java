@@ -2,6 +2,7 @@ package org.eevolution.model.validator;
 
 import org.adempiere.ad.callout.spi.IProgramaticCalloutProvider;
 import org.adempiere.ad.modelvalidator.IModelValidationEngine;
+import org.adempiere.ad.modelvalidator.ModelChangeType;
 import org.adempiere.ad.modelvalidator.annotations.Init;
 import org.adempiere.ad.modelvalidator.annotations.Interceptor;
 
@@ -29,6 +30,7 @@ import org.adempiere.ad.modelvalidator.annotations.Interceptor;
 
 import org.adempiere.ad.modelvalidator.annotations.ModelChange;
 import org.adempiere.model.CopyRecordFactory;
+import org.adempiere.model.InterfaceWrapperHelper;
 import org.compiere.model.ModelValidator;
 import org.eevolution.api.IProductBOMBL;
 import org.eevolution.model.I_PP_Product_BOM;
@@ -57,4 +59,15 @@ public class PP_Product_BOM
 		final ProductId productId = ProductId.ofRepoId(bom.getM_Product_ID());
 		bomService.updateIsBOMFlag(productId);
 	}
+
+	@ModelChange(timings = { ModelValidator.TYPE_AFTER_CHANGE, ModelValidator.TYPE_AFTER_DELETE })
+	public void updateProductLowLevels(final I_PP_Product_BOM bom, final ModelChangeType changeType)
+	{
+		if (changeType.isDelete()
+				|| InterfaceWrapperHelper.isValueChanged(bom, I_PP_Product_BOM.COLUMNNAME_M_Product_ID)
+				|| InterfaceWrapperHelper.isValueChanged(bom, I_PP_Product_BOM.COLUMNNAME_IsActive))
+		{
+			bomService.updateProductLowLevels(bom);
+		}
+	}
 }
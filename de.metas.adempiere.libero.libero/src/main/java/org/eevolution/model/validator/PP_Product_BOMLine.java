@@ -25,11 +25,10 @@ package org.eevolution.model.validator;
 import java.util.List;
 
 import org.adempiere.ad.callout.spi.IProgramaticCalloutProvider;
+import org.adempiere.ad.modelvalidator.ModelChangeType;
 import org.adempiere.ad.modelvalidator.annotations.Init;
 import org.adempiere.ad.modelvalidator.annotations.ModelChange;
 import org.adempiere.ad.modelvalidator.annotations.Validator;
-import org.adempiere.model.InterfaceWrapperHelper;
-import org.compiere.model.I_M_Product;
 import org.compiere.model.ModelValidator;
 import org.eevolution.api.BOMComponentType;
 import org.eevolution.api.IProductBOMBL;
@@ -38,7 +37,6 @@ import org.eevolution.model.I_PP_Order_BOMLine;
 import org.eevolution.model.I_PP_Product_BOMLine;
 
 import de.metas.material.planning.pporder.LiberoException;
-import de.metas.product.ProductId;
 import de.metas.util.Check;
 import de.metas.util.Services;
 
@@ -128,14 +126,9 @@ public class PP_Product_BOMLine
 	}
 
 	@ModelChange(timings = { ModelValidator.TYPE_AFTER_NEW, ModelValidator.TYPE_AFTER_CHANGE, ModelValidator.TYPE_AFTER_DELETE })
-	public void updateProductLowestLevelCode(final I_PP_Product_BOMLine bomLine)
+	public void updateProductLowestLevelCode(final I_PP_Product_BOMLine bomLine, final ModelChangeType changeType)
 	{
-		final I_M_Product product = bomLine.getM_Product();
-		final int lowLevel = Services.get(IProductBOMBL.class).calculateProductLowestLevel(ProductId.ofRepoId(product.getM_Product_ID()));
-
-		product.setLowLevel(lowLevel); // update lowlevel
-		InterfaceWrapperHelper.save(product);
-
-		// TODO: if product's low level changed, we need to update the low level from all bom components where this product is in bom header.
+		// updates the line's product and all products below it
+		Services.get(IProductBOMBL.class).updateProductLowLevels(bomLine, changeType.isDelete());
 	}
 }
@@ -17,6 +17,7 @@
 
 package org.eevolution.process;
 
+import java.util.List;
 import java.util.Set;
 
 import org.adempiere.ad.dao.IQueryBL;
@@ -28,6 +29,8 @@ import org.compiere.model.I_M_Product;
 import org.eevolution.costing.BOMCostCalculator;
 import org.eevolution.costing.BatchProcessBOMCostCalculatorRepository;
 
+import com.google.common.collect.Iterables;
+
 import de.metas.acct.api.AcctSchema;
 import de.metas.acct.api.AcctSchemaId;
 import de.metas.acct.api.IAcctSchemaDAO;
@@ -48,6 +51,8 @@ public class RollupBillOfMaterial extends JavaProcess
 	// services
 	private final IQueryBL queryBL = Services.get(IQueryBL.class);
 
+	private static final int BATCH_SIZE = 1000;
+
 	// Parameters
 	private ClientId clientId;
 	private OrgId orgId;
@@ -122,12 +127,13 @@ public class RollupBillOfMaterial extends JavaProcess
 				.repository(bomCostCalculatorRepo)
 				.build();
 
+		// the products of one low level don't depend on each other, so they are rolled up together
 		final int maxLowLevel = getMaxLowLevel();
 		for (int lowLevel = maxLowLevel; lowLevel >= 0; lowLevel--)
 		{
-			for (final ProductId productId : getProductIdsByLowLevel(lowLevel))
+			for (final List<ProductId> productIds : Iterables.partition(getProductIdsByLowLevel(lowLevel), BATCH_SIZE))
 			{
-				calculator.rollup(productId);
+				calculator.rollup(productIds);
 			}
 		}
 
@@ -0,0 +1,150 @@
+package org.eevolution.api.impl;
+
+/*
+ * #%L
+ * de.metas.adempiere.libero.libero
+ * %%
+ * Copyright (C) 2019 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+import java.math.BigDecimal;
+
+import org.adempiere.ad.trx.api.ITrx;
+import org.adempiere.ad.wrapper.POJOWrapper;
+import org.adempiere.model.InterfaceWrapperHelper;
+import org.compiere.model.I_M_Product;
+import org.compiere.util.Env;
+import org.eevolution.api.IProductBOMDAO;
+import org.eevolution.model.I_PP_Product_BOM;
+import org.eevolution.model.I_PP_Product_BOMLine;
+import org.eevolution.mrp.api.impl.MRPTestHelper;
+import org.eevolution.util.ProductBOMBuilder;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import de.metas.product.ProductId;
+import de.metas.util.Services;
+
+public class ProductLowLevelGraphTest
+{
+	private MRPTestHelper helper;
+
+	@Before
+	public void init()
+	{
+		POJOWrapper.setDefaultStrictValues(false);
+		helper = new MRPTestHelper();
+	}
+
+	/**
+	 * Same hierarchy as in {@link ProductLowLevelCalculatorTest#test_StandardCase()}; the graph shall give the same results as the calculator.
+	 */
+	@Test
+	public void test_StandardCase()
+	{
+		final I_M_Product pA = helper.createProduct("A");
+		final I_M_Product pB = helper.createProduct("B");
+		final I_M_Product pC = helper.createProduct("C");
+		final I_M_Product pD = helper.createProduct("D");
+		final I_M_Product pE = helper.createProduct("E");
+		final I_M_Product pM = helper.createProduct("M");
+		final I_M_Product pN = helper.createProduct("N");
+
+		createBOM(pA, pB, pC);
+		createBOM(pB, pD, pE);
+		createBOM(pM, pN, pE);
+
+		final ProductLowLevelGraph graph = ProductLowLevelGraph.load(Env.getCtx(), ITrx.TRXNAME_None);
+		assertLLC(0, pA, graph);
+		assertLLC(1, pB, graph);
+		assertLLC(1, pC, graph);
+		assertLLC(2, pD, graph);
+		assertLLC(2, pE, graph);
+		assertLLC(0, pM, graph);
+		assertLLC(1, pN, graph);
+	}
+
+	/**
+	 * Builds the following hierarchy bottom-up, so each new BOM pushes the products below it further down:
+	 *
+	 * <pre>
+	 *      X
+	 *      |
+	 *      A
+	 *      |
+	 *      B
+	 *      |
+	 *      D
+	 * </pre>
+	 */
+	@Test
+	public void test_ProductsBelowAreUpdated()
+	{
+		final I_M_Product pX = helper.createProduct("X");
+		final I_M_Product pA = helper.createProduct("A");
+		final I_M_Product pB = helper.createProduct("B");
+		final I_M_Product pD = helper.createProduct("D");
+
+		createBOM(pB, pD);
+		assertSavedLLC(0, pB);
+		assertSavedLLC(1, pD);
+
+		createBOM(pA, pB);
+		assertSavedLLC(0, pA);
+		assertSavedLLC(1, pB);
+		assertSavedLLC(2, pD);
+
+		final I_PP_Product_BOM bomX = createBOM(pX, pA);
+		assertSavedLLC(0, pX);
+		assertSavedLLC(1, pA);
+		assertSavedLLC(2, pB);
+		assertSavedLLC(3, pD);
+
+		// delete the only line of X's BOM => the products below X shall move up again
+		for (final I_PP_Product_BOMLine bomLine : Services.get(IProductBOMDAO.class).retrieveLines(bomX))
+		{
+			InterfaceWrapperHelper.delete(bomLine);
+		}
+		assertSavedLLC(0, pA);
+		assertSavedLLC(1, pB);
+		assertSavedLLC(2, pD);
+	}
+
+	private I_PP_Product_BOM createBOM(final I_M_Product product, final I_M_Product... components)
+	{
+		final ProductBOMBuilder bomBuilder = helper.newProductBOM().product(product);
+		for (final I_M_Product component : components)
+		{
+			bomBuilder.newBOMLine().product(component).setIsQtyPercentage(false).setQtyBOM(BigDecimal.ONE).endLine();
+		}
+		return bomBuilder.build();
+	}
+
+	private void assertLLC(final int llcExpected, final I_M_Product product, final ProductLowLevelGraph graph)
+	{
+		final int llcActual = graph.getLowLevel(ProductId.ofRepoId(product.getM_Product_ID()));
+		Assert.assertEquals("Invalid LLC for product " + product.getValue(), llcExpected, llcActual);
+	}
+
+	private void assertSavedLLC(final int llcExpected, final I_M_Product product)
+	{
+		InterfaceWrapperHelper.refresh(product);
+		Assert.assertEquals("Invalid LLC for product " + product.getValue(), llcExpected, product.getLowLevel());
+	}
+}
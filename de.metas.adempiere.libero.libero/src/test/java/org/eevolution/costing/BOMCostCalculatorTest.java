@@ -0,0 +1,207 @@
+package org.eevolution.costing;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.eevolution.costing.BOMAssertUtils.assertComponentsCostPrice;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.adempiere.test.AdempiereTestHelper;
+import org.compiere.model.I_C_UOM;
+import org.eevolution.api.BOMComponentType;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableListMultimap;
+
+import de.metas.costing.CostAmount;
+import de.metas.costing.CostElementId;
+import de.metas.costing.CostPrice;
+import de.metas.money.CurrencyId;
+import de.metas.product.ProductId;
+import de.metas.quantity.Quantity;
+import de.metas.uom.impl.UOMTestHelper;
+
+/*
+ * #%L
+ * de.metas.adempiere.libero.libero
+ * %%
+ * Copyright (C) 2019 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class BOMCostCalculatorTest
+{
+	/**
+	 * <pre>
+	 *      A
+	 *     / \
+	 *  2xB   1xC
+	 *    |
+	 *   3xD
+	 * </pre>
+	 */
+	private final ProductId productA = ProductId.ofRepoId(100);
+	private final ProductId productB = ProductId.ofRepoId(101);
+	private final ProductId productC = ProductId.ofRepoId(102);
+	private final ProductId productD = ProductId.ofRepoId(103);
+
+	/** ordered by low level, highest low level first, like {@link org.eevolution.process.RollupBillOfMaterial} does */
+	private final ImmutableList<ProductId> productIdsInRollupOrder = ImmutableList.of(productD, productB, productC, productA);
+
+	private final CostElementId costElementId = CostElementId.ofRepoId(1);
+	private final CurrencyId currencyId = CurrencyId.ofRepoId(1);
+
+	private I_C_UOM uom_Each;
+
+	@Before
+	public void init()
+	{
+		AdempiereTestHelper.get().init();
+
+		final UOMTestHelper uomHelper = new UOMTestHelper();
+		uom_Each = uomHelper.createUOM("Each", 1);
+	}
+
+	@Test
+	public void rollup_in_one_batch_is_the_same_as_one_by_one()
+	{
+		final InMemoryRepository sequentialRepository = new InMemoryRepository();
+		final BOMCostCalculator sequentialCalculator = BOMCostCalculator.builder().repository(sequentialRepository).build();
+		productIdsInRollupOrder.forEach(sequentialCalculator::rollup);
+
+		final InMemoryRepository batchRepository = new InMemoryRepository();
+		BOMCostCalculator.builder().repository(batchRepository).build().rollup(productIdsInRollupOrder);
+
+		// B = 3 x D(10)
+		assertComponentsCostPrice(batchRepository.getSavedBOM(productB), costElementId, "30");
+		// A = 2 x B(30) + 1 x C(4)
+		assertComponentsCostPrice(batchRepository.getSavedBOM(productA), costElementId, "64");
+
+		for (final ProductId productId : ImmutableList.of(productA, productB))
+		{
+			assertThat(getComponentsCostPrice(batchRepository.getSavedBOM(productId)))
+					.as("componentsCostPrice of %s", productId)
+					.isEqualByComparingTo(getComponentsCostPrice(sequentialRepository.getSavedBOM(productId)));
+		}
+	}
+
+	private BigDecimal getComponentsCostPrice(final BOM bom)
+	{
+		return bom.getCostPrice()
+				.getCostElementPriceOrNull(costElementId)
+				.getCostPrice()
+				.getComponentsCostPrice()
+				.getValue();
+	}
+
+	/**
+	 * Like {@link BatchProcessBOMCostCalculatorRepository}, a product's cost price instance is shared by its own BOM and by all BOM lines which have it as component.
+	 */
+	private class InMemoryRepository implements BOMCostCalculatorRepository
+	{
+		private final ImmutableListMultimap<ProductId, BOMLineDef> linesByBOMProductId = ImmutableListMultimap.<ProductId, BOMLineDef> builder()
+				.put(productA, new BOMLineDef(productB, 2))
+				.put(productA, new BOMLineDef(productC, 1))
+				.put(productB, new BOMLineDef(productD, 3))
+				.build();
+
+		private final Map<ProductId, BOMCostPrice> costPrices = new HashMap<>();
+		private final Map<ProductId, BOM> savedBOMs = new HashMap<>();
+
+		private InMemoryRepository()
+		{
+			costPrices.put(productA, createCostPrice(productA, 0));
+			costPrices.put(productB, createCostPrice(productB, 0));
+			costPrices.put(productC, createCostPrice(productC, 4));
+			costPrices.put(productD, createCostPrice(productD, 10));
+		}
+
+		private BOMCostPrice createCostPrice(final ProductId productId, final int ownCostPrice)
+		{
+			return BOMCostPrice.builder()
+					.productId(productId)
+					.costElementPrice(BOMCostElementPrice.builder()
+							.costElementId(costElementId)
+							.costPrice(CostPrice.builder()
+									.ownCostPrice(CostAmount.of(ownCostPrice, currencyId))
+									.componentsCostPrice(CostAmount.zero(currencyId))
+									.build())
+							.build())
+					.build();
+		}
+
+		@Override
+		public Optional<BOM> getBOM(final ProductId productId)
+		{
+			final List<BOMLineDef> lineDefs = linesByBOMProductId.get(productId);
+			if (lineDefs.isEmpty())
+			{
+				return Optional.empty();
+			}
+
+			final BOM.BOMBuilder bom = BOM.builder()
+					.productId(productId)
+					.costPrice(costPrices.get(productId));
+			for (final BOMLineDef lineDef : lineDefs)
+			{
+				bom.line(BOMLine.builder()
+						.componentId(lineDef.componentId)
+						.componentType(BOMComponentType.Component)
+						.qty(Quantity.of(lineDef.qty, uom_Each))
+						.costPrice(costPrices.get(lineDef.componentId))
+						.build());
+			}
+			return Optional.of(bom.build());
+		}
+
+		@Override
+		public void save(final BOM bom)
+		{
+			savedBOMs.put(bom.getProductId(), bom);
+		}
+
+		@Override
+		public void resetComponentsCostPrices(final ProductId productId)
+		{
+			costPrices.get(productId).clearComponentsCostPrice(costElementId);
+		}
+
+		public BOM getSavedBOM(final ProductId productId)
+		{
+			final BOM bom = savedBOMs.get(productId);
+			assertThat(bom).as("saved BOM of %s", productId).isNotNull();
+			return bom;
+		}
+	}
+
+	private static class BOMLineDef
+	{
+		private final ProductId componentId;
+		private final int qty;
+
+		private BOMLineDef(final ProductId componentId, final int qty)
+		{
+			this.componentId = componentId;
+			this.qty = qty;
+		}
+	}
+}
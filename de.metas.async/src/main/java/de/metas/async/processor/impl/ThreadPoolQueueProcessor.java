@@ -23,30 +23,79 @@ package de.metas.async.processor.impl;
  */
 
 
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.SynchronousQueue;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
 
+import org.adempiere.exceptions.AdempiereException;
+import org.adempiere.service.ISysConfigBL;
 import org.adempiere.util.concurrent.BlockingThreadPoolExecutor;
 import org.adempiere.util.concurrent.CustomizableThreadFactory;
+import org.compiere.db.AdempiereDatabase;
+import org.compiere.db.DB_PostgreSQL;
+import org.compiere.util.DB;
 
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.MoreObjects;
 
 import de.metas.async.api.IWorkPackageQueue;
 import de.metas.async.model.I_C_Queue_Processor;
+import de.metas.connection.IConnectionPool;
+import de.metas.util.Services;
+import lombok.NonNull;
 
 class ThreadPoolQueueProcessor extends AbstractQueueProcessor
 {
+	/**
+	 * Prefix of the sysconfig which enables the I/O-bound execution mode for one processor. The prefix is followed by the processor's {@code Name}.
+	 * <p>
+	 * The sysconfig's value is the maximum number of work packages which may run concurrently. It needs to be greater than the processor's {@code PoolSize}.
+	 * Up to {@code PoolSize} packages are always allowed to run. More packages are started only while the database connection pool is not under pressure.
+	 * Meant for processors whose packages mostly wait on JDBC or remote calls.
+	 */
+	@VisibleForTesting
+	static final String SYSCONFIG_IOBoundMaxConcurrency_Prefix = "de.metas.async.processor.impl.ThreadPoolQueueProcessor.IOBoundMaxConcurrency.";
+
+	/** The connection pool is "under pressure" if this share of its connections is busy; same threshold as in {@link DB_PostgreSQL}. */
+	private static final double DB_BUSY_CONNECTIONS_THRESHOLD = 0.80;
+	private static final long THROTTLE_WAIT_MILLIS = 200;
+	private static final long IOBOUND_THREAD_KEEP_ALIVE_SECONDS = 60;
+
 	private String name;
 	private final ThreadPoolExecutor executor;
 	private final AtomicBoolean running;
 
+	/** The configured {@code PoolSize}; in I/O-bound mode, that many packages may always run, regardless of the DB connection pool */
+	private final int poolSize;
+
+	/** Not null only in I/O-bound mode; limits the number of concurrently running packages */
+	private final Semaphore ioBoundPermits;
+	private final int ioBoundMaxConcurrency;
+
+	/** Supplies the DB connection pool (or {@code null}) which is checked in I/O-bound mode */
+	private final Supplier<IConnectionPool> connectionPoolSupplier;
+
 	public ThreadPoolQueueProcessor(final I_C_Queue_Processor config, final IWorkPackageQueue queue)
+	{
+		this(config, queue, ThreadPoolQueueProcessor::getConnectionPoolOrNull);
+	}
+
+	@VisibleForTesting
+	ThreadPoolQueueProcessor(
+			final I_C_Queue_Processor config,
+			final IWorkPackageQueue queue,
+			@NonNull final Supplier<IConnectionPool> connectionPoolSupplier)
 	{
 		super(queue);
 
+		this.connectionPoolSupplier = connectionPoolSupplier;
 		this.name = config.getName();
+		this.poolSize = config.getPoolSize();
+		this.ioBoundMaxConcurrency = retrieveIOBoundMaxConcurrency(name, poolSize);
 
 		//
 		// Create the tasks executor
@@ -56,23 +105,84 @@ class ThreadPoolQueueProcessor extends AbstractQueueProcessor
 					.setDaemon(true)
 					.build();
 
-			executor = new BlockingThreadPoolExecutor(
-					config.getPoolSize(),
-					threadFactory
-			);
-			// If we have a KeepAliveTimeMillis in processor definition, then we apply the timeout for core threads too
-			executor.allowCoreThreadTimeOut(config.getKeepAliveTimeMillis() > 0);
+			if (ioBoundMaxConcurrency > 0)
+			{
+				// Threads are created on demand and discarded when idle; the permits, not the executor, limit the concurrency.
+				// Note that the executor must not reject: a thread which just released its permit might not be back in the pool yet.
+				executor = new ThreadPoolExecutor(
+						0,
+						Integer.MAX_VALUE,
+						IOBOUND_THREAD_KEEP_ALIVE_SECONDS,
+						TimeUnit.SECONDS,
+						new SynchronousQueue<Runnable>(),
+						threadFactory);
+				ioBoundPermits = new Semaphore(ioBoundMaxConcurrency);
+				logger.info("Processor {} runs in I/O-bound mode with poolSize={} and maxConcurrency={}", name, poolSize, ioBoundMaxConcurrency);
+			}
+			else
+			{
+				executor = new BlockingThreadPoolExecutor(
+						poolSize,
+						threadFactory
+				);
+				// If we have a KeepAliveTimeMillis in processor definition, then we apply the timeout for core threads too
+				executor.allowCoreThreadTimeOut(config.getKeepAliveTimeMillis() > 0);
+				ioBoundPermits = null;
+			}
 		}
 
 		this.running = new AtomicBoolean(true);
 	}
-	
+
+	/**
+	 * @return the max concurrency of the I/O-bound mode, capped by the DB connection pool's max size, or {@code 0} if the mode is not enabled
+	 */
+	private int retrieveIOBoundMaxConcurrency(final String processorName, final int poolSize)
+	{
+		final int maxConcurrency = Services.get(ISysConfigBL.class).getIntValue(SYSCONFIG_IOBoundMaxConcurrency_Prefix + processorName, 0);
+		if (maxConcurrency <= 0)
+		{
+			return 0;
+		}
+		if (maxConcurrency <= poolSize)
+		{
+			logger.warn("Ignoring {}{}={} because it's not greater than the processor's poolSize={}",
+					SYSCONFIG_IOBoundMaxConcurrency_Prefix, processorName, maxConcurrency, poolSize);
+			return 0;
+		}
+
+		final IConnectionPool connectionPool = connectionPoolSupplier.get();
+		final int maxPoolSize = connectionPool != null ? connectionPool.getMaxPoolSize() : 0;
+		if (maxPoolSize > 0 && maxConcurrency > maxPoolSize)
+		{
+			if (maxPoolSize <= poolSize)
+			{
+				logger.warn("Ignoring {}{}={} because the DB connection pool's maxPoolSize={} is not greater than the processor's poolSize={}",
+						SYSCONFIG_IOBoundMaxConcurrency_Prefix, processorName, maxConcurrency, maxPoolSize, poolSize);
+				return 0;
+			}
+
+			logger.info("Capping {}{}={} to the DB connection pool's maxPoolSize={}",
+					SYSCONFIG_IOBoundMaxConcurrency_Prefix, processorName, maxConcurrency, maxPoolSize);
+			return maxPoolSize;
+		}
+		return maxConcurrency;
+	}
+
+	/** @return the max concurrency of the I/O-bound mode, or {@code 0} if this processor doesn't run in that mode */
+	@VisibleForTesting
+	int getIOBoundMaxConcurrency()
+	{
+		return ioBoundMaxConcurrency;
+	}
+
 	@Override
 	public String toString()
 	{
 		return MoreObjects.toStringHelper(this)
 				.add("name", name)
 				.add("executor", executor)
+				.add("ioBoundMaxConcurrency", ioBoundMaxConcurrency > 0 ? ioBoundMaxConcurrency : null)
 				.toString();
 	}
 
@@ -108,7 +218,96 @@ class ThreadPoolQueueProcessor extends AbstractQueueProcessor
 	@Override
 	protected void executeTask(WorkpackageProcessorTask task)
 	{
-		executor.submit(task);
+		if (ioBoundPermits == null)
+		{
+			executor.submit(task);
+			return;
+		}
+
+		acquireIOBoundPermit();
+		boolean submitted = false;
+		try
+		{
+			executor.submit(() -> {
+				try
+				{
+					task.run();
+				}
+				finally
+				{
+					ioBoundPermits.release();
+				}
+			});
+			submitted = true;
+		}
+		finally
+		{
+			if (!submitted)
+			{
+				ioBoundPermits.release();
+			}
+		}
+	}
+
+	/**
+	 * Blocks until a permit is available. If the new package would exceed the {@link #poolSize}, it also waits until the DB connection pool is not under pressure anymore.
+	 */
+	private void acquireIOBoundPermit()
+	{
+		boolean acquired = false;
+		try
+		{
+			ioBoundPermits.acquire();
+			acquired = true;
+
+			while (getIOBoundRunningCount() > poolSize && isDBConnectionPoolUnderPressure() && isRunning())
+			{
+				Thread.sleep(THROTTLE_WAIT_MILLIS);
+			}
+		}
+		catch (final InterruptedException e)
+		{
+			if (acquired)
+			{
+				ioBoundPermits.release();
+			}
+			Thread.currentThread().interrupt();
+			throw new AdempiereException("Interrupted while waiting to run the next work package", e);
+		}
+	}
+
+	/** @return the number of running packages, including the one which is about to be submitted */
+	private int getIOBoundRunningCount()
+	{
+		return ioBoundMaxConcurrency - ioBoundPermits.availablePermits();
+	}
+
+	private boolean isDBConnectionPoolUnderPressure()
+	{
+		final IConnectionPool connectionPool = connectionPoolSupplier.get();
+		if (connectionPool == null)
+		{
+			return false;
+		}
+
+		final int maxPoolSize = connectionPool.getMaxPoolSize();
+		if (maxPoolSize <= 0)
+		{
+			return false;
+		}
+
+		return connectionPool.getNumThreadsAwaitingConnection() > 0
+				|| connectionPool.getNumBusyConnections() >= maxPoolSize * DB_BUSY_CONNECTIONS_THRESHOLD;
+	}
+
+	private static IConnectionPool getConnectionPoolOrNull()
+	{
+		final AdempiereDatabase database = DB.isConnected() ? DB.getDatabase() : null;
+		if (database instanceof DB_PostgreSQL)
+		{
+			return ((DB_PostgreSQL)database).getConnectionPoolOrNull();
+		}
+		return null;
 	}
 
 	private final ReentrantLock shutdownLock = new ReentrantLock();
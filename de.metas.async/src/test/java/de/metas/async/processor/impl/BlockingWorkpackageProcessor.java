@@ -0,0 +1,104 @@
+package de.metas.async.processor.impl;
+
+/*
+ * #%L
+ * de.metas.async
+ * %%
+ * Copyright (C) 2019 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.adempiere.exceptions.AdempiereException;
+
+import de.metas.async.model.I_C_Queue_WorkPackage;
+import de.metas.async.spi.IWorkpackageProcessor;
+
+/**
+ * Blocks each work package until {@link #releaseAll()} is called, and records how many packages were running at the same time.
+ * <p>
+ * Like {@link StaticMockedWorkpackageProcessor}, the state is static, because the processor factory might create more than one instance of this class.
+ */
+public class BlockingWorkpackageProcessor implements IWorkpackageProcessor
+{
+	private static CountDownLatch release = new CountDownLatch(1);
+	private static final AtomicInteger startedCount = new AtomicInteger();
+	private static final AtomicInteger finishedCount = new AtomicInteger();
+	private static final AtomicInteger runningCount = new AtomicInteger();
+	private static final AtomicInteger maxRunningCount = new AtomicInteger();
+
+	public static void reset()
+	{
+		release.countDown(); // don't leave behind any blocked package
+		release = new CountDownLatch(1);
+		startedCount.set(0);
+		finishedCount.set(0);
+		runningCount.set(0);
+		maxRunningCount.set(0);
+	}
+
+	public static void releaseAll()
+	{
+		release.countDown();
+	}
+
+	public static int getStartedCount()
+	{
+		return startedCount.get();
+	}
+
+	public static int getFinishedCount()
+	{
+		return finishedCount.get();
+	}
+
+	public static int getMaxRunningCount()
+	{
+		return maxRunningCount.get();
+	}
+
+	@Override
+	public Result processWorkPackage(final I_C_Queue_WorkPackage workpackage, final String localTrxName)
+	{
+		final CountDownLatch release = BlockingWorkpackageProcessor.release;
+
+		startedCount.incrementAndGet();
+		maxRunningCount.accumulateAndGet(runningCount.incrementAndGet(), Math::max);
+		try
+		{
+			if (!release.await(30, TimeUnit.SECONDS))
+			{
+				throw new AdempiereException("Not released in time: " + workpackage);
+			}
+		}
+		catch (final InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+			throw new AdempiereException("Interrupted while blocked: " + workpackage, e);
+		}
+		finally
+		{
+			runningCount.decrementAndGet();
+			finishedCount.incrementAndGet();
+		}
+
+		return Result.SUCCESS;
+	}
+}
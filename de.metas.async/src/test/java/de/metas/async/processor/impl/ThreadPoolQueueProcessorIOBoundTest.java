@@ -0,0 +1,281 @@
+package de.metas.async.processor.impl;
+
+/*
+ * #%L
+ * de.metas.async
+ * %%
+ * Copyright (C) 2019 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.function.BooleanSupplier;
+
+import javax.sql.DataSource;
+
+import org.adempiere.service.ISysConfigBL;
+import org.junit.Test;
+
+import de.metas.async.QueueProcessorTestBase;
+import de.metas.async.api.IWorkPackageQueue;
+import de.metas.async.model.I_C_Queue_Processor;
+import de.metas.async.processor.IQueueProcessor;
+import de.metas.async.processor.IQueueProcessorFactory;
+import de.metas.async.processor.IQueueProcessorsExecutor;
+import de.metas.async.processor.IWorkPackageQueueFactory;
+import de.metas.connection.IConnectionPool;
+import de.metas.util.Services;
+
+public class ThreadPoolQueueProcessorIOBoundTest extends QueueProcessorTestBase
+{
+	private static final String PROCESSOR_NAME = "testIOBound";
+	private static final int POOL_SIZE = 2;
+
+	private I_C_Queue_Processor processorDef;
+	private IQueueProcessorsExecutor processorsExecutor;
+	private final ConnectionPoolStub connectionPool = new ConnectionPoolStub();
+
+	@Override
+	protected void beforeTestCustomized()
+	{
+		BlockingWorkpackageProcessor.reset();
+
+		processorDef = helper.createQueueProcessor(PROCESSOR_NAME,
+				POOL_SIZE, // poolSize
+				10, // maxPoolSize
+				1000 // keepAliveTimeMillis
+		);
+		helper.assignPackageProcessor(processorDef, BlockingWorkpackageProcessor.class);
+
+		// make the processors check our connection pool stub instead of the (not existing) database's one
+		Services.registerService(IQueueProcessorFactory.class, new QueueProcessorFactory()
+		{
+			@Override
+			public IQueueProcessor createAsynchronousQueueProcessor(final I_C_Queue_Processor config, final IWorkPackageQueue queue)
+			{
+				return new ThreadPoolQueueProcessor(config, queue, () -> connectionPool);
+			}
+		});
+	}
+
+	@Override
+	protected void afterTestCustomized()
+	{
+		BlockingWorkpackageProcessor.releaseAll();
+		if (processorsExecutor != null)
+		{
+			processorsExecutor.shutdown();
+			processorsExecutor = null;
+		}
+		BlockingWorkpackageProcessor.reset();
+	}
+
+	private void setMaxConcurrency(final int maxConcurrency)
+	{
+		Services.get(ISysConfigBL.class).setValue(ThreadPoolQueueProcessor.SYSCONFIG_IOBoundMaxConcurrency_Prefix + PROCESSOR_NAME, maxConcurrency, 0);
+	}
+
+	private void startProcessorAndEnqueue(final int workpackagesCount)
+	{
+		processorsExecutor = new QueueProcessorsExecutor();
+		processorsExecutor.addQueueProcessor(processorDef);
+
+		final IWorkPackageQueue workpackageQueue = Services.get(IWorkPackageQueueFactory.class).getQueueForEnqueuing(ctx, BlockingWorkpackageProcessor.class);
+		helper.createAndEnqueueWorkpackages(workpackageQueue, workpackagesCount, true);
+	}
+
+	private int retrieveIOBoundMaxConcurrency()
+	{
+		final IWorkPackageQueue queue = Services.get(IWorkPackageQueueFactory.class).getQueueForPackageProcessing(processorDef);
+		final ThreadPoolQueueProcessor processor = new ThreadPoolQueueProcessor(processorDef, queue, () -> connectionPool);
+		try
+		{
+			return processor.getIOBoundMaxConcurrency();
+		}
+		finally
+		{
+			processor.shutdown();
+		}
+	}
+
+	private static void waitUntil(final BooleanSupplier condition, final String description) throws InterruptedException
+	{
+		final long timeoutTS = System.currentTimeMillis() + 10 * 1000;
+		while (!condition.getAsBoolean())
+		{
+			assertThat(System.currentTimeMillis()).as("timeout while waiting until " + description).isLessThan(timeoutTS);
+			Thread.sleep(20);
+		}
+	}
+
+	@Test
+	public void runs_more_than_poolSize_packages_but_not_more_than_maxConcurrency() throws Exception
+	{
+		setMaxConcurrency(5);
+		connectionPool.maxPoolSize = 50;
+
+		startProcessorAndEnqueue(10);
+
+		waitUntil(() -> BlockingWorkpackageProcessor.getStartedCount() >= 5, "5 packages are running");
+		Thread.sleep(500); // give the processor the chance to (wrongly) start more packages
+		assertThat(BlockingWorkpackageProcessor.getStartedCount()).isEqualTo(5);
+		assertThat(BlockingWorkpackageProcessor.getMaxRunningCount()).isEqualTo(5);
+
+		BlockingWorkpackageProcessor.releaseAll();
+		waitUntil(() -> BlockingWorkpackageProcessor.getFinishedCount() >= 10, "all packages are processed");
+		assertThat(BlockingWorkpackageProcessor.getMaxRunningCount()).isEqualTo(5);
+	}
+
+	@Test
+	public void runs_only_poolSize_packages_while_the_connection_pool_is_under_pressure() throws Exception
+	{
+		setMaxConcurrency(5);
+		connectionPool.maxPoolSize = 10;
+		connectionPool.numBusyConnections = 8; // 80% busy
+
+		startProcessorAndEnqueue(10);
+
+		waitUntil(() -> BlockingWorkpackageProcessor.getStartedCount() >= POOL_SIZE, "poolSize packages are running");
+		Thread.sleep(500); // give the processor the chance to (wrongly) start more packages
+		assertThat(BlockingWorkpackageProcessor.getStartedCount()).isEqualTo(POOL_SIZE);
+
+		// threads which wait for a connection mean pressure, too
+		connectionPool.numBusyConnections = 0;
+		connectionPool.numThreadsAwaitingConnection = 1;
+		Thread.sleep(500);
+		assertThat(BlockingWorkpackageProcessor.getStartedCount()).isEqualTo(POOL_SIZE);
+
+		// the pressure is gone; up to maxConcurrency packages may run
+		connectionPool.numThreadsAwaitingConnection = 0;
+		waitUntil(() -> BlockingWorkpackageProcessor.getStartedCount() >= 5, "5 packages are running");
+		Thread.sleep(500);
+		assertThat(BlockingWorkpackageProcessor.getMaxRunningCount()).isEqualTo(5);
+
+		BlockingWorkpackageProcessor.releaseAll();
+		waitUntil(() -> BlockingWorkpackageProcessor.getFinishedCount() >= 10, "all packages are processed");
+	}
+
+	@Test
+	public void retrieveIOBoundMaxConcurrency_notConfigured()
+	{
+		connectionPool.maxPoolSize = 50;
+		assertThat(retrieveIOBoundMaxConcurrency()).isEqualTo(0);
+	}
+
+	@Test
+	public void retrieveIOBoundMaxConcurrency_notGreaterThanPoolSize()
+	{
+		setMaxConcurrency(POOL_SIZE);
+		connectionPool.maxPoolSize = 50;
+		assertThat(retrieveIOBoundMaxConcurrency()).isEqualTo(0);
+	}
+
+	@Test
+	public void retrieveIOBoundMaxConcurrency_cappedToConnectionPoolMaxSize()
+	{
+		setMaxConcurrency(20);
+		connectionPool.maxPoolSize = 4;
+		assertThat(retrieveIOBoundMaxConcurrency()).isEqualTo(4);
+	}
+
+	@Test
+	public void retrieveIOBoundMaxConcurrency_connectionPoolNotGreaterThanPoolSize()
+	{
+		setMaxConcurrency(20);
+		connectionPool.maxPoolSize = POOL_SIZE;
+		assertThat(retrieveIOBoundMaxConcurrency()).isEqualTo(0);
+	}
+
+	@Test
+	public void retrieveIOBoundMaxConcurrency_connectionPoolMaxSizeUnknown()
+	{
+		setMaxConcurrency(20);
+		connectionPool.maxPoolSize = 0;
+		assertThat(retrieveIOBoundMaxConcurrency()).isEqualTo(20);
+	}
+
+	/** Only provides the numbers which {@link ThreadPoolQueueProcessor} checks. */
+	private static class ConnectionPoolStub implements IConnectionPool
+	{
+		private volatile int maxPoolSize;
+		private volatile int numBusyConnections;
+		private volatile int numThreadsAwaitingConnection;
+
+		@Override
+		public String getImplementationName()
+		{
+			return "stub";
+		}
+
+		@Override
+		public DataSource getDataSource()
+		{
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public Connection getConnection()
+		{
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public boolean isAcquireTimeout(final SQLException ex)
+		{
+			return false;
+		}
+
+		@Override
+		public int getMaxPoolSize()
+		{
+			return maxPoolSize;
+		}
+
+		@Override
+		public int getNumConnections()
+		{
+			return numBusyConnections;
+		}
+
+		@Override
+		public int getNumBusyConnections()
+		{
+			return numBusyConnections;
+		}
+
+		@Override
+		public int getNumIdleConnections()
+		{
+			return 0;
+		}
+
+		@Override
+		public int getNumThreadsAwaitingConnection()
+		{
+			return numThreadsAwaitingConnection;
+		}
+
+		@Override
+		public void close()
+		{
+			// nothing to do
+		}
+	}
+}
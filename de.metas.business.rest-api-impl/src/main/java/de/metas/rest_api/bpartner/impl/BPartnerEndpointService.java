@@ -1,6 +1,9 @@
 package de.metas.rest_api.bpartner.impl;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.time.Instant;
+import java.util.List;
 import java.util.Optional;
 
 import javax.annotation.Nullable;
@@ -10,6 +13,7 @@ import org.adempiere.service.ISysConfigBL;
 import org.compiere.util.Env;
 import org.springframework.stereotype.Service;
 
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.google.common.collect.ImmutableList;
 
 import de.metas.bpartner.GLN;
@@ -58,6 +62,7 @@ import lombok.NonNull;
 class BPartnerEndpointService
 {
 	public static final String SYSCFG_BPARTNER_PAGE_SIZE = "de.metas.rest_api.bpartner.PageSize";
+	public static final String SYSCFG_BPARTNER_STREAM_PAGE_SIZE = "de.metas.rest_api.bpartner.StreamPageSize";
 	private final JsonRetrieverService jsonRetriever;
 
 	public BPartnerEndpointService(@NonNull final JsonServiceFactory jsonServiceFactory)
@@ -163,6 +168,47 @@ class BPartnerEndpointService
 		return Optional.of(result);
 	}
 
+	/**
+	 * Writes all bpartners that were changed since the given timestamp as one JSON array to the given generator.
+	 * The bpartners are loaded and written page by page, so the memory footprint does not depend on the number of bpartners.
+	 */
+	public void streamBPartnersSince(
+			@Nullable final Long epochMilli,
+			@NonNull final JsonGenerator jsonGenerator) throws IOException
+	{
+		jsonGenerator.writeStartArray();
+		try
+		{
+			jsonRetriever.forEachJsonBPartnerCompositeSince(
+					extractInstant(epochMilli),
+					getStreamPageSize(),
+					jsonItems -> writePage(jsonItems, jsonGenerator));
+		}
+		catch (final UncheckedIOException e)
+		{
+			throw e.getCause();
+		}
+		jsonGenerator.writeEndArray();
+	}
+
+	private static void writePage(
+			@NonNull final List<JsonResponseComposite> jsonItems,
+			@NonNull final JsonGenerator jsonGenerator)
+	{
+		try
+		{
+			for (final JsonResponseComposite jsonItem : jsonItems)
+			{
+				jsonGenerator.writeObject(jsonItem);
+			}
+			jsonGenerator.flush(); // send what we have, before loading the next page
+		}
+		catch (final IOException e)
+		{
+			throw new UncheckedIOException(e);
+		}
+	}
+
 	public Optional<JsonResponseContactList> retrieveContactsSince(
 			@Nullable final Long epochMilli,
 			@Nullable final String nextPageId)
@@ -216,6 +262,15 @@ class BPartnerEndpointService
 				Env.getOrgId().getRepoId());
 	}
 
+	private int getStreamPageSize()
+	{
+		return Services.get(ISysConfigBL.class).getIntValue(
+				SYSCFG_BPARTNER_STREAM_PAGE_SIZE,
+				500,
+				Env.getAD_Client_ID(),
+				Env.getOrgId().getRepoId());
+	}
+
 	public Optional<JsonResponseContact> retrieveContact(@NonNull final IdentifierString contactIdentifier)
 	{
 		return jsonRetriever.getContact(contactIdentifier);
@@ -6,13 +6,16 @@ import static de.metas.rest_api.bpartner.SwaggerDocConstants.LOCATION_IDENTIFIER
 import static de.metas.rest_api.bpartner.SwaggerDocConstants.NEXT_DOC;
 import static de.metas.rest_api.bpartner.SwaggerDocConstants.SINCE_DOC;
 
+import java.io.IOException;
 import java.util.Optional;
 
 import javax.annotation.Nullable;
+import javax.servlet.http.HttpServletResponse;
 
 import org.compiere.util.Env;
 import org.springframework.context.annotation.Profile;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -22,6 +25,11 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import de.metas.JsonObjectMapperHolder;
 import de.metas.Profiles;
 import de.metas.bpartner.composite.BPartnerComposite;
 import de.metas.rest_api.bpartner.BPartnerRestEndpoint;
@@ -193,6 +201,28 @@ public class BpartnerRestController implements BPartnerRestEndpoint
 		}
 	}
 
+	@ApiOperation("Streams all bpartners that were changed since the given timestamp as one JSON array.\n"
+			+ "Unlike the paginated endpoint, the server does not need to remember anything between pages, so this is meant for full syncs of many bpartners.\n"
+			+ "Note that if an error occurs while streaming, the response is truncated, i.e. it is not a valid JSON array.")
+	@GetMapping("stream")
+	public void streamBPartnersSince(
+
+			@ApiParam(SINCE_DOC) //
+			@RequestParam(name = "since", required = false) //
+			@Nullable final Long epochTimestampMillis,
+
+			@NonNull final HttpServletResponse response) throws IOException
+	{
+		response.setStatus(HttpStatus.OK.value());
+		response.setContentType(MediaType.APPLICATION_JSON_UTF8_VALUE);
+
+		final ObjectMapper jsonObjectMapper = JsonObjectMapperHolder.sharedJsonObjectMapper();
+		try (final JsonGenerator jsonGenerator = jsonObjectMapper.getFactory().createGenerator(response.getOutputStream(), JsonEncoding.UTF8))
+		{
+			bpartnerEndpointService.streamBPartnersSince(epochTimestampMillis, jsonGenerator);
+		}
+	}
+
 	//
 	@ApiResponses(value = {
 			@ApiResponse(code = 201, message = "Successfully created or updated bpartner(s)"),
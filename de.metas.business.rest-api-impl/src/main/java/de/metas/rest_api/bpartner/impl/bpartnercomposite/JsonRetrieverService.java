@@ -2,9 +2,12 @@ package de.metas.rest_api.bpartner.impl.bpartnercomposite;
 
 import static de.metas.util.Check.isEmpty;
 
+import java.time.Instant;
 import java.util.Collection;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 import java.util.function.Function;
 
 import javax.annotation.Nullable;
@@ -29,7 +32,9 @@ import de.metas.bpartner.composite.BPartnerContact;
 import de.metas.bpartner.composite.BPartnerContactType;
 import de.metas.bpartner.composite.BPartnerLocation;
 import de.metas.bpartner.composite.BPartnerLocationType;
+import de.metas.bpartner.composite.repository.BPartnerCompositeKeysetPage;
 import de.metas.bpartner.composite.repository.BPartnerCompositeRepository;
+import de.metas.bpartner.composite.repository.BPartnerKeysetPosition;
 import de.metas.bpartner.composite.repository.NextPageQuery;
 import de.metas.bpartner.composite.repository.SinceQuery;
 import de.metas.bpartner.service.BPartnerContactQuery;
@@ -221,6 +226,32 @@ public class JsonRetrieverService
 		return Optional.of(page.mapTo(this::toJson));
 	}
 
+	/**
+	 * Hands all bpartner composites that were changed since the given instant to the given consumer, one keyset page after the other.
+	 * Unlike {@link #getJsonBPartnerComposites(NextPageQuery, SinceQuery)}, this neither uses this instance's cache nor server-side page selections,
+	 * so just the current page is held in memory.
+	 */
+	public void forEachJsonBPartnerCompositeSince(
+			@NonNull final Instant sinceInstant,
+			final int pageSize,
+			@NonNull final Consumer<List<JsonResponseComposite>> pageConsumer)
+	{
+		BPartnerKeysetPosition lastPosition = null;
+		do
+		{
+			final BPartnerCompositeKeysetPage page = bpartnerCompositeRepository.getKeysetPage(sinceInstant, lastPosition, pageSize);
+
+			final ImmutableList<JsonResponseComposite> jsonItems = page.getItems()
+					.stream()
+					.map(this::toJson)
+					.collect(ImmutableList.toImmutableList());
+			pageConsumer.accept(jsonItems);
+
+			lastPosition = page.getLastPosition();
+		}
+		while (lastPosition != null);
+	}
+
 	private JsonResponseComposite toJson(@NonNull final BPartnerComposite bpartnerComposite)
 	{
 		final JsonResponseCompositeBuilder result = JsonResponseComposite.builder();
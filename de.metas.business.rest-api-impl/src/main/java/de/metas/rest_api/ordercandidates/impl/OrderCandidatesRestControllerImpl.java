@@ -6,7 +6,9 @@ import java.io.IOException;
 import java.math.BigDecimal;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 import javax.annotation.Nullable;
 
@@ -14,6 +16,8 @@ import org.adempiere.ad.trx.api.ITrxManager;
 import org.adempiere.exceptions.AdempiereException;
 import org.compiere.util.Env;
 import org.compiere.util.TimeUtil;
+import org.compiere.util.Util;
+import org.compiere.util.Util.ArrayKey;
 import org.slf4j.Logger;
 import org.springframework.context.annotation.Profile;
 import org.springframework.http.HttpStatus;
@@ -161,19 +165,43 @@ class OrderCandidatesRestControllerImpl implements OrderCandidatesRestEndpoint
 
 	private void assertCanCreate(
 			@NonNull final JsonOLCandCreateRequest request,
-			@NonNull final MasterdataProvider masterdataProvider)
+			@NonNull final MasterdataProvider masterdataProvider,
+			@NonNull final Set<OrgId> alreadyCheckedOrgIds)
 	{
 		final OrgId orgId = masterdataProvider.getCreateOrgId(request.getOrg());
-		masterdataProvider.assertCanCreateNewOLCand(orgId);
+		if (alreadyCheckedOrgIds.add(orgId))
+		{
+			masterdataProvider.assertCanCreateNewOLCand(orgId);
+		}
 	}
 
 	private void createOrUpdateMasterdata(
 			@NonNull final JsonOLCandCreateBulkRequest bulkRequest,
 			@NonNull final MasterdataProvider masterdataProvider)
 	{
-		bulkRequest.getRequests()
-				.stream()
-				.forEach(request -> createOrUpdateMasterdata(request, masterdataProvider));
+		// in a bulk request, many lines usually share the same org, bpartners and product; there is no need to look at them more than once
+		final Set<ArrayKey> alreadySeenMasterdataKeys = new HashSet<>();
+		for (final JsonOLCandCreateRequest request : bulkRequest.getRequests())
+		{
+			if (alreadySeenMasterdataKeys.add(mkMasterdataKey(request)))
+			{
+				createOrUpdateMasterdata(request, masterdataProvider);
+			}
+		}
+	}
+
+	/**
+	 * Note that there is no need to include the price-related properties, because a product price is only created together with its product, i.e. for the first request with that product.
+	 */
+	private static ArrayKey mkMasterdataKey(@NonNull final JsonOLCandCreateRequest json)
+	{
+		return Util.mkKey(
+				json.getOrg(),
+				json.getBpartner(),
+				json.getBillBPartner(),
+				json.getDropShipBPartner(),
+				json.getHandOverBPartner(),
+				json.getProduct());
 	}
 
 	private void createOrUpdateMasterdata(
@@ -259,10 +287,11 @@ class OrderCandidatesRestControllerImpl implements OrderCandidatesRestEndpoint
 			@NonNull final JsonOLCandCreateBulkRequest bulkRequest,
 			@NonNull final MasterdataProvider masterdataProvider)
 	{
+		final Set<OrgId> alreadyCheckedOrgIds = new HashSet<>();
 		final List<OLCandCreateRequest> requests = bulkRequest
 				.getRequests()
 				.stream()
-				.peek(request -> assertCanCreate(request, masterdataProvider))
+				.peek(request -> assertCanCreate(request, masterdataProvider, alreadyCheckedOrgIds))
 				.map(request -> fromJson(request, masterdataProvider))
 				.collect(ImmutableList.toImmutableList());
 
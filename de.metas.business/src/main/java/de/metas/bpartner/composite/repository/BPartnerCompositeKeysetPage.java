@@ -0,0 +1,56 @@
+package de.metas.bpartner.composite.repository;
+
+import java.util.List;
+
+import javax.annotation.Nullable;
+
+import com.google.common.collect.ImmutableList;
+
+import de.metas.bpartner.composite.BPartnerComposite;
+import lombok.NonNull;
+import lombok.Value;
+
+/*
+ * #%L
+ * de.metas.business
+ * %%
+ * Copyright (C) 2019 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+@Value
+public class BPartnerCompositeKeysetPage
+{
+	ImmutableList<BPartnerComposite> items;
+
+	/** The position of this page's last bpartner; {@code null} if there are no more bpartners. */
+	@Nullable
+	BPartnerKeysetPosition lastPosition;
+
+	/* package */ BPartnerCompositeKeysetPage(
+			@NonNull final List<BPartnerComposite> items,
+			@Nullable final BPartnerKeysetPosition lastPosition)
+	{
+		this.items = ImmutableList.copyOf(items);
+		this.lastPosition = lastPosition;
+	}
+
+	public boolean isLastPage()
+	{
+		return lastPosition == null;
+	}
+}
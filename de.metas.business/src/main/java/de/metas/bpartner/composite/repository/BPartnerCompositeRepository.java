@@ -2,8 +2,13 @@ package de.metas.bpartner.composite.repository;
 
 import static de.metas.util.Check.isEmpty;
 
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.sql.Timestamp;
+import java.time.Instant;
 import java.util.Collection;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 
@@ -12,11 +17,16 @@ import javax.annotation.Nullable;
 import org.adempiere.ad.dao.IQueryBL;
 import org.adempiere.ad.dao.impl.CompareQueryFilter.Operator;
 import org.adempiere.ad.table.LogEntriesRepository;
+import org.adempiere.ad.trx.api.ITrx;
 import org.adempiere.exceptions.AdempiereException;
+import org.adempiere.exceptions.DBException;
 import org.compiere.model.I_AD_User;
 import org.compiere.model.I_C_BPartner_Recent_V;
+import org.compiere.util.DB;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Repository;
 
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
@@ -29,6 +39,7 @@ import de.metas.bpartner.service.BPartnerContactQuery;
 import de.metas.bpartner.service.BPartnerQuery;
 import de.metas.bpartner.service.IBPartnerDAO;
 import de.metas.dao.selection.pagination.QueryResultPage;
+import de.metas.util.Check;
 import de.metas.util.Services;
 import de.metas.util.collections.CollectionUtils;
 import lombok.NonNull;
@@ -61,10 +72,36 @@ public class BPartnerCompositeRepository
 	private final IBPartnerDAO bpartnersRepo = Services.get(IBPartnerDAO.class);
 	private final LogEntriesRepository recordChangeLogRepository;
 	private final BPartnerCompositeCache bpartnerCompositeCache = new BPartnerCompositeCache();
+	private final KeysetPositionsLoader keysetPositionsLoader;
 
+	/** Maintained by DB triggers; for each bpartner, the last time it or one of its locations or contacts was changed */
+	private static final String TABLENAME_C_BPartner_LastChange = "C_BPartner_LastChange";
+	private static final String COLUMNNAME_LastChange = "LastChange";
+	private static final String COLUMNNAME_C_BPartner_ID = "C_BPartner_ID";
+
+	@Autowired
 	public BPartnerCompositeRepository(@NonNull final LogEntriesRepository recordChangeLogRepository)
+	{
+		this(recordChangeLogRepository, BPartnerCompositeRepository::retrieveKeysetPositions);
+	}
+
+	@VisibleForTesting
+	BPartnerCompositeRepository(
+			@NonNull final LogEntriesRepository recordChangeLogRepository,
+			@NonNull final KeysetPositionsLoader keysetPositionsLoader)
 	{
 		this.recordChangeLogRepository = recordChangeLogRepository;
+		this.keysetPositionsLoader = keysetPositionsLoader;
+	}
+
+	/**
+	 * Loads the positions of the bpartners which were changed at or after the given {@code sinceInstant} and which come after the given position, in {@link BPartnerKeysetPosition}'s order.
+	 */
+	@FunctionalInterface
+	@VisibleForTesting
+	interface KeysetPositionsLoader
+	{
+		ImmutableList<BPartnerKeysetPosition> load(Instant sinceInstant, @Nullable BPartnerKeysetPosition after, int pageSize);
 	}
 
 	public BPartnerComposite getById(@NonNull final BPartnerId bpartnerId)
@@ -209,6 +246,90 @@ public class BPartnerCompositeRepository
 		return page.mapTo(record -> BPartnerContactId.ofRepoId(record.getC_BPartner_ID(), record.getAD_User_ID()));
 	}
 
+	/**
+	 * Loads the bpartners that were changed since the given instant, ordered by their last change and ID.
+	 * <p>
+	 * Unlike {@link #getSince(SinceQuery)}, the next page is not identified by a server-side selection but by the given {@code after} position.
+	 * So there is nothing to remember between two pages and clients can iterate over all bpartners in constant memory.
+	 * Also, the composites are loaded bypassing the cache, because they are typically needed just once.
+	 *
+	 * @param after the last position of the previous page; {@code null} for the first page
+	 */
+	public BPartnerCompositeKeysetPage getKeysetPage(
+			@NonNull final Instant sinceInstant,
+			@Nullable final BPartnerKeysetPosition after,
+			final int pageSize)
+	{
+		Check.assumeGreaterThanZero(pageSize, "pageSize");
+
+		final ImmutableList<BPartnerKeysetPosition> positions = keysetPositionsLoader.load(sinceInstant, after, pageSize);
+		if (positions.isEmpty())
+		{
+			return new BPartnerCompositeKeysetPage(ImmutableList.of(), null);
+		}
+
+		final ImmutableSet<BPartnerId> bpartnerIds = positions.stream()
+				.map(BPartnerKeysetPosition::getBpartnerId)
+				.collect(ImmutableSet.toImmutableSet());
+		final ImmutableMap<BPartnerId, BPartnerComposite> bpartnerCompositesById = retrieveByIds(bpartnerIds);
+
+		final ImmutableList<BPartnerComposite> bpartnerComposites = positions.stream()
+				.map(position -> bpartnerCompositesById.get(position.getBpartnerId()))
+				.filter(Objects::nonNull) // might have been deleted in the meantime
+				.collect(ImmutableList.toImmutableList());
+
+		final BPartnerKeysetPosition lastPosition = positions.size() < pageSize
+				? null
+				: positions.get(positions.size() - 1);
+
+		return new BPartnerCompositeKeysetPage(bpartnerComposites, lastPosition);
+	}
+
+	private static ImmutableList<BPartnerKeysetPosition> retrieveKeysetPositions(
+			@NonNull final Instant sinceInstant,
+			@Nullable final BPartnerKeysetPosition after,
+			final int pageSize)
+	{
+		// Only bpartners changed at or after sinceInstant: since IDs are > 0, that's the same as "after (sinceInstant, 0)".
+		// Comparing (LastChange, C_BPartner_ID) as one row value lets the DB scan the index on exactly these two columns, starting right after the previous page.
+		final boolean continueAfterPosition = after != null && !after.getUpdated().isBefore(sinceInstant);
+		final Timestamp startUpdated = Timestamp.from(continueAfterPosition ? after.getUpdated() : sinceInstant);
+		final int startBPartnerId = continueAfterPosition ? after.getBpartnerId().getRepoId() : 0;
+
+		final String sql = "SELECT " + COLUMNNAME_C_BPartner_ID + ", " + COLUMNNAME_LastChange
+				+ " FROM " + TABLENAME_C_BPartner_LastChange
+				+ " WHERE (" + COLUMNNAME_LastChange + ", " + COLUMNNAME_C_BPartner_ID + ") > (?, ?)"
+				+ " ORDER BY " + COLUMNNAME_LastChange + ", " + COLUMNNAME_C_BPartner_ID
+				+ " LIMIT ?";
+		final Object[] sqlParams = new Object[] { startUpdated, startBPartnerId, pageSize };
+
+		PreparedStatement pstmt = null;
+		ResultSet rs = null;
+		try
+		{
+			pstmt = DB.prepareStatement(sql, ITrx.TRXNAME_ThreadInherited);
+			DB.setParameters(pstmt, sqlParams);
+			rs = pstmt.executeQuery();
+
+			final ImmutableList.Builder<BPartnerKeysetPosition> positions = ImmutableList.builder();
+			while (rs.next())
+			{
+				final BPartnerId bpartnerId = BPartnerId.ofRepoId(rs.getInt(1));
+				final Instant updated = rs.getTimestamp(2).toInstant();
+				positions.add(BPartnerKeysetPosition.of(updated, bpartnerId));
+			}
+			return positions.build();
+		}
+		catch (final SQLException ex)
+		{
+			throw new DBException(ex, sql, sqlParams);
+		}
+		finally
+		{
+			DB.close(rs, pstmt);
+		}
+	}
+
 	public ImmutableList<BPartnerComposite> getByQuery(@NonNull final BPartnerQuery query)
 	{
 		final ImmutableSet<BPartnerId> bpartnerIds = getIdsByQuery(query);
@@ -0,0 +1,57 @@
+package de.metas.bpartner.composite.repository;
+
+import java.time.Instant;
+import java.util.Comparator;
+
+import de.metas.bpartner.BPartnerId;
+import lombok.NonNull;
+import lombok.Value;
+
+/*
+ * #%L
+ * de.metas.business
+ * %%
+ * Copyright (C) 2019 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Position of a bpartner within the sequence of bpartners ordered by their last change (incl. their locations and contacts) and their ID.
+ * A keyset page continues right after such a position.
+ */
+/**
+ * A bpartner's position in the bpartner export; ordered by the bpartner's last change, then by its ID.
+ */
+@Value(staticConstructor = "of")
+public class BPartnerKeysetPosition implements Comparable<BPartnerKeysetPosition>
+{
+	private static final Comparator<BPartnerKeysetPosition> ORDER = Comparator
+			.comparing(BPartnerKeysetPosition::getUpdated)
+			.thenComparing(position -> position.getBpartnerId().getRepoId());
+
+	@NonNull
+	Instant updated;
+
+	@NonNull
+	BPartnerId bpartnerId;
+
+	@Override
+	public int compareTo(@NonNull final BPartnerKeysetPosition other)
+	{
+		return ORDER.compare(this, other);
+	}
+}
@@ -1,5 +1,6 @@
 package de.metas.costing;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
@@ -52,6 +53,11 @@ public interface ICurrentCostsRepository
 
 	List<CurrentCost> getByCostSegmentAndCostingMethod(CostSegment costSegment, CostingMethod costingMethod);
 
+	/**
+	 * Same as {@link #getByCostSegmentAndCostingMethod(CostSegment, CostingMethod)}, but loads the costs of many segments (e.g. products) at once.
+	 */
+	List<CurrentCost> getByCostSegmentsAndCostingMethod(Collection<CostSegment> costSegments, CostingMethod costingMethod);
+
 	List<CurrentCost> getByCostSegmentAndCostElements(CostSegment costSegment, Set<CostElementId> costElementIds);
 
 	void updateCostRecord(CostSegmentAndElement costSegmentAndElement, Consumer<I_M_Cost> updater);
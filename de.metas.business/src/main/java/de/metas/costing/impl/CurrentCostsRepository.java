@@ -2,6 +2,7 @@ package de.metas.costing.impl;
 
 import static org.adempiere.model.InterfaceWrapperHelper.saveRecord;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.Properties;
@@ -24,6 +25,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableListMultimap;
 import com.google.common.collect.ImmutableMap;
 
 import de.metas.acct.api.AcctSchema;
@@ -53,6 +55,7 @@ import de.metas.uom.IUOMDAO;
 import de.metas.util.Check;
 import de.metas.util.Services;
 import lombok.NonNull;
+import lombok.Value;
 
 /*
  * #%L
@@ -127,11 +130,16 @@ public class CurrentCostsRepository implements ICurrentCostsRepository
 	}
 
 	private IQueryBuilder<I_M_Cost> queryCostRecords(@NonNull final CostSegment costSegment)
+	{
+		return queryCostRecords(CostSegmentExceptProduct.of(costSegment))
+				.addEqualsFilter(I_M_Cost.COLUMN_M_Product_ID, costSegment.getProductId());
+	}
+
+	private IQueryBuilder<I_M_Cost> queryCostRecords(@NonNull final CostSegmentExceptProduct costSegment)
 	{
 		return Services.get(IQueryBL.class)
 				.createQueryBuilder(I_M_Cost.class)
 				.addEqualsFilter(I_M_Cost.COLUMN_AD_Org_ID, costSegment.getOrgId())
-				.addEqualsFilter(I_M_Cost.COLUMN_M_Product_ID, costSegment.getProductId())
 				.addEqualsFilter(I_M_Cost.COLUMN_M_AttributeSetInstance_ID, costSegment.getAttributeSetInstanceId())
 				.addEqualsFilter(I_M_Cost.COLUMN_M_CostType_ID, costSegment.getCostTypeId())
 				.addEqualsFilter(I_M_Cost.COLUMN_C_AcctSchema_ID, costSegment.getAcctSchemaId());
@@ -204,6 +212,57 @@ public class CurrentCostsRepository implements ICurrentCostsRepository
 				.collect(ImmutableList.toImmutableList());
 	}
 
+	@Override
+	public ImmutableList<CurrentCost> getByCostSegmentsAndCostingMethod(@NonNull final Collection<CostSegment> costSegments, final CostingMethod costingMethod)
+	{
+		if (costSegments.isEmpty())
+		{
+			return ImmutableList.of();
+		}
+
+		final Set<CostElementId> costElementIds = costElementRepo.getIdsByCostingMethod(costingMethod);
+		if (costElementIds.isEmpty())
+		{
+			return ImmutableList.of();
+		}
+
+		// segments which differ only by their product are loaded using one query
+		final ImmutableListMultimap<CostSegmentExceptProduct, ProductId> productIdsBySegment = costSegments
+				.stream()
+				.collect(ImmutableListMultimap.toImmutableListMultimap(CostSegmentExceptProduct::of, CostSegment::getProductId));
+
+		final ImmutableList.Builder<CurrentCost> result = ImmutableList.builder();
+		for (final CostSegmentExceptProduct segment : productIdsBySegment.keySet())
+		{
+			queryCostRecords(segment)
+					.addInArrayFilter(I_M_Cost.COLUMN_M_Product_ID, productIdsBySegment.get(segment))
+					.addInArrayFilter(I_M_Cost.COLUMN_M_CostElement_ID, costElementIds)
+					.create()
+					.stream(I_M_Cost.class)
+					.map(this::toCurrentCost)
+					.forEach(result::add);
+		}
+		return result.build();
+	}
+
+	@Value
+	private static class CostSegmentExceptProduct
+	{
+		public static CostSegmentExceptProduct of(@NonNull final CostSegment costSegment)
+		{
+			return new CostSegmentExceptProduct(
+					costSegment.getAcctSchemaId(),
+					costSegment.getCostTypeId(),
+					costSegment.getOrgId(),
+					costSegment.getAttributeSetInstanceId());
+		}
+
+		AcctSchemaId acctSchemaId;
+		CostTypeId costTypeId;
+		OrgId orgId;
+		AttributeSetInstanceId attributeSetInstanceId;
+	}
+
 	@Override
 	public CurrentCost create(@NonNull final CostSegmentAndElement costSegmentAndElement)
 	{
@@ -24,6 +24,7 @@ package de.metas.uom;
 
 import java.math.BigDecimal;
 import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 import org.compiere.model.I_C_UOM;
@@ -166,6 +167,14 @@ public interface IUOMConversionBL extends ISingletonService
 
 	Quantity convertToProductUOM(Quantity quantity, ProductId productId);
 
+	/**
+	 * Same as {@link #convertQuantityTo(Quantity, UOMConversionContext, UomId)}, but for many quantities.
+	 * The target UOM and the conversion rates are resolved only once per source UOM.
+	 *
+	 * @return the converted quantities, in the same order as the given {@code quantities}
+	 */
+	List<Quantity> convertQuantitiesTo(Collection<Quantity> quantities, UOMConversionContext conversionCtx, UomId uomToId);
+
 	Quantity computeSum(UOMConversionContext of, Collection<Quantity> quantities, UomId toUomId);
 
 	ProductPrice convertProductPriceToUom(ProductPrice price, UomId toUomId, CurrencyPrecision pricePrecision);
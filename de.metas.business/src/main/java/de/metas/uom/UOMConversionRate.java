@@ -97,7 +97,7 @@ public class UOMConversionRate
 
 	public BigDecimal convert(@NonNull final BigDecimal qty)
 	{
-		if (qty.signum() == 0)
+		if (qty.signum() == 0 || fromUomId.equals(toUomId))
 		{
 			return qty;
 		}
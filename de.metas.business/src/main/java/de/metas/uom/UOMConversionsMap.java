@@ -1,12 +1,18 @@
 package de.metas.uom;
 
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 
 import javax.annotation.Nullable;
 
 import org.adempiere.exceptions.NoUOMConversionException;
 
+import com.google.common.collect.ImmutableListMultimap;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Maps;
@@ -17,6 +23,7 @@ import lombok.Builder;
 import lombok.Getter;
 import lombok.NonNull;
 import lombok.Singular;
+import lombok.ToString;
 import lombok.Value;
 
 /*
@@ -41,7 +48,20 @@ import lombok.Value;
  * #L%
  */
 
+/**
+ * The conversion rates of one product (or the generic ones, if {@link #getProductId()} is {@code null}).
+ * <p>
+ * Besides the given direct rates and their inversions, this map can also convert between two UOMs that are only connected via other UOMs
+ * (e.g. TU => CU => stock UOM). Those rates are computed lazily, once per "from" UOM, and then kept for the lifetime of this instance,
+ * which in turn is cached by {@link IUOMConversionDAO}.
+ * <p>
+ * Note that this means that a conversion which used to fail with {@link NoUOMConversionException} now succeeds silently if the two UOMs are connected via other UOMs.
+ * Direct rates always take precedence over derived ones; {@link UOMConversionBL} even prefers the direct generic rates and the time conversions over a product's derived rates.
+ * Also note that a derived rate is the product of the rates along the way. For rates which were inverted, that's the {@code DivideRate},
+ * which is usually {@code 1/MultiplyRate} rounded to 12 digits, so the rounding errors of each hop are multiplied as well.
+ */
 @Value
+@ToString(exclude = "ratesByFromUomId")
 public class UOMConversionsMap
 {
 	public static final UOMConversionsMap EMPTY = new UOMConversionsMap();
@@ -50,6 +70,10 @@ public class UOMConversionsMap
 	@Getter(AccessLevel.NONE)
 	private final ImmutableMap<FromAndToUomIds, UOMConversionRate> rates;
 
+	/** for each "from" UOM, all the rates that can be derived from {@link #rates}; lazily computed */
+	@Getter(AccessLevel.NONE)
+	private final transient Map<UomId, ImmutableMap<UomId, UOMConversionRate>> ratesByFromUomId = new ConcurrentHashMap<>();
+
 	@Builder
 	private UOMConversionsMap(
 			@Nullable final ProductId productId,
@@ -75,12 +99,29 @@ public class UOMConversionsMap
 		return rate;
 	}
 
+	/**
+	 * @return the direct rate, if any, or else a rate that is derived via other UOMs (see {@link #getDerivedRateIfExists(UomId, UomId)})
+	 */
 	public Optional<UOMConversionRate> getRateIfExists(@NonNull final UomId fromUomId, @NonNull final UomId toUomId)
 	{
 		return Optional.ofNullable(getRateOrNull(fromUomId, toUomId));
 	}
 
 	private UOMConversionRate getRateOrNull(@NonNull final UomId fromUomId, @NonNull final UomId toUomId)
+	{
+		final UOMConversionRate directRate = getDirectRateOrNull(fromUomId, toUomId);
+		return directRate != null ? directRate : getDerivedRateOrNull(fromUomId, toUomId);
+	}
+
+	/**
+	 * @return the given rate or its inversion, without going via other UOMs
+	 */
+	public Optional<UOMConversionRate> getDirectRateIfExists(@NonNull final UomId fromUomId, @NonNull final UomId toUomId)
+	{
+		return Optional.ofNullable(getDirectRateOrNull(fromUomId, toUomId));
+	}
+
+	private UOMConversionRate getDirectRateOrNull(@NonNull final UomId fromUomId, @NonNull final UomId toUomId)
 	{
 		if (fromUomId.equals(toUomId))
 		{
@@ -107,6 +148,81 @@ public class UOMConversionsMap
 		return null;
 	}
 
+	/**
+	 * @return a rate which is derived from the rates between the given UOMs and other UOMs (e.g. TU => CU => stock UOM).
+	 *         Callers which consult more than one map shall first try the direct rates of all of them, because a direct rate is more accurate.
+	 */
+	public Optional<UOMConversionRate> getDerivedRateIfExists(@NonNull final UomId fromUomId, @NonNull final UomId toUomId)
+	{
+		return Optional.ofNullable(getDerivedRateOrNull(fromUomId, toUomId));
+	}
+
+	private UOMConversionRate getDerivedRateOrNull(@NonNull final UomId fromUomId, @NonNull final UomId toUomId)
+	{
+		if (rates.isEmpty())
+		{
+			return null;
+		}
+		return ratesByFromUomId
+				.computeIfAbsent(fromUomId, this::computeRatesFrom)
+				.get(toUomId);
+	}
+
+	/**
+	 * Walks the graph whose nodes are UOMs and whose edges are our direct rates (in both directions),
+	 * and computes the rates from the given {@code fromUomId} to every UOM that can be reached.
+	 * If a UOM can be reached in different ways, the one with the fewest hops is used.
+	 */
+	private ImmutableMap<UomId, UOMConversionRate> computeRatesFrom(@NonNull final UomId fromUomId)
+	{
+		final ImmutableListMultimap<UomId, UOMConversionRate> edgesByFromUomId = getEdgesByFromUomId();
+
+		final Map<UomId, UOMConversionRate> result = new HashMap<>();
+		result.put(fromUomId, UOMConversionRate.one(fromUomId));
+
+		final Deque<UomId> queue = new ArrayDeque<>();
+		queue.add(fromUomId);
+		while (!queue.isEmpty())
+		{
+			final UomId currentUomId = queue.poll();
+			final UOMConversionRate rateToCurrent = result.get(currentUomId);
+
+			for (final UOMConversionRate edge : edgesByFromUomId.get(currentUomId))
+			{
+				final UomId nextUomId = edge.getToUomId();
+				if (result.containsKey(nextUomId))
+				{
+					continue;
+				}
+
+				result.put(nextUomId, UOMConversionRate.builder()
+						.fromUomId(fromUomId)
+						.toUomId(nextUomId)
+						.fromToMultiplier(rateToCurrent.getFromToMultiplier().multiply(edge.getFromToMultiplier()))
+						.toFromMultiplier(edge.getToFromMultiplier().multiply(rateToCurrent.getToFromMultiplier()))
+						.build());
+				queue.add(nextUomId);
+			}
+		}
+
+		return ImmutableMap.copyOf(result);
+	}
+
+	private ImmutableListMultimap<UomId, UOMConversionRate> getEdgesByFromUomId()
+	{
+		final ImmutableListMultimap.Builder<UomId, UOMConversionRate> edges = ImmutableListMultimap.builder();
+		for (final UOMConversionRate rate : rates.values())
+		{
+			if (rate.getFromUomId().equals(rate.getToUomId()))
+			{
+				continue;
+			}
+			edges.put(rate.getFromUomId(), rate);
+			edges.put(rate.getToUomId(), rate.invert());
+		}
+		return edges.build();
+	}
+
 	public boolean isEmpty()
 	{
 		return rates.isEmpty();
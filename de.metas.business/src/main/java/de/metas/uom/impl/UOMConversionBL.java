@@ -27,6 +27,9 @@ import static org.adempiere.model.InterfaceWrapperHelper.load;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 
@@ -37,6 +40,7 @@ import org.compiere.model.I_C_UOM;
 import org.slf4j.Logger;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableList;
 
 import de.metas.currency.CurrencyPrecision;
 import de.metas.logging.LogManager;
@@ -179,14 +183,61 @@ public class UOMConversionBL implements IUOMConversionBL
 		final I_C_UOM toUomRecord = uomDAO.getById(toUomId);
 		Quantity resultInTargetUOM = Quantity.zero(toUomRecord);
 
-		for (final Quantity currentQuantity : quantities)
+		for (final Quantity currentQuantityInTargetUOM : convertQuantitiesTo(quantities, conversionCtx, toUomId))
 		{
-			final Quantity currentQuantityInTargetUOM = convertQuantityTo(currentQuantity, conversionCtx, toUomId);
 			resultInTargetUOM = resultInTargetUOM.add(currentQuantityInTargetUOM);
 		}
 		return resultInTargetUOM;
 	}
 
+	@Override
+	public List<Quantity> convertQuantitiesTo(
+			@NonNull final Collection<Quantity> quantities,
+			@NonNull final UOMConversionContext conversionCtx,
+			@NonNull final UomId uomToId)
+	{
+		if (quantities.isEmpty())
+		{
+			return ImmutableList.of();
+		}
+
+		final I_C_UOM uomTo = uomDAO.getById(uomToId);
+		final UOMPrecision precision = extractStandardPrecision(uomTo);
+		final ProductId productId = conversionCtx.getProductId();
+		final Map<UomId, UOMConversionRate> ratesByFromUomId = new HashMap<>();
+
+		final ImmutableList.Builder<Quantity> result = ImmutableList.builder();
+		for (final Quantity quantity : quantities)
+		{
+			// same shortcuts as in convertQuantityTo
+			if (quantity.getSource_UOM_ID() == uomToId.getRepoId())
+			{
+				result.add(quantity.switchToSource());
+				continue;
+			}
+			final UomId currentUomId = quantity.getUomId();
+			if (currentUomId.equals(uomToId))
+			{
+				result.add(quantity);
+				continue;
+			}
+
+			final BigDecimal sourceQty = quantity.toBigDecimal();
+			final BigDecimal qtyConverted;
+			if (sourceQty.signum() == 0)
+			{
+				qtyConverted = precision.round(sourceQty);
+			}
+			else
+			{
+				final UOMConversionRate rate = ratesByFromUomId.computeIfAbsent(currentUomId, fromUomId -> getRate(productId, fromUomId, uomToId));
+				qtyConverted = rate.convert(sourceQty, precision);
+			}
+			result.add(new Quantity(qtyConverted, uomTo, sourceQty, quantity.getUOM()));
+		}
+		return result.build();
+	}
+
 	@Override
 	public BigDecimal adjustToUOMPrecisionWithoutRoundingIfPossible(@NonNull final BigDecimal qty, @NonNull final I_C_UOM uom)
 	{
@@ -308,14 +359,20 @@ public class UOMConversionBL implements IUOMConversionBL
 		}
 
 		final UOMConversionsMap conversions = getGenericRates();
-		final Optional<UOMConversionRate> rate = conversions.getRateIfExists(fromUomId, toUomId);
+		final Optional<UOMConversionRate> rate = conversions.getDirectRateIfExists(fromUomId, toUomId);
 		if (rate.isPresent())
 		{
 			return rate;
 		}
 
 		// try to derive
-		return getTimeConversionRate(uomFrom, uomTo);
+		final Optional<UOMConversionRate> timeRate = getTimeConversionRate(uomFrom, uomTo);
+		if (timeRate.isPresent())
+		{
+			return timeRate;
+		}
+
+		return conversions.getDerivedRateIfExists(fromUomId, toUomId);
 	}    // getConversion
 
 	@Override
@@ -328,6 +385,11 @@ public class UOMConversionBL implements IUOMConversionBL
 				.orElseThrow(() -> new NoUOMConversionException(productId, fromUomId, toUomId));
 	}
 
+	/**
+	 * Tries the direct rates first: the product's, then the generic ones, then the time conversions.
+	 * Only if there is none, it tries the rates which are derived via other UOMs (see {@link UOMConversionsMap#getDerivedRateIfExists(UomId, UomId)}),
+	 * again the product's first.
+	 */
 	private Optional<UOMConversionRate> getRateIfExists(
 			@Nullable final ProductId productId,
 			@NonNull final UomId fromUomId,
@@ -338,23 +400,33 @@ public class UOMConversionBL implements IUOMConversionBL
 			return Optional.of(UOMConversionRate.one(fromUomId));
 		}
 
-		if (productId != null)
+		final UOMConversionsMap productRates = productId != null ? getProductConversions(productId) : UOMConversionsMap.EMPTY;
+		final Optional<UOMConversionRate> productRate = productRates.getDirectRateIfExists(fromUomId, toUomId);
+		if (productRate.isPresent())
 		{
-			final UOMConversionsMap rates = getProductConversions(productId);
-			final Optional<UOMConversionRate> rate = rates.getRateIfExists(fromUomId, toUomId);
-			if (rate.isPresent())
-			{
-				return rate;
-			}
+			return productRate;
 		}
 
-		final Optional<UOMConversionRate> genericRate = getGenericRates().getRateIfExists(fromUomId, toUomId);
+		final UOMConversionsMap genericRates = getGenericRates();
+		final Optional<UOMConversionRate> genericRate = genericRates.getDirectRateIfExists(fromUomId, toUomId);
 		if (genericRate.isPresent())
 		{
 			return genericRate;
 		}
 
-		return getTimeConversionRate(fromUomId, toUomId);
+		final Optional<UOMConversionRate> timeRate = getTimeConversionRate(fromUomId, toUomId);
+		if (timeRate.isPresent())
+		{
+			return timeRate;
+		}
+
+		final Optional<UOMConversionRate> derivedProductRate = productRates.getDerivedRateIfExists(fromUomId, toUomId);
+		if (derivedProductRate.isPresent())
+		{
+			return derivedProductRate;
+		}
+
+		return genericRates.getDerivedRateIfExists(fromUomId, toUomId);
 	}
 
 	@Override
@@ -32,6 +32,10 @@ public class UOMConversionDAO implements IUOMConversionDAO
 			.tableName(I_C_UOM_Conversion.Table_Name)
 			.build();
 
+	private final CCache<Integer, UOMConversionsMap> genericConversionsCache = CCache.<Integer, UOMConversionsMap> builder()
+			.tableName(I_C_UOM_Conversion.Table_Name)
+			.build();
+
 	@Override
 	public UOMConversionsMap getProductConversions(@NonNull final ProductId productId)
 	{
@@ -63,6 +67,11 @@ public class UOMConversionDAO implements IUOMConversionDAO
 
 	@Override
 	public UOMConversionsMap getGenericConversions()
+	{
+		return genericConversionsCache.getOrLoad(0, this::retrieveGenericConversions);
+	}
+
+	private UOMConversionsMap retrieveGenericConversions()
 	{
 		final ImmutableList<UOMConversionRate> rates = Services.get(IQueryBL.class)
 				.createQueryBuilderOutOfTrx(I_C_UOM_Conversion.class)
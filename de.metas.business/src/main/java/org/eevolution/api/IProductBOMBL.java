@@ -52,6 +52,20 @@ public interface IProductBOMBL extends ISingletonService
 
 	IProductLowLevelUpdater updateProductLowLevels();
 
+	/**
+	 * Updates the low level code (LLC) of given BOM line's component and of all products below it, after the BOM line was created, changed or deleted.
+	 * Only the products whose LLC actually changed are saved, and only the BOMs below them are traversed.
+	 * It also checks for BOM cycles.
+	 *
+	 * @param bomLineDeleted true if the BOM line was deleted
+	 */
+	void updateProductLowLevels(I_PP_Product_BOMLine bomLine, boolean bomLineDeleted);
+
+	/**
+	 * Updates the low level code (LLC) of given BOM's components and of all products below them, after the BOM's product or active flag was changed.
+	 */
+	void updateProductLowLevels(I_PP_Product_BOM bom);
+
 	/**
 	 * Checks if a BOMLine which is a <code>X_PP_Product_BOMLine.COMPONENTTYPE_Variant</code> has a valid VariantGroup<br>
 	 *
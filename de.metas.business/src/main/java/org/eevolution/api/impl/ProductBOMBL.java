@@ -24,10 +24,18 @@ package org.eevolution.api.impl;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.util.ArrayDeque;
+import java.util.Collection;
 import java.util.Date;
+import java.util.Deque;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 
+import org.adempiere.ad.dao.IQueryBL;
+import org.adempiere.model.InterfaceWrapperHelper;
 import org.compiere.model.I_C_UOM;
+import org.compiere.model.I_M_Product;
 import org.compiere.util.Env;
 import org.eevolution.api.BOMComponentType;
 import org.eevolution.api.IProductBOMBL;
@@ -37,6 +45,8 @@ import org.eevolution.api.ProductBOMQtys;
 import org.eevolution.model.I_PP_Product_BOM;
 import org.eevolution.model.I_PP_Product_BOMLine;
 
+import com.google.common.collect.ImmutableSet;
+
 import de.metas.product.IProductBL;
 import de.metas.product.IProductDAO;
 import de.metas.product.ProductId;
@@ -113,6 +123,92 @@ public class ProductBOMBL implements IProductBOMBL
 		return new ProductLowLevelUpdater();
 	}
 
+	@Override
+	public void updateProductLowLevels(@NonNull final I_PP_Product_BOMLine bomLine, final boolean bomLineDeleted)
+	{
+		final Set<ProductId> productIds = new LinkedHashSet<>();
+		productIds.add(ProductId.ofRepoId(bomLine.getM_Product_ID()));
+		if (!bomLineDeleted && InterfaceWrapperHelper.isValueChanged(bomLine, I_PP_Product_BOMLine.COLUMNNAME_M_Product_ID))
+		{
+			// the previous component might have moved up
+			final I_PP_Product_BOMLine bomLineOld = InterfaceWrapperHelper.createOld(bomLine, I_PP_Product_BOMLine.class);
+			final ProductId oldProductId = ProductId.ofRepoIdOrNull(bomLineOld.getM_Product_ID());
+			if (oldProductId != null)
+			{
+				productIds.add(oldProductId);
+			}
+		}
+
+		updateProductLowLevelsAndBelow(productIds);
+	}
+
+	@Override
+	public void updateProductLowLevels(@NonNull final I_PP_Product_BOM bom)
+	{
+		final Set<ProductId> componentProductIds = new LinkedHashSet<>();
+		for (final I_PP_Product_BOMLine bomLine : Services.get(IProductBOMDAO.class).retrieveLines(bom))
+		{
+			if (!isByOrCoProduct(bomLine))
+			{
+				componentProductIds.add(ProductId.ofRepoId(bomLine.getM_Product_ID()));
+			}
+		}
+
+		updateProductLowLevelsAndBelow(componentProductIds);
+	}
+
+	/**
+	 * Recalculates the LLC of the given products. For each product whose LLC changed, the components of its BOMs are recalculated as well, and so on.
+	 * Products whose LLC didn't change are not saved and the BOMs below them are not visited.
+	 */
+	private void updateProductLowLevelsAndBelow(final Collection<ProductId> productIds)
+	{
+		final Deque<ProductId> productIdsToUpdate = new ArrayDeque<>(productIds);
+		while (!productIdsToUpdate.isEmpty())
+		{
+			final ProductId productId = productIdsToUpdate.removeFirst();
+
+			final int lowLevel = calculateProductLowestLevel(productId);
+			final I_M_Product product = InterfaceWrapperHelper.load(productId.getRepoId(), I_M_Product.class);
+			if (product.getLowLevel() == lowLevel)
+			{
+				continue;
+			}
+
+			product.setLowLevel(lowLevel);
+			InterfaceWrapperHelper.save(product);
+
+			for (final ProductId componentProductId : retrieveComponentProductIds(productId))
+			{
+				if (!productIdsToUpdate.contains(componentProductId))
+				{
+					productIdsToUpdate.addLast(componentProductId);
+				}
+			}
+		}
+	}
+
+	private static Set<ProductId> retrieveComponentProductIds(final ProductId productId)
+	{
+		return Services.get(IQueryBL.class)
+				.createQueryBuilder(I_PP_Product_BOM.class)
+				.addOnlyActiveRecordsFilter()
+				.addEqualsFilter(I_PP_Product_BOM.COLUMNNAME_M_Product_ID, productId)
+				.andCollectChildren(I_PP_Product_BOMLine.COLUMN_PP_Product_BOM_ID)
+				.addOnlyActiveRecordsFilter()
+				.create()
+				.stream()
+				.filter(bomLine -> !isByOrCoProduct(bomLine))
+				.map(bomLine -> ProductId.ofRepoId(bomLine.getM_Product_ID()))
+				.collect(ImmutableSet.toImmutableSet());
+	}
+
+	private static boolean isByOrCoProduct(final I_PP_Product_BOMLine bomLine)
+	{
+		// Don't navigate the Co/ByProduct lines (gh480)
+		return BOMComponentType.ofCode(bomLine.getComponentType()).isByOrCoProduct();
+	}
+
 	@Override
 	public boolean isValidVariantGroup(final I_PP_Product_BOMLine bomLine)
 	{
@@ -0,0 +1,239 @@
+package org.eevolution.api.impl;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+
+import javax.annotation.Nullable;
+
+import org.adempiere.ad.dao.IQueryBL;
+import org.adempiere.exceptions.AdempiereException;
+import org.eevolution.api.BOMComponentType;
+import org.eevolution.api.IProductBOMDAO;
+import org.eevolution.api.ProductBOMId;
+import org.eevolution.exceptions.BOMCycleException;
+import org.eevolution.model.I_PP_Product_BOM;
+import org.eevolution.model.I_PP_Product_BOMLine;
+
+import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.ListMultimap;
+
+import de.metas.product.ProductId;
+import de.metas.util.Services;
+import lombok.NonNull;
+import lombok.Value;
+
+/*
+ * #%L
+ * de.metas.business
+ * %%
+ * Copyright (C) 2019 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * In-memory graph of all active BOMs, which is used to calculate the products' low level codes (LLC) in one go instead of traversing the BOMs product by product.
+ * <p>
+ * Each edge is one {@code PP_Product_BOMLine}, pointing from the BOM's product to the line's component. Co/By-Product lines are not part of the graph (gh480).
+ * A product's LLC is the length of the longest path from a top level product down to it, i.e. {@code 0} for products which are not a component of any BOM.
+ * <p>
+ * Loading the graph means loading all BOMs, so it's meant for updating the LLCs of many products at once.
+ * Single BOM line changes are handled by traversing the affected BOMs, see {@link ProductBOMBL#updateProductLowLevels(I_PP_Product_BOMLine, boolean)}.
+ *
+ * @see ProductLowLevelUpdater
+ */
+/* package */ final class ProductLowLevelGraph
+{
+	public static ProductLowLevelGraph load(final Properties ctx, final String trxName)
+	{
+		final IQueryBL queryBL = Services.get(IQueryBL.class);
+
+		final Map<Integer, Integer> bomProductIdsByBOMId = new HashMap<>();
+		queryBL.createQueryBuilder(I_PP_Product_BOM.class, ctx, trxName)
+				.addOnlyActiveRecordsFilter()
+				.addOnlyContextClient(ctx)
+				.create()
+				.listColumns(I_PP_Product_BOM.COLUMNNAME_PP_Product_BOM_ID, I_PP_Product_BOM.COLUMNNAME_M_Product_ID)
+				.forEach(row -> bomProductIdsByBOMId.put(
+						toInt(row.get(I_PP_Product_BOM.COLUMNNAME_PP_Product_BOM_ID)),
+						toInt(row.get(I_PP_Product_BOM.COLUMNNAME_M_Product_ID))));
+
+		final ProductLowLevelGraph graph = new ProductLowLevelGraph();
+		queryBL.createQueryBuilder(I_PP_Product_BOMLine.class, ctx, trxName)
+				.addOnlyActiveRecordsFilter()
+				.addOnlyContextClient(ctx)
+				.create()
+				.listColumns(
+						I_PP_Product_BOMLine.COLUMNNAME_PP_Product_BOM_ID,
+						I_PP_Product_BOMLine.COLUMNNAME_M_Product_ID,
+						I_PP_Product_BOMLine.COLUMNNAME_ComponentType)
+				.forEach(row -> {
+					final int bomId = toInt(row.get(I_PP_Product_BOMLine.COLUMNNAME_PP_Product_BOM_ID));
+					final Integer bomProductId = bomProductIdsByBOMId.get(bomId);
+					if (bomProductId == null || isByOrCoProduct((String)row.get(I_PP_Product_BOMLine.COLUMNNAME_ComponentType)))
+					{
+						return;
+					}
+
+					graph.addEdge(new BOMLineEdge(
+							ProductBOMId.ofRepoId(bomId),
+							ProductId.ofRepoId(bomProductId),
+							ProductId.ofRepoId(toInt(row.get(I_PP_Product_BOMLine.COLUMNNAME_M_Product_ID)))));
+				});
+
+		graph.computeAllLowLevels();
+		return graph;
+	}
+
+	private static int toInt(final Object value)
+	{
+		return value != null ? ((Number)value).intValue() : -1;
+	}
+
+	private static boolean isByOrCoProduct(final String componentType)
+	{
+		return BOMComponentType.ofCode(componentType).isByOrCoProduct();
+	}
+
+	@Value
+	private static class BOMLineEdge
+	{
+		ProductBOMId bomId;
+		ProductId parentProductId;
+		ProductId componentProductId;
+	}
+
+	private final ListMultimap<ProductId, BOMLineEdge> edgesByParentProductId = ArrayListMultimap.create();
+	private final ListMultimap<ProductId, BOMLineEdge> edgesByComponentProductId = ArrayListMultimap.create();
+
+	private final Map<ProductId, Integer> lowLevels = new HashMap<>();
+	/** products which could not be sorted topologically because they are part of a BOM cycle (or below one) */
+	private final Set<ProductId> productIdsInCycle = new HashSet<>();
+
+	private ProductLowLevelGraph()
+	{
+	}
+
+	public int getLowLevel(@NonNull final ProductId productId)
+	{
+		assertNotInCycle(productId);
+		return lowLevels.getOrDefault(productId, 0);
+	}
+
+	public void assertNotInCycle(@NonNull final ProductId productId)
+	{
+		if (productIdsInCycle.contains(productId))
+		{
+			final BOMLineEdge edge = edgesByComponentProductId.get(productId)
+					.stream()
+					.filter(parentEdge -> productIdsInCycle.contains(parentEdge.getParentProductId()))
+					.findFirst()
+					.orElse(null);
+			throw newBOMCycleException(edge, productId);
+		}
+	}
+
+	private void addEdge(final BOMLineEdge edge)
+	{
+		edgesByParentProductId.put(edge.getParentProductId(), edge);
+		edgesByComponentProductId.put(edge.getComponentProductId(), edge);
+	}
+
+	private void computeAllLowLevels()
+	{
+		final Set<ProductId> allProductIds = new HashSet<>();
+		allProductIds.addAll(edgesByParentProductId.keySet());
+		allProductIds.addAll(edgesByComponentProductId.keySet());
+
+		lowLevels.clear();
+		productIdsInCycle.clear();
+		productIdsInCycle.addAll(computeLowLevels(allProductIds));
+	}
+
+	/**
+	 * Computes the LLCs of all products of the graph in topological order (Kahn's algorithm), so that each product is visited after all of its parents.
+	 *
+	 * @param allProductIds all parent and component products of the graph
+	 * @return the products which could not be visited because they are part of a BOM cycle (or below one)
+	 */
+	private Set<ProductId> computeLowLevels(final Set<ProductId> allProductIds)
+	{
+		final Map<ProductId, Integer> parentsToVisitCount = new HashMap<>();
+		final Deque<ProductId> productIdsToVisit = new ArrayDeque<>();
+		for (final ProductId productId : allProductIds)
+		{
+			final int parentsCount = edgesByComponentProductId.get(productId).size();
+			if (parentsCount == 0)
+			{
+				productIdsToVisit.add(productId);
+			}
+			else
+			{
+				parentsToVisitCount.put(productId, parentsCount);
+			}
+		}
+
+		while (!productIdsToVisit.isEmpty())
+		{
+			final ProductId productId = productIdsToVisit.poll();
+
+			int lowLevel = 0;
+			for (final BOMLineEdge edge : edgesByComponentProductId.get(productId))
+			{
+				lowLevel = Math.max(lowLevel, lowLevels.getOrDefault(edge.getParentProductId(), 0) + 1);
+			}
+			lowLevels.put(productId, lowLevel);
+
+			for (final BOMLineEdge edge : edgesByParentProductId.get(productId))
+			{
+				final ProductId componentProductId = edge.getComponentProductId();
+				final Integer count = parentsToVisitCount.get(componentProductId);
+				if (count == null)
+				{
+					continue;
+				}
+				else if (count <= 1)
+				{
+					parentsToVisitCount.remove(componentProductId);
+					productIdsToVisit.add(componentProductId);
+				}
+				else
+				{
+					parentsToVisitCount.put(componentProductId, count - 1);
+				}
+			}
+		}
+
+		return parentsToVisitCount.keySet();
+	}
+
+	private static BOMCycleException newBOMCycleException(@Nullable final BOMLineEdge edge, final ProductId productId)
+	{
+		if (edge == null)
+		{
+			// shall not happen, because a product in (or below) a cycle always has a parent in (or below) that cycle
+			throw new AdempiereException("Product " + productId + " is part of a BOM cycle");
+		}
+
+		final I_PP_Product_BOM bom = Services.get(IProductBOMDAO.class).getById(edge.getBomId());
+		return new BOMCycleException(bom, productId);
+	}
+}
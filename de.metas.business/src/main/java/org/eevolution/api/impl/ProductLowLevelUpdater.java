@@ -32,7 +32,6 @@ import org.adempiere.model.InterfaceWrapperHelper;
 import org.adempiere.util.lang.IContextAware;
 import org.adempiere.util.lang.ObjectUtils;
 import org.compiere.model.I_M_Product;
-import org.eevolution.api.IProductBOMBL;
 import org.eevolution.api.IProductLowLevelUpdater;
 import org.slf4j.Logger;
 
@@ -45,7 +44,6 @@ import de.metas.util.Services;
 {
 	// services
 	private final transient Logger logger = LogManager.getLogger(getClass());
-	private final transient IProductBOMBL productBOMBL = Services.get(IProductBOMBL.class);
 	private final transient IQueryBL queryBL = Services.get(IQueryBL.class);
 
 	private IContextAware _context;
@@ -80,23 +78,30 @@ import de.metas.util.Services;
 	@Override
 	public IProductLowLevelUpdater update()
 	{
+		// load all BOMs once instead of traversing them for each product
+		final IContextAware context = getContext();
+		final ProductLowLevelGraph graph = ProductLowLevelGraph.load(context.getCtx(), context.getTrxName());
+
 		final Iterator<I_M_Product> products = retrieveProductsToUpdate();
 		while (products.hasNext())
 		{
 			final I_M_Product product = products.next();
-			update(product);
+			update(product, graph);
 		}
 
 		return this;
 	}
 
-	private final void update(final I_M_Product product)
+	private final void update(final I_M_Product product, final ProductLowLevelGraph graph)
 	{
 		try
 		{
-			final int lowlevel = productBOMBL.calculateProductLowestLevel(ProductId.ofRepoId(product.getM_Product_ID()));
-			product.setLowLevel(lowlevel);
-			InterfaceWrapperHelper.save(product);
+			final int lowlevel = graph.getLowLevel(ProductId.ofRepoId(product.getM_Product_ID()));
+			if (product.getLowLevel() != lowlevel)
+			{
+				product.setLowLevel(lowlevel);
+				InterfaceWrapperHelper.save(product);
+			}
 			count_ok++;
 		}
 		catch (Exception e)
@@ -0,0 +1,52 @@
+
+-- For each bpartner, the last time it or one of its locations or contacts was changed; i.e. what C_BPartner_Recent_V gives when grouping by C_BPartner_ID.
+-- Maintained by triggers, so that the bpartner export can page through all bpartners using the (LastChange, C_BPartner_ID) index,
+-- instead of aggregating C_BPartner_Recent_V for each page.
+CREATE TABLE IF NOT EXISTS C_BPartner_LastChange
+(
+	C_BPartner_ID numeric(10,0) NOT NULL,
+	LastChange timestamp with time zone NOT NULL,
+	CONSTRAINT C_BPartner_LastChange_Key PRIMARY KEY (C_BPartner_ID),
+	CONSTRAINT C_BPartner_LastChange_C_BPartner FOREIGN KEY (C_BPartner_ID) REFERENCES C_BPartner (C_BPartner_ID) ON DELETE CASCADE
+);
+
+CREATE INDEX IF NOT EXISTS C_BPartner_LastChange_LastChange ON C_BPartner_LastChange (LastChange, C_BPartner_ID);
+
+CREATE OR REPLACE FUNCTION C_BPartner_LastChange_Update_Trg()
+	RETURNS trigger
+	LANGUAGE plpgsql
+AS $BODY$
+BEGIN
+	IF NEW.C_BPartner_ID IS NULL
+	THEN
+		RETURN NULL;
+	END IF;
+
+	INSERT INTO C_BPartner_LastChange (C_BPartner_ID, LastChange)
+	VALUES (NEW.C_BPartner_ID, NEW.Updated)
+	ON CONFLICT (C_BPartner_ID) DO UPDATE
+		SET LastChange = GREATEST(C_BPartner_LastChange.LastChange, EXCLUDED.LastChange);
+
+	RETURN NULL;
+END;
+$BODY$;
+
+DROP TRIGGER IF EXISTS C_BPartner_LastChange_Trg ON C_BPartner;
+CREATE TRIGGER C_BPartner_LastChange_Trg AFTER INSERT OR UPDATE OF Updated ON C_BPartner
+	FOR EACH ROW EXECUTE PROCEDURE C_BPartner_LastChange_Update_Trg();
+
+DROP TRIGGER IF EXISTS C_BPartner_LastChange_Trg ON C_BPartner_Location;
+CREATE TRIGGER C_BPartner_LastChange_Trg AFTER INSERT OR UPDATE OF Updated, C_BPartner_ID ON C_BPartner_Location
+	FOR EACH ROW EXECUTE PROCEDURE C_BPartner_LastChange_Update_Trg();
+
+DROP TRIGGER IF EXISTS C_BPartner_LastChange_Trg ON AD_User;
+CREATE TRIGGER C_BPartner_LastChange_Trg AFTER INSERT OR UPDATE OF Updated, C_BPartner_ID ON AD_User
+	FOR EACH ROW EXECUTE PROCEDURE C_BPartner_LastChange_Update_Trg();
+
+INSERT INTO C_BPartner_LastChange (C_BPartner_ID, LastChange)
+SELECT v.C_BPartner_ID, MAX(v.Updated)
+FROM C_BPartner_Recent_V v
+WHERE EXISTS (SELECT 1 FROM C_BPartner bp WHERE bp.C_BPartner_ID = v.C_BPartner_ID)
+GROUP BY v.C_BPartner_ID
+ON CONFLICT (C_BPartner_ID) DO UPDATE
+	SET LastChange = GREATEST(C_BPartner_LastChange.LastChange, EXCLUDED.LastChange);
@@ -0,0 +1,190 @@
+package de.metas.bpartner.composite.repository;
+
+import static org.adempiere.model.InterfaceWrapperHelper.newInstance;
+import static org.adempiere.model.InterfaceWrapperHelper.saveRecord;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.annotation.Nullable;
+
+import org.adempiere.test.AdempiereTestHelper;
+import org.compiere.model.I_C_BPartner;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableListMultimap;
+
+import de.metas.bpartner.BPartnerId;
+import de.metas.bpartner.composite.BPartnerComposite;
+
+/*
+ * #%L
+ * de.metas.business
+ * %%
+ * Copyright (C) 2019 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+class BPartnerCompositeRepositoryKeysetTest
+{
+	private static final Instant T1 = Instant.parse("2019-10-01T10:00:00Z");
+	private static final Instant T2 = Instant.parse("2019-10-02T10:00:00Z");
+	private static final Instant T3 = Instant.parse("2019-10-03T10:00:00Z");
+
+	/** What the C_BPartner_LastChange table would contain */
+	private final List<BPartnerKeysetPosition> lastChanges = new ArrayList<>();
+
+	private BPartnerCompositeRepository bpartnerCompositeRepository;
+
+	@BeforeEach
+	void beforeEach()
+	{
+		AdempiereTestHelper.get().init();
+
+		bpartnerCompositeRepository = new BPartnerCompositeRepository(
+				logEntriesQuery -> ImmutableListMultimap.of(),
+				this::loadPositions);
+	}
+
+	/** Same semantics as the SQL in {@link BPartnerCompositeRepository}. */
+	private ImmutableList<BPartnerKeysetPosition> loadPositions(
+			final Instant sinceInstant,
+			@Nullable final BPartnerKeysetPosition after,
+			final int pageSize)
+	{
+		return lastChanges.stream()
+				.filter(position -> !position.getUpdated().isBefore(sinceInstant))
+				.filter(position -> after == null || position.compareTo(after) > 0)
+				.sorted()
+				.limit(pageSize)
+				.collect(ImmutableList.toImmutableList());
+	}
+
+	private BPartnerId createBPartner(final String name, final Instant lastChange)
+	{
+		final I_C_BPartner bpartnerRecord = newInstance(I_C_BPartner.class);
+		bpartnerRecord.setValue(name);
+		bpartnerRecord.setName(name);
+		bpartnerRecord.setC_BP_Group_ID(1);
+		saveRecord(bpartnerRecord);
+
+		final BPartnerId bpartnerId = BPartnerId.ofRepoId(bpartnerRecord.getC_BPartner_ID());
+		lastChanges.add(BPartnerKeysetPosition.of(lastChange, bpartnerId));
+		return bpartnerId;
+	}
+
+	/** Creates 3 bpartners changed at T1, 2 at T2 and 2 at T3, in a different order than their IDs. */
+	private ImmutableList<BPartnerId> createBPartnersWithTies()
+	{
+		final BPartnerId bp1 = createBPartner("bp1", T3);
+		final BPartnerId bp2 = createBPartner("bp2", T1);
+		final BPartnerId bp3 = createBPartner("bp3", T2);
+		final BPartnerId bp4 = createBPartner("bp4", T1);
+		final BPartnerId bp5 = createBPartner("bp5", T3);
+		final BPartnerId bp6 = createBPartner("bp6", T1);
+		final BPartnerId bp7 = createBPartner("bp7", T2);
+		return ImmutableList.of(bp2, bp4, bp6, bp3, bp7, bp1, bp5);
+	}
+
+	private List<List<BPartnerId>> retrieveAllPages(final Instant sinceInstant, final int pageSize)
+	{
+		final List<List<BPartnerId>> pages = new ArrayList<>();
+		BPartnerKeysetPosition after = null;
+		while (true)
+		{
+			final BPartnerCompositeKeysetPage page = bpartnerCompositeRepository.getKeysetPage(sinceInstant, after, pageSize);
+			pages.add(page.getItems()
+					.stream()
+					.map(BPartnerComposite::getBpartner)
+					.map(bpartner -> bpartner.getId())
+					.collect(ImmutableList.toImmutableList()));
+
+			if (page.isLastPage())
+			{
+				return pages;
+			}
+			after = page.getLastPosition();
+			assertThat(pages).as("too many pages").hasSizeLessThan(100);
+		}
+	}
+
+	private static List<BPartnerId> flatten(final List<List<BPartnerId>> pages)
+	{
+		return pages.stream().flatMap(List::stream).collect(ImmutableList.toImmutableList());
+	}
+
+	@Test
+	void ties_on_lastChange_spanning_page_boundaries()
+	{
+		final ImmutableList<BPartnerId> expectedOrder = createBPartnersWithTies();
+
+		for (int pageSize = 1; pageSize <= expectedOrder.size() + 1; pageSize++)
+		{
+			final List<List<BPartnerId>> pages = retrieveAllPages(Instant.EPOCH, pageSize);
+			assertThat(flatten(pages)).as("pageSize=%s", pageSize).containsExactlyElementsOf(expectedOrder);
+		}
+	}
+
+	@Test
+	void page_boundaries()
+	{
+		final ImmutableList<BPartnerId> expectedOrder = createBPartnersWithTies();
+
+		// the 2nd page starts in the middle of the T1 ties
+		assertThat(retrieveAllPages(Instant.EPOCH, 2)).containsExactly(
+				expectedOrder.subList(0, 2),
+				expectedOrder.subList(2, 4),
+				expectedOrder.subList(4, 6),
+				expectedOrder.subList(6, 7));
+
+		// if the last page is full, then we only know that there are no more bpartners when we get an empty page
+		assertThat(retrieveAllPages(Instant.EPOCH, 7)).containsExactly(
+				expectedOrder,
+				ImmutableList.of());
+
+		assertThat(retrieveAllPages(Instant.EPOCH, 8)).containsExactly(expectedOrder);
+	}
+
+	@Test
+	void sinceInstant_includes_bpartners_changed_at_that_instant()
+	{
+		final ImmutableList<BPartnerId> expectedOrder = createBPartnersWithTies();
+
+		assertThat(flatten(retrieveAllPages(T2, 1))).containsExactlyElementsOf(expectedOrder.subList(3, 7));
+		assertThat(flatten(retrieveAllPages(T3.plusMillis(1), 1))).isEmpty();
+	}
+
+	@Test
+	void deleted_bpartner_is_skipped_but_paging_continues()
+	{
+		final BPartnerId bp1 = createBPartner("bp1", T1);
+		lastChanges.add(BPartnerKeysetPosition.of(T1, BPartnerId.ofRepoId(bp1.getRepoId() + 1000))); // no C_BPartner record
+		final BPartnerId bp2 = createBPartner("bp2", T2);
+
+		final BPartnerCompositeKeysetPage firstPage = bpartnerCompositeRepository.getKeysetPage(Instant.EPOCH, null, 2);
+		assertThat(firstPage.getItems()).extracting(composite -> composite.getBpartner().getId()).containsExactly(bp1);
+		assertThat(firstPage.isLastPage()).isFalse();
+
+		final BPartnerCompositeKeysetPage secondPage = bpartnerCompositeRepository.getKeysetPage(Instant.EPOCH, firstPage.getLastPosition(), 2);
+		assertThat(secondPage.getItems()).extracting(composite -> composite.getBpartner().getId()).containsExactly(bp2);
+		assertThat(secondPage.isLastPage()).isTrue();
+	}
+}
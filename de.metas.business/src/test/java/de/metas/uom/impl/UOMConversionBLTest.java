@@ -25,11 +25,14 @@ import static org.assertj.core.api.Assertions.assertThat;
  */
 
 import java.math.BigDecimal;
+import java.util.List;
 
 import org.compiere.model.I_C_UOM;
 import org.compiere.util.Ini;
 import org.junit.jupiter.api.Test;
 
+import com.google.common.collect.ImmutableList;
+
 import de.metas.currency.CurrencyPrecision;
 import de.metas.money.CurrencyId;
 import de.metas.money.Money;
@@ -162,6 +165,67 @@ public class UOMConversionBLTest extends UOMTestBase
 
 	}
 
+	/**
+	 * Palette => Karton => Stk; there is no direct conversion between Palette and Stk.
+	 */
+	@Test
+	public void convertQuantitiesTo_multiHop()
+	{
+		final I_C_UOM stk = uomConversionHelper.createUOM("Stk", 0, 0, "PCE");
+		final I_C_UOM karton = uomConversionHelper.createUOM("Karton", 0, 0, "KRT");
+		final I_C_UOM palette = uomConversionHelper.createUOM("Palette", 2, 0, "PAL");
+		final UomId stkId = UomId.ofRepoId(stk.getC_UOM_ID());
+		final UomId paletteId = UomId.ofRepoId(palette.getC_UOM_ID());
+
+		final ProductId productId = createProduct("Salat", stk);
+		uomConversionHelper.createUOMConversion(productId, karton, stk, new BigDecimal("10"), new BigDecimal("0.1"));
+		uomConversionHelper.createUOMConversion(productId, palette, karton, new BigDecimal("20"), new BigDecimal("0.05"));
+
+		final UOMConversionContext conversionCtx = UOMConversionContext.of(productId);
+		final List<Quantity> result = conversionBL.convertQuantitiesTo(
+				ImmutableList.of(
+						Quantity.of(new BigDecimal("1"), palette),
+						Quantity.of(new BigDecimal("3"), karton),
+						Quantity.of(new BigDecimal("5"), stk)),
+				conversionCtx,
+				stkId);
+
+		assertThat(result).extracting(Quantity::toBigDecimal)
+				.containsExactly(new BigDecimal("200"), new BigDecimal("30"), new BigDecimal("5"));
+		assertThat(result).extracting(Quantity::getUomId)
+				.containsOnly(stkId);
+
+		assertThat(conversionBL.convertQty(conversionCtx, new BigDecimal("100"), stkId, paletteId))
+				.isEqualTo(new BigDecimal("0.50"));
+	}
+
+	/**
+	 * Palette => Karton => Stk for the product, but also a direct generic conversion between Palette and Stk.
+	 * The direct generic rate takes precedence over the product's multi-hop path, like before there were multi-hop paths.
+	 */
+	@Test
+	public void convertQty_directGenericRate_beats_productMultiHop()
+	{
+		final I_C_UOM stk = uomConversionHelper.createUOM("Stk", 0, 0, "PCE");
+		final I_C_UOM karton = uomConversionHelper.createUOM("Karton", 0, 0, "KRT");
+		final I_C_UOM palette = uomConversionHelper.createUOM("Palette", 2, 0, "PAL");
+		final UomId stkId = UomId.ofRepoId(stk.getC_UOM_ID());
+		final UomId kartonId = UomId.ofRepoId(karton.getC_UOM_ID());
+		final UomId paletteId = UomId.ofRepoId(palette.getC_UOM_ID());
+
+		final ProductId productId = createProduct("Salat", stk);
+		uomConversionHelper.createUOMConversion(productId, karton, stk, new BigDecimal("10"), new BigDecimal("0.1"));
+		uomConversionHelper.createUOMConversion(productId, palette, karton, new BigDecimal("20"), new BigDecimal("0.05"));
+		uomConversionHelper.createUOMConversion((ProductId)null, palette, stk, new BigDecimal("100"), new BigDecimal("0.01"));
+
+		final UOMConversionContext conversionCtx = UOMConversionContext.of(productId);
+		assertThat(conversionBL.convertQty(conversionCtx, new BigDecimal("1"), paletteId, stkId)).isEqualByComparingTo("100");
+		assertThat(conversionBL.convertQty(conversionCtx, new BigDecimal("100"), stkId, paletteId)).isEqualByComparingTo("1");
+
+		// no direct rate between Palette and Karton except the product's
+		assertThat(conversionBL.convertQty(conversionCtx, new BigDecimal("1"), paletteId, kartonId)).isEqualByComparingTo("20");
+	}
+
 	@Test
 	public void convertQty_NoProductInConversion()
 	{
@@ -71,4 +71,60 @@ public class UOMConversionsMapTest
 		assertThrows(NoUOMConversionException.class, () -> conversions.getRate(uomId1, uomId3));
 	}
 
+	@Test
+	public void test_getRate_multiHop()
+	{
+		final UomId uomId4 = UomId.ofRepoId(4);
+
+		final UOMConversionsMap conversions = UOMConversionsMap.builder()
+				.rate(UOMConversionRate.builder()
+						.fromUomId(uomId1)
+						.toUomId(uomId2)
+						.fromToMultiplier(new BigDecimal("10"))
+						.toFromMultiplier(new BigDecimal("0.1"))
+						.build())
+				.rate(UOMConversionRate.builder()
+						.fromUomId(uomId3)
+						.toUomId(uomId2)
+						.fromToMultiplier(new BigDecimal("0.5"))
+						.toFromMultiplier(new BigDecimal("2"))
+						.build())
+				.build();
+
+		// uomId1 => uomId2 => uomId3
+		final UOMConversionRate rate = conversions.getRate(uomId1, uomId3);
+		assertThat(rate.getFromUomId()).isEqualTo(uomId1);
+		assertThat(rate.getToUomId()).isEqualTo(uomId3);
+		assertThat(rate.convert(new BigDecimal("1"))).isEqualByComparingTo("20");
+		assertThat(conversions.getRate(uomId3, uomId1).convert(new BigDecimal("20"))).isEqualByComparingTo("1");
+
+		assertThrows(NoUOMConversionException.class, () -> conversions.getRate(uomId1, uomId4));
+	}
+
+	@Test
+	public void test_getDirectRateIfExists_and_getDerivedRateIfExists()
+	{
+		final UOMConversionRate rate12 = UOMConversionRate.builder()
+				.fromUomId(uomId1)
+				.toUomId(uomId2)
+				.fromToMultiplier(new BigDecimal("10"))
+				.toFromMultiplier(new BigDecimal("0.1"))
+				.build();
+		final UOMConversionsMap conversions = UOMConversionsMap.builder()
+				.rate(rate12)
+				.rate(UOMConversionRate.builder()
+						.fromUomId(uomId3)
+						.toUomId(uomId2)
+						.fromToMultiplier(new BigDecimal("0.5"))
+						.toFromMultiplier(new BigDecimal("2"))
+						.build())
+				.build();
+
+		assertThat(conversions.getDirectRateIfExists(uomId1, uomId2)).contains(rate12);
+		assertThat(conversions.getDirectRateIfExists(uomId2, uomId1)).contains(rate12.invert());
+		assertThat(conversions.getDirectRateIfExists(uomId1, uomId3)).isEmpty();
+
+		assertThat(conversions.getDerivedRateIfExists(uomId1, uomId3)).isPresent();
+		assertThat(conversions.getDerivedRateIfExists(uomId1, uomId3).get().convert(new BigDecimal("1"))).isEqualByComparingTo("20");
+	}
 }
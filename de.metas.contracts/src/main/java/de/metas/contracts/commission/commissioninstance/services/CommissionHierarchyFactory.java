@@ -1,20 +1,33 @@
 package de.metas.contracts.commission.commissioninstance.services;
 
-import static org.adempiere.model.InterfaceWrapperHelper.loadOutOfTrx;
-
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 
+import org.adempiere.ad.dao.IQueryBL;
+import org.adempiere.util.lang.impl.TableRecordReference;
 import org.compiere.model.I_C_BPartner;
 import org.springframework.stereotype.Service;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
 
 import de.metas.bpartner.BPartnerId;
+import de.metas.cache.CCache;
+import de.metas.cache.CacheIndex;
+import de.metas.cache.CacheIndexDataAdapter;
 import de.metas.contracts.commission.Beneficiary;
 import de.metas.contracts.commission.commissioninstance.businesslogic.hierarchy.Hierarchy;
-import de.metas.contracts.commission.commissioninstance.businesslogic.hierarchy.HierarchyNode;
 import de.metas.contracts.commission.commissioninstance.businesslogic.hierarchy.Hierarchy.HierarchyBuilder;
+import de.metas.contracts.commission.commissioninstance.businesslogic.hierarchy.HierarchyNode;
+import de.metas.util.Services;
 import lombok.NonNull;
+import lombok.Value;
 
 /*
  * #%L
@@ -38,49 +51,170 @@ import lombok.NonNull;
  * #L%
  */
 
-/** Crates a hierarchy of BPartners by recursively following {@code C_BPartner.C_BPartner_SalesRep_ID} references. */
+/**
+ * Crates a hierarchy of BPartners by recursively following {@code C_BPartner.C_BPartner_SalesRep_ID} references.
+ * <p>
+ * The chain of sales reps above each bpartner is cached. A cached chain is invalidated when any of the bpartners within it is changed,
+ * e.g. when one of them gets a different {@code C_BPartner_SalesRep_ID}.
+ */
 @Service
 public class CommissionHierarchyFactory
 {
-	// very crude but simple implementation; expand and make more efficient as needed
+	private final CacheIndex<BPartnerId, BPartnerId, SalesRepChain> salesRepChainsIndex = CacheIndex.of(new SalesRepChainIndexAdapter());
+
+	private final CCache<BPartnerId, SalesRepChain> salesRepChainsCache = CCache.<BPartnerId, SalesRepChain> builder()
+			.cacheName("CommissionHierarchyFactory#SalesRepChains")
+			.tableName(I_C_BPartner.Table_Name)
+			.initialCapacity(1000)
+			.invalidationKeysMapper(salesRepChainsIndex::computeCachingKeys)
+			.removalListener(salesRepChainsIndex::remove)
+			.additionListener(salesRepChainsIndex::add)
+			.build();
+
 	public Hierarchy createFor(@NonNull final BPartnerId bPartnerId)
 	{
-		return createFor(
-				bPartnerId/* starting point */,
-				Hierarchy.builder() /* result builder */,
-				new HashSet<BPartnerId>() /* helper to make sure we don't enter a cycle */
-		);
+		return createFor(ImmutableSet.of(bPartnerId)).get(bPartnerId);
 	}
 
-	private Hierarchy createFor(
-			@NonNull final BPartnerId bPartnerId,
-			@NonNull final HierarchyBuilder hierarchyBuilder,
-			@NonNull final HashSet<BPartnerId> seenBPartnerIds)
+	/**
+	 * Bulk version of {@link #createFor(BPartnerId)}.
+	 * The {@code C_BPartner_SalesRep_ID}s of the bpartners whose chains are not yet cached are loaded with one query per hierarchy level.
+	 */
+	public ImmutableMap<BPartnerId, Hierarchy> createFor(@NonNull final Collection<BPartnerId> bPartnerIds)
+	{
+		final Map<BPartnerId, SalesRepChain> chains = new HashMap<>();
+		for (final SalesRepChain chain : salesRepChainsCache.getAllOrLoad(bPartnerIds, this::retrieveSalesRepChains))
+		{
+			chains.put(chain.getBpartnerId(), chain);
+		}
+
+		final ImmutableMap.Builder<BPartnerId, Hierarchy> result = ImmutableMap.builder();
+		for (final BPartnerId bPartnerId : ImmutableSet.copyOf(bPartnerIds))
+		{
+			result.put(bPartnerId, toHierarchy(chains.get(bPartnerId)));
+		}
+		return result.build();
+	}
+
+	private Map<BPartnerId, SalesRepChain> retrieveSalesRepChains(@NonNull final Collection<BPartnerId> bPartnerIds)
 	{
-		if (!seenBPartnerIds.add(bPartnerId))
+		// load the sales rep references level by level, until we reached the top of each chain
+		final Map<BPartnerId, Optional<BPartnerId>> salesRepIds = new HashMap<>();
+		Set<BPartnerId> bPartnerIdsToLoad = ImmutableSet.copyOf(bPartnerIds);
+		while (!bPartnerIdsToLoad.isEmpty())
 		{
-			return hierarchyBuilder.build(); // there is a loop in our supposed tree; stoppping now, because we saw it all
+			salesRepIds.putAll(retrieveSalesRepIds(bPartnerIdsToLoad));
+
+			bPartnerIdsToLoad = salesRepIds.values()
+					.stream()
+					.filter(Optional::isPresent)
+					.map(Optional::get)
+					.filter(salesRepId -> !salesRepIds.containsKey(salesRepId))
+					.collect(ImmutableSet.toImmutableSet());
 		}
 
-		final I_C_BPartner bPartnerRecord = loadOutOfTrx(bPartnerId, I_C_BPartner.class);
-		final BPartnerId parentBPartnerId = BPartnerId.ofRepoIdOrNull(bPartnerRecord.getC_BPartner_SalesRep_ID());
+		final ImmutableMap.Builder<BPartnerId, SalesRepChain> result = ImmutableMap.builder();
+		for (final BPartnerId bPartnerId : bPartnerIds)
+		{
+			result.put(bPartnerId, createSalesRepChain(bPartnerId, salesRepIds));
+		}
+		return result.build();
+	}
+
+	private static Map<BPartnerId, Optional<BPartnerId>> retrieveSalesRepIds(@NonNull final Set<BPartnerId> bPartnerIds)
+	{
+		final List<Map<String, Object>> rows = Services.get(IQueryBL.class)
+				.createQueryBuilderOutOfTrx(I_C_BPartner.class)
+				.addInArrayFilter(I_C_BPartner.COLUMNNAME_C_BPartner_ID, bPartnerIds)
+				.create()
+				.listColumns(I_C_BPartner.COLUMNNAME_C_BPartner_ID, I_C_BPartner.COLUMNNAME_C_BPartner_SalesRep_ID);
+
+		final Map<BPartnerId, Optional<BPartnerId>> result = new HashMap<>();
+		for (final Map<String, Object> row : rows)
+		{
+			final BPartnerId bPartnerId = BPartnerId.ofRepoId(toInt(row.get(I_C_BPartner.COLUMNNAME_C_BPartner_ID)));
+			final BPartnerId salesRepId = BPartnerId.ofRepoIdOrNull(toInt(row.get(I_C_BPartner.COLUMNNAME_C_BPartner_SalesRep_ID)));
+			result.put(bPartnerId, Optional.ofNullable(salesRepId));
+		}
+
+		// bpartners that don't exist (anymore) are at the top of their chains
+		bPartnerIds.forEach(bPartnerId -> result.putIfAbsent(bPartnerId, Optional.empty()));
+		return result;
+	}
+
+	private static int toInt(final Object value)
+	{
+		return value != null ? ((Number)value).intValue() : -1;
+	}
 
-		if (parentBPartnerId == null || seenBPartnerIds.contains(parentBPartnerId))
+	private static SalesRepChain createSalesRepChain(
+			@NonNull final BPartnerId bPartnerId,
+			@NonNull final Map<BPartnerId, Optional<BPartnerId>> salesRepIds)
+	{
+		final Set<BPartnerId> seenBPartnerIds = new HashSet<>(); // helper to make sure we don't enter a cycle
+		final ImmutableList.Builder<BPartnerId> chain = ImmutableList.builder();
+
+		BPartnerId currentBPartnerId = bPartnerId;
+		while (currentBPartnerId != null && seenBPartnerIds.add(currentBPartnerId))
 		{
-			hierarchyBuilder.addChildren(node(bPartnerId), ImmutableList.of());
-			return hierarchyBuilder.build();
+			chain.add(currentBPartnerId);
+			currentBPartnerId = salesRepIds.get(currentBPartnerId).orElse(null);
 		}
 
-		hierarchyBuilder.addChildren(node(parentBPartnerId), ImmutableList.of(node(bPartnerId)));
+		return new SalesRepChain(bPartnerId, chain.build());
+	}
 
-		// recurse
-		createFor(parentBPartnerId, hierarchyBuilder, seenBPartnerIds);
+	private static Hierarchy toHierarchy(@NonNull final SalesRepChain salesRepChain)
+	{
+		final HierarchyBuilder hierarchyBuilder = Hierarchy.builder();
+
+		final ImmutableList<BPartnerId> chain = salesRepChain.getChain();
+		for (int i = 0; i < chain.size() - 1; i++)
+		{
+			hierarchyBuilder.addChildren(node(chain.get(i + 1)), ImmutableList.of(node(chain.get(i))));
+		}
+		hierarchyBuilder.addChildren(node(chain.get(chain.size() - 1)), ImmutableList.of());
 
 		return hierarchyBuilder.build();
 	}
 
-	private HierarchyNode node(@NonNull final BPartnerId bPartnerId)
+	private static HierarchyNode node(@NonNull final BPartnerId bPartnerId)
 	{
 		return HierarchyNode.of(Beneficiary.of(bPartnerId));
 	}
+
+	/** The given bpartner, followed by its sales rep, the sales rep's sales rep and so on. */
+	@Value
+	private static class SalesRepChain
+	{
+		@NonNull
+		BPartnerId bpartnerId;
+
+		@NonNull
+		ImmutableList<BPartnerId> chain;
+	}
+
+	private static final class SalesRepChainIndexAdapter implements CacheIndexDataAdapter<BPartnerId, BPartnerId, SalesRepChain>
+	{
+		@Override
+		public BPartnerId extractDataItemId(final SalesRepChain dataItem)
+		{
+			return dataItem.getBpartnerId();
+		}
+
+		@Override
+		public Collection<BPartnerId> extractCacheKeys(final SalesRepChain dataItem)
+		{
+			return ImmutableList.of(dataItem.getBpartnerId());
+		}
+
+		@Override
+		public Collection<TableRecordReference> extractRecordRefs(final SalesRepChain dataItem)
+		{
+			return dataItem.getChain()
+					.stream()
+					.map(bPartnerId -> TableRecordReference.of(I_C_BPartner.Table_Name, bPartnerId.getRepoId()))
+					.collect(ImmutableList.toImmutableList());
+		}
+	}
 }
@@ -31,10 +31,12 @@ import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.Set;
 
 import javax.annotation.Nullable;
 
@@ -65,11 +67,17 @@ import org.compiere.model.Lookup;
 import org.compiere.model.POInfo;
 import org.compiere.util.Env;
 import org.compiere.util.TimeUtil;
+import org.compiere.util.Util;
+import org.compiere.util.Util.ArrayKey;
 import org.slf4j.Logger;
 
 import ch.qos.logback.classic.Level;
+
+import com.google.common.collect.ImmutableList;
+
 import de.metas.acct.api.IProductAcctDAO;
 import de.metas.bpartner.service.IBPartnerDAO;
+import de.metas.cache.CCache;
 import de.metas.calendar.ICalendarBL;
 import de.metas.calendar.ICalendarDAO;
 import de.metas.contracts.FlatrateTermPricing;
@@ -150,6 +158,12 @@ public class FlatrateBL implements IFlatrateBL
 
 	private final IFlatrateDAO flatrateDAO = Services.get(IFlatrateDAO.class);
 
+	private final CCache<ArrayKey, ImmutableList<Integer>> periodIdsCache = CCache.<ArrayKey, ImmutableList<Integer>> builder()
+			.cacheName("FlatrateBL#PeriodIds")
+			.tableName(I_C_Period.Table_Name)
+			.additionalTableNameToResetFor(I_C_Year.Table_Name)
+			.build();
+
 	private final IBPartnerDAO bPartnerDAO = Services.get(IBPartnerDAO.class);
 
 	private final IMsgBL msgBL = Services.get(IMsgBL.class);
@@ -783,18 +797,15 @@ public class FlatrateBL implements IFlatrateBL
 
 		int counter = 0;
 
-		final ICalendarDAO calendarDAO = Services.get(ICalendarDAO.class);
-
-		final List<I_C_Period> periods = calendarDAO.retrievePeriods(
-				ctx, flatrateTerm.getC_Flatrate_Conditions().getC_Flatrate_Transition().getC_Calendar_Contract(), flatrateTerm.getStartDate(), flatrateTerm.getEndDate(), trxName);
-		for (final I_C_Period period : periods)
+		final List<Integer> periodIds = retrievePeriodIds(ctx, flatrateTerm, trxName);
+		final Set<ArrayKey> existingEntryKeys = retrieveExistingInvoicingEntryKeys(flatrateTerm);
+		for (final int periodId : periodIds)
 		{
 			for (final I_M_Product product : products)
 			{
 				final I_C_UOM uom = uomDAO.getById(product.getC_UOM_ID());
 
-				final I_C_Flatrate_DataEntry existingEntry = flatrateDB.retrieveDataEntryOrNull(flatrateTerm, period, X_C_Flatrate_DataEntry.TYPE_Invoicing_PeriodBased, uom);
-				if (existingEntry != null)
+				if (existingEntryKeys.contains(mkInvoicingEntryKey(periodId, uom.getC_UOM_ID())))
 				{
 					continue;
 				}
@@ -804,12 +815,13 @@ public class FlatrateBL implements IFlatrateBL
 
 				newDataEntry.setC_Flatrate_Term_ID(flatrateTerm.getC_Flatrate_Term_ID());
 
-				newDataEntry.setC_Period_ID(period.getC_Period_ID());
+				newDataEntry.setC_Period_ID(periodId);
 				newDataEntry.setType(X_C_Flatrate_DataEntry.TYPE_Invoicing_PeriodBased);
 				newDataEntry.setM_Product_DataEntry_ID(product.getM_Product_ID());
 				newDataEntry.setC_UOM_ID(uom.getC_UOM_ID());
 
 				InterfaceWrapperHelper.save(newDataEntry);
+				existingEntryKeys.add(mkInvoicingEntryKey(periodId, uom.getC_UOM_ID()));
 				counter++;
 			}
 		}
@@ -829,19 +841,17 @@ public class FlatrateBL implements IFlatrateBL
 	{
 		int counter = 0;
 
-		final ICalendarDAO calendarDAO = Services.get(ICalendarDAO.class);
 		final IFlatrateDAO flatrateDB = Services.get(IFlatrateDAO.class);
 
 		final List<I_C_UOM> uoms = flatrateDB.retrieveUOMs(ctx, flatrateTerm, trxName);
 
-		final List<I_C_Period> periods = calendarDAO.retrievePeriods(
-				ctx, flatrateTerm.getC_Flatrate_Conditions().getC_Flatrate_Transition().getC_Calendar_Contract(), flatrateTerm.getStartDate(), flatrateTerm.getEndDate(), trxName);
-		for (final I_C_Period period : periods)
+		final List<Integer> periodIds = retrievePeriodIds(ctx, flatrateTerm, trxName);
+		final Set<ArrayKey> existingEntryKeys = retrieveExistingInvoicingEntryKeys(flatrateTerm);
+		for (final int periodId : periodIds)
 		{
 			for (final I_C_UOM uom : uoms)
 			{
-				final I_C_Flatrate_DataEntry existingEntry = flatrateDB.retrieveDataEntryOrNull(flatrateTerm, period, X_C_Flatrate_DataEntry.TYPE_Invoicing_PeriodBased, uom);
-				if (existingEntry != null)
+				if (existingEntryKeys.contains(mkInvoicingEntryKey(periodId, uom.getC_UOM_ID())))
 				{
 					continue;
 				}
@@ -851,11 +861,12 @@ public class FlatrateBL implements IFlatrateBL
 
 				newDataEntry.setC_Flatrate_Term_ID(flatrateTerm.getC_Flatrate_Term_ID());
 
-				newDataEntry.setC_Period_ID(period.getC_Period_ID());
+				newDataEntry.setC_Period_ID(periodId);
 				newDataEntry.setType(X_C_Flatrate_DataEntry.TYPE_Invoicing_PeriodBased);
 				newDataEntry.setC_UOM_ID(uom.getC_UOM_ID());
 
 				InterfaceWrapperHelper.save(newDataEntry);
+				existingEntryKeys.add(mkInvoicingEntryKey(periodId, uom.getC_UOM_ID()));
 				counter++;
 			}
 		}
@@ -872,6 +883,45 @@ public class FlatrateBL implements IFlatrateBL
 		Loggables.withLogger(logger, Level.INFO).addLog(msg);
 	}
 
+	/**
+	 * @return the IDs of the contract calendar's periods that overlap with the given term, ordered by their start date.
+	 *         When many terms are created or extended at once, they usually share the same calendar and dates, so the periods are cached.
+	 */
+	private List<Integer> retrievePeriodIds(
+			final Properties ctx,
+			final I_C_Flatrate_Term flatrateTerm,
+			final String trxName)
+	{
+		final I_C_Calendar calendar = flatrateTerm.getC_Flatrate_Conditions().getC_Flatrate_Transition().getC_Calendar_Contract();
+		final Timestamp startDate = flatrateTerm.getStartDate();
+		final Timestamp endDate = flatrateTerm.getEndDate();
+
+		final ArrayKey key = Util.mkKey(Env.getAD_Client_ID(ctx), calendar.getC_Calendar_ID(), startDate, endDate);
+		return periodIdsCache.getOrLoad(key, () -> Services.get(ICalendarDAO.class)
+				.retrievePeriods(ctx, calendar, startDate, endDate, trxName)
+				.stream()
+				.map(I_C_Period::getC_Period_ID)
+				.collect(ImmutableList.toImmutableList()));
+	}
+
+	/**
+	 * Loads the term's existing invoicing entries with one query, instead of checking each period and UOM on its own.
+	 */
+	private Set<ArrayKey> retrieveExistingInvoicingEntryKeys(final I_C_Flatrate_Term flatrateTerm)
+	{
+		final Set<ArrayKey> result = new HashSet<>();
+		for (final I_C_Flatrate_DataEntry existingEntry : flatrateDAO.retrieveDataEntries(flatrateTerm, X_C_Flatrate_DataEntry.TYPE_Invoicing_PeriodBased, null))
+		{
+			result.add(mkInvoicingEntryKey(existingEntry.getC_Period_ID(), existingEntry.getC_UOM_ID()));
+		}
+		return result;
+	}
+
+	private static ArrayKey mkInvoicingEntryKey(final int periodId, final int uomId)
+	{
+		return Util.mkKey(periodId, uomId);
+	}
+
 	@Override
 	public void updateEntry(final I_C_Flatrate_DataEntry dataEntry)
 	{
@@ -66,15 +66,34 @@ public abstract class C_Flatrate_Term_Create extends JavaProcess
 	@Override
 	public String doIt() throws Exception
 	{
-		builder
+		final FlatrateTermCreator creator = builder
 				.ctx(getCtx())
 				.bPartners(getBPartners())
-				.build()
-				.createTermsForBPartners();
+				.build();
+
+		final int bpartnersPerWorkpackage = getBPartnersPerWorkpackage();
+		if (bpartnersPerWorkpackage > 0)
+		{
+			FlatrateTermCreatorWorkpackageProcessor.enqueue(creator, bpartnersPerWorkpackage, getPinstanceId());
+		}
+		else
+		{
+			creator.createTermsForBPartners();
+		}
 
 		return MSG_OK;
 	}
 
+	/**
+	 * Override this method in the subclass to have the terms created asynchronously, in parallel workpackages of the returned number of partners.
+	 *
+	 * @return a value less or equal to zero (the default) to create all terms within this process.
+	 */
+	protected int getBPartnersPerWorkpackage()
+	{
+		return 0;
+	}
+
 	/**
 	 * Implement this method in the subclass to provide all the partners that are about to have terms created.
 	 *
@@ -34,6 +34,7 @@ import org.adempiere.ad.dao.IQueryBL;
 import org.adempiere.ad.dao.IQueryBuilder;
 import org.adempiere.ad.dao.IQueryFilter;
 import org.adempiere.ad.trx.api.ITrx;
+import org.adempiere.service.ISysConfigBL;
 import org.adempiere.util.api.IParams;
 import org.compiere.SpringContextHolder;
 import org.compiere.model.IQuery;
@@ -56,6 +57,11 @@ import de.metas.util.Services;
 
 public class C_Flatrate_Term_Create_For_BPartners extends C_Flatrate_Term_Create
 {
+	/**
+	 * If greater than zero, then the terms are created asynchronously, in workpackages of this many partners which can be processed in parallel.
+	 */
+	private static final String SYSCONFIG_BPartnersPerWorkpackage = "de.metas.contracts.process.C_Flatrate_Term_Create_For_BPartners.BPartnersPerWorkpackage";
+
 	private final RefundConfigRepository refundConfigRepository = SpringContextHolder.instance.getBean(RefundConfigRepository.class);
 	private final IFlatrateDAO flatrateDAO = Services.get(IFlatrateDAO.class);
 
@@ -126,6 +132,12 @@ public class C_Flatrate_Term_Create_For_BPartners extends C_Flatrate_Term_Create
 		setStartDate(p_startDate);
 	}
 
+	@Override
+	protected int getBPartnersPerWorkpackage()
+	{
+		return Services.get(ISysConfigBL.class).getIntValue(SYSCONFIG_BPartnersPerWorkpackage, 0);
+	}
+
 	@Override
 	protected Iterable<I_C_BPartner> getBPartners()
 	{
@@ -0,0 +1,180 @@
+package de.metas.contracts.process;
+
+import static org.adempiere.model.InterfaceWrapperHelper.loadOutOfTrx;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Properties;
+
+import javax.annotation.Nullable;
+
+import org.adempiere.model.InterfaceWrapperHelper;
+import org.adempiere.util.api.IParams;
+import org.compiere.model.I_AD_User;
+import org.compiere.model.I_C_BPartner;
+import org.compiere.model.I_M_Product;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Joiner;
+import com.google.common.base.Splitter;
+import com.google.common.collect.Iterators;
+
+import de.metas.async.api.IWorkPackageBlockBuilder;
+import de.metas.async.model.I_C_Queue_WorkPackage;
+import de.metas.async.processor.IWorkPackageQueueFactory;
+import de.metas.async.spi.WorkpackageProcessorAdapter;
+import de.metas.contracts.model.I_C_Flatrate_Conditions;
+import de.metas.contracts.process.FlatrateTermCreator.FlatrateTermCreatorBuilder;
+import de.metas.process.PInstanceId;
+import de.metas.util.Check;
+import de.metas.util.Loggables;
+import de.metas.util.Services;
+import lombok.NonNull;
+
+/*
+ * #%L
+ * de.metas.contracts
+ * %%
+ * Copyright (C) 2019 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Creates the terms of a {@link FlatrateTermCreator} for the bpartners that were enqueued as this workpackage's elements.
+ * <p>
+ * The bpartners are split into many workpackages, so that the async framework can create the terms of many bpartners in parallel.
+ */
+public class FlatrateTermCreatorWorkpackageProcessor extends WorkpackageProcessorAdapter
+{
+	private static final String PARAM_C_Flatrate_Conditions_ID = "C_Flatrate_Conditions_ID";
+	private static final String PARAM_StartDate = "StartDate";
+	private static final String PARAM_EndDate = "EndDate";
+	private static final String PARAM_AD_User_InCharge_ID = "AD_User_InCharge_ID";
+
+	/** Comma-separated {@code M_Product_ID}s; {@code 0} stands for "no product". */
+	private static final String PARAM_M_Product_IDs = "M_Product_IDs";
+
+	/**
+	 * Enqueues one workpackage for each {@code bpartnersPerWorkpackage} of the given {@code creator}'s bpartners.
+	 *
+	 * @return the number of enqueued workpackages
+	 */
+	public static int enqueue(
+			@NonNull final FlatrateTermCreator creator,
+			final int bpartnersPerWorkpackage,
+			@Nullable final PInstanceId adPInstanceId)
+	{
+		Check.assumeGreaterThanZero(bpartnersPerWorkpackage, "bpartnersPerWorkpackage");
+
+		final Properties ctx = creator.getCtx();
+		final String productIds = Joiner.on(",").join(Iterators.transform(
+				creator.getProducts().iterator(),
+				product -> product != null ? product.getM_Product_ID() : 0));
+
+		int workpackagesCount = 0;
+		final Iterator<List<I_C_BPartner>> bpartnerPartitions = Iterators.partition(creator.getBPartners().iterator(), bpartnersPerWorkpackage);
+		while (bpartnerPartitions.hasNext())
+		{
+			final IWorkPackageBlockBuilder blockBuilder = Services.get(IWorkPackageQueueFactory.class)
+					.getQueueForEnqueuing(ctx, FlatrateTermCreatorWorkpackageProcessor.class)
+					.newBlock()
+					.setContext(ctx);
+			if (adPInstanceId != null)
+			{
+				blockBuilder.setAD_PInstance_Creator_ID(adPInstanceId);
+			}
+
+			blockBuilder.newWorkpackage()
+					.parameters()
+					.setParameter(PARAM_C_Flatrate_Conditions_ID, creator.getConditions().getC_Flatrate_Conditions_ID())
+					.setParameter(PARAM_StartDate, creator.getStartDate())
+					.setParameter(PARAM_EndDate, creator.getEndDate())
+					.setParameter(PARAM_AD_User_InCharge_ID, creator.getUserInCharge() != null ? creator.getUserInCharge().getAD_User_ID() : -1)
+					.setParameter(PARAM_M_Product_IDs, productIds)
+					.end()
+					.addElements(bpartnerPartitions.next())
+					.build();
+			workpackagesCount++;
+		}
+
+		Loggables.addLog("Enqueued {} workpackages with up to {} bpartners each", workpackagesCount, bpartnersPerWorkpackage);
+		return workpackagesCount;
+	}
+
+	/**
+	 * Each term is created in its own transaction by {@link FlatrateTermCreator}.
+	 */
+	@Override
+	public boolean isRunInTransaction()
+	{
+		return false;
+	}
+
+	/**
+	 * A retry would attempt to create the terms again also for those bpartners which were already processed successfully.
+	 */
+	@Override
+	public boolean isAllowRetryOnError()
+	{
+		return false;
+	}
+
+	@Override
+	public Result processWorkPackage(final I_C_Queue_WorkPackage workPackage, final String localTrxName_NOTUSED)
+	{
+		final FlatrateTermCreator creator = createFlatrateTermCreator(
+				InterfaceWrapperHelper.getCtx(workPackage),
+				getParameters(),
+				retrieveItems(I_C_BPartner.class));
+
+		creator.createTermsForBPartners();
+
+		return Result.SUCCESS;
+	}
+
+	/**
+	 * Counterpart of the parameters which are set in {@link #enqueue(FlatrateTermCreator, int, PInstanceId)}.
+	 */
+	@VisibleForTesting
+	static FlatrateTermCreator createFlatrateTermCreator(
+			@NonNull final Properties ctx,
+			@NonNull final IParams params,
+			@NonNull final List<I_C_BPartner> bpartners)
+	{
+		final FlatrateTermCreatorBuilder builder = FlatrateTermCreator.builder()
+				.ctx(ctx)
+				.conditions(loadOutOfTrx(params.getParameterAsInt(PARAM_C_Flatrate_Conditions_ID, -1), I_C_Flatrate_Conditions.class))
+				.startDate(params.getParameterAsTimestamp(PARAM_StartDate))
+				.endDate(params.getParameterAsTimestamp(PARAM_EndDate))
+				.bPartners(bpartners);
+
+		final int userInChargeId = params.getParameterAsInt(PARAM_AD_User_InCharge_ID, -1);
+		if (userInChargeId > 0)
+		{
+			builder.userInCharge(loadOutOfTrx(userInChargeId, I_AD_User.class));
+		}
+
+		final String productIds = Check.isEmpty(params.getParameterAsString(PARAM_M_Product_IDs), true) ? "" : params.getParameterAsString(PARAM_M_Product_IDs);
+		for (final String productIdStr : Splitter.on(",").omitEmptyStrings().trimResults().split(productIds))
+		{
+			final int productId = Integer.parseInt(productIdStr);
+			builder.product(productId > 0 ? loadOutOfTrx(productId, I_M_Product.class) : null);
+		}
+
+		return builder.build();
+	}
+}
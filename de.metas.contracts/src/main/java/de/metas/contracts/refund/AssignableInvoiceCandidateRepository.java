@@ -1,15 +1,19 @@
 package de.metas.contracts.refund;
 
 import static org.adempiere.model.InterfaceWrapperHelper.load;
+import static org.adempiere.model.InterfaceWrapperHelper.loadByRepoIdAwares;
 import static org.adempiere.model.InterfaceWrapperHelper.newInstance;
 import static org.adempiere.model.InterfaceWrapperHelper.saveRecord;
 
+import java.util.Collection;
 import java.util.Iterator;
 
 import org.adempiere.ad.dao.IQueryBL;
 import org.springframework.stereotype.Repository;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
 
 import de.metas.contracts.model.I_C_Invoice_Candidate_Assignment;
 import de.metas.invoicecandidate.InvoiceCandidateId;
@@ -56,6 +60,25 @@ public class AssignableInvoiceCandidateRepository
 		return assignableInvoiceCandidateFactory.ofRecord(invoiceCandidateRecord);
 	}
 
+	/**
+	 * Loads the given candidates with one query, instead of one query per candidate.
+	 */
+	public ImmutableMap<InvoiceCandidateId, AssignableInvoiceCandidate> getByIds(@NonNull final Collection<InvoiceCandidateId> ids)
+	{
+		if (ids.isEmpty())
+		{
+			return ImmutableMap.of();
+		}
+
+		final ImmutableMap.Builder<InvoiceCandidateId, AssignableInvoiceCandidate> result = ImmutableMap.builder();
+		for (final I_C_Invoice_Candidate invoiceCandidateRecord : loadByRepoIdAwares(ImmutableSet.copyOf(ids), I_C_Invoice_Candidate.class))
+		{
+			final AssignableInvoiceCandidate assignableCandidate = assignableInvoiceCandidateFactory.ofRecord(invoiceCandidateRecord);
+			result.put(assignableCandidate.getId(), assignableCandidate);
+		}
+		return result.build();
+	}
+
 	public AssignableInvoiceCandidate ofRecord(@NonNull final I_C_Invoice_Candidate invoiceCandidateRecord)
 	{
 		return assignableInvoiceCandidateFactory.ofRecord(invoiceCandidateRecord);
@@ -3,22 +3,32 @@ package de.metas.contracts.refund;
 import static de.metas.util.collections.CollectionUtils.extractSingleElement;
 import static de.metas.util.collections.CollectionUtils.singleElement;
 
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+
+import javax.annotation.Nullable;
 
 import org.adempiere.ad.dao.IQueryBL;
 import org.adempiere.exceptions.AdempiereException;
+import org.slf4j.Logger;
 import org.springframework.stereotype.Service;
 
+import ch.qos.logback.classic.Level;
+
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterators;
+import com.google.common.collect.ListMultimap;
 import com.google.common.collect.Maps;
+import com.google.common.collect.MultimapBuilder;
 
 import de.metas.contracts.FlatrateTermId;
 import de.metas.contracts.model.I_C_Invoice_Candidate_Assignment;
@@ -28,9 +38,13 @@ import de.metas.contracts.refund.RefundConfig.RefundMode;
 import de.metas.contracts.refund.allqties.CandidateAssignServiceAllQties;
 import de.metas.contracts.refund.allqties.refundconfigchange.RefundConfigChangeService;
 import de.metas.contracts.refund.exceedingqty.CandidateAssignServiceExceedingQty;
+import de.metas.error.AdIssueId;
+import de.metas.error.IErrorManager;
 import de.metas.invoicecandidate.InvoiceCandidateId;
+import de.metas.logging.LogManager;
 import de.metas.quantity.Quantity;
 import de.metas.util.Check;
+import de.metas.util.Loggables;
 import de.metas.util.Services;
 import lombok.NonNull;
 import lombok.Singular;
@@ -60,6 +74,8 @@ import lombok.Singular;
 @Service
 public class CandidateAssignmentService
 {
+	private static final Logger logger = LogManager.getLogger(CandidateAssignmentService.class);
+
 	private final RefundContractRepository refundContractRepository;
 	private final RefundInvoiceCandidateService refundInvoiceCandidateService;
 	private final AssignableInvoiceCandidateRepository assignableInvoiceCandidateRepository;
@@ -91,6 +107,87 @@ public class CandidateAssignmentService
 				.getByQuery(refundContractQuery)
 				.orElse(null);
 
+		return updateAssignment(assignableCandidate, refundContract);
+	}
+
+	/**
+	 * Set-based variant of {@link #updateAssignment(AssignableInvoiceCandidate)}, intended for many candidates at once, e.g. after a refund contract was completed.
+	 * <p>
+	 * The matching refund contracts (with their refund configs) are loaded with one query, and the candidates are (re)assigned contract by contract,
+	 * in the order of their {@code invoiceableFrom} date, so that the refund config tiers are filled up in chronological order.
+	 * An error with one candidate is logged and does not prevent the other candidates from being assigned.
+	 *
+	 * @return one result per successfully updated candidate.
+	 */
+	public List<UpdateAssignmentResult> updateAssignments(@NonNull final Collection<AssignableInvoiceCandidate> assignableCandidates)
+	{
+		return updateAssignments(assignableCandidates, true);
+	}
+
+	/**
+	 * @param isolateErrors if {@code false}, the first error is propagated.
+	 */
+	private List<UpdateAssignmentResult> updateAssignments(
+			@NonNull final Collection<AssignableInvoiceCandidate> assignableCandidates,
+			final boolean isolateErrors)
+	{
+		final ImmutableMap<RefundContractQuery, RefundContract> query2refundContract = refundContractRepository.getByQueries(assignableCandidates
+				.stream()
+				.map(RefundContractQuery::of)
+				.collect(ImmutableSet.toImmutableSet()));
+
+		final ListMultimap<Optional<FlatrateTermId>, AssignableInvoiceCandidate> refundContractId2candidates = MultimapBuilder.linkedHashKeys().arrayListValues().build();
+		final Map<FlatrateTermId, RefundContract> id2RefundContract = new HashMap<>();
+		for (final AssignableInvoiceCandidate assignableCandidate : assignableCandidates)
+		{
+			final RefundContract refundContract = query2refundContract.get(RefundContractQuery.of(assignableCandidate));
+			if (refundContract != null)
+			{
+				id2RefundContract.put(refundContract.getId(), refundContract);
+			}
+			refundContractId2candidates.put(Optional.ofNullable(refundContract).map(RefundContract::getId), assignableCandidate);
+		}
+
+		final Comparator<AssignableInvoiceCandidate> chronologically = Comparator
+				.comparing(AssignableInvoiceCandidate::getInvoiceableFrom)
+				.thenComparing(candidate -> InvoiceCandidateId.toRepoId(candidate.getId()));
+
+		final ImmutableList.Builder<UpdateAssignmentResult> result = ImmutableList.builder();
+		for (final Optional<FlatrateTermId> refundContractId : refundContractId2candidates.keySet())
+		{
+			final RefundContract refundContract = refundContractId.map(id2RefundContract::get).orElse(null);
+
+			final List<AssignableInvoiceCandidate> sortedCandidates = refundContractId2candidates
+					.get(refundContractId)
+					.stream()
+					.sorted(chronologically)
+					.collect(ImmutableList.toImmutableList());
+			for (final AssignableInvoiceCandidate assignableCandidate : sortedCandidates)
+			{
+				try
+				{
+					result.add(updateAssignment(assignableCandidate, refundContract));
+				}
+				catch (final RuntimeException e)
+				{
+					if (!isolateErrors)
+					{
+						throw e;
+					}
+					final AdIssueId issueId = Services.get(IErrorManager.class).createIssue(e);
+					Loggables.withLogger(logger, Level.WARN)
+							.addLog("updateAssignments - Caught an exception while processing C_Invoice_Candidate_ID={}; AD_Issue_ID={}; e={}",
+									InvoiceCandidateId.toRepoId(assignableCandidate.getId()), issueId, e.toString());
+				}
+			}
+		}
+		return result.build();
+	}
+
+	private UpdateAssignmentResult updateAssignment(
+			@NonNull final AssignableInvoiceCandidate assignableCandidate,
+			@Nullable final RefundContract refundContract)
+	{
 		if (refundContract == null)
 		{
 			if (!assignableCandidate.isAssigned())
@@ -258,9 +355,8 @@ public class CandidateAssignmentService
 			if (gap.signum() > 0)
 			{
 				final List<AssignableInvoiceCandidate> assignableCandidatesToReassign = getAssignableCandidates(refundContract, gap);
-				for (final AssignableInvoiceCandidate assignableCandidateToReassign : assignableCandidatesToReassign)
+				for (final UpdateAssignmentResult updateAssignmentResult : updateAssignments(assignableCandidatesToReassign, false))
 				{
-					final UpdateAssignmentResult updateAssignmentResult = updateAssignment(assignableCandidateToReassign);
 					if (updateAssignmentResult.isUpdateWasDone())
 					{
 						resultBuilder.additionalChangedCandidate(updateAssignmentResult.getAssignableInvoiceCandidate());
@@ -419,7 +515,8 @@ public class CandidateAssignmentService
 			iterator = Iterators.concat(iterator, assignments);
 		}
 
-		final Map<InvoiceCandidateId, AssignableInvoiceCandidate> invoiceCandidateId2assignable = new HashMap<>();
+		// collect the assignments first, so that we can load all their assignable candidates with one query
+		final ListMultimap<InvoiceCandidateId, AssignmentToRefundCandidate> invoiceCandidateId2assignments = MultimapBuilder.linkedHashKeys().arrayListValues().build();
 
 		Quantity foundQuantity = Quantity.zero(requiredQuantity.getUOM());
 		while (iterator.hasNext())
@@ -432,22 +529,7 @@ public class CandidateAssignmentService
 			}
 
 			final InvoiceCandidateId invoiceCandidateId = InvoiceCandidateId.ofRepoId(assignmentRecord.getC_Invoice_Candidate_Assigned_ID());
-
-			// create or update the assignable candidate for the given id; could be cone with compute() or merge() i guess,
-			// but this seems to be easier to read
-			AssignableInvoiceCandidate existingCandidate = invoiceCandidateId2assignable.get(invoiceCandidateId);
-			if (existingCandidate == null)
-			{
-				existingCandidate = assignableInvoiceCandidateRepository.getById(invoiceCandidateId)
-						.withoutRefundInvoiceCandidates();
-			}
-
-			final AssignableInvoiceCandidate updatedAssignableInvoiceCandidate = existingCandidate
-					.toBuilder()
-					.assignmentToRefundCandidate(assignment)
-					.build();
-
-			invoiceCandidateId2assignable.put(invoiceCandidateId, updatedAssignableInvoiceCandidate);
+			invoiceCandidateId2assignments.put(invoiceCandidateId, assignment);
 
 			// see if we are there yet
 			foundQuantity = foundQuantity.add(assignment.getQuantityAssigendToRefundCandidate());
@@ -457,7 +539,22 @@ public class CandidateAssignmentService
 			}
 		}
 
-		return ImmutableList.copyOf(invoiceCandidateId2assignable.values());
+		final ImmutableMap<InvoiceCandidateId, AssignableInvoiceCandidate> invoiceCandidateId2assignable = assignableInvoiceCandidateRepository
+				.getByIds(invoiceCandidateId2assignments.keySet());
+
+		final ImmutableList.Builder<AssignableInvoiceCandidate> result = ImmutableList.builder();
+		for (final InvoiceCandidateId invoiceCandidateId : invoiceCandidateId2assignments.keySet())
+		{
+			final AssignableInvoiceCandidate assignableCandidate = invoiceCandidateId2assignable.get(invoiceCandidateId);
+			Check.assumeNotNull(assignableCandidate, "The assigned C_Invoice_Candidate_ID={} exists", invoiceCandidateId);
+
+			result.add(assignableCandidate
+					.withoutRefundInvoiceCandidates()
+					.toBuilder()
+					.assignmentsToRefundCandidates(invoiceCandidateId2assignments.get(invoiceCandidateId))
+					.build());
+		}
+		return result.build();
 	}
 
 	private Iterator<I_C_Invoice_Candidate_Assignment> iterateAssignments(
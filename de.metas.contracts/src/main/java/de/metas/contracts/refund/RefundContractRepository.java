@@ -7,8 +7,14 @@ import static org.adempiere.model.InterfaceWrapperHelper.newInstance;
 import static org.adempiere.model.InterfaceWrapperHelper.saveRecord;
 
 import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 import org.adempiere.ad.dao.IQueryBL;
 import org.adempiere.ad.dao.IQueryOrderBy;
@@ -19,6 +25,8 @@ import org.compiere.util.Util.ArrayKey;
 import org.springframework.stereotype.Repository;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
 
 import de.metas.bpartner.BPartnerId;
 import de.metas.cache.CCache;
@@ -134,6 +142,69 @@ public class RefundContractRepository
 		return getIdByQuery(query).map(this::getById);
 	}
 
+	/**
+	 * Set-based variant of {@link #getByQuery(RefundContractQuery)}: loads the matching contracts of all given queries with one query,
+	 * and each contract's refund configs only once.
+	 *
+	 * @return the matching contract per query; queries without a matching contract are not included.
+	 */
+	public ImmutableMap<RefundContractQuery, RefundContract> getByQueries(@NonNull final Collection<RefundContractQuery> queries)
+	{
+		if (queries.isEmpty())
+		{
+			return ImmutableMap.of();
+		}
+
+		final Set<Integer> billPartnerIds = new HashSet<>();
+		final Set<Integer> productIds = new HashSet<>();
+		productIds.add(null); // contracts without a product match all products
+		LocalDate minDate = null;
+		LocalDate maxDate = null;
+		for (final RefundContractQuery query : queries)
+		{
+			billPartnerIds.add(query.getBPartnerId().getRepoId());
+			productIds.add(query.getProductId().getRepoId());
+			minDate = minDate == null || query.getDate().isBefore(minDate) ? query.getDate() : minDate;
+			maxDate = maxDate == null || query.getDate().isAfter(maxDate) ? query.getDate() : maxDate;
+		}
+
+		// same filters and order as in retrieveRecordForCache(), but for all the queries' bpartners, products and dates
+		final List<I_C_Flatrate_Term> contractRecords = Services.get(IQueryBL.class)
+				.createQueryBuilder(I_C_Flatrate_Term.class, PlainContextAware.newOutOfTrx())
+				.addOnlyActiveRecordsFilter()
+				.addEqualsFilter(I_C_Flatrate_Term.COLUMN_Type_Conditions, X_C_Flatrate_Term.TYPE_CONDITIONS_Refund)
+				.addEqualsFilter(I_C_Flatrate_Term.COLUMN_DocStatus, X_C_Flatrate_Term.DOCSTATUS_Completed)
+				.addCompareFilter(I_C_Flatrate_Term.COLUMN_StartDate, Operator.LESS_OR_EQUAL, TimeUtil.asTimestamp(maxDate))
+				.addCompareFilter(I_C_Flatrate_Term.COLUMN_EndDate, Operator.GREATER_OR_EQUAL, TimeUtil.asTimestamp(minDate))
+				.addInArrayFilter(I_C_Flatrate_Term.COLUMN_Bill_BPartner_ID, billPartnerIds)
+				.addInArrayFilter(I_C_Flatrate_Term.COLUMN_M_Product_ID, productIds)
+				.orderBy()
+				.addColumn(I_C_Flatrate_Term.COLUMNNAME_M_Product_ID, IQueryOrderBy.Direction.Descending, IQueryOrderBy.Nulls.Last)
+				.endOrderBy()
+				.create()
+				.list(I_C_Flatrate_Term.class);
+
+		final Map<Integer, RefundContract> id2contract = new HashMap<>();
+		final ImmutableMap.Builder<RefundContractQuery, RefundContract> result = ImmutableMap.builder();
+		for (final RefundContractQuery query : ImmutableSet.copyOf(queries))
+		{
+			contractRecords.stream()
+					.filter(contractRecord -> isMatching(contractRecord, query))
+					.findFirst()
+					.map(contractRecord -> id2contract.computeIfAbsent(contractRecord.getC_Flatrate_Term_ID(), id -> ofRecord(contractRecord)))
+					.ifPresent(contract -> result.put(query, contract));
+		}
+		return result.build();
+	}
+
+	private static boolean isMatching(@NonNull final I_C_Flatrate_Term contractRecord, @NonNull final RefundContractQuery query)
+	{
+		return contractRecord.getBill_BPartner_ID() == query.getBPartnerId().getRepoId()
+				&& (contractRecord.getM_Product_ID() <= 0 || contractRecord.getM_Product_ID() == query.getProductId().getRepoId())
+				&& !TimeUtil.asLocalDate(contractRecord.getStartDate()).isAfter(query.getDate())
+				&& !TimeUtil.asLocalDate(contractRecord.getEndDate()).isBefore(query.getDate());
+	}
+
 	public RefundContract getById(@NonNull final FlatrateTermId flatrateTermId)
 	{
 		final I_C_Flatrate_Term contractRecord = loadOutOfTrx(flatrateTermId.getRepoId(), I_C_Flatrate_Term.class);
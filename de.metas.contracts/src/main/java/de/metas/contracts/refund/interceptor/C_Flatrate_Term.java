@@ -1,5 +1,7 @@
 package de.metas.contracts.refund.interceptor;
 
+import java.util.List;
+
 import org.adempiere.ad.dao.IQueryBL;
 import org.adempiere.ad.dao.IQueryFilter;
 import org.adempiere.ad.modelvalidator.annotations.DocValidate;
@@ -10,9 +12,15 @@ import org.compiere.model.IQuery;
 import org.compiere.model.ModelValidator;
 import org.springframework.stereotype.Component;
 
+import com.google.common.collect.ImmutableList;
+
 import de.metas.contracts.model.I_C_Flatrate_Term;
 import de.metas.contracts.model.X_C_Flatrate_Term;
+import de.metas.contracts.refund.AssignableInvoiceCandidate;
+import de.metas.contracts.refund.AssignableInvoiceCandidateRepository;
+import de.metas.contracts.refund.CandidateAssignmentService;
 import de.metas.contracts.refund.RefundInvoiceCandidateRepository;
+import de.metas.contracts.refund.RefundInvoiceCandidateService;
 import de.metas.invoicecandidate.api.IInvoiceCandDAO;
 import de.metas.invoicecandidate.model.I_C_Invoice_Candidate;
 import de.metas.util.Services;
@@ -45,10 +53,20 @@ import lombok.NonNull;
 public class C_Flatrate_Term
 {
 	private final RefundInvoiceCandidateRepository invoiceCandidateRepository;
+	private final RefundInvoiceCandidateService refundInvoiceCandidateService;
+	private final AssignableInvoiceCandidateRepository assignableInvoiceCandidateRepository;
+	private final CandidateAssignmentService candidateAssignmentService;
 
-	private C_Flatrate_Term(@NonNull final RefundInvoiceCandidateRepository refundInvoiceCandidateRepository)
+	private C_Flatrate_Term(
+			@NonNull final RefundInvoiceCandidateRepository refundInvoiceCandidateRepository,
+			@NonNull final RefundInvoiceCandidateService refundInvoiceCandidateService,
+			@NonNull final AssignableInvoiceCandidateRepository assignableInvoiceCandidateRepository,
+			@NonNull final CandidateAssignmentService candidateAssignmentService)
 	{
 		this.invoiceCandidateRepository = refundInvoiceCandidateRepository;
+		this.refundInvoiceCandidateService = refundInvoiceCandidateService;
+		this.assignableInvoiceCandidateRepository = assignableInvoiceCandidateRepository;
+		this.candidateAssignmentService = candidateAssignmentService;
 	}
 
 	/**
@@ -64,6 +82,9 @@ public class C_Flatrate_Term
 		Services.get(IInvoiceCandDAO.class).deleteAllReferencingInvoiceCandidates(flatrateTerm);
 	}
 
+	/**
+	 * Assigns the matching invoice candidates to the new refund contract (all in one go) and invalidates them.
+	 */
 	@DocValidate(timings = ModelValidator.TIMING_AFTER_COMPLETE)
 	public void invalidateMatchingInvoiceCandidatesAfterCommit(@NonNull final I_C_Flatrate_Term flatrateTerm)
 	{
@@ -74,10 +95,25 @@ public class C_Flatrate_Term
 
 		final IQuery<I_C_Invoice_Candidate> query = createInvoiceCandidatesToInvalidQuery(flatrateTerm);
 
-		Services.get(ITrxManager.class)
+		final ITrxManager trxManager = Services.get(ITrxManager.class);
+		trxManager
 				.getCurrentTrxListenerManagerOrAutoCommit()
 				.newEventListener(TrxEventTiming.AFTER_COMMIT)
-				.registerHandlingMethod(trx -> Services.get(IInvoiceCandDAO.class).invalidateCandsFor(query));
+				.registerHandlingMethod(trx -> {
+					trxManager.runInNewTrx(() -> assignMatchingInvoiceCandidates(flatrateTerm));
+					Services.get(IInvoiceCandDAO.class).invalidateCandsFor(query);
+				});
+	}
+
+	private void assignMatchingInvoiceCandidates(@NonNull final I_C_Flatrate_Term flatrateTerm)
+	{
+		final List<AssignableInvoiceCandidate> assignableCandidates = createInvoiceCandidatesToInvalidQuery(flatrateTerm)
+				.stream()
+				.filter(icRecord -> !refundInvoiceCandidateService.isRefundInvoiceCandidateRecord(icRecord))
+				.map(assignableInvoiceCandidateRepository::ofRecord)
+				.collect(ImmutableList.toImmutableList());
+
+		candidateAssignmentService.updateAssignments(assignableCandidates);
 	}
 
 	private IQuery<I_C_Invoice_Candidate> createInvoiceCandidatesToInvalidQuery(
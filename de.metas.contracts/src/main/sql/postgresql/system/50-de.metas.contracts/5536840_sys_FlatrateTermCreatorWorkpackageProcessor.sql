@@ -0,0 +1,14 @@
+-- 2019-11-27T10:12:03.512
+-- C_Queue_PackageProcessor: FlatrateTermCreatorWorkpackageProcessor
+INSERT INTO C_Queue_PackageProcessor (AD_Client_ID,AD_Org_ID,C_Queue_PackageProcessor_ID,Classname,Created,CreatedBy,Description,EntityType,InternalName,IsActive,Updated,UpdatedBy) VALUES (0,0,540064,'de.metas.contracts.process.FlatrateTermCreatorWorkpackageProcessor',TO_TIMESTAMP('2019-11-27 10:12:03','YYYY-MM-DD HH24:MI:SS'),100,'Creates C_Flatrate_Terms for the enqueued C_BPartners; used by C_Flatrate_Term_Create_For_BPartners if the sysconfig de.metas.contracts.process.C_Flatrate_Term_Create_For_BPartners.BPartnersPerWorkpackage is greater than zero','de.metas.contracts','FlatrateTermCreatorWorkpackageProcessor','Y',TO_TIMESTAMP('2019-11-27 10:12:03','YYYY-MM-DD HH24:MI:SS'),100)
+;
+
+-- 2019-11-27T10:12:41.207
+-- C_Queue_Processor: FlatrateTermCreatorWorkpackageProcessor, PoolSize=4 so that the bpartner partitions are processed in parallel
+INSERT INTO C_Queue_Processor (AD_Client_ID,AD_Org_ID,C_Queue_Processor_ID,Created,CreatedBy,IsActive,KeepAliveTimeMillis,Name,PoolSize,Updated,UpdatedBy) VALUES (0,0,540053,TO_TIMESTAMP('2019-11-27 10:12:41','YYYY-MM-DD HH24:MI:SS'),100,'Y',1000,'FlatrateTermCreatorWorkpackageProcessor',4,TO_TIMESTAMP('2019-11-27 10:12:41','YYYY-MM-DD HH24:MI:SS'),100)
+;
+
+-- 2019-11-27T10:12:58.934
+-- C_Queue_Processor_Assign: FlatrateTermCreatorWorkpackageProcessor -> FlatrateTermCreatorWorkpackageProcessor
+INSERT INTO C_Queue_Processor_Assign (AD_Client_ID,AD_Org_ID,C_Queue_PackageProcessor_ID,C_Queue_Processor_Assign_ID,C_Queue_Processor_ID,Created,CreatedBy,IsActive,Updated,UpdatedBy) VALUES (0,0,540064,540085,540053,TO_TIMESTAMP('2019-11-27 10:12:58','YYYY-MM-DD HH24:MI:SS'),100,'Y',TO_TIMESTAMP('2019-11-27 10:12:58','YYYY-MM-DD HH24:MI:SS'),100)
+;
@@ -9,6 +9,9 @@ import org.compiere.model.I_C_BPartner;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+
 import de.metas.bpartner.BPartnerId;
 import de.metas.contracts.commission.Beneficiary;
 import de.metas.contracts.commission.commissioninstance.businesslogic.hierarchy.Hierarchy;
@@ -77,6 +80,45 @@ class CommissionHierarchyFactoryTest
 		assertThat(result.getParent(node(headOfSalesRecord.getC_BPartner_ID()))).isNotPresent();
 	}
 
+	@Test
+	void createFor_bulk_and_cache_invalidation()
+	{
+		final I_C_BPartner headOfSales1 = newInstance(I_C_BPartner.class);
+		saveRecord(headOfSales1);
+
+		final I_C_BPartner headOfSales2 = newInstance(I_C_BPartner.class);
+		saveRecord(headOfSales2);
+
+		final I_C_BPartner salesRep1 = newInstance(I_C_BPartner.class);
+		salesRep1.setC_BPartner_SalesRep_ID(headOfSales1.getC_BPartner_ID());
+		saveRecord(salesRep1);
+
+		final I_C_BPartner salesRep2 = newInstance(I_C_BPartner.class);
+		salesRep2.setC_BPartner_SalesRep_ID(salesRep1.getC_BPartner_ID());
+		saveRecord(salesRep2);
+
+		final CommissionHierarchyFactory commissionHierarchyFactory = new CommissionHierarchyFactory();
+		final BPartnerId salesRep1Id = BPartnerId.ofRepoId(salesRep1.getC_BPartner_ID());
+		final BPartnerId salesRep2Id = BPartnerId.ofRepoId(salesRep2.getC_BPartner_ID());
+
+		// invoke the method under test
+		final ImmutableMap<BPartnerId, Hierarchy> result = commissionHierarchyFactory.createFor(ImmutableList.of(salesRep1Id, salesRep2Id));
+
+		assertThat(result).hasSize(2);
+		assertThat(result.get(salesRep1Id).getParent(node(salesRep1.getC_BPartner_ID()))).contains(node(headOfSales1.getC_BPartner_ID()));
+		assertThat(result.get(salesRep1Id).getParent(node(salesRep2.getC_BPartner_ID()))).isNotPresent();
+		assertThat(result.get(salesRep2Id).getParent(node(salesRep2.getC_BPartner_ID()))).contains(node(salesRep1.getC_BPartner_ID()));
+		assertThat(result.get(salesRep2Id).getParent(node(salesRep1.getC_BPartner_ID()))).contains(node(headOfSales1.getC_BPartner_ID()));
+
+		// move salesRep1 to the other head of sales; the cached hierarchy of salesRep2 shall be updated too
+		salesRep1.setC_BPartner_SalesRep_ID(headOfSales2.getC_BPartner_ID());
+		saveRecord(salesRep1);
+
+		final Hierarchy salesRep2Hierarchy = commissionHierarchyFactory.createFor(salesRep2Id);
+		assertThat(salesRep2Hierarchy.getParent(node(salesRep1.getC_BPartner_ID()))).contains(node(headOfSales2.getC_BPartner_ID()));
+		assertThat(salesRep2Hierarchy.getParent(node(headOfSales2.getC_BPartner_ID()))).isNotPresent();
+	}
+
 	private HierarchyNode node(final int id)
 	{
 		return HierarchyNode.of(Beneficiary.of(BPartnerId.ofRepoId(id)));
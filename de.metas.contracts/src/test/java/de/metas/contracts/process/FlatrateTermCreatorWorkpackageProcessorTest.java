@@ -0,0 +1,177 @@
+package de.metas.contracts.process;
+
+import static org.adempiere.model.InterfaceWrapperHelper.newInstance;
+import static org.adempiere.model.InterfaceWrapperHelper.saveRecord;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.List;
+
+import org.adempiere.ad.trx.api.ITrx;
+import org.adempiere.ad.wrapper.POJOLookupMap;
+import org.adempiere.test.AdempiereTestHelper;
+import org.compiere.model.I_AD_User;
+import org.compiere.model.I_C_BPartner;
+import org.compiere.model.I_M_Product;
+import org.compiere.util.Env;
+import org.compiere.util.TimeUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.google.common.collect.ImmutableList;
+
+import de.metas.async.api.IQueueDAO;
+import de.metas.async.api.IWorkpackageParamDAO;
+import de.metas.async.model.I_C_Queue_WorkPackage;
+import de.metas.contracts.model.I_C_Flatrate_Conditions;
+import de.metas.util.Services;
+
+/*
+ * #%L
+ * de.metas.contracts
+ * %%
+ * Copyright (C) 2019 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+class FlatrateTermCreatorWorkpackageProcessorTest
+{
+	private I_C_Flatrate_Conditions conditions;
+	private I_M_Product product1;
+	private I_M_Product product2;
+	private List<I_C_BPartner> bpartners;
+
+	private final Timestamp startDate = TimeUtil.asTimestamp(LocalDate.of(2019, 1, 1));
+	private final Timestamp endDate = TimeUtil.asTimestamp(LocalDate.of(2019, 12, 31));
+
+	@BeforeEach
+	public void init()
+	{
+		AdempiereTestHelper.get().init();
+
+		conditions = newInstance(I_C_Flatrate_Conditions.class);
+		saveRecord(conditions);
+
+		product1 = createProduct("product1");
+		product2 = createProduct("product2");
+
+		final ImmutableList.Builder<I_C_BPartner> bpartners = ImmutableList.builder();
+		for (int i = 1; i <= 5; i++)
+		{
+			final I_C_BPartner bpartner = newInstance(I_C_BPartner.class);
+			bpartner.setValue("bpartner" + i);
+			saveRecord(bpartner);
+			bpartners.add(bpartner);
+		}
+		this.bpartners = bpartners.build();
+	}
+
+	private I_M_Product createProduct(final String value)
+	{
+		final I_M_Product product = newInstance(I_M_Product.class);
+		product.setValue(value);
+		saveRecord(product);
+		return product;
+	}
+
+	@Test
+	public void enqueue_and_recreate_with_userInCharge_and_null_product()
+	{
+		final I_AD_User userInCharge = newInstance(I_AD_User.class);
+		saveRecord(userInCharge);
+
+		final FlatrateTermCreator creator = FlatrateTermCreator.builder()
+				.ctx(Env.getCtx())
+				.conditions(conditions)
+				.startDate(startDate)
+				.endDate(endDate)
+				.userInCharge(userInCharge)
+				.product(product1)
+				.product(null)
+				.product(product2)
+				.bPartners(bpartners)
+				.build();
+
+		final int workpackagesCount = FlatrateTermCreatorWorkpackageProcessor.enqueue(creator, 2, null);
+		assertThat(workpackagesCount).isEqualTo(3);
+
+		final List<I_C_Queue_WorkPackage> workpackages = retrieveWorkpackages();
+		assertThat(workpackages).hasSize(3);
+
+		final List<FlatrateTermCreator> recreatedCreators = workpackages.stream()
+				.map(this::recreateFlatrateTermCreator)
+				.collect(ImmutableList.toImmutableList());
+
+		assertThat(recreatedCreators)
+				.extracting(recreatedCreator -> ImmutableList.copyOf(recreatedCreator.getBPartners()).size())
+				.containsExactly(2, 2, 1);
+
+		for (final FlatrateTermCreator recreatedCreator : recreatedCreators)
+		{
+			assertThat(recreatedCreator.getConditions().getC_Flatrate_Conditions_ID()).isEqualTo(conditions.getC_Flatrate_Conditions_ID());
+			assertThat(recreatedCreator.getStartDate()).isEqualTo(startDate);
+			assertThat(recreatedCreator.getEndDate()).isEqualTo(endDate);
+			assertThat(recreatedCreator.getUserInCharge().getAD_User_ID()).isEqualTo(userInCharge.getAD_User_ID());
+
+			assertThat(recreatedCreator.getProducts()).hasSize(3);
+			assertThat(recreatedCreator.getProducts().get(0).getM_Product_ID()).isEqualTo(product1.getM_Product_ID());
+			assertThat(recreatedCreator.getProducts().get(1)).isNull();
+			assertThat(recreatedCreator.getProducts().get(2).getM_Product_ID()).isEqualTo(product2.getM_Product_ID());
+		}
+	}
+
+	@Test
+	public void enqueue_and_recreate_without_userInCharge()
+	{
+		final FlatrateTermCreator creator = FlatrateTermCreator.builder()
+				.ctx(Env.getCtx())
+				.conditions(conditions)
+				.startDate(startDate)
+				.endDate(endDate)
+				.product(product1)
+				.bPartners(bpartners)
+				.build();
+
+		final int workpackagesCount = FlatrateTermCreatorWorkpackageProcessor.enqueue(creator, 5, null);
+		assertThat(workpackagesCount).isEqualTo(1);
+
+		final FlatrateTermCreator recreatedCreator = recreateFlatrateTermCreator(retrieveWorkpackages().get(0));
+		assertThat(recreatedCreator.getUserInCharge()).isNull();
+		assertThat(recreatedCreator.getBPartners()).hasSize(5);
+		assertThat(recreatedCreator.getProducts())
+				.extracting(I_M_Product::getM_Product_ID)
+				.containsExactly(product1.getM_Product_ID());
+	}
+
+	private List<I_C_Queue_WorkPackage> retrieveWorkpackages()
+	{
+		return POJOLookupMap.get().getRecords(I_C_Queue_WorkPackage.class)
+				.stream()
+				.sorted(Comparator.comparing(I_C_Queue_WorkPackage::getC_Queue_WorkPackage_ID))
+				.collect(ImmutableList.toImmutableList());
+	}
+
+	private FlatrateTermCreator recreateFlatrateTermCreator(final I_C_Queue_WorkPackage workpackage)
+	{
+		return FlatrateTermCreatorWorkpackageProcessor.createFlatrateTermCreator(
+				Env.getCtx(),
+				Services.get(IWorkpackageParamDAO.class).retrieveWorkpackageParams(workpackage),
+				Services.get(IQueueDAO.class).retrieveItems(workpackage, I_C_BPartner.class, ITrx.TRXNAME_None));
+	}
+}
@@ -209,6 +209,60 @@ public class CandidateAssignmentServiceTest
 		assertThat(assignmentToRefundCandidate.getRefundInvoiceCandidate().getMoney().toBigDecimal()).isEqualByComparingTo("102"); // according to the assignable candidate's money and the config's percentage
 	}
 
+	@Test
+	public void updateAssignments_not_yet_assigned()
+	{
+		final RefundInvoiceCandidate refundInvoiceCandidate = refundTestTools.createRefundCandidate();
+		final AssignableInvoiceCandidate assignableInvoiceCandidate1 = refundTestTools.createAssignableCandidateStandlone();
+		final AssignableInvoiceCandidate assignableInvoiceCandidate2 = refundTestTools.createAssignableCandidateStandlone();
+
+		// invoke the method under test
+		final List<UpdateAssignmentResult> results = invoiceCandidateAssignmentService.updateAssignments(
+				ImmutableList.of(assignableInvoiceCandidate1, assignableInvoiceCandidate2));
+
+		assertThat(results).hasSize(2);
+		assertThat(results).allSatisfy(result -> {
+			assertThat(result.isUpdateWasDone()).isTrue();
+			assertThat(singleElement(result.getAssignableInvoiceCandidate().getAssignmentsToRefundCandidates())
+					.getRefundInvoiceCandidate().getId())
+							.isEqualTo(refundInvoiceCandidate.getId());
+		});
+
+		final RefundInvoiceCandidate resultRefundInvoiceCandidate = refundInvoiceCandidateRepository.getById(refundInvoiceCandidate.getId());
+		assertThat(resultRefundInvoiceCandidate.getMoney().toBigDecimal()).isEqualByComparingTo("104"); // 100 plus 20% of 10, two times
+	}
+
+	@Test
+	public void updateAssignments_candidate_without_matching_contract()
+	{
+		final RefundInvoiceCandidate refundInvoiceCandidate = refundTestTools.createRefundCandidate();
+		final AssignableInvoiceCandidate matchingCandidate = refundTestTools.createAssignableCandidateStandlone();
+		final AssignableInvoiceCandidate candidateAfterContract = refundTestTools.createAssignableCandidateStandlone()
+				.toBuilder()
+				.invoiceableFrom(RefundTestTools.CONTRACT_END_DATE.plusDays(1))
+				.build();
+
+		// invoke the method under test
+		final List<UpdateAssignmentResult> results = invoiceCandidateAssignmentService.updateAssignments(
+				ImmutableList.of(candidateAfterContract, matchingCandidate));
+
+		assertThat(results).hasSize(2);
+
+		final UpdateAssignmentResult resultAfterContract = results.get(0);
+		assertThat(resultAfterContract.getAssignableInvoiceCandidate().getId()).isEqualTo(candidateAfterContract.getId());
+		assertThat(resultAfterContract.isUpdateWasDone()).isFalse();
+		assertThat(resultAfterContract.getAssignableInvoiceCandidate().isAssigned()).isFalse();
+
+		final UpdateAssignmentResult matchingResult = results.get(1);
+		assertThat(matchingResult.isUpdateWasDone()).isTrue();
+		assertThat(singleElement(matchingResult.getAssignableInvoiceCandidate().getAssignmentsToRefundCandidates())
+				.getRefundInvoiceCandidate().getId())
+						.isEqualTo(refundInvoiceCandidate.getId());
+
+		final RefundInvoiceCandidate resultRefundInvoiceCandidate = refundInvoiceCandidateRepository.getById(refundInvoiceCandidate.getId());
+		assertThat(resultRefundInvoiceCandidate.getMoney().toBigDecimal()).isEqualByComparingTo("102"); // 100 plus 20% of 10, once
+	}
+
 	/**
 	 * Verifies that the {@code updateAssignment} checks the actual status in the DB and reassigns if there already was one.
 	 */
@@ -15,6 +15,9 @@ import org.compiere.util.TimeUtil;
 import org.junit.Before;
 import org.junit.Test;
 
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+
 import de.metas.bpartner.BPartnerId;
 import de.metas.contracts.ConditionsId;
 import de.metas.contracts.FlatrateTermId;
@@ -24,6 +27,7 @@ import de.metas.contracts.model.I_C_Flatrate_Term;
 import de.metas.contracts.model.X_C_Flatrate_Conditions;
 import de.metas.contracts.model.X_C_Flatrate_Term;
 import de.metas.invoice.InvoiceScheduleRepository;
+import de.metas.product.ProductId;
 import lombok.NonNull;
 
 /*
@@ -99,6 +103,60 @@ public class RefundContractRepositoryTest
 		assertThat(contract.getRefundConfig(ZERO).getPercent().isZero()).isTrue();
 	}
 
+	@Test
+	public void getByQueries()
+	{
+		final I_C_Flatrate_Conditions conditionsRecord = newInstance(I_C_Flatrate_Conditions.class);
+		conditionsRecord.setType_Conditions(X_C_Flatrate_Conditions.TYPE_CONDITIONS_Refund);
+		saveRecord(conditionsRecord);
+		RefundConfigRepositoryTest.createThreeRefundConfigRecords(ConditionsId.ofRepoId(conditionsRecord.getC_Flatrate_Conditions_ID()));
+
+		final FlatrateTermId allProductsContractId = createCompletedContract(conditionsRecord, 0, NOW, NOW.plusDays(10));
+		final FlatrateTermId product30ContractId = createCompletedContract(conditionsRecord, 30, NOW, NOW.plusDays(10));
+		final FlatrateTermId laterContractId = createCompletedContract(conditionsRecord, 30, NOW.plusDays(11), NOW.plusDays(20));
+
+		final RefundContractQuery product30Query = new RefundContractQuery(BPARTNER_ID, ProductId.ofRepoId(30), NOW.plusDays(5));
+		final RefundContractQuery product31Query = new RefundContractQuery(BPARTNER_ID, ProductId.ofRepoId(31), NOW.plusDays(5));
+		final RefundContractQuery laterQuery = new RefundContractQuery(BPARTNER_ID, ProductId.ofRepoId(30), NOW.plusDays(11));
+		final RefundContractQuery otherBPartnerQuery = new RefundContractQuery(BPartnerId.ofRepoId(11), ProductId.ofRepoId(30), NOW.plusDays(5));
+		final RefundContractQuery tooEarlyQuery = new RefundContractQuery(BPARTNER_ID, ProductId.ofRepoId(31), NOW.minusDays(1));
+
+		// invoke the method under test
+		final ImmutableMap<RefundContractQuery, RefundContract> result = refundContractRepository.getByQueries(ImmutableList.of(
+				product30Query, product31Query, laterQuery, otherBPartnerQuery, tooEarlyQuery, product30Query));
+
+		assertThat(result).containsOnlyKeys(product30Query, product31Query, laterQuery);
+		assertThat(result.get(product30Query).getId()).isEqualTo(product30ContractId); // the product's own contract wins over the one for all products
+		assertThat(result.get(product31Query).getId()).isEqualTo(allProductsContractId);
+		assertThat(result.get(laterQuery).getId()).isEqualTo(laterContractId);
+
+		// same results as the single query
+		result.forEach((query, contract) -> assertThat(refundContractRepository.getByQuery(query).get().getId()).isEqualTo(contract.getId()));
+		assertThat(refundContractRepository.getByQuery(otherBPartnerQuery)).isEmpty();
+		assertThat(refundContractRepository.getByQuery(tooEarlyQuery)).isEmpty();
+	}
+
+	@Test
+	public void getByQueries_empty()
+	{
+		assertThat(refundContractRepository.getByQueries(ImmutableList.of())).isEmpty();
+	}
+
+	private static FlatrateTermId createCompletedContract(
+			@NonNull final I_C_Flatrate_Conditions conditionsRecord,
+			final int productId,
+			@NonNull final LocalDate startDate,
+			@NonNull final LocalDate endDate)
+	{
+		final I_C_Flatrate_Term contractRecord = createContractRecord(conditionsRecord);
+		contractRecord.setM_Product_ID(productId);
+		contractRecord.setStartDate(TimeUtil.asTimestamp(startDate));
+		contractRecord.setEndDate(TimeUtil.asTimestamp(endDate));
+		contractRecord.setDocStatus(X_C_Flatrate_Term.DOCSTATUS_Completed);
+		saveRecord(contractRecord);
+		return FlatrateTermId.ofRepoId(contractRecord.getC_Flatrate_Term_ID());
+	}
+
 	private static I_C_Flatrate_Term createContractRecord(@NonNull final I_C_Flatrate_Conditions conditionsRecord)
 	{
 		final I_C_Flatrate_Term contractRecord = newInstance(I_C_Flatrate_Term.class);
@@ -8,10 +8,13 @@ import java.time.temporal.TemporalAccessor;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Properties;
+import java.util.function.Function;
 
 import org.adempiere.exceptions.AdempiereException;
 import org.compiere.util.TimeUtil;
 
+import com.google.common.collect.ImmutableList;
+
 import de.metas.data.export.api.IExportDataDestination;
 import de.metas.data.export.api.IExportDataSource;
 import de.metas.data.export.api.impl.AbstractExporter;
@@ -46,12 +49,19 @@ public class DATEVCsvExporter extends AbstractExporter
 {
 	private final DATEVExportFormat exportFormat;
 
+	/** One formatter for each column of {@link #exportFormat}, created once so that we don't have to decide for each cell how to format it */
+	private final ImmutableList<Function<Object, Object>> cellFormatters;
+
 	@Builder
 	private DATEVCsvExporter(
 			@NonNull final DATEVExportFormat exportFormat,
 			@NonNull final IExportDataSource dataSource)
 	{
 		this.exportFormat = exportFormat;
+		this.cellFormatters = exportFormat.getColumns()
+				.stream()
+				.map(DATEVCsvExporter::createCellFormatter)
+				.collect(ImmutableList.toImmutableList());
 		setDataSource(dataSource);
 	}
 
@@ -78,39 +88,33 @@ public class DATEVCsvExporter extends AbstractExporter
 
 	private List<Object> formatRow(final List<Object> row)
 	{
-		final List<DATEVExportFormatColumn> formatColumns = exportFormat.getColumns();
 		final int rowSize = row.size();
 		final List<Object> rowFormatted = new ArrayList<>(rowSize);
 		for (int i = 0; i < rowSize; i++)
 		{
 			final Object cell = row.get(i);
-			final DATEVExportFormatColumn columnFormat = formatColumns.get(i);
-			final Object cellFormated = formatCell(cell, columnFormat);
+			final Object cellFormated = cell != null ? cellFormatters.get(i).apply(cell) : null;
 			rowFormatted.add(cellFormated);
 		}
 
 		return rowFormatted;
 	}
 
-	private Object formatCell(final Object value, final DATEVExportFormatColumn columnFormat)
+	private static Function<Object, Object> createCellFormatter(final DATEVExportFormatColumn columnFormat)
 	{
-		if (value == null)
+		final DateTimeFormatter dateFormatter = columnFormat.getDateFormatter();
+		if (dateFormatter != null)
 		{
-			return null;
+			return value -> formatDateCell(value, dateFormatter);
 		}
 
-		if (columnFormat.getDateFormatter() != null)
-		{
-			return formatDateCell(value, columnFormat.getDateFormatter());
-		}
-		else if (columnFormat.getNumberFormatter() != null)
+		final ThreadLocalDecimalFormatter numberFormatter = columnFormat.getNumberFormatter();
+		if (numberFormatter != null)
 		{
-			return formatNumberCell(value, columnFormat.getNumberFormatter());
-		}
-		else
-		{
-			return value;
+			return value -> formatNumberCell(value, numberFormatter);
 		}
+
+		return Function.identity();
 	}
 
 	private static String formatDateCell(final Object value, final DateTimeFormatter dateFormatter)
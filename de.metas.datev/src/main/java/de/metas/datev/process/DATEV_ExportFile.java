@@ -1,8 +1,15 @@
 package de.metas.datev.process;
 
-import java.io.ByteArrayOutputStream;
+import java.io.BufferedOutputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.sql.Timestamp;
 import java.time.format.DateTimeFormatter;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.adempiere.service.ISysConfigBL;
 
 import org.compiere.SpringContextHolder;
 import org.compiere.util.TimeUtil;
@@ -24,6 +31,7 @@ import de.metas.process.JavaProcess;
 import de.metas.process.Param;
 import de.metas.process.ProcessPreconditionsResolution;
 import de.metas.util.Check;
+import de.metas.util.Services;
 import lombok.NonNull;
 
 /*
@@ -50,6 +58,11 @@ import lombok.NonNull;
 
 public class DATEV_ExportFile extends JavaProcess implements IProcessPrecondition
 {
+	private static final String SYSCONFIG_ZipExportFile = "de.metas.datev.process.DATEV_ExportFile.ZipExportFile";
+
+	private static final int FETCH_SIZE = 1000;
+	private static final int BUFFER_SIZE = 64 * 1024;
+
 	@Autowired
 	private DATEVExportFormatRepository exportFormatRepo;
 
@@ -83,20 +96,51 @@ public class DATEV_ExportFile extends JavaProcess implements IProcessPreconditio
 		final I_DATEV_Export datevExport = getRecord(I_DATEV_Export.class);
 
 		final IExportDataSource dataSource = createDataSource(exportFormat, datevExport.getDATEV_Export_ID());
+		final String csvFilename = buildFilename(datevExport);
+		final boolean zip = Services.get(ISysConfigBL.class).getBooleanValue(SYSCONFIG_ZipExportFile, false);
+
+		// write the rows straight to a file instead of collecting them in memory first.
+		// NOTE: the process result still holds the finished file as one byte[] (see ProcessExecutionResult.setReportData(File)),
+		// so for big exports, zipping the file is what keeps that array small.
+		final Path exportDir = Files.createTempDirectory("datev");
+		final Path exportFile = exportDir.resolve(zip ? csvFilename + ".zip" : csvFilename);
+		try
+		{
+			try (final OutputStream out = new BufferedOutputStream(Files.newOutputStream(exportFile), BUFFER_SIZE))
+			{
+				if (zip)
+				{
+					final ZipOutputStream zipOut = new ZipOutputStream(out);
+					zipOut.putNextEntry(new ZipEntry(csvFilename));
+					export(exportFormat, dataSource, zipOut); // also finishes the zip, because the exporter closes the stream
+				}
+				else
+				{
+					export(exportFormat, dataSource, out);
+				}
+			}
+
+			getResult().setReportData(exportFile.toFile());
+		}
+		finally
+		{
+			Files.deleteIfExists(exportFile);
+			Files.deleteIfExists(exportDir);
+		}
 
-		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+		return MSG_OK;
+	}
+
+	private static void export(
+			@NonNull final DATEVExportFormat exportFormat,
+			@NonNull final IExportDataSource dataSource,
+			@NonNull final OutputStream out)
+	{
 		DATEVCsvExporter.builder()
 				.exportFormat(exportFormat)
 				.dataSource(dataSource)
 				.build()
 				.export(out);
-
-		getResult().setReportData(
-				out.toByteArray(), // data
-				buildFilename(datevExport), // filename
-				"text/csv"); // content type
-
-		return MSG_OK;
 	}
 
 	private IExportDataSource createDataSource(@NonNull final DATEVExportFormat exportFormat, final int datevExportId)
@@ -105,7 +149,8 @@ public class DATEV_ExportFile extends JavaProcess implements IProcessPreconditio
 
 		final JdbcExporterBuilder builder = new JdbcExporterBuilder(I_DATEV_ExportLine.Table_Name)
 				.addEqualsWhereClause(I_DATEV_ExportLine.COLUMNNAME_DATEV_Export_ID, datevExportId)
-				.addOrderBy(I_DATEV_ExportLine.COLUMNNAME_DATEV_ExportLine_ID);
+				.addOrderBy(I_DATEV_ExportLine.COLUMNNAME_DATEV_ExportLine_ID)
+				.setFetchSize(FETCH_SIZE);
 
 		exportFormat
 				.getColumns()
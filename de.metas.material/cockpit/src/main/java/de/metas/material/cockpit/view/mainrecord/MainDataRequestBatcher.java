@@ -0,0 +1,398 @@
+package de.metas.material.cockpit.view.mainrecord;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import org.adempiere.ad.trx.api.ITrx;
+import org.adempiere.util.concurrent.CustomizableThreadFactory;
+import org.adempiere.util.lang.IAutoCloseable;
+import org.compiere.util.DB;
+import org.compiere.util.Env;
+import org.compiere.util.TimeUtil;
+import org.slf4j.Logger;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
+
+import de.metas.cache.CacheMgt;
+import de.metas.cache.model.CacheInvalidateMultiRequest;
+import de.metas.logging.LogManager;
+import de.metas.material.cockpit.model.I_MD_Cockpit;
+import de.metas.material.cockpit.view.MainDataRecordIdentifier;
+import de.metas.util.NumberUtils;
+import lombok.NonNull;
+import lombok.Value;
+
+/*
+ * #%L
+ * metasfresh-material-cockpit
+ * %%
+ * Copyright (C) 2019 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Collects {@link UpdateMainDataRequest}s for a short time window, sums up the quantities of requests that target the same {@code MD_Cockpit} record
+ * and then applies them all at once, using {@code INSERT ... ON CONFLICT DO UPDATE}.
+ * <p>
+ * If that fails, then the summed up requests are handed to a fallback (i.e. the record-by-record update), so that no quantity is lost.
+ * The fallback runs with a context that has the client, org and user of the request's original caller.
+ */
+/* package */ final class MainDataRequestBatcher
+{
+	private static final Logger logger = LogManager.getLogger(MainDataRequestBatcher.class);
+
+	private static final int MAX_ROWS_PER_STATEMENT = 500;
+
+	private final long windowMillis;
+	private final Consumer<UpdateMainDataRequest> fallback;
+	private final Upserter upserter;
+	private final ScheduledExecutorService executor;
+
+	private final Object lock = new Object();
+	private LinkedHashMap<RecordKey, PendingRequest> pendingRequests = new LinkedHashMap<>();
+	private boolean flushScheduled = false;
+
+	public MainDataRequestBatcher(
+			final long windowMillis,
+			@NonNull final Consumer<UpdateMainDataRequest> fallback)
+	{
+		this(windowMillis, fallback, MainDataRequestBatcher::upsert);
+	}
+
+	@VisibleForTesting
+	MainDataRequestBatcher(
+			final long windowMillis,
+			@NonNull final Consumer<UpdateMainDataRequest> fallback,
+			@NonNull final Upserter upserter)
+	{
+		this.windowMillis = windowMillis;
+		this.fallback = fallback;
+		this.upserter = upserter;
+		this.executor = Executors.newSingleThreadScheduledExecutor(CustomizableThreadFactory.builder()
+				.setThreadNamePrefix(MainDataRequestBatcher.class.getSimpleName())
+				.setDaemon(true)
+				.build());
+	}
+
+	/** The key of the {@code MD_Cockpit_UC} unique index */
+	@Value
+	private static class RecordKey
+	{
+		public static RecordKey of(@NonNull final MainDataRecordIdentifier identifier)
+		{
+			return new RecordKey(
+					identifier.getProductDescriptor().getProductId(),
+					identifier.getProductDescriptor().getStorageAttributesKey().getAsString(),
+					identifier.getDate().toEpochMilli(),
+					identifier.getPlantId() > 0 ? identifier.getPlantId() : 0);
+		}
+
+		int productId;
+		String attributesKey;
+		long dateMillis;
+		int plantId;
+	}
+
+	@FunctionalInterface
+	@VisibleForTesting
+	interface Upserter
+	{
+		/** @return the IDs of the inserted or updated {@code MD_Cockpit} records */
+		Set<Integer> upsert(List<PendingRequest> requests) throws SQLException;
+	}
+
+	@Value
+	@VisibleForTesting
+	static class PendingRequest
+	{
+		int clientId;
+		int orgId;
+		int userId;
+		UpdateMainDataRequest request;
+
+		public PendingRequest add(@NonNull final PendingRequest other)
+		{
+			final UpdateMainDataRequest otherRequest = other.getRequest();
+			final UpdateMainDataRequest sum = UpdateMainDataRequest.builder()
+					.identifier(request.getIdentifier())
+					.countedQty(request.getCountedQty().add(otherRequest.getCountedQty()))
+					.onHandQtyChange(request.getOnHandQtyChange().add(otherRequest.getOnHandQtyChange()))
+					.directMovementQty(request.getDirectMovementQty().add(otherRequest.getDirectMovementQty()))
+					.orderedSalesQty(request.getOrderedSalesQty().add(otherRequest.getOrderedSalesQty()))
+					.reservedSalesQty(request.getReservedSalesQty().add(otherRequest.getReservedSalesQty()))
+					.orderedPurchaseQty(request.getOrderedPurchaseQty().add(otherRequest.getOrderedPurchaseQty()))
+					.reservedPurchaseQty(request.getReservedPurchaseQty().add(otherRequest.getReservedPurchaseQty()))
+					.offeredQty(request.getOfferedQty().add(otherRequest.getOfferedQty()))
+					.requiredForProductionQty(request.getRequiredForProductionQty().add(otherRequest.getRequiredForProductionQty()))
+					.build();
+			return new PendingRequest(clientId, orgId, userId, sum);
+		}
+	}
+
+	public void add(@NonNull final UpdateMainDataRequest request)
+	{
+		// the flush happens in our own thread, so we remember the client/org/user of the caller now
+		final PendingRequest pendingRequest = new PendingRequest(
+				Env.getAD_Client_ID(Env.getCtx()),
+				Env.getAD_Org_ID(Env.getCtx()),
+				Env.getAD_User_ID(Env.getCtx()),
+				request);
+
+		synchronized (lock)
+		{
+			pendingRequests.merge(RecordKey.of(request.getIdentifier()), pendingRequest, PendingRequest::add);
+			if (!flushScheduled)
+			{
+				flushScheduled = true;
+				executor.schedule(this::flush, windowMillis, TimeUnit.MILLISECONDS);
+			}
+		}
+	}
+
+	@VisibleForTesting
+	ImmutableList<UpdateMainDataRequest> getPendingRequests()
+	{
+		synchronized (lock)
+		{
+			return pendingRequests.values()
+					.stream()
+					.map(PendingRequest::getRequest)
+					.collect(ImmutableList.toImmutableList());
+		}
+	}
+
+	/**
+	 * Applies the pending requests right away and stops the batcher's thread.
+	 */
+	public void shutdown()
+	{
+		executor.shutdown();
+		flush();
+	}
+
+	private void flush()
+	{
+		final ImmutableList<PendingRequest> requestsToApply;
+		synchronized (lock)
+		{
+			requestsToApply = ImmutableList.copyOf(pendingRequests.values());
+			pendingRequests = new LinkedHashMap<>();
+			flushScheduled = false;
+		}
+
+		for (final List<PendingRequest> chunk : Lists.partition(requestsToApply, MAX_ROWS_PER_STATEMENT))
+		{
+			try
+			{
+				final Set<Integer> cockpitIds = upserter.upsert(chunk);
+				CacheMgt.get().resetLocalNowAndBroadcastOnTrxCommit(
+						ITrx.TRXNAME_None,
+						CacheInvalidateMultiRequest.fromTableNameAndRecordIds(I_MD_Cockpit.Table_Name, cockpitIds));
+			}
+			catch (final Exception ex)
+			{
+				logger.warn("Failed upserting {} MD_Cockpit records; falling back to update them one by one", chunk.size(), ex);
+				applyFallback(chunk);
+			}
+		}
+	}
+
+	private void applyFallback(@NonNull final List<PendingRequest> requests)
+	{
+		for (final PendingRequest request : requests)
+		{
+			// we run in the batcher's thread, which has no meaningful context of its own
+			try (final IAutoCloseable contextRestorer = Env.switchContext(createContext(request)))
+			{
+				fallback.accept(request.getRequest());
+			}
+			catch (final Exception ex)
+			{
+				logger.error("Failed applying {}; the request's quantities are lost", request.getRequest(), ex);
+			}
+		}
+	}
+
+	private static Properties createContext(@NonNull final PendingRequest request)
+	{
+		final Properties ctx = Env.newTemporaryCtx();
+		Env.setContext(ctx, Env.CTXNAME_AD_Client_ID, request.getClientId());
+		Env.setContext(ctx, Env.CTXNAME_AD_Org_ID, request.getOrgId());
+		Env.setContext(ctx, Env.CTXNAME_AD_User_ID, request.getUserId());
+		return ctx;
+	}
+
+	private static Set<Integer> upsert(@NonNull final List<PendingRequest> requests) throws SQLException
+	{
+		final List<Object> sqlParams = new ArrayList<>();
+		final String nextIdSql = DB.TO_TABLESEQUENCE_NEXTVAL(I_MD_Cockpit.Table_Name);
+		final String sql = buildUpsertSql(requests, nextIdSql, sqlParams);
+
+		final ImmutableSet.Builder<Integer> cockpitIds = ImmutableSet.builder();
+		PreparedStatement pstmt = null;
+		ResultSet rs = null;
+		try
+		{
+			pstmt = DB.prepareStatement(sql, ITrx.TRXNAME_None);
+			DB.setParameters(pstmt, sqlParams);
+			rs = pstmt.executeQuery();
+			while (rs.next())
+			{
+				cockpitIds.add(rs.getInt(1));
+			}
+		}
+		finally
+		{
+			DB.close(rs, pstmt);
+		}
+
+		logger.debug("Upserted {} MD_Cockpit records", requests.size());
+		return cockpitIds.build();
+	}
+
+	/**
+	 * @param nextIdSql the SQL expression which provides a new {@code MD_Cockpit_ID}
+	 * @param sqlParams the SQL parameters are added to this list
+	 */
+	@VisibleForTesting
+	static String buildUpsertSql(
+			@NonNull final List<PendingRequest> requests,
+			@NonNull final String nextIdSql,
+			@NonNull final List<Object> sqlParams)
+	{
+		final StringBuilder sql = new StringBuilder("INSERT INTO " + I_MD_Cockpit.Table_Name + " ("
+				+ I_MD_Cockpit.COLUMNNAME_MD_Cockpit_ID
+				+ ", " + I_MD_Cockpit.COLUMNNAME_AD_Client_ID
+				+ ", " + I_MD_Cockpit.COLUMNNAME_AD_Org_ID
+				+ ", " + I_MD_Cockpit.COLUMNNAME_IsActive
+				+ ", " + I_MD_Cockpit.COLUMNNAME_Created
+				+ ", " + I_MD_Cockpit.COLUMNNAME_CreatedBy
+				+ ", " + I_MD_Cockpit.COLUMNNAME_Updated
+				+ ", " + I_MD_Cockpit.COLUMNNAME_UpdatedBy
+				+ ", " + I_MD_Cockpit.COLUMNNAME_M_Product_ID
+				+ ", " + I_MD_Cockpit.COLUMNNAME_AttributesKey
+				+ ", " + I_MD_Cockpit.COLUMNNAME_DateGeneral
+				+ ", " + I_MD_Cockpit.COLUMNNAME_PP_Plant_ID
+				+ ", " + I_MD_Cockpit.COLUMNNAME_QtyMaterialentnahme
+				+ ", " + I_MD_Cockpit.COLUMNNAME_QtyOnHandCount
+				+ ", " + I_MD_Cockpit.COLUMNNAME_PMM_QtyPromised_OnDate
+				+ ", " + I_MD_Cockpit.COLUMNNAME_QtyStockChange
+				+ ", " + I_MD_Cockpit.COLUMNNAME_QtyReserved_Purchase
+				+ ", " + I_MD_Cockpit.COLUMNNAME_QtyReserved_Sale
+				+ ", " + I_MD_Cockpit.COLUMNNAME_QtyRequiredForProduction
+				+ ", " + I_MD_Cockpit.COLUMNNAME_QtyOnHandEstimate
+				+ ", " + I_MD_Cockpit.COLUMNNAME_QtyAvailableToPromiseEstimate
+				+ ") VALUES ");
+
+		boolean firstRow = true;
+		for (final PendingRequest pendingRequest : requests)
+		{
+			if (!firstRow)
+			{
+				sql.append(", ");
+			}
+			firstRow = false;
+			sql.append("(").append(nextIdSql).append(", ?, ?, 'Y', now(), ?, now(), ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)");
+
+			final UpdateMainDataRequest request = pendingRequest.getRequest();
+			final MainDataRecordIdentifier identifier = request.getIdentifier();
+
+			// same computation as in MainDataRequestHandler, starting from zero
+			final BigDecimal qtyOnHandEstimate = request.getCountedQty()
+					.add(request.getOnHandQtyChange())
+					.subtract(request.getDirectMovementQty());
+			final BigDecimal qtyAvailableToPromiseEstimate = qtyOnHandEstimate
+					.add(request.getReservedPurchaseQty())
+					.subtract(request.getReservedSalesQty());
+
+			sqlParams.add(pendingRequest.getClientId());
+			sqlParams.add(pendingRequest.getOrgId());
+			sqlParams.add(pendingRequest.getUserId());
+			sqlParams.add(pendingRequest.getUserId());
+			sqlParams.add(identifier.getProductDescriptor().getProductId());
+			sqlParams.add(identifier.getProductDescriptor().getStorageAttributesKey().getAsString());
+			sqlParams.add(TimeUtil.asTimestamp(identifier.getDate()));
+			sqlParams.add(identifier.getPlantId() > 0 ? identifier.getPlantId() : null);
+			// same scale normalization as in MainDataRequestHandler
+			sqlParams.add(NumberUtils.stripTrailingDecimalZeros(request.getDirectMovementQty()));
+			sqlParams.add(NumberUtils.stripTrailingDecimalZeros(request.getCountedQty()));
+			sqlParams.add(NumberUtils.stripTrailingDecimalZeros(request.getOfferedQty()));
+			sqlParams.add(NumberUtils.stripTrailingDecimalZeros(request.getOnHandQtyChange()));
+			sqlParams.add(NumberUtils.stripTrailingDecimalZeros(request.getReservedPurchaseQty()));
+			sqlParams.add(NumberUtils.stripTrailingDecimalZeros(request.getReservedSalesQty()));
+			sqlParams.add(NumberUtils.stripTrailingDecimalZeros(request.getRequiredForProductionQty()));
+			sqlParams.add(NumberUtils.stripTrailingDecimalZeros(qtyOnHandEstimate));
+			sqlParams.add(NumberUtils.stripTrailingDecimalZeros(qtyAvailableToPromiseEstimate));
+		}
+
+		final String newQtyOnHandCount = sumWithExcluded(I_MD_Cockpit.COLUMNNAME_QtyOnHandCount);
+		final String newQtyStockChange = sumWithExcluded(I_MD_Cockpit.COLUMNNAME_QtyStockChange);
+		final String newQtyMaterialentnahme = sumWithExcluded(I_MD_Cockpit.COLUMNNAME_QtyMaterialentnahme);
+		final String newQtyReservedPurchase = sumWithExcluded(I_MD_Cockpit.COLUMNNAME_QtyReserved_Purchase);
+		final String newQtyReservedSale = sumWithExcluded(I_MD_Cockpit.COLUMNNAME_QtyReserved_Sale);
+		final String newQtyOnHandEstimate = "(" + newQtyOnHandCount + " + " + newQtyStockChange + " - " + newQtyMaterialentnahme + ")";
+
+		// the conflict target is the MD_Cockpit_UC unique index
+		sql.append(" ON CONFLICT (" + I_MD_Cockpit.COLUMNNAME_DateGeneral
+				+ ", " + I_MD_Cockpit.COLUMNNAME_M_Product_ID
+				+ ", " + I_MD_Cockpit.COLUMNNAME_AttributesKey
+				+ ", COALESCE(" + I_MD_Cockpit.COLUMNNAME_PP_Plant_ID + ", 0)"
+				+ ") DO UPDATE SET "
+				+ I_MD_Cockpit.COLUMNNAME_QtyMaterialentnahme + "=" + stripTrailingDecimalZeros(newQtyMaterialentnahme)
+				+ ", " + I_MD_Cockpit.COLUMNNAME_QtyOnHandCount + "=" + stripTrailingDecimalZeros(newQtyOnHandCount)
+				+ ", " + I_MD_Cockpit.COLUMNNAME_PMM_QtyPromised_OnDate + "=" + stripTrailingDecimalZeros(sumWithExcluded(I_MD_Cockpit.COLUMNNAME_PMM_QtyPromised_OnDate))
+				+ ", " + I_MD_Cockpit.COLUMNNAME_QtyStockChange + "=" + stripTrailingDecimalZeros(newQtyStockChange)
+				+ ", " + I_MD_Cockpit.COLUMNNAME_QtyReserved_Purchase + "=" + stripTrailingDecimalZeros(newQtyReservedPurchase)
+				+ ", " + I_MD_Cockpit.COLUMNNAME_QtyReserved_Sale + "=" + stripTrailingDecimalZeros(newQtyReservedSale)
+				+ ", " + I_MD_Cockpit.COLUMNNAME_QtyRequiredForProduction + "=" + stripTrailingDecimalZeros(sumWithExcluded(I_MD_Cockpit.COLUMNNAME_QtyRequiredForProduction))
+				+ ", " + I_MD_Cockpit.COLUMNNAME_QtyOnHandEstimate + "=" + stripTrailingDecimalZeros(newQtyOnHandEstimate)
+				+ ", " + I_MD_Cockpit.COLUMNNAME_QtyAvailableToPromiseEstimate + "=" + stripTrailingDecimalZeros("(" + newQtyOnHandEstimate + " + " + newQtyReservedPurchase + " - " + newQtyReservedSale + ")")
+				+ ", " + I_MD_Cockpit.COLUMNNAME_Updated + "=EXCLUDED." + I_MD_Cockpit.COLUMNNAME_Updated
+				+ ", " + I_MD_Cockpit.COLUMNNAME_UpdatedBy + "=EXCLUDED." + I_MD_Cockpit.COLUMNNAME_UpdatedBy
+				+ " RETURNING " + I_MD_Cockpit.COLUMNNAME_MD_Cockpit_ID);
+
+		return sql.toString();
+	}
+
+	private static String sumWithExcluded(@NonNull final String columnName)
+	{
+		return "(" + I_MD_Cockpit.Table_Name + "." + columnName + " + EXCLUDED." + columnName + ")";
+	}
+
+	/**
+	 * SQL counterpart of {@link NumberUtils#stripTrailingDecimalZeros(BigDecimal)}, e.g. {@code 3.50 => 3.5} and {@code 3.00 => 3}, but {@code 300 => 300}.
+	 * Needed because the sum of two numerics has the bigger scale of the two.
+	 */
+	private static String stripTrailingDecimalZeros(@NonNull final String numericExpression)
+	{
+		return "regexp_replace((" + numericExpression + ")::text, '(\\.[0-9]*[1-9])0+$|\\.0+$', '\\1')::numeric";
+	}
+}
@@ -4,6 +4,11 @@ import static de.metas.util.NumberUtils.stripTrailingDecimalZeros;
 import static org.adempiere.model.InterfaceWrapperHelper.newInstance;
 import static org.adempiere.model.InterfaceWrapperHelper.save;
 
+import javax.annotation.PreDestroy;
+
+import org.adempiere.ad.trx.api.ITrxManager;
+import org.adempiere.service.ISysConfigBL;
+import org.compiere.Adempiere;
 import org.compiere.model.IQuery;
 import org.compiere.util.TimeUtil;
 import org.springframework.context.annotation.Profile;
@@ -14,6 +19,7 @@ import com.google.common.annotations.VisibleForTesting;
 import de.metas.Profiles;
 import de.metas.material.cockpit.model.I_MD_Cockpit;
 import de.metas.material.cockpit.view.MainDataRecordIdentifier;
+import de.metas.util.Services;
 import lombok.NonNull;
 
 /*
@@ -42,7 +48,59 @@ import lombok.NonNull;
 @Profile(Profiles.PROFILE_App) // the event handler is also just on this profile
 public class MainDataRequestHandler
 {
+	/**
+	 * If greater than zero, then requests are collected for that many milliseconds after their trx was committed and are then applied all at once.
+	 * Zero (the default) means that each request is applied right away, within the current trx.
+	 */
+	private static final String SYSCONFIG_BATCH_WINDOW_MILLIS = "de.metas.material.cockpit.view.mainrecord.MainDataRequestHandler.BatchWindowMillis";
+
+	private MainDataRequestBatcher batcher;
+
 	public void handleDataUpdateRequest(@NonNull final UpdateMainDataRequest dataUpdateRequest)
+	{
+		final MainDataRequestBatcher batcher = getBatcherOrNull();
+		if (batcher != null)
+		{
+			Services.get(ITrxManager.class).runAfterCommit(() -> batcher.add(dataUpdateRequest));
+		}
+		else
+		{
+			handleDataUpdateRequestNow(dataUpdateRequest);
+		}
+	}
+
+	private synchronized MainDataRequestBatcher getBatcherOrNull()
+	{
+		if (batcher != null)
+		{
+			return batcher;
+		}
+		if (Adempiere.isUnitTestMode())
+		{
+			return null;
+		}
+
+		final int batchWindowMillis = Services.get(ISysConfigBL.class).getIntValue(SYSCONFIG_BATCH_WINDOW_MILLIS, 0);
+		if (batchWindowMillis <= 0)
+		{
+			return null;
+		}
+
+		batcher = new MainDataRequestBatcher(batchWindowMillis, this::handleDataUpdateRequestNow);
+		return batcher;
+	}
+
+	@PreDestroy
+	public synchronized void shutdownBatcher()
+	{
+		if (batcher != null)
+		{
+			batcher.shutdown();
+			batcher = null;
+		}
+	}
+
+	private void handleDataUpdateRequestNow(@NonNull final UpdateMainDataRequest dataUpdateRequest)
 	{
 		synchronized (MainDataRequestHandler.class)
 		{
@@ -0,0 +1,163 @@
+package de.metas.material.cockpit.view.mainrecord;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.adempiere.test.AdempiereTestHelper;
+import org.compiere.util.Env;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+
+import de.metas.material.cockpit.view.MainDataRecordIdentifier;
+import de.metas.material.cockpit.view.mainrecord.MainDataRequestBatcher.PendingRequest;
+import de.metas.material.event.commons.ProductDescriptor;
+
+/*
+ * #%L
+ * metasfresh-material-cockpit
+ * %%
+ * Copyright (C) 2019 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class MainDataRequestBatcherTest
+{
+	/** long enough that the batcher's own flush doesn't kick in during the test */
+	private static final long WINDOW_MILLIS = 60 * 1000;
+
+	private static final Instant NOW = Instant.now();
+
+	private List<UpdateMainDataRequest> fallbackRequests;
+	private List<Integer> fallbackClientIds;
+
+	@BeforeEach
+	public void init()
+	{
+		AdempiereTestHelper.get().init();
+
+		fallbackRequests = new ArrayList<>();
+		fallbackClientIds = new ArrayList<>();
+	}
+
+	private static MainDataRecordIdentifier createIdentifier(final int productId)
+	{
+		return MainDataRecordIdentifier.builder()
+				.date(NOW)
+				.productDescriptor(ProductDescriptor.completeForProductIdAndEmptyAttribute(productId))
+				.build();
+	}
+
+	private void fallback(final UpdateMainDataRequest request)
+	{
+		fallbackRequests.add(request);
+		fallbackClientIds.add(Env.getAD_Client_ID(Env.getCtx()));
+	}
+
+	@Test
+	public void requests_with_the_same_identifier_are_merged()
+	{
+		final List<List<PendingRequest>> upsertedChunks = new ArrayList<>();
+		final MainDataRequestBatcher batcher = new MainDataRequestBatcher(WINDOW_MILLIS, this::fallback, requests -> {
+			upsertedChunks.add(requests);
+			return ImmutableSet.of(1, 2);
+		});
+
+		batcher.add(UpdateMainDataRequest.builder().identifier(createIdentifier(10)).countedQty(new BigDecimal("2")).reservedSalesQty(BigDecimal.ONE).build());
+		batcher.add(UpdateMainDataRequest.builder().identifier(createIdentifier(20)).countedQty(new BigDecimal("5")).build());
+		batcher.add(UpdateMainDataRequest.builder().identifier(createIdentifier(10)).countedQty(new BigDecimal("3")).onHandQtyChange(BigDecimal.TEN).build());
+
+		final ImmutableList<UpdateMainDataRequest> pendingRequests = batcher.getPendingRequests();
+		assertThat(pendingRequests).hasSize(2);
+
+		final UpdateMainDataRequest merged = pendingRequests.get(0);
+		assertThat(merged.getIdentifier()).isEqualTo(createIdentifier(10));
+		assertThat(merged.getCountedQty()).isEqualByComparingTo("5");
+		assertThat(merged.getReservedSalesQty()).isEqualByComparingTo("1");
+		assertThat(merged.getOnHandQtyChange()).isEqualByComparingTo("10");
+
+		assertThat(pendingRequests.get(1).getCountedQty()).isEqualByComparingTo("5");
+
+		batcher.shutdown();
+		assertThat(batcher.getPendingRequests()).isEmpty();
+		assertThat(upsertedChunks).hasSize(1);
+		assertThat(upsertedChunks.get(0)).hasSize(2);
+		assertThat(fallbackRequests).isEmpty();
+	}
+
+	@Test
+	public void buildUpsertSql()
+	{
+		final PendingRequest request1 = new PendingRequest(1, 2, 3, UpdateMainDataRequest.builder()
+				.identifier(createIdentifier(10))
+				.countedQty(new BigDecimal("10.500"))
+				.build());
+		final PendingRequest request2 = new PendingRequest(1, 2, 3, UpdateMainDataRequest.builder()
+				.identifier(createIdentifier(20))
+				.build());
+
+		final List<Object> sqlParams = new ArrayList<>();
+		final String sql = MainDataRequestBatcher.buildUpsertSql(ImmutableList.of(request1, request2), "nextval('md_cockpit_seq')", sqlParams);
+
+		assertThat(sql)
+				.startsWith("INSERT INTO MD_Cockpit (MD_Cockpit_ID, AD_Client_ID, AD_Org_ID, ")
+				.contains("VALUES (nextval('md_cockpit_seq'), ?, ?, 'Y', now(), ?, now(), ?, ")
+				.contains("), (nextval('md_cockpit_seq'), ")
+				.contains(" ON CONFLICT (DateGeneral, M_Product_ID, AttributesKey, COALESCE(PP_Plant_ID, 0)) DO UPDATE SET ")
+				.contains("QtyOnHandCount=regexp_replace(((MD_Cockpit.QtyOnHandCount + EXCLUDED.QtyOnHandCount))::text, ")
+				.endsWith(" RETURNING MD_Cockpit_ID");
+
+		// 17 parameters per row
+		assertThat(sqlParams).hasSize(34);
+		assertThat(sqlParams.subList(0, 4)).containsExactly(1, 2, 3, 3);
+		assertThat(sqlParams.get(4)).isEqualTo(10);
+
+		// QtyOnHandCount, with trailing zeros stripped like MainDataRequestHandler does
+		assertThat(sqlParams.get(9)).isEqualTo(new BigDecimal("10.5"));
+		// QtyOnHandEstimate and QtyAvailableToPromiseEstimate
+		assertThat(sqlParams.get(15)).isEqualTo(new BigDecimal("10.5"));
+		assertThat(sqlParams.get(16)).isEqualTo(new BigDecimal("10.5"));
+	}
+
+	@Test
+	public void failed_upsert_falls_back_with_the_callers_client()
+	{
+		final MainDataRequestBatcher batcher = new MainDataRequestBatcher(WINDOW_MILLIS, this::fallback, requests -> {
+			throw new SQLException("simulated failure");
+		});
+
+		Env.setContext(Env.getCtx(), Env.CTXNAME_AD_Client_ID, 11);
+		batcher.add(UpdateMainDataRequest.builder().identifier(createIdentifier(10)).countedQty(new BigDecimal("2")).build());
+		batcher.add(UpdateMainDataRequest.builder().identifier(createIdentifier(10)).countedQty(new BigDecimal("3")).build());
+
+		// the flush shall not depend on the context of the thread which runs it
+		Env.setContext(Env.getCtx(), Env.CTXNAME_AD_Client_ID, 99);
+		batcher.shutdown();
+
+		assertThat(fallbackRequests).hasSize(1);
+		assertThat(fallbackRequests.get(0).getCountedQty()).isEqualByComparingTo("5");
+		assertThat(fallbackClientIds).containsExactly(11);
+		assertThat(Env.getAD_Client_ID(Env.getCtx())).isEqualTo(99);
+	}
+}
@@ -0,0 +1,61 @@
+package de.metas.material.dispo.commons.interceptor;
+
+import org.adempiere.ad.modelvalidator.annotations.Init;
+import org.adempiere.ad.modelvalidator.annotations.Interceptor;
+import org.springframework.stereotype.Component;
+
+import de.metas.cache.model.DirectModelCacheInvalidateRequestFactory;
+import de.metas.cache.model.IModelCacheInvalidationService;
+import de.metas.material.dispo.commons.repository.atp.AvailableToPromiseCacheInvalidateRequestFactory;
+import de.metas.material.dispo.commons.repository.atp.AvailableToPromiseRepository;
+import de.metas.material.dispo.model.I_MD_Candidate;
+import de.metas.util.Services;
+import lombok.NonNull;
+
+/*
+ * #%L
+ * metasfresh-material-dispo-commons
+ * %%
+ * Copyright (C) 2019 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+@Interceptor(I_MD_Candidate.class)
+@Component
+public class MD_Candidate
+{
+	private final AvailableToPromiseRepository availableToPromiseRepository;
+
+	public MD_Candidate(@NonNull final AvailableToPromiseRepository availableToPromiseRepository)
+	{
+		this.availableToPromiseRepository = availableToPromiseRepository;
+	}
+
+	@Init
+	public void registerATPCacheInvalidation()
+	{
+		if (!availableToPromiseRepository.isInMemoryIndexEnabled())
+		{
+			return;
+		}
+
+		// note that this also enables the broadcasting of MD_Candidate changes to the in-memory ATP indexes of other nodes
+		final IModelCacheInvalidationService cacheInvalidationService = Services.get(IModelCacheInvalidationService.class);
+		cacheInvalidationService.register(I_MD_Candidate.Table_Name, DirectModelCacheInvalidateRequestFactory.instance);
+		cacheInvalidationService.register(I_MD_Candidate.Table_Name, AvailableToPromiseCacheInvalidateRequestFactory.instance);
+	}
+}
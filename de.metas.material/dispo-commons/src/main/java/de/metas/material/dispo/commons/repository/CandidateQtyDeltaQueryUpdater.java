@@ -0,0 +1,80 @@
+package de.metas.material.dispo.commons.repository;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Properties;
+
+import org.adempiere.ad.dao.ISqlQueryUpdater;
+
+import de.metas.material.dispo.model.I_MD_Candidate;
+import de.metas.material.dispo.model.X_MD_Candidate;
+import lombok.NonNull;
+
+/*
+ * #%L
+ * metasfresh-material-dispo-commons
+ * %%
+ * Copyright (C) 2019 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Adds a delta to {@link I_MD_Candidate#getQty()} and updates {@link I_MD_Candidate#getMD_Candidate_Status()} the same way
+ * {@link CandidateRepositoryWriteService} does when it saves a candidate.
+ */
+/* package */ final class CandidateQtyDeltaQueryUpdater implements ISqlQueryUpdater<I_MD_Candidate>
+{
+	private final BigDecimal qtyDelta;
+
+	CandidateQtyDeltaQueryUpdater(@NonNull final BigDecimal qtyDelta)
+	{
+		this.qtyDelta = qtyDelta;
+	}
+
+	@Override
+	public String getSql(final Properties ctx, final List<Object> params)
+	{
+		// note: all expressions of an UPDATE's SET clause see the row's old values
+		final String sql = I_MD_Candidate.COLUMNNAME_Qty + "=" + I_MD_Candidate.COLUMNNAME_Qty + " + ?"
+				+ ", " + I_MD_Candidate.COLUMNNAME_MD_Candidate_Status + "=(CASE"
+				+ " WHEN " + I_MD_Candidate.COLUMNNAME_QtyFulfilled + " >= " + I_MD_Candidate.COLUMNNAME_Qty + " + ? THEN ?"
+				+ " ELSE ? END)";
+		params.add(qtyDelta);
+		params.add(qtyDelta);
+		params.add(X_MD_Candidate.MD_CANDIDATE_STATUS_Processed);
+		params.add(X_MD_Candidate.MD_CANDIDATE_STATUS_Planned);
+
+		return sql;
+	}
+
+	@Override
+	public boolean update(@NonNull final I_MD_Candidate candidateRecord)
+	{
+		final BigDecimal newQty = candidateRecord.getQty().add(qtyDelta);
+		candidateRecord.setQty(newQty);
+
+		if (candidateRecord.getQtyFulfilled().compareTo(newQty) >= 0)
+		{
+			candidateRecord.setMD_Candidate_Status(X_MD_Candidate.MD_CANDIDATE_STATUS_Processed);
+		}
+		else
+		{
+			candidateRecord.setMD_Candidate_Status(X_MD_Candidate.MD_CANDIDATE_STATUS_Planned);
+		}
+		return MODEL_UPDATED;
+	}
+}
@@ -16,8 +16,11 @@ import java.util.Objects;
 import javax.annotation.Nullable;
 
 import org.adempiere.ad.dao.ICompositeQueryFilter;
+import org.adempiere.ad.dao.ICompositeQueryUpdater;
 import org.adempiere.ad.dao.IQueryBL;
+import org.adempiere.ad.trx.api.ITrx;
 import org.adempiere.warehouse.WarehouseId;
+import org.compiere.model.I_M_Product;
 import org.compiere.util.TimeUtil;
 import org.springframework.stereotype.Service;
 
@@ -25,6 +28,8 @@ import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Preconditions;
 
 import de.metas.bpartner.BPartnerId;
+import de.metas.cache.CacheMgt;
+import de.metas.cache.model.CacheInvalidateMultiRequest;
 import de.metas.document.engine.DocStatus;
 import de.metas.material.dispo.commons.candidate.Candidate;
 import de.metas.material.dispo.commons.candidate.CandidateId;
@@ -35,6 +40,7 @@ import de.metas.material.dispo.commons.candidate.businesscase.DistributionDetail
 import de.metas.material.dispo.commons.candidate.businesscase.ProductionDetail;
 import de.metas.material.dispo.commons.candidate.businesscase.PurchaseDetail;
 import de.metas.material.dispo.commons.repository.query.CandidatesQuery;
+import de.metas.material.dispo.commons.repository.query.MaterialDescriptorQuery;
 import de.metas.material.dispo.commons.repository.repohelpers.PurchaseDetailRepoHelper;
 import de.metas.material.dispo.commons.repository.repohelpers.RepositoryCommons;
 import de.metas.material.dispo.model.I_MD_Candidate;
@@ -119,6 +125,55 @@ public class CandidateRepositoryWriteService
 		return addOrUpdate(query, candidate, false);
 	}
 
+	/**
+	 * Adds the given {@code qtyDelta} to the quantities of all candidates matched by the given {@code query}.
+	 * Unlike {@link #updateCandidateById(Candidate)}, this is done with one SQL update, no matter how many candidates match,
+	 * and neither the candidates' details nor any other properties are touched.
+	 *
+	 * @param groupId if not {@code null}, then this group ID is set to every matched candidate
+	 * @return the number of updated candidates
+	 */
+	public int addQtyDeltaAndSetGroupId(
+			@NonNull final CandidatesQuery query,
+			@NonNull final BigDecimal qtyDelta,
+			@Nullable final MaterialDispoGroupId groupId)
+	{
+		if (qtyDelta.signum() == 0 && groupId == null)
+		{
+			return 0;
+		}
+
+		final ICompositeQueryUpdater<I_MD_Candidate> updater = Services.get(IQueryBL.class)
+				.createCompositeQueryUpdater(I_MD_Candidate.class)
+				.addQueryUpdater(new CandidateQtyDeltaQueryUpdater(qtyDelta));
+		if (groupId != null)
+		{
+			updater.addSetColumnValue(I_MD_Candidate.COLUMNNAME_MD_Candidate_GroupId, groupId.toInt());
+		}
+
+		final int updatedCount = RepositoryCommons
+				.mkQueryBuilder(query)
+				.create()
+				.updateDirectly(updater);
+
+		Loggables.addLog("addQtyDeltaAndSetGroupId - updated {} candidates; qtyDelta={}; groupId={};\nquery={}", updatedCount, qtyDelta, groupId, query);
+
+		// we didn't update the candidates via their models, so we need to invalidate the caches (e.g. the in-memory ATP index) ourselves
+		CacheMgt.get().resetLocalNowAndBroadcastOnTrxCommit(ITrx.TRXNAME_ThreadInherited, createCacheInvalidateRequest(query));
+
+		return updatedCount;
+	}
+
+	private static CacheInvalidateMultiRequest createCacheInvalidateRequest(@NonNull final CandidatesQuery query)
+	{
+		final MaterialDescriptorQuery materialDescriptorQuery = query.getMaterialDescriptorQuery();
+		if (materialDescriptorQuery == null || materialDescriptorQuery.getProductId() <= 0)
+		{
+			return CacheInvalidateMultiRequest.allRecordsForTable(I_MD_Candidate.Table_Name);
+		}
+		return CacheInvalidateMultiRequest.allChildRecords(I_M_Product.Table_Name, materialDescriptorQuery.getProductId(), I_MD_Candidate.Table_Name);
+	}
+
 	@Value
 	@Builder
 	public static class SaveResult
@@ -0,0 +1,60 @@
+package de.metas.material.dispo.commons.repository.atp;
+
+import org.adempiere.model.InterfaceWrapperHelper;
+import org.compiere.model.I_M_Product;
+
+import de.metas.cache.model.CacheInvalidateRequest;
+import de.metas.cache.model.ModelCacheInvalidateRequestFactory;
+import de.metas.cache.model.ModelCacheInvalidationTiming;
+import de.metas.material.dispo.model.I_MD_Candidate;
+import de.metas.material.dispo.model.X_MD_Candidate;
+
+/*
+ * #%L
+ * metasfresh-material-dispo-commons
+ * %%
+ * Copyright (C) 2019 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Creates product-wide cache invalidation requests for changed stock candidates, so that {@link AvailableToPromiseIndex}es (also the remote ones) know which product to evict.
+ */
+public final class AvailableToPromiseCacheInvalidateRequestFactory implements ModelCacheInvalidateRequestFactory
+{
+	public static final transient AvailableToPromiseCacheInvalidateRequestFactory instance = new AvailableToPromiseCacheInvalidateRequestFactory();
+
+	private AvailableToPromiseCacheInvalidateRequestFactory()
+	{
+	}
+
+	@Override
+	public CacheInvalidateRequest createRequestFromModel(final Object model, final ModelCacheInvalidationTiming timing)
+	{
+		final I_MD_Candidate candidateRecord = InterfaceWrapperHelper.create(model, I_MD_Candidate.class);
+		if (!X_MD_Candidate.MD_CANDIDATE_TYPE_STOCK.equals(candidateRecord.getMD_Candidate_Type())
+				|| candidateRecord.getM_Product_ID() <= 0)
+		{
+			return null;
+		}
+
+		return CacheInvalidateRequest.builder()
+				.rootRecord(I_M_Product.Table_Name, candidateRecord.getM_Product_ID())
+				.childRecord(I_MD_Candidate.Table_Name, candidateRecord.getMD_Candidate_ID())
+				.build();
+	}
+}
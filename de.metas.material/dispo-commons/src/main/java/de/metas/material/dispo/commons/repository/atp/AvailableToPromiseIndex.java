@@ -0,0 +1,444 @@
+package de.metas.material.dispo.commons.repository.atp;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.Nullable;
+
+import org.adempiere.ad.dao.IQueryBL;
+import org.adempiere.ad.trx.api.ITrx;
+import org.adempiere.ad.trx.api.ITrxManager;
+import org.adempiere.ad.trx.api.OnTrxMissingPolicy;
+import org.adempiere.service.ISysConfigBL;
+import org.adempiere.util.lang.impl.TableRecordReference;
+import org.adempiere.warehouse.WarehouseId;
+import org.compiere.model.I_M_Product;
+import org.compiere.util.Env;
+import org.compiere.util.TimeUtil;
+import org.slf4j.Logger;
+
+import com.google.common.base.Stopwatch;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+
+import de.metas.bpartner.BPartnerId;
+import de.metas.cache.CacheMgt;
+import de.metas.cache.model.CacheInvalidateMultiRequest;
+import de.metas.cache.model.CacheInvalidateRequest;
+import de.metas.logging.LogManager;
+import de.metas.material.commons.attributes.AttributesKeyPattern;
+import de.metas.material.dispo.model.I_MD_Candidate;
+import de.metas.material.dispo.model.X_MD_Candidate;
+import de.metas.material.event.commons.AttributesKey;
+import de.metas.util.Services;
+import lombok.NonNull;
+import lombok.Value;
+
+/*
+ * #%L
+ * metasfresh-material-dispo-commons
+ * %%
+ * Copyright (C) 2019 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Optional in-memory copy of the active {@code MD_Candidate} stock records, used to answer ATP queries without a DB roundtrip.
+ * The answers are the same as the ones of the DB function {@code de_metas_material.retrieve_atp_at_date}.
+ * <p>
+ * A product's stock records are loaded when the product is queried for the first time.
+ * They are evicted when a stock candidate of the product is changed, see {@link AvailableToPromiseCacheInvalidateRequestFactory},
+ * and evicted once more after the changing trx was committed.
+ * <p>
+ * The index only contains committed records. So if the current thread's trx already changed {@code MD_Candidate}s,
+ * its queries are answered from the stock records as that trx sees them, and these records are not added to the index.
+ */
+/* package */ final class AvailableToPromiseIndex
+{
+	private static final Logger logger = LogManager.getLogger(AvailableToPromiseIndex.class);
+
+	private static final String SYSCONFIG_Enabled = "de.metas.material.dispo.commons.repository.atp.AvailableToPromiseIndex.Enabled";
+
+	/** Set in trxs which changed {@code MD_Candidate}s, because those trxs need to see their own uncommitted changes. */
+	private static final String TRX_PROPERTY_CandidatesChanged = AvailableToPromiseIndex.class.getName() + ".CandidatesChanged";
+
+	private final ConcurrentHashMap<Integer, ProductStock> stocksByProductId = new ConcurrentHashMap<>();
+	private final ConcurrentHashMap<Integer, Integer> productIdsByCandidateId = new ConcurrentHashMap<>();
+
+	/** Incremented on each invalidation, so that we can detect if an invalidation happened while we were loading. */
+	private final AtomicLong invalidationsCount = new AtomicLong();
+
+	public static boolean isEnabled()
+	{
+		return Services.get(ISysConfigBL.class).getBooleanValue(SYSCONFIG_Enabled, false);
+	}
+
+	public AvailableToPromiseIndex()
+	{
+		CacheMgt.get().addCacheResetListener(I_MD_Candidate.Table_Name, this::onCacheReset);
+	}
+
+	@Value
+	private static class StockKey
+	{
+		WarehouseId warehouseId;
+		BPartnerId customerId;
+		AttributesKey storageAttributesKey;
+	}
+
+	@Value
+	private static class StockEntry
+	{
+		Instant date;
+		int seqNo;
+		BigDecimal qty;
+	}
+
+	private static final Comparator<StockEntry> STOCK_ENTRIES_ORDER = Comparator
+			.comparing(StockEntry::getDate)
+			.thenComparing(StockEntry::getSeqNo);
+
+	@Value
+	private static class ProductStock
+	{
+		int productId;
+
+		/** the entries of each key are ordered by date and seqNo */
+		ImmutableMap<StockKey, ImmutableList<StockEntry>> entriesByKey;
+
+		ImmutableSet<Integer> candidateIds;
+	}
+
+	/**
+	 * @return the same requests which {@link AvailableToPromiseRepository} would create from the {@code MD_Candidate_ATP_QueryResult}s of the given {@code multiQuery}; not sorted.
+	 */
+	public ImmutableSet<AddToResultGroupRequest> retrieveRequests(@NonNull final AvailableToPromiseMultiQuery multiQuery)
+	{
+		final ImmutableList<AvailableToPromiseQuery> queries = multiQuery.getQueries()
+				.stream()
+				.filter(query -> query != null)
+				.collect(ImmutableList.toImmutableList());
+
+		final Set<Integer> productIds = queries.stream()
+				.flatMap(query -> query.getProductIds().stream())
+				.collect(ImmutableSet.toImmutableSet());
+		final Map<Integer, ProductStock> stocksByProductId = isCandidatesChangedInCurrentTrx()
+				? loadInCurrentTrx(productIds)
+				: getOrLoad(productIds);
+
+		final ImmutableSet.Builder<AddToResultGroupRequest> result = ImmutableSet.builder();
+		for (final AvailableToPromiseQuery query : queries)
+		{
+			for (final int productId : query.getProductIds())
+			{
+				addRequests(result, stocksByProductId.get(productId), query);
+			}
+		}
+		return result.build();
+	}
+
+	private static void addRequests(
+			@NonNull final ImmutableSet.Builder<AddToResultGroupRequest> result,
+			@NonNull final ProductStock productStock,
+			@NonNull final AvailableToPromiseQuery query)
+	{
+		// the DB function gets the date with seconds precision
+		final Instant date = query.getDate().toInstant().truncatedTo(ChronoUnit.SECONDS);
+
+		for (final Map.Entry<StockKey, ImmutableList<StockEntry>> keyAndEntries : productStock.getEntriesByKey().entrySet())
+		{
+			final StockKey key = keyAndEntries.getKey();
+			if (!isMatching(key, query))
+			{
+				continue;
+			}
+
+			final StockEntry entry = findLatestEntryUntilDate(keyAndEntries.getValue(), date);
+			if (entry == null)
+			{
+				continue;
+			}
+
+			result.add(AddToResultGroupRequest.builder()
+					.productId(productStock.getProductId())
+					.bpartner(BPartnerClassifier.specificOrAny(key.getCustomerId())) // records that have no bPartner-ID are applicable to any bpartner
+					.warehouseId(key.getWarehouseId())
+					.storageAttributesKey(key.getStorageAttributesKey())
+					.qty(entry.getQty())
+					.date(entry.getDate())
+					.seqNo(entry.getSeqNo())
+					.build());
+		}
+	}
+
+	/** Same filters as {@link AvailableToPromiseSqlHelper#createDBQueryForStockQueryBuilder(AvailableToPromiseQuery)}. */
+	private static boolean isMatching(@NonNull final StockKey key, @NonNull final AvailableToPromiseQuery query)
+	{
+		final Set<WarehouseId> warehouseIds = query.getWarehouseIds();
+		if (!warehouseIds.isEmpty() && !warehouseIds.contains(key.getWarehouseId()))
+		{
+			return false;
+		}
+
+		final BPartnerClassifier bpartner = query.getBpartner();
+		if (bpartner.isNone() && key.getCustomerId() != null)
+		{
+			return false;
+		}
+		else if (bpartner.isSpecificBPartner() && key.getCustomerId() != null && !key.getCustomerId().equals(bpartner.getBpartnerId()))
+		{
+			return false;
+		}
+
+		final List<AttributesKeyPattern> storageAttributesKeyPatterns = query.getStorageAttributesKeyPatterns();
+		if (storageAttributesKeyPatterns.isEmpty()
+				|| storageAttributesKeyPatterns.contains(AttributesKeyPattern.ALL)
+				|| storageAttributesKeyPatterns.contains(AttributesKeyPattern.OTHER))
+		{
+			return true;
+		}
+		return storageAttributesKeyPatterns
+				.stream()
+				.anyMatch(pattern -> pattern.matches(key.getStorageAttributesKey()));
+	}
+
+	@Nullable
+	private static StockEntry findLatestEntryUntilDate(@NonNull final ImmutableList<StockEntry> entries, @NonNull final Instant date)
+	{
+		// binary search for the last entry with entry.date <= date
+		int low = 0;
+		int high = entries.size() - 1;
+		StockEntry result = null;
+		while (low <= high)
+		{
+			final int mid = (low + high) >>> 1;
+			final StockEntry entry = entries.get(mid);
+			if (entry.getDate().compareTo(date) <= 0)
+			{
+				result = entry;
+				low = mid + 1;
+			}
+			else
+			{
+				high = mid - 1;
+			}
+		}
+		return result;
+	}
+
+	private static boolean isCandidatesChangedInCurrentTrx()
+	{
+		final ITrxManager trxManager = Services.get(ITrxManager.class);
+		final ITrx trx = trxManager.getThreadInheritedTrx(OnTrxMissingPolicy.ReturnTrxNone);
+		if (!trxManager.isActive(trx))
+		{
+			return false;
+		}
+
+		final Boolean candidatesChanged = trx.getProperty(TRX_PROPERTY_CandidatesChanged);
+		return candidatesChanged != null && candidatesChanged;
+	}
+
+	private static Map<Integer, ProductStock> loadInCurrentTrx(@NonNull final Set<Integer> productIds)
+	{
+		final Map<Integer, ProductStock> result = new HashMap<>(productIds.size());
+		load(productIds, ITrx.TRXNAME_ThreadInherited)
+				.forEach(productStock -> result.put(productStock.getProductId(), productStock));
+		return result;
+	}
+
+	private Map<Integer, ProductStock> getOrLoad(@NonNull final Set<Integer> productIds)
+	{
+		final Map<Integer, ProductStock> result = new HashMap<>(productIds.size());
+		final List<Integer> productIdsToLoad = new ArrayList<>();
+		for (final int productId : productIds)
+		{
+			final ProductStock productStock = stocksByProductId.get(productId);
+			if (productStock != null)
+			{
+				result.put(productId, productStock);
+			}
+			else
+			{
+				productIdsToLoad.add(productId);
+			}
+		}
+
+		if (!productIdsToLoad.isEmpty())
+		{
+			final long invalidationsCountBeforeLoad = invalidationsCount.get();
+			// out of trx, because the loaded stocks are shared with all other threads and shall not contain uncommitted changes of the current one
+			final Collection<ProductStock> loadedStocks = load(productIdsToLoad, ITrx.TRXNAME_None);
+			loadedStocks.forEach(productStock -> result.put(productStock.getProductId(), productStock));
+
+			// if something was invalidated while we were loading, then we might have loaded stale data; use it just this once
+			synchronized (this)
+			{
+				if (invalidationsCount.get() == invalidationsCountBeforeLoad)
+				{
+					for (final ProductStock productStock : loadedStocks)
+					{
+						productStock.getCandidateIds().forEach(candidateId -> productIdsByCandidateId.put(candidateId, productStock.getProductId()));
+						stocksByProductId.put(productStock.getProductId(), productStock);
+					}
+				}
+			}
+		}
+
+		return result;
+	}
+
+	private static Collection<ProductStock> load(@NonNull final Collection<Integer> productIds, @Nullable final String trxName)
+	{
+		final Stopwatch stopwatch = Stopwatch.createStarted();
+
+		final List<I_MD_Candidate> stockRecords = Services.get(IQueryBL.class)
+				.createQueryBuilder(I_MD_Candidate.class, Env.getCtx(), trxName)
+				.addOnlyActiveRecordsFilter()
+				.addEqualsFilter(I_MD_Candidate.COLUMNNAME_MD_Candidate_Type, X_MD_Candidate.MD_CANDIDATE_TYPE_STOCK)
+				.addInArrayFilter(I_MD_Candidate.COLUMNNAME_M_Product_ID, productIds)
+				.create()
+				.list();
+
+		final Map<Integer, Map<StockKey, List<StockEntry>>> entriesByProductId = new HashMap<>();
+		final Map<Integer, ImmutableSet.Builder<Integer>> candidateIdsByProductId = new HashMap<>();
+		for (final int productId : productIds)
+		{
+			entriesByProductId.put(productId, new HashMap<>());
+			candidateIdsByProductId.put(productId, ImmutableSet.builder());
+		}
+
+		for (final I_MD_Candidate stockRecord : stockRecords)
+		{
+			final StockKey key = new StockKey(
+					WarehouseId.ofRepoId(stockRecord.getM_Warehouse_ID()),
+					BPartnerId.ofRepoIdOrNull(stockRecord.getC_BPartner_Customer_ID()),
+					AttributesKey.ofString(stockRecord.getStorageAttributesKey()));
+			final StockEntry entry = new StockEntry(
+					TimeUtil.asInstant(stockRecord.getDateProjected()),
+					stockRecord.getSeqNo(),
+					stockRecord.getQty());
+
+			entriesByProductId.get(stockRecord.getM_Product_ID())
+					.computeIfAbsent(key, k -> new ArrayList<>())
+					.add(entry);
+			candidateIdsByProductId.get(stockRecord.getM_Product_ID()).add(stockRecord.getMD_Candidate_ID());
+		}
+
+		final List<ProductStock> result = new ArrayList<>(productIds.size());
+		entriesByProductId.forEach((productId, entriesByKey) -> {
+			final ImmutableMap.Builder<StockKey, ImmutableList<StockEntry>> sortedEntriesByKey = ImmutableMap.builder();
+			entriesByKey.forEach((key, entries) -> {
+				entries.sort(STOCK_ENTRIES_ORDER);
+				sortedEntriesByKey.put(key, ImmutableList.copyOf(entries));
+			});
+
+			result.add(new ProductStock(productId, sortedEntriesByKey.build(), candidateIdsByProductId.get(productId).build()));
+		});
+
+		logger.debug("Loaded {} stock candidates for {} products in {}", stockRecords.size(), productIds.size(), stopwatch);
+		return result;
+	}
+
+	private long onCacheReset(@NonNull final CacheInvalidateMultiRequest multiRequest)
+	{
+		final long count = invalidate(multiRequest);
+
+		// If the reset happens within a trx (e.g. CacheMgt.resetLocalNowAndBroadcastOnTrxCommit), then the changed candidates are not yet committed,
+		// and another thread might load and index the old records before they are. So we invalidate once more when the changes are visible.
+		final ITrxManager trxManager = Services.get(ITrxManager.class);
+		final ITrx trx = trxManager.getThreadInheritedTrx(OnTrxMissingPolicy.ReturnTrxNone);
+		// Also, until it's committed, that trx must not be served from the index, because the index doesn't contain the trx's own changes.
+		if (trxManager.isActive(trx))
+		{
+			trx.setProperty(TRX_PROPERTY_CandidatesChanged, Boolean.TRUE);
+			trx.runAfterCommit(() -> invalidate(multiRequest));
+		}
+
+		return count;
+	}
+
+	private long invalidate(@NonNull final CacheInvalidateMultiRequest multiRequest)
+	{
+		if (multiRequest.isResetAll())
+		{
+			return invalidateAll();
+		}
+
+		long count = 0;
+		for (final CacheInvalidateRequest request : multiRequest.getRequests())
+		{
+			if (!I_MD_Candidate.Table_Name.equals(request.getTableNameEffective()))
+			{
+				continue;
+			}
+
+			final TableRecordReference rootRecord = request.getRootRecordOrNull();
+			if (rootRecord != null && I_M_Product.Table_Name.equals(rootRecord.getTableName()))
+			{
+				count += invalidateProduct(rootRecord.getRecord_ID());
+			}
+			else if (request.isAllRecords())
+			{
+				return invalidateAll();
+			}
+
+			// also evict the product a changed candidate belonged to before; it might have been changed to a different product
+			final Integer previousProductId = productIdsByCandidateId.get(request.getRecordIdEffective());
+			if (previousProductId != null)
+			{
+				count += invalidateProduct(previousProductId);
+			}
+		}
+		return count;
+	}
+
+	private synchronized long invalidateProduct(final int productId)
+	{
+		invalidationsCount.incrementAndGet();
+
+		final ProductStock productStock = stocksByProductId.remove(productId);
+		if (productStock == null)
+		{
+			return 0;
+		}
+
+		productStock.getCandidateIds().forEach(productIdsByCandidateId::remove);
+		return productStock.getCandidateIds().size();
+	}
+
+	private synchronized long invalidateAll()
+	{
+		invalidationsCount.incrementAndGet();
+
+		final long count = productIdsByCandidateId.size();
+		stocksByProductId.clear();
+		productIdsByCandidateId.clear();
+		return count;
+	}
+}
@@ -1,10 +1,12 @@
 package de.metas.material.dispo.commons.repository.atp;
 
 import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Set;
 import java.util.function.Function;
+import java.util.function.Supplier;
 
 import org.adempiere.service.ISysConfigBL;
 import org.adempiere.warehouse.WarehouseId;
@@ -15,6 +17,7 @@ import org.springframework.stereotype.Service;
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Predicates;
+import com.google.common.base.Suppliers;
 import com.google.common.collect.ImmutableList;
 
 import de.metas.bpartner.BPartnerId;
@@ -53,6 +56,11 @@ public class AvailableToPromiseRepository
 {
 	private static final String SYSCONFIG_ATP_ATTRIBUTES_KEYS = "de.metas.ui.web.window.descriptor.sql.ProductLookupDescriptor.ATP.AttributesKeys";
 
+	private final AvailableToPromiseIndex index = new AvailableToPromiseIndex();
+
+	/** Read only once, such that the queries and the {@code MD_Candidate} interceptor which registers the index's invalidation always agree. */
+	private final Supplier<Boolean> inMemoryIndexEnabled = Suppliers.memoize(AvailableToPromiseIndex::isEnabled);
+
 	@NonNull
 	public BigDecimal retrieveAvailableStockQtySum(@NonNull final AvailableToPromiseMultiQuery multiQuery)
 	{
@@ -75,32 +83,24 @@ public class AvailableToPromiseRepository
 				? AvailableToPromiseResultBuilder.createEmptyWithPredefinedBuckets(multiQuery)
 				: AvailableToPromiseResultBuilder.createEmpty();
 
-		final IQuery<I_MD_Candidate_ATP_QueryResult> dbQuery = createDBQueryForMaterialQueryOrNull(multiQuery);
-		if (dbQuery == null)
-		{
-			return result.build();
-		}
+		final Collection<AddToResultGroupRequest> unsortedRequests = isInMemoryIndexEnabled()
+				? index.retrieveRequests(multiQuery)
+				: retrieveRequestsFromDB(multiQuery);
 
-		final Function<I_MD_Candidate_ATP_QueryResult, Boolean> compareByWhetherRecordHasBPartnerId = record -> record.getC_BPartner_Customer_ID() > 0;
+		final Function<AddToResultGroupRequest, Boolean> compareByWhetherRequestHasBPartnerId = request -> request.getBpartner().isSpecificBPartner();
 
-		final List<I_MD_Candidate_ATP_QueryResult> atpRecords = dbQuery.list()
+		final ImmutableList<AddToResultGroupRequest> requests = unsortedRequests
 				.stream()
 				// records with dedicated bPartnerId first
 				// latest date first
 				// biggest seqNo first
 				.sorted(Comparator
-						.comparing(compareByWhetherRecordHasBPartnerId)
-						.thenComparing(I_MD_Candidate_ATP_QueryResult::getDateProjected)
-						.thenComparing(I_MD_Candidate_ATP_QueryResult::getSeqNo) // if dateProjected is equal, then SeqNo makes the difference
+						.comparing(compareByWhetherRequestHasBPartnerId)
+						.thenComparing(AddToResultGroupRequest::getDate)
+						.thenComparing(AddToResultGroupRequest::getSeqNo) // if date is equal, then SeqNo makes the difference
 						.reversed())
 				.collect(ImmutableList.toImmutableList());
 
-		// note: this is a dedicated step in order to ease debugging (i.e. have a chance to take a look at the atpRecords)
-		final ImmutableList<AddToResultGroupRequest> requests = atpRecords
-				.stream()
-				.map(AvailableToPromiseRepository::createAddToResultGroupRequest)
-				.collect(ImmutableList.toImmutableList());
-
 		for (final AddToResultGroupRequest request : requests)
 		{
 			if (addToPredefinedBuckets)
@@ -121,6 +121,29 @@ public class AvailableToPromiseRepository
 		return retrieveAvailableStock(AvailableToPromiseMultiQuery.of(query));
 	}
 
+	/**
+	 * @return {@code true} if ATP queries are answered from an in-memory copy of the stock candidates, instead of querying the DB each time.
+	 *         The sysconfig is read on the first invocation; changing it later requires a restart.
+	 */
+	public boolean isInMemoryIndexEnabled()
+	{
+		return inMemoryIndexEnabled.get();
+	}
+
+	private List<AddToResultGroupRequest> retrieveRequestsFromDB(@NonNull final AvailableToPromiseMultiQuery multiQuery)
+	{
+		final IQuery<I_MD_Candidate_ATP_QueryResult> dbQuery = createDBQueryForMaterialQueryOrNull(multiQuery);
+		if (dbQuery == null)
+		{
+			return ImmutableList.of();
+		}
+
+		return dbQuery.list()
+				.stream()
+				.map(AvailableToPromiseRepository::createAddToResultGroupRequest)
+				.collect(ImmutableList.toImmutableList());
+	}
+
 	private IQuery<I_MD_Candidate_ATP_QueryResult> createDBQueryForMaterialQueryOrNull(
 			@NonNull final AvailableToPromiseMultiQuery multiQuery)
 	{
@@ -20,6 +20,9 @@ import static org.assertj.core.api.Assertions.assertThat;
 import java.math.BigDecimal;
 import java.time.temporal.ChronoUnit;
 import java.util.List;
+import java.util.function.Function;
+
+import javax.annotation.Nullable;
 
 import org.adempiere.ad.dao.IQueryBL;
 import org.adempiere.test.AdempiereTestHelper;
@@ -28,6 +31,8 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 
+import com.google.common.collect.ImmutableList;
+
 import de.metas.document.engine.DocStatus;
 import de.metas.material.dispo.commons.DispoTestUtils;
 import de.metas.material.dispo.commons.RepositoryTestHelper;
@@ -48,6 +53,7 @@ import de.metas.material.dispo.model.I_MD_Candidate_Transaction_Detail;
 import de.metas.material.dispo.model.X_MD_Candidate;
 import de.metas.material.event.commons.AttributesKey;
 import de.metas.material.event.commons.MaterialDescriptor;
+import de.metas.material.event.pporder.MaterialDispoGroupId;
 import de.metas.organization.ClientAndOrgId;
 import de.metas.product.ResourceId;
 import de.metas.util.Services;
@@ -323,6 +329,60 @@ public class CandidateRepositoryWriteServiceTests
 		assertThat(result1Record.getMD_Candidate_GroupId()).isEqualTo(result1.getGroupId().toInt());
 	}
 
+	/**
+	 * Verifies that {@link CandidateRepositoryWriteService#addQtyDeltaAndSetGroupId(CandidatesQuery, BigDecimal, MaterialDispoGroupId)} leaves the candidates
+	 * in the same state as adding the delta to each matching candidate and saving it via {@link CandidateRepositoryWriteService#updateCandidateById(Candidate)}.
+	 */
+	@Test
+	public void addQtyDeltaAndSetGroupId_same_as_updateCandidateById()
+	{
+		final Function<RepositoryTestHelper, CandidatesQuery> allStock = helper -> helper.mkQueryForStockFromDate(NOW);
+		final Function<RepositoryTestHelper, CandidatesQuery> laterStock = helper -> helper.mkQueryForStockFromDate(AFTER_NOW);
+
+		// the first candidate's qty stays positive (planned), the later one's becomes negative (processed, because QtyFulfilled=0 exceeds it)
+		assertAddQtyDeltaAndSetGroupIdSameAsUpdateCandidateById(allStock, new BigDecimal("-10.5"), MaterialDispoGroupId.ofInt(123));
+		assertAddQtyDeltaAndSetGroupIdSameAsUpdateCandidateById(allStock, new BigDecimal("2"), null);
+		assertAddQtyDeltaAndSetGroupIdSameAsUpdateCandidateById(allStock, ZERO, MaterialDispoGroupId.ofInt(123));
+		assertAddQtyDeltaAndSetGroupIdSameAsUpdateCandidateById(laterStock, new BigDecimal("-10"), MaterialDispoGroupId.ofInt(123));
+	}
+
+	private void assertAddQtyDeltaAndSetGroupIdSameAsUpdateCandidateById(
+			final Function<RepositoryTestHelper, CandidatesQuery> queryProvider,
+			final BigDecimal qtyDelta,
+			@Nullable final MaterialDispoGroupId groupId)
+	{
+		init();
+		final CandidateRepositoryRetrieval candidateRepositoryRetrieval = new CandidateRepositoryRetrieval();
+		for (final Candidate candidate : candidateRepositoryRetrieval.retrieveOrderedByDateAndSeqNo(queryProvider.apply(repositoryTestHelper)))
+		{
+			candidateRepositoryWriteService.updateCandidateById(candidate
+					.withQuantity(candidate.getQuantity().add(qtyDelta))
+					.withGroupId(groupId));
+		}
+		final List<String> expected = retrieveQtyGroupIdAndStatusOfAllCandidates();
+
+		init();
+		candidateRepositoryWriteService.addQtyDeltaAndSetGroupId(queryProvider.apply(repositoryTestHelper), qtyDelta, groupId);
+		final List<String> actual = retrieveQtyGroupIdAndStatusOfAllCandidates();
+
+		assertThat(actual).as("qtyDelta=%s, groupId=%s", qtyDelta, groupId).isEqualTo(expected);
+	}
+
+	private static List<String> retrieveQtyGroupIdAndStatusOfAllCandidates()
+	{
+		return Services.get(IQueryBL.class)
+				.createQueryBuilder(I_MD_Candidate.class)
+				.orderBy(I_MD_Candidate.COLUMNNAME_DateProjected)
+				.create()
+				.list()
+				.stream()
+				.map(record -> record.getDateProjected()
+						+ " qty=" + record.getQty().stripTrailingZeros().toPlainString()
+						+ " groupId=" + record.getMD_Candidate_GroupId()
+						+ " status=" + record.getMD_Candidate_Status())
+				.collect(ImmutableList.toImmutableList());
+	}
+
 	/**
 	 * Verifies that {@link DistributionDetail} data is also persisted
 	 */
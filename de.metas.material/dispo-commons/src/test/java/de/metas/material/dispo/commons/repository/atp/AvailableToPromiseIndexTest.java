@@ -0,0 +1,190 @@
+package de.metas.material.dispo.commons.repository.atp;
+
+import static de.metas.material.event.EventTestHelper.AFTER_NOW;
+import static de.metas.material.event.EventTestHelper.BEFORE_BEFORE_NOW;
+import static de.metas.material.event.EventTestHelper.BEFORE_NOW;
+import static de.metas.material.event.EventTestHelper.NOW;
+import static de.metas.material.event.EventTestHelper.PRODUCT_ID;
+import static de.metas.material.event.EventTestHelper.WAREHOUSE_ID;
+import static org.adempiere.model.InterfaceWrapperHelper.newInstance;
+import static org.adempiere.model.InterfaceWrapperHelper.save;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Set;
+
+import org.adempiere.ad.trx.api.ITrx;
+import org.adempiere.ad.trx.api.ITrxManager;
+import org.adempiere.test.AdempiereTestHelper;
+import org.adempiere.test.AdempiereTestWatcher;
+import org.compiere.model.I_M_Product;
+import org.compiere.util.TimeUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import com.google.common.collect.ImmutableSet;
+
+import de.metas.bpartner.BPartnerId;
+import de.metas.cache.CacheMgt;
+import de.metas.cache.model.CacheInvalidateMultiRequest;
+import de.metas.material.commons.attributes.AttributesKeyPatterns;
+import de.metas.material.dispo.model.I_MD_Candidate;
+import de.metas.material.dispo.model.X_MD_Candidate;
+import de.metas.material.event.commons.AttributesKey;
+import de.metas.util.Services;
+
+/*
+ * #%L
+ * metasfresh-material-dispo-commons
+ * %%
+ * Copyright (C) 2019 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+@ExtendWith(AdempiereTestWatcher.class)
+public class AvailableToPromiseIndexTest
+{
+	private static final BPartnerId BPARTNER_ID_1 = BPartnerId.ofRepoId(10);
+	private static final BPartnerId BPARTNER_ID_2 = BPartnerId.ofRepoId(20);
+	private static final AttributesKey STORAGE_ATTRIBUTES_KEY = AttributesKey.ofAttributeValueIds(1, 2);
+
+	private AvailableToPromiseIndex index;
+
+	private int seqNoCounter = 1;
+
+	@BeforeEach
+	public void init()
+	{
+		AdempiereTestHelper.get().init();
+
+		index = new AvailableToPromiseIndex();
+	}
+
+	@Test
+	public void retrieveRequests_latest_stock_until_date()
+	{
+		createStockRecord(null, BEFORE_BEFORE_NOW, "10");
+		createStockRecord(null, BEFORE_NOW, "20");
+		createStockRecord(null, AFTER_NOW, "30");
+
+		assertThat(retrieveQtys(BPartnerClassifier.any(), BEFORE_BEFORE_NOW.plusSeconds(60))).containsExactly(new BigDecimal("10"));
+		assertThat(retrieveQtys(BPartnerClassifier.any(), NOW)).containsExactly(new BigDecimal("20"));
+		assertThat(retrieveQtys(BPartnerClassifier.any(), AFTER_NOW.plusSeconds(60))).containsExactly(new BigDecimal("30"));
+		assertThat(retrieveQtys(BPartnerClassifier.any(), BEFORE_BEFORE_NOW.minusSeconds(60))).isEmpty();
+	}
+
+	@Test
+	public void retrieveRequests_bpartner()
+	{
+		createStockRecord(null, BEFORE_NOW, "10");
+		createStockRecord(BPARTNER_ID_1, BEFORE_NOW, "20");
+		createStockRecord(BPARTNER_ID_2, BEFORE_NOW, "30");
+
+		assertThat(retrieveQtys(BPartnerClassifier.specific(BPARTNER_ID_1), NOW)).containsExactlyInAnyOrder(new BigDecimal("10"), new BigDecimal("20"));
+		assertThat(retrieveQtys(BPartnerClassifier.none(), NOW)).containsExactly(new BigDecimal("10"));
+		assertThat(retrieveQtys(BPartnerClassifier.any(), NOW)).containsExactlyInAnyOrder(new BigDecimal("10"), new BigDecimal("20"), new BigDecimal("30"));
+	}
+
+	@Test
+	public void retrieveRequests_reloads_invalidated_product()
+	{
+		createStockRecord(null, BEFORE_BEFORE_NOW, "10");
+		assertThat(retrieveQtys(BPartnerClassifier.any(), NOW)).containsExactly(new BigDecimal("10"));
+
+		// the product is already loaded and nobody told the index about the new record
+		createStockRecord(null, BEFORE_NOW, "20");
+		assertThat(retrieveQtys(BPartnerClassifier.any(), NOW)).containsExactly(new BigDecimal("10"));
+
+		CacheMgt.get().resetLocalNowAndBroadcastOnTrxCommit(
+				ITrx.TRXNAME_None,
+				CacheInvalidateMultiRequest.allChildRecords(I_M_Product.Table_Name, PRODUCT_ID, I_MD_Candidate.Table_Name));
+		assertThat(retrieveQtys(BPartnerClassifier.any(), NOW)).containsExactly(new BigDecimal("20"));
+	}
+
+	@Test
+	public void retrieveRequests_invalidates_again_after_commit()
+	{
+		createStockRecord(null, BEFORE_BEFORE_NOW, "10");
+
+		final ITrxManager trxManager = Services.get(ITrxManager.class);
+		trxManager.runInNewTrx(() -> {
+			CacheMgt.get().resetLocalNowAndBroadcastOnTrxCommit(
+					ITrx.TRXNAME_ThreadInherited,
+					CacheInvalidateMultiRequest.allChildRecords(I_M_Product.Table_Name, PRODUCT_ID, I_MD_Candidate.Table_Name));
+
+			// another thread loads the product after the reset, but before the trx's changes are committed
+			trxManager.runOutOfTransaction(localTrxName -> {
+				assertThat(retrieveQtys(BPartnerClassifier.any(), NOW)).containsExactly(new BigDecimal("10"));
+			});
+			createStockRecord(null, BEFORE_NOW, "20");
+		});
+
+		assertThat(retrieveQtys(BPartnerClassifier.any(), NOW)).containsExactly(new BigDecimal("20"));
+	}
+
+	@Test
+	public void retrieveRequests_trx_which_changed_candidates_sees_its_own_changes()
+	{
+		createStockRecord(null, BEFORE_BEFORE_NOW, "10");
+		assertThat(retrieveQtys(BPartnerClassifier.any(), NOW)).containsExactly(new BigDecimal("10"));
+
+		final ITrxManager trxManager = Services.get(ITrxManager.class);
+		trxManager.runInNewTrx(() -> {
+			// saving the record resets the MD_Candidate caches within this trx
+			createStockRecord(null, BEFORE_NOW, "20");
+			assertThat(retrieveQtys(BPartnerClassifier.any(), NOW)).containsExactly(new BigDecimal("20"));
+
+			// other threads are still served from the index, which didn't pick up the uncommitted record
+			trxManager.runOutOfTransaction(localTrxName -> {
+				assertThat(retrieveQtys(BPartnerClassifier.any(), NOW)).containsExactly(new BigDecimal("10"));
+			});
+		});
+	}
+
+	private Set<BigDecimal> retrieveQtys(final BPartnerClassifier bpartner, final Instant date)
+	{
+		final AvailableToPromiseQuery query = AvailableToPromiseQuery.builder()
+				.productId(PRODUCT_ID)
+				.warehouseId(WAREHOUSE_ID)
+				.storageAttributesKeyPattern(AttributesKeyPatterns.ofAttributeKey(STORAGE_ATTRIBUTES_KEY))
+				.bpartner(bpartner)
+				.date(TimeUtil.asZonedDateTime(date))
+				.build();
+
+		return index.retrieveRequests(AvailableToPromiseMultiQuery.of(query))
+				.stream()
+				.map(AddToResultGroupRequest::getQty)
+				.collect(ImmutableSet.toImmutableSet());
+	}
+
+	private void createStockRecord(final BPartnerId bpartnerId, final Instant dateProjected, final String qty)
+	{
+		final I_MD_Candidate candidateRecord = newInstance(I_MD_Candidate.class);
+		candidateRecord.setIsActive(true);
+		candidateRecord.setMD_Candidate_Type(X_MD_Candidate.MD_CANDIDATE_TYPE_STOCK);
+		candidateRecord.setM_Product_ID(PRODUCT_ID);
+		candidateRecord.setM_Warehouse_ID(WAREHOUSE_ID.getRepoId());
+		candidateRecord.setC_BPartner_Customer_ID(BPartnerId.toRepoId(bpartnerId));
+		candidateRecord.setStorageAttributesKey(STORAGE_ATTRIBUTES_KEY.getAsString());
+		candidateRecord.setDateProjected(TimeUtil.asTimestamp(dateProjected));
+		candidateRecord.setSeqNo(seqNoCounter++);
+		candidateRecord.setQty(new BigDecimal(qty));
+		save(candidateRecord);
+	}
+}
@@ -9,10 +9,14 @@ import static de.metas.material.event.EventTestHelper.createProductDescriptor;
 import static org.assertj.core.api.Assertions.assertThat;
 
 import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
 import java.util.List;
 import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 
+import org.adempiere.ad.trx.api.ITrxManager;
+import org.adempiere.service.ISysConfigBL;
 import org.adempiere.test.AdempiereTestHelper;
 import org.adempiere.test.AdempiereTestWatcher;
 import org.junit.jupiter.api.BeforeEach;
@@ -38,6 +42,7 @@ import de.metas.material.event.commons.MaterialDescriptor;
 import de.metas.material.event.commons.SupplyRequiredDescriptor;
 import de.metas.material.event.supplyrequired.SupplyRequiredEvent;
 import de.metas.organization.ClientAndOrgId;
+import de.metas.util.Services;
 import de.metas.util.time.SystemTime;
 import lombok.NonNull;
 
@@ -139,6 +144,49 @@ public class DemandCandiateHandlerTest
 		assertThat(stockRecord.getSeqNo()).isEqualTo(demandRecord.getSeqNo());
 	}
 
+	/**
+	 * With the in-memory ATP index, the handler's ATP query runs in the same trx which just wrote the stock candidate.
+	 * The index was loaded before, so it must not be used for that query.
+	 */
+	@Test
+	public void onCandidateNewOrChange_no_stock_with_inMemoryATPIndex()
+	{
+		Services.get(ISysConfigBL.class).setValue("de.metas.material.dispo.commons.repository.atp.AvailableToPromiseIndex.Enabled", true, 0);
+		final AvailableToPromiseRepository indexedRepository = new AvailableToPromiseRepository();
+		assertThat(indexedRepository.isInMemoryIndexEnabled()).isTrue(); // guard
+
+		final CandidateRepositoryWriteService candidateRepositoryWriteService = new CandidateRepositoryWriteService();
+		final CandidateRepositoryRetrieval candidateRepositoryRetrieval = new CandidateRepositoryRetrieval();
+		final DemandCandiateHandler handler = new DemandCandiateHandler(
+				candidateRepositoryRetrieval,
+				candidateRepositoryWriteService,
+				postMaterialEventService,
+				indexedRepository,
+				new StockCandidateService(candidateRepositoryRetrieval, candidateRepositoryWriteService));
+
+		// the index works with seconds precision, like the DB function does
+		final Instant date = NOW.truncatedTo(ChronoUnit.SECONDS);
+		final Candidate candidate = Candidate.builder()
+				.type(CandidateType.DEMAND)
+				.clientAndOrgId(CLIENT_AND_ORG_ID)
+				.materialDescriptor(MaterialDescriptor.builder()
+						.productDescriptor(createProductDescriptor())
+						.warehouseId(WAREHOUSE_ID)
+						.quantity(new BigDecimal("23"))
+						.date(date)
+						.build())
+				.build();
+
+		// load the product's (empty) stock into the index
+		final AvailableToPromiseMultiQuery query = AvailableToPromiseMultiQuery.forDescriptorAndAllPossibleBPartnerIds(candidate.getMaterialDescriptor());
+		assertThat(indexedRepository.retrieveAvailableStockQtySum(query)).isEqualByComparingTo("0");
+
+		// material dispo event handlers run in their own trx
+		Services.get(ITrxManager.class).runInNewTrx(() -> handler.onCandidateNewOrChange(candidate));
+
+		assertDemandEventWasFiredWithQuantity("23");
+	}
+
 	private void setupRepositoryReturnsQuantityForMaterial(
 			@NonNull final String quantity,
 			@NonNull final MaterialDescriptor materialDescriptor)
@@ -1,9 +1,17 @@
 package de.metas.material.event.eventbus;
 
+import javax.annotation.Nullable;
+
+import org.adempiere.warehouse.WarehouseId;
 import org.springframework.stereotype.Service;
 
 import de.metas.event.Event;
 import de.metas.material.event.MaterialEvent;
+import de.metas.material.event.commons.MaterialDescriptor;
+import de.metas.material.event.receiptschedule.AbstractReceiptScheduleEvent;
+import de.metas.material.event.shipmentschedule.AbstractShipmentScheduleEvent;
+import de.metas.material.event.stock.StockChangedEvent;
+import de.metas.material.event.transactions.AbstractTransactionEvent;
 import de.metas.util.JSONObjectMapper;
 import lombok.NonNull;
 
@@ -63,7 +71,49 @@ public class MaterialEventConverter
 
 		return Event.builder()
 				.putProperty(PROPERTY_MATERIAL_EVENT, eventStr)
+				.setPartitionKey(extractPartitionKeyOrNull(materialEvent))
 				.shallBeLogged()
 				.build();
 	}
+
+	/**
+	 * @return product and warehouse of the given event, if it's about one product in one warehouse.
+	 *         Events with the same partition key are handled in order, events with different keys might be handled in parallel.
+	 */
+	@Nullable
+	private static String extractPartitionKeyOrNull(@NonNull final MaterialEvent materialEvent)
+	{
+		if (materialEvent instanceof StockChangedEvent)
+		{
+			final StockChangedEvent stockChangedEvent = (StockChangedEvent)materialEvent;
+			return createPartitionKey(stockChangedEvent.getProductDescriptor().getProductId(), stockChangedEvent.getWarehouseId());
+		}
+
+		final MaterialDescriptor materialDescriptor;
+		if (materialEvent instanceof AbstractTransactionEvent)
+		{
+			materialDescriptor = ((AbstractTransactionEvent)materialEvent).getMaterialDescriptor();
+		}
+		else if (materialEvent instanceof AbstractShipmentScheduleEvent)
+		{
+			materialDescriptor = ((AbstractShipmentScheduleEvent)materialEvent).getMaterialDescriptor();
+		}
+		else if (materialEvent instanceof AbstractReceiptScheduleEvent)
+		{
+			materialDescriptor = ((AbstractReceiptScheduleEvent)materialEvent).getMaterialDescriptor();
+		}
+		else
+		{
+			return null;
+		}
+
+		return materialDescriptor != null
+				? createPartitionKey(materialDescriptor.getProductId(), materialDescriptor.getWarehouseId())
+				: null;
+	}
+
+	private static String createPartitionKey(final int productId, @Nullable final WarehouseId warehouseId)
+	{
+		return productId + "_" + WarehouseId.toRepoId(warehouseId);
+	}
 }
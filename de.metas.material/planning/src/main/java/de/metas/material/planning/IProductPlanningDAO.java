@@ -1,5 +1,7 @@
 package de.metas.material.planning;
 
+import java.util.Collection;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 
@@ -62,6 +64,13 @@ public interface IProductPlanningDAO extends ISingletonService
 	 */
 	Optional<I_PP_Product_Planning> find(ProductPlanningQuery productPlanningQuery);
 
+	/**
+	 * Same as {@link #find(ProductPlanningQuery)} with no warehouse, no plant and no attributes, but for many products with one query.
+	 *
+	 * @return the best matching product planning of each product; products without product planning are not included
+	 */
+	Map<ProductId, I_PP_Product_Planning> findByProductIds(@Nullable OrgId orgId, Collection<ProductId> productIds);
+
 	/**
 	 * Search product plannings to find out which is the plant({@link I_S_Resource}) for given Org/Warehouse/Product.
 	 *
@@ -25,10 +25,17 @@ import static org.adempiere.model.InterfaceWrapperHelper.saveRecord;
  * #L%
  */
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 
+import javax.annotation.Nullable;
+
 import org.adempiere.ad.dao.ICompositeQueryFilter;
 import org.adempiere.ad.dao.IQueryBL;
 import org.adempiere.ad.dao.IQueryBuilder;
@@ -45,6 +52,7 @@ import org.eevolution.model.I_PP_Product_Planning;
 import org.eevolution.model.X_PP_Product_Planning;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 
 import de.metas.material.commons.attributes.AttributesKeyPatterns;
@@ -78,7 +86,7 @@ public class ProductPlanningDAO implements IProductPlanningDAO
 				productPlanningQuery.getOrgId(),
 				productPlanningQuery.getWarehouseId(),
 				productPlanningQuery.getPlantId(),
-				productPlanningQuery.getProductId(),
+				Collections.singletonList(productPlanningQuery.getProductId()),
 				productPlanningQuery.getAttributeSetInstanceId());
 
 		//
@@ -87,6 +95,40 @@ public class ProductPlanningDAO implements IProductPlanningDAO
 		return Optional.ofNullable(productPlanningData);
 	}
 
+	@Override
+	public Map<ProductId, I_PP_Product_Planning> findByProductIds(@Nullable final OrgId orgId, @NonNull final Collection<ProductId> productIds)
+	{
+		if (productIds.isEmpty())
+		{
+			return ImmutableMap.of();
+		}
+
+		final List<I_PP_Product_Planning> productPlannings = createQueryBuilder(
+				orgId,
+				(WarehouseId)null,
+				(ResourceId)null,
+				productIds,
+				AttributeSetInstanceId.NONE)
+						.create()
+						.list();
+
+		// the best match comes first; a product planning without product matches all products
+		final Map<ProductId, I_PP_Product_Planning> productPlanningsByProductId = new HashMap<>();
+		for (final I_PP_Product_Planning productPlanning : productPlannings)
+		{
+			final ProductId productId = ProductId.ofRepoIdOrNull(productPlanning.getM_Product_ID());
+			if (productId != null)
+			{
+				productPlanningsByProductId.putIfAbsent(productId, productPlanning);
+			}
+			else
+			{
+				productIds.forEach(id -> productPlanningsByProductId.putIfAbsent(id, productPlanning));
+			}
+		}
+		return productPlanningsByProductId;
+	}
+
 	@Override
 	public I_S_Resource findPlant(
 			final int orgRepoId,
@@ -116,7 +158,7 @@ public class ProductPlanningDAO implements IProductPlanningDAO
 					orgId,
 					warehouseId,
 					(ResourceId)null,  // any plant
-					productId,
+					Collections.singletonList(productId),
 					attributeSetInstanceId);
 
 			final List<ResourceId> plantIds = queryBuilder
@@ -147,7 +189,7 @@ public class ProductPlanningDAO implements IProductPlanningDAO
 			final OrgId orgId,
 			final WarehouseId warehouseId,
 			final ResourceId resourceId,
-			final ProductId productId,
+			final Collection<ProductId> productIds,
 			final AttributeSetInstanceId attributeSetInstanceId)
 	{
 		final IQueryBuilder<I_PP_Product_Planning> queryBuilder = queryBL
@@ -169,9 +211,10 @@ public class ProductPlanningDAO implements IProductPlanningDAO
 			queryBuilder.addInArrayFilter(I_PP_Product_Planning.COLUMNNAME_S_Resource_ID, resourceId, null);
 		}
 
-		// Filter by Product if provided
-
-		queryBuilder.addInArrayFilter(I_PP_Product_Planning.COLUMNNAME_M_Product_ID, productId, null);
+		// Filter by Product: given M_Product_IDs or 0/null
+		final List<ProductId> productIdsOrNull = new ArrayList<>(productIds);
+		productIdsOrNull.add(null);
+		queryBuilder.addInArrayFilter(I_PP_Product_Planning.COLUMNNAME_M_Product_ID, productIdsOrNull);
 
 		// Filter by ASI
 		final ICompositeQueryFilter<I_PP_Product_Planning> attributesFilter = createAttributesFilter(attributeSetInstanceId);
@@ -0,0 +1,125 @@
+package de.metas.payment.esr.api;
+
+import java.util.List;
+import java.util.Set;
+
+import javax.annotation.Nullable;
+
+import org.adempiere.exceptions.AdempiereException;
+import org.compiere.model.I_C_Invoice;
+
+import com.google.common.collect.ImmutableListMultimap;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+
+import de.metas.document.refid.model.I_C_ReferenceNo_Doc;
+import de.metas.organization.OrgId;
+import lombok.NonNull;
+import lombok.ToString;
+
+/*
+ * #%L
+ * de.metas.payment.esr
+ * %%
+ * Copyright (C) 2019 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Invoice reference number documents and their invoices, prefetched for many ESR reference numbers at once.
+ * Used to evaluate all lines of an {@code ESR_Import} without looking up the reference number and invoice of each line individually.
+ * <p>
+ * Reference numbers which were not prefetched (e.g. because their {@code C_ReferenceNo} was not unique) shall be looked up the usual way,
+ * see {@link IESRImportDAO#retrieveESRInvoiceReferenceNumberDocument(OrgId, String)}.
+ */
+@ToString(of = { "orgId", "prefetchedEsrReferenceNumbers" })
+public final class ESRInvoiceReferenceNumberDocuments
+{
+	public static ESRInvoiceReferenceNumberDocuments of(
+			@NonNull final OrgId orgId,
+			@NonNull final Set<String> prefetchedEsrReferenceNumbers,
+			@NonNull final ImmutableListMultimap<String, I_C_ReferenceNo_Doc> invoiceDocsByEsrReferenceNumber,
+			@NonNull final List<I_C_Invoice> invoices)
+	{
+		return new ESRInvoiceReferenceNumberDocuments(orgId, prefetchedEsrReferenceNumbers, invoiceDocsByEsrReferenceNumber, invoices);
+	}
+
+	public static ESRInvoiceReferenceNumberDocuments empty()
+	{
+		return EMPTY;
+	}
+
+	private static final ESRInvoiceReferenceNumberDocuments EMPTY = new ESRInvoiceReferenceNumberDocuments(null, ImmutableSet.of(), ImmutableListMultimap.of(), ImmutableSet.of());
+
+	private final OrgId orgId;
+	private final ImmutableSet<String> prefetchedEsrReferenceNumbers;
+	private final ImmutableListMultimap<String, I_C_ReferenceNo_Doc> invoiceDocsByEsrReferenceNumber;
+	private final ImmutableMap<Integer, I_C_Invoice> invoicesById;
+
+	private ESRInvoiceReferenceNumberDocuments(
+			@Nullable final OrgId orgId,
+			@NonNull final Set<String> prefetchedEsrReferenceNumbers,
+			@NonNull final ImmutableListMultimap<String, I_C_ReferenceNo_Doc> invoiceDocsByEsrReferenceNumber,
+			@NonNull final Iterable<I_C_Invoice> invoices)
+	{
+		this.orgId = orgId;
+		this.prefetchedEsrReferenceNumbers = ImmutableSet.copyOf(prefetchedEsrReferenceNumbers);
+		this.invoiceDocsByEsrReferenceNumber = invoiceDocsByEsrReferenceNumber;
+
+		final ImmutableMap.Builder<Integer, I_C_Invoice> invoicesById = ImmutableMap.builder();
+		for (final I_C_Invoice invoice : invoices)
+		{
+			invoicesById.put(invoice.getC_Invoice_ID(), invoice);
+		}
+		this.invoicesById = invoicesById.build();
+	}
+
+	public boolean isPrefetched(@NonNull final OrgId orgId, @NonNull final String esrReferenceNumber)
+	{
+		return orgId.equals(this.orgId) && prefetchedEsrReferenceNumbers.contains(esrReferenceNumber);
+	}
+
+	/**
+	 * Same semantics as {@link IESRImportDAO#retrieveESRInvoiceReferenceNumberDocument(OrgId, String)}, but without DB access.
+	 *
+	 * @param esrReferenceNumber a reference number for which {@link #isPrefetched(OrgId, String)} returned {@code true}
+	 */
+	@Nullable
+	public I_C_ReferenceNo_Doc getDocumentOrNull(@NonNull final String esrReferenceNumber)
+	{
+		final List<I_C_ReferenceNo_Doc> invoiceDocs = invoiceDocsByEsrReferenceNumber.get(esrReferenceNumber);
+		if (invoiceDocs.isEmpty())
+		{
+			return null;
+		}
+		else if (invoiceDocs.size() > 1)
+		{
+			throw new AdempiereException("More then one assigned invoice found for " + esrReferenceNumber + " (" + invoiceDocs.get(0).getC_ReferenceNo() + ")");
+		}
+
+		return invoiceDocs.get(0);
+	}
+
+	/**
+	 * @return the prefetched invoice or {@code null} if the invoice was not prefetched
+	 */
+	@Nullable
+	public I_C_Invoice getInvoiceOrNull(final int invoiceId)
+	{
+		return invoicesById.get(invoiceId);
+	}
+}
@@ -25,6 +25,7 @@ package de.metas.payment.esr.api;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Properties;
+import java.util.Set;
 
 import org.compiere.model.I_C_Invoice;
 import org.compiere.model.I_C_Payment;
@@ -80,6 +81,12 @@ public interface IESRImportDAO extends ISingletonService
 	 */
 	I_C_ReferenceNo_Doc retrieveESRInvoiceReferenceNumberDocument(OrgId orgId, String esrReferenceNumber);
 
+	/**
+	 * Bulk version of {@link #retrieveESRInvoiceReferenceNumberDocument(OrgId, String)} which also loads the referenced invoices.
+	 * Needs a few queries per chunk of reference numbers, instead of a few queries per reference number.
+	 */
+	ESRInvoiceReferenceNumberDocuments retrieveESRInvoiceReferenceNumberDocuments(OrgId orgId, Set<String> esrReferenceNumbers);
+
 	/**
 	 * Retrieve the existing esr imports of the organization given as parameter (through ID)
 	 *
@@ -26,8 +26,13 @@ import static org.adempiere.model.InterfaceWrapperHelper.getTableId;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
+import org.adempiere.ad.dao.ICompositeQueryFilter;
 import org.adempiere.ad.dao.IQueryBL;
 import org.adempiere.ad.dao.impl.CompareQueryFilter.Operator;
 import org.adempiere.exceptions.AdempiereException;
@@ -38,6 +43,12 @@ import org.adempiere.util.comparator.ComparatorChain;
 import org.compiere.model.I_C_Invoice;
 import org.compiere.model.I_C_Payment;
 
+import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.ImmutableListMultimap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Iterables;
+import com.google.common.collect.ListMultimap;
+
 import de.metas.banking.model.I_C_BankStatementLine;
 import de.metas.banking.model.I_C_BankStatementLine_Ref;
 import de.metas.document.refid.api.IReferenceNoDAO;
@@ -46,6 +57,7 @@ import de.metas.document.refid.model.I_C_ReferenceNo_Doc;
 import de.metas.document.refid.model.I_C_ReferenceNo_Type;
 import de.metas.organization.OrgId;
 import de.metas.payment.esr.ESRConstants;
+import de.metas.payment.esr.api.ESRInvoiceReferenceNumberDocuments;
 import de.metas.payment.esr.api.IESRImportDAO;
 import de.metas.payment.esr.model.I_ESR_Import;
 import de.metas.payment.esr.model.I_ESR_ImportLine;
@@ -57,6 +69,12 @@ import lombok.NonNull;
 
 public abstract class AbstractESRImportDAO implements IESRImportDAO
 {
+	/** Max number of reference numbers resp. IDs per query when prefetching. */
+	private static final int PREFETCH_CHUNK_SIZE = 500;
+
+	/** Length of the ESR reference numbers we match, i.e. without the bank account no and the check digit. */
+	private static final int ESR_REFERENCE_NUMBER_LENGTH = 19;
+
 	/**
 	 * Used to order lines by <code>LineNo, ESR_ImportLine_ID</code>.
 	 */
@@ -166,6 +184,94 @@ public abstract class AbstractESRImportDAO implements IESRImportDAO
 		return invoiceDocs.get(0);
 	}
 
+	@Override
+	public ESRInvoiceReferenceNumberDocuments retrieveESRInvoiceReferenceNumberDocuments(
+			@NonNull final OrgId orgId,
+			@NonNull final Set<String> esrReferenceNumbers)
+	{
+		final IQueryBL queryBL = Services.get(IQueryBL.class);
+		final I_C_ReferenceNo_Type refNoType = Services.get(IReferenceNoDAO.class).retrieveRefNoTypeByName(ESRConstants.DOCUMENT_REFID_ReferenceNo_Type_InvoiceReferenceNumber);
+
+		//
+		// Load the C_ReferenceNos; same matching as in fetchESRInvoiceReferenceNumber, but with many LIKE filters per query
+		final ListMultimap<String, I_C_ReferenceNo> referenceNosByEsrReferenceNumber = ArrayListMultimap.create();
+		for (final List<String> esrReferenceNumbersChunk : Iterables.partition(esrReferenceNumbers, PREFETCH_CHUNK_SIZE))
+		{
+			final ICompositeQueryFilter<I_C_ReferenceNo> referenceNoFilter = queryBL.createCompositeQueryFilter(I_C_ReferenceNo.class)
+					.setJoinOr();
+			for (final String esrReferenceNumber : esrReferenceNumbersChunk)
+			{
+				referenceNoFilter.addCompareFilter(I_C_ReferenceNo.COLUMNNAME_ReferenceNo, Operator.STRING_LIKE, "%" + esrReferenceNumber + "_");
+			}
+
+			final List<I_C_ReferenceNo> referenceNos = queryBL
+					.createQueryBuilder(I_C_ReferenceNo.class)
+					.addOnlyActiveRecordsFilter()
+					.filter(referenceNoFilter)
+					.addEqualsFilter(I_C_ReferenceNo.COLUMNNAME_C_ReferenceNo_Type_ID, refNoType.getC_ReferenceNo_Type_ID())
+					.addInArrayFilter(I_C_ReferenceNo_Type.COLUMNNAME_AD_Org_ID, orgId, OrgId.ANY)
+					.create()
+					.setRequiredAccess(Access.READ)
+					.list(I_C_ReferenceNo.class);
+			for (final I_C_ReferenceNo referenceNo : referenceNos)
+			{
+				final String referenceNoStr = referenceNo.getReferenceNo();
+				if (referenceNoStr.length() < ESR_REFERENCE_NUMBER_LENGTH + 1)
+				{
+					continue;
+				}
+				final String esrReferenceNumber = referenceNoStr.substring(referenceNoStr.length() - ESR_REFERENCE_NUMBER_LENGTH - 1, referenceNoStr.length() - 1);
+				referenceNosByEsrReferenceNumber.put(esrReferenceNumber, referenceNo);
+			}
+		}
+
+		//
+		// Only reference numbers with at most one C_ReferenceNo are prefetched.
+		// For the others, the caller shall fall back to retrieveESRInvoiceReferenceNumberDocument, which will fail the same way as before.
+		final Set<String> prefetchedEsrReferenceNumbers = esrReferenceNumbers
+				.stream()
+				.filter(esrReferenceNumber -> referenceNosByEsrReferenceNumber.get(esrReferenceNumber).size() <= 1)
+				.collect(ImmutableSet.toImmutableSet());
+
+		final Map<Integer, String> esrReferenceNumbersByReferenceNoId = new HashMap<>();
+		for (final String esrReferenceNumber : prefetchedEsrReferenceNumbers)
+		{
+			for (final I_C_ReferenceNo referenceNo : referenceNosByEsrReferenceNumber.get(esrReferenceNumber))
+			{
+				esrReferenceNumbersByReferenceNoId.put(referenceNo.getC_ReferenceNo_ID(), esrReferenceNumber);
+			}
+		}
+
+		//
+		// Load the invoice C_ReferenceNo_Docs
+		final int invoiceTableID = getTableId(I_C_Invoice.class);
+		final ImmutableListMultimap.Builder<String, I_C_ReferenceNo_Doc> invoiceDocsByEsrReferenceNumber = ImmutableListMultimap.builder();
+		final Set<Integer> invoiceIds = new HashSet<>();
+		for (final List<Integer> referenceNoIdsChunk : Iterables.partition(esrReferenceNumbersByReferenceNoId.keySet(), PREFETCH_CHUNK_SIZE))
+		{
+			final List<I_C_ReferenceNo_Doc> docs = queryBL
+					.createQueryBuilder(I_C_ReferenceNo_Doc.class)
+					.addOnlyActiveRecordsFilter()
+					.addInArrayFilter(I_C_ReferenceNo_Doc.COLUMNNAME_C_ReferenceNo_ID, referenceNoIdsChunk)
+					.addEqualsFilter(I_C_ReferenceNo_Doc.COLUMNNAME_AD_Table_ID, invoiceTableID)
+					.orderBy(I_C_ReferenceNo_Doc.COLUMNNAME_C_ReferenceNo_Doc_ID)
+					.create()
+					.setRequiredAccess(Access.READ)
+					.list();
+			for (final I_C_ReferenceNo_Doc doc : docs)
+			{
+				invoiceDocsByEsrReferenceNumber.put(esrReferenceNumbersByReferenceNoId.get(doc.getC_ReferenceNo_ID()), doc);
+				invoiceIds.add(doc.getRecord_ID());
+			}
+		}
+
+		//
+		// Load the invoices
+		final List<I_C_Invoice> invoices = InterfaceWrapperHelper.loadByIdsOutOfTrx(invoiceIds, I_C_Invoice.class);
+
+		return ESRInvoiceReferenceNumberDocuments.of(orgId, prefetchedEsrReferenceNumbers, invoiceDocsByEsrReferenceNumber.build(), invoices);
+	}
+
 	private I_C_ReferenceNo fetchESRInvoiceReferenceNumber(@NonNull final String esrReferenceNumber, @NonNull final OrgId orgId)
 	{
 		final IReferenceNoDAO refNoDAO = Services.get(IReferenceNoDAO.class);
@@ -49,6 +49,7 @@ import org.slf4j.Logger;
 import org.springframework.stereotype.Service;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableSet;
 
 import de.metas.allocation.api.IAllocationBL;
 import de.metas.allocation.api.IAllocationDAO;
@@ -69,6 +70,7 @@ import de.metas.payment.TenderType;
 import de.metas.payment.api.IPaymentBL;
 import de.metas.payment.esr.ESRConstants;
 import de.metas.payment.esr.actionhandler.IESRActionHandler;
+import de.metas.payment.esr.api.ESRInvoiceReferenceNumberDocuments;
 import de.metas.payment.esr.api.IESRImportBL;
 import de.metas.payment.esr.api.IESRImportDAO;
 import de.metas.payment.esr.dataimporter.ESRDataLoaderFactory;
@@ -169,11 +171,20 @@ public class ESRImportBL implements IESRImportBL
 			@NonNull final I_ESR_Import esrImport,
 			@NonNull final InputStream in)
 	{
-		int countLines = 0;
+		// if there are already lines before starting reading the file, means that we already tried to import once
+		final Set<String> existingLineTexts;
 		final ISysConfigBL sysConfigBL = Services.get(ISysConfigBL.class);
 		if (sysConfigBL.getBooleanValue(ESRConstants.SYSCONFIG_CHECK_DUPLICATED, false))
 		{
-			countLines = Services.get(IESRImportDAO.class).countLines(esrImport, null);
+			existingLineTexts = Services.get(IESRImportDAO.class).retrieveLines(esrImport)
+					.stream()
+					.map(I_ESR_ImportLine::getESRLineText)
+					.filter(Objects::nonNull)
+					.collect(ImmutableSet.toImmutableSet());
+		}
+		else
+		{
+			existingLineTexts = ImmutableSet.of();
 		}
 
 		final IESRDataImporter loader = ESRDataLoaderFactory.createImporter(esrImport, in);
@@ -206,15 +217,9 @@ public class ESRImportBL implements IESRImportBL
 
 			//
 			// create line only if does not exist
-			I_ESR_ImportLine existentLine = null;
-			// if there are already lines before starting reading the file, means that we already tried to import once
-			if (countLines > 0)
+			if (existingLineTexts.contains(esrTransaction.getTransactionKey()))
 			{
-				existentLine = Services.get(IESRImportDAO.class).fetchLineForESRLineText(esrImport, esrTransaction.getTransactionKey());
-				if (existentLine != null)
-				{
-					continue;
-				}
+				continue;
 			}
 
 			createEsrImportLine(esrImport, lineNo, esrTransaction);
@@ -254,11 +259,14 @@ public class ESRImportBL implements IESRImportBL
 		final IESRImportDAO esrImportDAO = Services.get(IESRImportDAO.class);
 		final List<I_ESR_ImportLine> esrImportLines = esrImportDAO.retrieveLines(esrImport);
 
+		// fetch the referenced documents and invoices of all lines at once, instead of line by line
+		final ESRInvoiceReferenceNumberDocuments prefetchedDocuments = prefetchReferenceNumberDocuments(esrImport, esrImportLines);
+
 		for (final I_ESR_ImportLine importLine : esrImportLines)
 		{
 			//
 			// now do different validations with the values loaded from the input file
-			evaluateLine(esrImport, importLine);
+			evaluateLine(esrImport, importLine, prefetchedDocuments);
 
 			importAmt = importAmt.add(importLine.getAmount());
 			trxQty++;
@@ -309,8 +317,34 @@ public class ESRImportBL implements IESRImportBL
 		return fitTrxQtys;
 	}
 
+	private ESRInvoiceReferenceNumberDocuments prefetchReferenceNumberDocuments(
+			@NonNull final I_ESR_Import esrImport,
+			@NonNull final List<I_ESR_ImportLine> esrImportLines)
+	{
+		final Set<String> esrReferenceNumbers = esrImportLines.stream()
+				.map(I_ESR_ImportLine::getESRFullReferenceNumber)
+				.map(ESRDataLoaderUtil::extractEsrReferenceNumberToMatch)
+				.filter(Objects::nonNull)
+				.collect(ImmutableSet.toImmutableSet());
+		if (esrReferenceNumbers.isEmpty())
+		{
+			return ESRInvoiceReferenceNumberDocuments.empty();
+		}
+
+		final OrgId orgId = OrgId.ofRepoIdOrAny(esrImport.getAD_Org_ID());
+		return Services.get(IESRImportDAO.class).retrieveESRInvoiceReferenceNumberDocuments(orgId, esrReferenceNumbers);
+	}
+
 	@VisibleForTesting
 	public void evaluateLine(@NonNull final I_ESR_Import esrImport, @NonNull final I_ESR_ImportLine importLine)
+	{
+		evaluateLine(esrImport, importLine, ESRInvoiceReferenceNumberDocuments.empty());
+	}
+
+	private void evaluateLine(
+			@NonNull final I_ESR_Import esrImport,
+			@NonNull final I_ESR_ImportLine importLine,
+			@NonNull final ESRInvoiceReferenceNumberDocuments prefetchedDocuments)
 	{
 		if (isReverseBookingLine(importLine))
 		{
@@ -328,7 +362,7 @@ public class ESRImportBL implements IESRImportBL
 		}
 
 		// The reference number of the ESR Import line
-		ESRDataLoaderUtil.evaluateEsrReferenceNumber(importLine);
+		ESRDataLoaderUtil.evaluateEsrReferenceNumber(importLine, prefetchedDocuments);
 
 		// task 05917: check if the the payment date from the ESR file is OK for us
 		try
@@ -4,8 +4,11 @@ import static org.adempiere.model.InterfaceWrapperHelper.create;
 
 import java.util.List;
 
+import javax.annotation.Nullable;
+
 import org.adempiere.ad.table.api.IADTableDAO;
 import org.adempiere.ad.trx.api.ITrx;
+import org.adempiere.exceptions.AdempiereException;
 import org.adempiere.invoice.service.IInvoiceDAO;
 import org.adempiere.model.InterfaceWrapperHelper;
 import org.compiere.model.I_AD_Org;
@@ -20,6 +23,7 @@ import de.metas.document.sequence.IDocumentNoBuilderFactory;
 import de.metas.i18n.IMsgBL;
 import de.metas.organization.IOrgDAO;
 import de.metas.organization.OrgId;
+import de.metas.payment.esr.api.ESRInvoiceReferenceNumberDocuments;
 import de.metas.payment.esr.api.IESRBPBankAccountDAO;
 import de.metas.payment.esr.api.IESRImportBL;
 import de.metas.payment.esr.api.IESRImportDAO;
@@ -103,6 +107,32 @@ public class ESRDataLoaderUtil
 	 * @param completeEsrReferenceNumberStr
 	 */
 	public void evaluateEsrReferenceNumber(@NonNull final I_ESR_ImportLine importLine)
+	{
+		evaluateEsrReferenceNumber(importLine, ESRInvoiceReferenceNumberDocuments.empty());
+	}
+
+	/**
+	 * When matching, we ignore the first 7 digits (the bank account no), and the last digit (check digit).
+	 *
+	 * @return the part of the given complete ESR reference number which is matched against the {@code C_ReferenceNo}s,
+	 *         or {@code null} if the given string is {@code null} or too short
+	 */
+	@Nullable
+	public String extractEsrReferenceNumberToMatch(@Nullable final String completeEsrReferenceNumberStr)
+	{
+		if (completeEsrReferenceNumberStr == null || completeEsrReferenceNumberStr.length() < 26)
+		{
+			return null;
+		}
+		return completeEsrReferenceNumberStr.substring(7, 26);
+	}
+
+	/**
+	 * Same as {@link #evaluateEsrReferenceNumber(I_ESR_ImportLine)}, but takes the reference number document and invoice from the given {@code prefetchedDocuments}, if they are contained there.
+	 */
+	public void evaluateEsrReferenceNumber(
+			@NonNull final I_ESR_ImportLine importLine,
+			@NonNull final ESRInvoiceReferenceNumberDocuments prefetchedDocuments)
 	{
 		final String completeEsrReferenceNumberStr = importLine.getESRFullReferenceNumber();
 		if (Check.isEmpty(completeEsrReferenceNumberStr, true))
@@ -110,14 +140,24 @@ public class ESRDataLoaderUtil
 			return; // there is nothing to do. Note that we don't log an error because if this string is empty, something already failed and was logged before.
 		}
 
-		// When matching, we will ignore the first 7 digits (the bank account no), and the last digit (check digit)
-		final String esrReferenceNumberToMatch = completeEsrReferenceNumberStr.substring(7, 26);
+		final String esrReferenceNumberToMatch = extractEsrReferenceNumberToMatch(completeEsrReferenceNumberStr);
+		if (esrReferenceNumberToMatch == null)
+		{
+			throw new AdempiereException("ESR reference number is too short: " + completeEsrReferenceNumberStr);
+		}
 
 		importLine.setESRReferenceNumber(esrReferenceNumberToMatch);
 
-		final IESRImportDAO esrImportDAO = Services.get(IESRImportDAO.class);
-		final I_C_ReferenceNo_Doc esrReferenceNumberDocument = esrImportDAO
-				.retrieveESRInvoiceReferenceNumberDocument(OrgId.ofRepoIdOrAny(importLine.getAD_Org_ID()), esrReferenceNumberToMatch);
+		final OrgId orgId = OrgId.ofRepoIdOrAny(importLine.getAD_Org_ID());
+		final I_C_ReferenceNo_Doc esrReferenceNumberDocument;
+		if (prefetchedDocuments.isPrefetched(orgId, esrReferenceNumberToMatch))
+		{
+			esrReferenceNumberDocument = prefetchedDocuments.getDocumentOrNull(esrReferenceNumberToMatch);
+		}
+		else
+		{
+			esrReferenceNumberDocument = Services.get(IESRImportDAO.class).retrieveESRInvoiceReferenceNumberDocument(orgId, esrReferenceNumberToMatch);
+		}
 
 		if (esrReferenceNumberDocument == null)
 		{
@@ -139,7 +179,10 @@ public class ESRDataLoaderUtil
 				importLine.setC_ReferenceNo(esrReferenceNumberDocument.getC_ReferenceNo());
 
 				final int invoiceID = esrReferenceNumberDocument.getRecord_ID();
-				final I_C_Invoice invoice = InterfaceWrapperHelper.create(Env.getCtx(), invoiceID, I_C_Invoice.class, ITrx.TRXNAME_None);
+				final I_C_Invoice prefetchedInvoice = prefetchedDocuments.getInvoiceOrNull(invoiceID);
+				final I_C_Invoice invoice = prefetchedInvoice != null
+						? prefetchedInvoice
+						: InterfaceWrapperHelper.create(Env.getCtx(), invoiceID, I_C_Invoice.class, ITrx.TRXNAME_None);
 
 				final boolean match = Services.get(IESRLineHandlersService.class)
 						.applyESRMatchingBPartnerOfTheInvoice(invoice, importLine);
@@ -21,8 +21,6 @@ import com.google.common.base.Objects;
 
 import ch.qos.logback.classic.Level;
 import de.metas.logging.LogManager;
-import de.metas.payment.camt054_001_02.BankToCustomerDebitCreditNotificationV02;
-import de.metas.payment.camt054_001_06.BankToCustomerDebitCreditNotificationV06;
 import de.metas.payment.esr.dataimporter.ESRStatement;
 import de.metas.payment.esr.dataimporter.IESRDataImporter;
 import de.metas.payment.esr.model.I_ESR_Import;
@@ -81,6 +79,10 @@ public class ESRDataImporterCamt54 implements IESRDataImporter
 
 	protected static final String MSG_BANK_ACCOUNT_MISMATCH_2P = "ESR_CAMT54_BankAccountMismatch";
 
+	static final String ELEMENT_GrpHdr = "GrpHdr";
+
+	static final String ELEMENT_Ntry = "Ntry";
+
 	private static final transient Logger logger = LogManager.getLogger(ESRDataImporterCamt54.class);
 
 	private final I_ESR_Import header;
@@ -170,30 +172,26 @@ public class ESRDataImporterCamt54 implements IESRDataImporter
 	private ESRStatement importCamt54v02(final MultiVersionStreamReaderDelegate mxsr)
 	{
 		final ESRDataImporterCamt54v02 importerV02 = new ESRDataImporterCamt54v02(header, mxsr);
-		final BankToCustomerDebitCreditNotificationV02 bkToCstmrDbtCdtNtfctn = importerV02.loadXML();
-		if (bkToCstmrDbtCdtNtfctn.getGrpHdr() != null && bkToCstmrDbtCdtNtfctn.getGrpHdr().getAddtlInf() != null)
-		{
-			Loggables.withLogger(logger, Level.INFO).addLog("The given input is a test file: bkToCstmrDbtCdtNtfctn/grpHdr/addtlInf={}", bkToCstmrDbtCdtNtfctn.getGrpHdr().getAddtlInf());
-		}
-
 		try (final IAutoCloseable switchContext = Env.switchContext(InterfaceWrapperHelper.getCtx(header, true)))
 		{
-			return importerV02.createESRStatement(bkToCstmrDbtCdtNtfctn);
+			return importerV02.importStatement();
 		}
 	}
 
 	private ESRStatement importCamt54v06(final MultiVersionStreamReaderDelegate mxsr)
 	{
 		final ESRDataImporterCamt54v06 importerV06 = new ESRDataImporterCamt54v06(header, mxsr);
-		final BankToCustomerDebitCreditNotificationV06 bkToCstmrDbtCdtNtfctn = importerV06.loadXML();
-		if (bkToCstmrDbtCdtNtfctn.getGrpHdr() != null && bkToCstmrDbtCdtNtfctn.getGrpHdr().getAddtlInf() != null)
+		try (final IAutoCloseable switchContext = Env.switchContext(InterfaceWrapperHelper.getCtx(header, true)))
 		{
-			Loggables.withLogger(logger, Level.INFO).addLog("The given input is a test file: bkToCstmrDbtCdtNtfctn/grpHdr/addtlInf={}", bkToCstmrDbtCdtNtfctn.getGrpHdr().getAddtlInf());
+			return importerV06.importStatement();
 		}
+	}
 
-		try (final IAutoCloseable switchContext = Env.switchContext(InterfaceWrapperHelper.getCtx(header, true)))
+	static void logIfTestFile(@Nullable final String grpHdrAddtlInf)
+	{
+		if (grpHdrAddtlInf != null)
 		{
-			return importerV06.createESRStatement(bkToCstmrDbtCdtNtfctn);
+			Loggables.withLogger(logger, Level.INFO).addLog("The given input is a test file: bkToCstmrDbtCdtNtfctn/grpHdr/addtlInf={}", grpHdrAddtlInf);
 		}
 	}
 
@@ -10,9 +10,9 @@ import java.util.List;
 import javax.annotation.Nullable;
 import javax.xml.bind.JAXB;
 import javax.xml.bind.JAXBContext;
-import javax.xml.bind.JAXBElement;
 import javax.xml.bind.JAXBException;
 import javax.xml.bind.Unmarshaller;
+import javax.xml.stream.XMLStreamException;
 
 import org.adempiere.exceptions.AdempiereException;
 import org.compiere.util.Env;
@@ -22,16 +22,14 @@ import com.google.common.annotations.VisibleForTesting;
 import de.metas.currency.ICurrencyDAO;
 import de.metas.i18n.IMsgBL;
 import de.metas.money.CurrencyId;
-import de.metas.payment.camt054_001_02.AccountNotification2;
 import de.metas.payment.camt054_001_02.ActiveOrHistoricCurrencyAndAmount;
 import de.metas.payment.camt054_001_02.AmountAndCurrencyExchange3;
 import de.metas.payment.camt054_001_02.AmountAndCurrencyExchangeDetails3;
-import de.metas.payment.camt054_001_02.BankToCustomerDebitCreditNotificationV02;
 import de.metas.payment.camt054_001_02.CreditDebitCode;
 import de.metas.payment.camt054_001_02.DateAndDateTimeChoice;
-import de.metas.payment.camt054_001_02.Document;
 import de.metas.payment.camt054_001_02.EntryDetails1;
 import de.metas.payment.camt054_001_02.EntryTransaction2;
+import de.metas.payment.camt054_001_02.GroupHeader42;
 import de.metas.payment.camt054_001_02.ObjectFactory;
 import de.metas.payment.camt054_001_02.ReportEntry2;
 import de.metas.payment.esr.ESRConstants;
@@ -73,7 +71,7 @@ import lombok.NonNull;
  * Lots of methods are duplicated from <code>ESRDataImporterCamt54v06</code>
  * Important logical differences are in methods:
  * <ul>
- * <li><code>de.metas.payment.esr.dataimporter.impl.camt54.ESRDataImporterCamt54v02.loadXML()/code>
+ * <li><code>de.metas.payment.esr.dataimporter.impl.camt54.ESRDataImporterCamt54v02.createJAXBContext()</code>
  * <li><code>de.metas.payment.esr.dataimporter.impl.camt54.ESRDataImporterCamt54v02.verifyTransactionCurrency(EntryTransaction8, ESRTransactionBuilder)/code>
  * <li><code>de.metas.payment.esr.dataimporter.impl.camt54.ESRDataImporterCamt54v02.extractAmountAndType(ReportEntry8, EntryTransaction8, ESRTransactionBuilder)</code>
  * </ul>	
@@ -95,6 +93,12 @@ import lombok.NonNull;
 public class ESRDataImporterCamt54v02 
 {
 
+	/**
+	 * {@link JAXBContext}s are thread-safe and expensive to create, so we create it only once.
+	 * Note that the {@link Unmarshaller}s created from it are not thread-safe.
+	 */
+	private static final JAXBContext JAXB_CONTEXT = createJAXBContext();
+
 	private final I_ESR_Import header;
 	private final MultiVersionStreamReaderDelegate xsr;
 
@@ -115,11 +119,13 @@ public class ESRDataImporterCamt54v02
 	}
 
 	/**
-	 * create ESRStatement using <code>BankToCustomerDebitCreditNotificationV02</code>
-	 * @param bkToCstmrDbtCdtNtfctn
+	 * create ESRStatement using <code>BankToCustomerDebitCreditNotificationV02</code>.
+	 * <p>
+	 * The XML is streamed and only one <code>Ntry</code> element at a time is unmarshalled, so that big files don't need to be held in memory as a whole.
+	 *
 	 * @return
 	 */
-	public ESRStatement createESRStatement(@NonNull final BankToCustomerDebitCreditNotificationV02 bkToCstmrDbtCdtNtfctn)
+	public ESRStatement importStatement()
 	{
 		final ESRStatementBuilder stmtBuilder = ESRStatement.builder();
 
@@ -127,18 +133,42 @@ public class ESRDataImporterCamt54v02
 
 		BigDecimal ctrlQty = ESRDataImporterCamt54.CTRL_QTY_NOT_YET_SET;
 
-		for (final AccountNotification2 ntfctn : bkToCstmrDbtCdtNtfctn.getNtfctn())
+		try
 		{
-			for (final ReportEntry2 ntry : ntfctn.getNtry()) // gh #1947: there can be many ntry records
+			final Unmarshaller unmarshaller = JAXB_CONTEXT.createUnmarshaller();
+			while (xsr.hasNext())
 			{
-				final BigDecimal ntryAmt = ntry.getAmt().getValue()
-						.multiply(getCrdDbtMultiplier(ntry.getCdtDbtInd()))
-						.multiply(getRvslMultiplier(ntry));
-
-				ctrAmount = ctrAmount.add(ntryAmt);
-				ctrlQty = iterateEntryDetails(stmtBuilder, ctrlQty, ntry);
-			} // for ntry
-		} // ntfctn
+				if (!xsr.isStartElement())
+				{
+					xsr.next();
+				}
+				else if (ESRDataImporterCamt54.ELEMENT_GrpHdr.equals(xsr.getLocalName()))
+				{
+					// note that unmarshal(..) leaves the reader positioned after the element's end
+					final GroupHeader42 grpHdr = unmarshaller.unmarshal(xsr, GroupHeader42.class).getValue();
+					ESRDataImporterCamt54.logIfTestFile(grpHdr.getAddtlInf());
+				}
+				else if (ESRDataImporterCamt54.ELEMENT_Ntry.equals(xsr.getLocalName()))
+				{
+					// gh #1947: there can be many ntry records
+					final ReportEntry2 ntry = unmarshaller.unmarshal(xsr, ReportEntry2.class).getValue();
+					final BigDecimal ntryAmt = ntry.getAmt().getValue()
+							.multiply(getCrdDbtMultiplier(ntry.getCdtDbtInd()))
+							.multiply(getRvslMultiplier(ntry));
+
+					ctrAmount = ctrAmount.add(ntryAmt);
+					ctrlQty = iterateEntryDetails(stmtBuilder, ctrlQty, ntry);
+				}
+				else
+				{
+					xsr.next();
+				}
+			}
+		}
+		catch (final JAXBException | XMLStreamException e)
+		{
+			throw AdempiereException.wrapIfNeeded(e);
+		}
 
 		// only use the control qty if all ntry had one set. If one was null, then forward null
 		final BigDecimal ctrlQtyForStatement = ctrlQty.compareTo(ESRDataImporterCamt54.CTRL_QTY_AT_LEAST_ONE_NULL) == 0 ? null : ctrlQty;
@@ -343,31 +373,18 @@ public class ESRDataImporterCamt54v02
 		}
 	}
 
-	public BankToCustomerDebitCreditNotificationV02 loadXML()
+	private static JAXBContext createJAXBContext()
 	{
-		final Document document;
 		try
 		{
 			// https://stackoverflow.com/questions/20410202/jaxb-unmarshalling-not-working-expected-elements-are-none
 			// use ObjectFactory for creating the context because otherwise unmarshalling will not work
-			final JAXBContext context = JAXBContext.newInstance(ObjectFactory.class);
-			final Unmarshaller unmarshaller = context.createUnmarshaller();
-
-			
-			@SuppressWarnings("unchecked")
-			final JAXBElement<Document> e = (JAXBElement<Document>)unmarshaller.unmarshal(xsr);
-			document = e.getValue();
-			
+			return JAXBContext.newInstance(ObjectFactory.class);
 		}
 		catch (final JAXBException e)
 		{
 			throw AdempiereException.wrapIfNeeded(e);
 		}
-		
-		
-
-		final BankToCustomerDebitCreditNotificationV02 bkToCstmrDbtCdtNtfctn = document.getBkToCstmrDbtCdtNtfctn();
-		return bkToCstmrDbtCdtNtfctn;
 	}
 
 	/**
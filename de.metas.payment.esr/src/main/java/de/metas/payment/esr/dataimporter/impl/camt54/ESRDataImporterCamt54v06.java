@@ -10,9 +10,9 @@ import java.util.List;
 import javax.annotation.Nullable;
 import javax.xml.bind.JAXB;
 import javax.xml.bind.JAXBContext;
-import javax.xml.bind.JAXBElement;
 import javax.xml.bind.JAXBException;
 import javax.xml.bind.Unmarshaller;
+import javax.xml.stream.XMLStreamException;
 
 import org.adempiere.exceptions.AdempiereException;
 import org.compiere.util.Env;
@@ -22,14 +22,13 @@ import com.google.common.annotations.VisibleForTesting;
 import de.metas.currency.ICurrencyDAO;
 import de.metas.i18n.IMsgBL;
 import de.metas.money.CurrencyId;
-import de.metas.payment.camt054_001_06.AccountNotification12;
 import de.metas.payment.camt054_001_06.ActiveOrHistoricCurrencyAndAmount;
-import de.metas.payment.camt054_001_06.BankToCustomerDebitCreditNotificationV06;
 import de.metas.payment.camt054_001_06.CreditDebitCode;
 import de.metas.payment.camt054_001_06.DateAndDateTimeChoice;
 import de.metas.payment.camt054_001_06.Document;
 import de.metas.payment.camt054_001_06.EntryDetails7;
 import de.metas.payment.camt054_001_06.EntryTransaction8;
+import de.metas.payment.camt054_001_06.GroupHeader58;
 import de.metas.payment.camt054_001_06.ReportEntry8;
 import de.metas.payment.esr.ESRConstants;
 import de.metas.payment.esr.dataimporter.ESRStatement;
@@ -71,7 +70,7 @@ import lombok.NonNull;
  * Lots of methods are duplicated from <code>ESRDataImporterCamt54v02</code>
  * Important logical differences are in methods:
  * <ul>
- * <li><code>de.metas.payment.esr.dataimporter.impl.camt54.ESRDataImporterCamt54v06.loadXML()/code>
+ * <li><code>de.metas.payment.esr.dataimporter.impl.camt54.ESRDataImporterCamt54v06.createJAXBContext()</code>
  * <li><code>de.metas.payment.esr.dataimporter.impl.camt54.ESRDataImporterCamt54v06.verifyTransactionCurrency(EntryTransaction8, ESRTransactionBuilder)/code>
  * <li><code>de.metas.payment.esr.dataimporter.impl.camt54.ESRDataImporterCamt54v06.extractAmountAndType(ReportEntry8, EntryTransaction8, ESRTransactionBuilder)</code>
  * </ul>	
@@ -93,6 +92,12 @@ import lombok.NonNull;
 public class ESRDataImporterCamt54v06 
 {
 
+	/**
+	 * {@link JAXBContext}s are thread-safe and expensive to create, so we create it only once.
+	 * Note that the {@link Unmarshaller}s created from it are not thread-safe.
+	 */
+	private static final JAXBContext JAXB_CONTEXT = createJAXBContext();
+
 	private final I_ESR_Import header;
 	private final MultiVersionStreamReaderDelegate xsr;
 
@@ -114,11 +119,13 @@ public class ESRDataImporterCamt54v06
 
 	
 	/**
-	 * create ESRStatement using <code>BankToCustomerDebitCreditNotificationV06</code>
-	 * @param bkToCstmrDbtCdtNtfctn
+	 * create ESRStatement using <code>BankToCustomerDebitCreditNotificationV06</code>.
+	 * <p>
+	 * The XML is streamed and only one <code>Ntry</code> element at a time is unmarshalled, so that big files don't need to be held in memory as a whole.
+	 *
 	 * @return
 	 */
-	public ESRStatement createESRStatement(@NonNull final BankToCustomerDebitCreditNotificationV06 bkToCstmrDbtCdtNtfctn)
+	public ESRStatement importStatement()
 	{
 		final ESRStatementBuilder stmtBuilder = ESRStatement.builder();
 
@@ -126,18 +133,42 @@ public class ESRDataImporterCamt54v06
 
 		BigDecimal ctrlQty = ESRDataImporterCamt54.CTRL_QTY_NOT_YET_SET;
 
-		for (final AccountNotification12 ntfctn : bkToCstmrDbtCdtNtfctn.getNtfctn())
+		try
 		{
-			for (final ReportEntry8 ntry : ntfctn.getNtry()) // gh #1947: there can be many ntry records
+			final Unmarshaller unmarshaller = JAXB_CONTEXT.createUnmarshaller();
+			while (xsr.hasNext())
 			{
-				final BigDecimal ntryAmt = ntry.getAmt().getValue()
-						.multiply(getCrdDbtMultiplier(ntry.getCdtDbtInd()))
-						.multiply(getRvslMultiplier(ntry));
-
-				ctrAmount = ctrAmount.add(ntryAmt);
-				ctrlQty = iterateEntryDetails(stmtBuilder, ctrlQty, ntry);
-			} // for ntry
-		} // ntfctn
+				if (!xsr.isStartElement())
+				{
+					xsr.next();
+				}
+				else if (ESRDataImporterCamt54.ELEMENT_GrpHdr.equals(xsr.getLocalName()))
+				{
+					// note that unmarshal(..) leaves the reader positioned after the element's end
+					final GroupHeader58 grpHdr = unmarshaller.unmarshal(xsr, GroupHeader58.class).getValue();
+					ESRDataImporterCamt54.logIfTestFile(grpHdr.getAddtlInf());
+				}
+				else if (ESRDataImporterCamt54.ELEMENT_Ntry.equals(xsr.getLocalName()))
+				{
+					// gh #1947: there can be many ntry records
+					final ReportEntry8 ntry = unmarshaller.unmarshal(xsr, ReportEntry8.class).getValue();
+					final BigDecimal ntryAmt = ntry.getAmt().getValue()
+							.multiply(getCrdDbtMultiplier(ntry.getCdtDbtInd()))
+							.multiply(getRvslMultiplier(ntry));
+
+					ctrAmount = ctrAmount.add(ntryAmt);
+					ctrlQty = iterateEntryDetails(stmtBuilder, ctrlQty, ntry);
+				}
+				else
+				{
+					xsr.next();
+				}
+			}
+		}
+		catch (final JAXBException | XMLStreamException e)
+		{
+			throw AdempiereException.wrapIfNeeded(e);
+		}
 
 		// only use the control qty if all ntry had one set. If one was null, then forward null
 		final BigDecimal ctrlQtyForStatement = ctrlQty.compareTo(ESRDataImporterCamt54.CTRL_QTY_AT_LEAST_ONE_NULL) == 0 ? null : ctrlQty;
@@ -338,33 +369,18 @@ public class ESRDataImporterCamt54v06
 		}
 	}
 	
-	public BankToCustomerDebitCreditNotificationV06 loadXML()
+	private static JAXBContext createJAXBContext()
 	{
-		final Document document;
 		try
 		{
-			final JAXBContext context = JAXBContext.newInstance(Document.class);
-			final Unmarshaller unmarshaller = context.createUnmarshaller();
-
-			// https://github.com/metasfresh/metasfresh/issues/1903
-			// use a delegate to make sure that the unmarshaller won't refuse camt.054.001.02 , camt.054.001.04 and amt.054.001.05
-			@SuppressWarnings("unchecked")
-			final JAXBElement<Document> e = (JAXBElement<Document>)unmarshaller.unmarshal(xsr);
-			document = e.getValue();
-			
+			return JAXBContext.newInstance(Document.class);
 		}
-		catch (final JAXBException  e)
+		catch (final JAXBException e)
 		{
 			throw AdempiereException.wrapIfNeeded(e);
 		}
-		
-		
-
-		final BankToCustomerDebitCreditNotificationV06 bkToCstmrDbtCdtNtfctn = document.getBkToCstmrDbtCdtNtfctn();
-		return bkToCstmrDbtCdtNtfctn;
 	}
 
-
 	/**
 	 * Marshals the given {@code} into an XML string and return that as the "key".
 	 * mkTrxKey for version 6 <code>BankToCustomerDebitCreditNotificationV06</code>
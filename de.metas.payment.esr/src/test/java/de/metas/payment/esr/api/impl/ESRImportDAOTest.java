@@ -0,0 +1,151 @@
+package de.metas.payment.esr.api.impl;
+
+import static org.adempiere.model.InterfaceWrapperHelper.newInstance;
+import static org.adempiere.model.InterfaceWrapperHelper.save;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.adempiere.ad.table.api.IADTableDAO;
+import org.compiere.util.Env;
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableSet;
+
+import de.metas.adempiere.model.I_C_Invoice;
+import de.metas.document.refid.model.I_C_ReferenceNo;
+import de.metas.document.refid.model.I_C_ReferenceNo_Doc;
+import de.metas.document.refid.model.I_C_ReferenceNo_Type;
+import de.metas.organization.OrgId;
+import de.metas.payment.esr.ESRConstants;
+import de.metas.payment.esr.ESRTestBase;
+import de.metas.payment.esr.api.ESRInvoiceReferenceNumberDocuments;
+import de.metas.payment.esr.dataimporter.ESRDataLoaderUtil;
+import de.metas.util.Services;
+
+/*
+ * #%L
+ * de.metas.payment.esr
+ * %%
+ * Copyright (C) 2019 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class ESRImportDAOTest extends ESRTestBase
+{
+	private static final String ESR_REF1 = "1000000000000000001";
+	private static final String ESR_REF2 = "1000000000000000002";
+	private static final String ESR_REF_WITHOUT_DOCUMENT = "1000000000000000003";
+	private static final String ESR_REF_WITHOUT_REFERENCE_NO = "1000000000000000004";
+	private static final String ESR_REF_AMBIGUOUS = "1000000000000000005";
+
+	private I_C_ReferenceNo_Type refNoType;
+	private OrgId orgId;
+
+	@Override
+	public void init()
+	{
+		refNoType = newInstance(I_C_ReferenceNo_Type.class);
+		refNoType.setName(ESRConstants.DOCUMENT_REFID_ReferenceNo_Type_InvoiceReferenceNumber);
+		save(refNoType);
+
+		orgId = OrgId.ofRepoIdOrAny(Env.getAD_Org_ID(getCtx()));
+	}
+
+	/**
+	 * @param bankAccountNo the first 7 digits
+	 * @param esrReferenceNumber the 19 digits to match
+	 */
+	private I_C_ReferenceNo createReferenceNo(final String bankAccountNo, final String esrReferenceNumber)
+	{
+		final I_C_ReferenceNo referenceNo = newInstance(I_C_ReferenceNo.class);
+		referenceNo.setReferenceNo(bankAccountNo + esrReferenceNumber + "7"); // the last digit is the check digit
+		referenceNo.setC_ReferenceNo_Type(refNoType);
+		referenceNo.setIsManual(false);
+		save(referenceNo);
+		return referenceNo;
+	}
+
+	private I_C_Invoice createInvoiceDocument(final I_C_ReferenceNo referenceNo)
+	{
+		final I_C_Invoice invoice = newInstance(I_C_Invoice.class);
+		save(invoice);
+
+		final I_C_ReferenceNo_Doc referenceNoDoc = newInstance(I_C_ReferenceNo_Doc.class);
+		referenceNoDoc.setAD_Table_ID(Services.get(IADTableDAO.class).retrieveTableId(I_C_Invoice.Table_Name));
+		referenceNoDoc.setRecord_ID(invoice.getC_Invoice_ID());
+		referenceNoDoc.setC_ReferenceNo(referenceNo);
+		save(referenceNoDoc);
+
+		return invoice;
+	}
+
+	@Test
+	public void extractEsrReferenceNumberToMatch()
+	{
+		assertThat(ESRDataLoaderUtil.extractEsrReferenceNumberToMatch("0100000" + "1234567890123456789" + "7")).isEqualTo("1234567890123456789");
+		assertThat(ESRDataLoaderUtil.extractEsrReferenceNumberToMatch("0100000123")).isNull();
+		assertThat(ESRDataLoaderUtil.extractEsrReferenceNumberToMatch(null)).isNull();
+	}
+
+	@Test
+	public void retrieveESRInvoiceReferenceNumberDocuments()
+	{
+		final I_C_Invoice invoice1 = createInvoiceDocument(createReferenceNo("0100000", ESR_REF1));
+		final I_C_Invoice invoice2 = createInvoiceDocument(createReferenceNo("0100000", ESR_REF2));
+		createReferenceNo("0100000", ESR_REF_WITHOUT_DOCUMENT);
+		createInvoiceDocument(createReferenceNo("0100000", ESR_REF_AMBIGUOUS));
+		createInvoiceDocument(createReferenceNo("0200000", ESR_REF_AMBIGUOUS));
+
+		final ESRInvoiceReferenceNumberDocuments documents = dao.retrieveESRInvoiceReferenceNumberDocuments(
+				orgId,
+				ImmutableSet.of(ESR_REF1, ESR_REF2, ESR_REF_WITHOUT_DOCUMENT, ESR_REF_WITHOUT_REFERENCE_NO, ESR_REF_AMBIGUOUS));
+
+		// multiple references, each with its document and invoice
+		assertThat(documents.isPrefetched(orgId, ESR_REF1)).isTrue();
+		assertThat(documents.getDocumentOrNull(ESR_REF1).getRecord_ID()).isEqualTo(invoice1.getC_Invoice_ID());
+		assertThat(documents.getInvoiceOrNull(invoice1.getC_Invoice_ID())).isNotNull();
+
+		assertThat(documents.isPrefetched(orgId, ESR_REF2)).isTrue();
+		assertThat(documents.getDocumentOrNull(ESR_REF2).getRecord_ID()).isEqualTo(invoice2.getC_Invoice_ID());
+		assertThat(documents.getInvoiceOrNull(invoice2.getC_Invoice_ID())).isNotNull();
+
+		// missing references are prefetched as "no document", same as retrieveESRInvoiceReferenceNumberDocument returns null for them
+		assertThat(documents.isPrefetched(orgId, ESR_REF_WITHOUT_DOCUMENT)).isTrue();
+		assertThat(documents.getDocumentOrNull(ESR_REF_WITHOUT_DOCUMENT)).isNull();
+		assertThat(dao.retrieveESRInvoiceReferenceNumberDocument(orgId, ESR_REF_WITHOUT_DOCUMENT)).isNull();
+
+		assertThat(documents.isPrefetched(orgId, ESR_REF_WITHOUT_REFERENCE_NO)).isTrue();
+		assertThat(documents.getDocumentOrNull(ESR_REF_WITHOUT_REFERENCE_NO)).isNull();
+		assertThat(dao.retrieveESRInvoiceReferenceNumberDocument(orgId, ESR_REF_WITHOUT_REFERENCE_NO)).isNull();
+
+		// references with more than one C_ReferenceNo are left to retrieveESRInvoiceReferenceNumberDocument
+		assertThat(documents.isPrefetched(orgId, ESR_REF_AMBIGUOUS)).isFalse();
+
+		// references which were not asked for are not prefetched either
+		assertThat(documents.isPrefetched(orgId, "1000000000000000006")).isFalse();
+	}
+
+	@Test
+	public void retrieveESRInvoiceReferenceNumberDocuments_is_org_specific()
+	{
+		createInvoiceDocument(createReferenceNo("0100000", ESR_REF1));
+
+		final ESRInvoiceReferenceNumberDocuments documents = dao.retrieveESRInvoiceReferenceNumberDocuments(orgId, ImmutableSet.of(ESR_REF1));
+
+		assertThat(documents.isPrefetched(orgId, ESR_REF1)).isTrue();
+		assertThat(documents.isPrefetched(OrgId.ofRepoId(orgId.getRepoId() + 1), ESR_REF1)).isFalse();
+	}
+}
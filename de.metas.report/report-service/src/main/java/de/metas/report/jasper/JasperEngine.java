@@ -28,6 +28,10 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.ObjectOutputStream;
 import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLConnection;
 import java.sql.Connection;
 import java.util.HashMap;
 import java.util.List;
@@ -37,6 +41,8 @@ import java.util.Properties;
 import java.util.ResourceBundle;
 import java.util.Set;
 
+import javax.annotation.Nullable;
+
 import org.adempiere.exceptions.AdempiereException;
 import org.adempiere.service.ISysConfigBL;
 import org.compiere.SpringContextHolder;
@@ -48,8 +54,10 @@ import org.slf4j.Logger;
 
 import com.google.common.collect.ImmutableSet;
 
+import de.metas.cache.CCache;
 import de.metas.i18n.Language;
 import de.metas.logging.LogManager;
+import de.metas.organization.OrgId;
 import de.metas.process.AdProcessId;
 import de.metas.process.IADProcessDAO;
 import de.metas.process.PInstanceId;
@@ -64,6 +72,7 @@ import de.metas.util.Check;
 import de.metas.util.FileUtil;
 import de.metas.util.Services;
 import lombok.NonNull;
+import lombok.Value;
 import net.sf.jasperreports.engine.JRException;
 import net.sf.jasperreports.engine.JRExporterParameter;
 import net.sf.jasperreports.engine.JRParameter;
@@ -101,6 +110,31 @@ public class JasperEngine extends AbstractReportEngine
 	private static final Logger logger = LogManager.getLogger(JasperEngine.class);
 	private final JsonDataSourceService jsonDSService = SpringContextHolder.instance.getBean(JsonDataSourceService.class);
 
+	/**
+	 * Loaded jasper reports.
+	 * A {@link JasperReport} is not changed while filling, so it can be shared between concurrent fills (e.g. when rendering a batch of documents).
+	 * <p>
+	 * The same report path can resolve to different files for different orgs (reports path prefix), and a file can be replaced at runtime,
+	 * so the reports are indexed by org, resolved URL and the URL's last-modified timestamp.
+	 */
+	private static final CCache<JasperReportKey, JasperReport> jasperReports = CCache.newLRUCache(JasperEngine.class.getSimpleName() + "#jasperReports", 200, 0);
+
+	@Value
+	private static class JasperReportKey
+	{
+		OrgId orgId;
+		String reportPath;
+		String resolvedURL;
+		long lastModified;
+	}
+
+	/**
+	 * Last-modified timestamps of remote report URLs, indexed by URL.
+	 * Retrieving them needs an HTTP request, which we don't want to do for each rendered document,
+	 * so a replaced remote report is picked up after at most one minute.
+	 */
+	private static final CCache<String, Long> remoteLastModifiedByURL = CCache.newLRUCache(JasperEngine.class.getSimpleName() + "#remoteLastModifiedByURL", 500, 1);
+
 	@Override
 	public void report(@NonNull final ReportContext reportContext, @NonNull final OutputStream out)
 	{
@@ -135,7 +169,7 @@ public class JasperEngine extends AbstractReportEngine
 		final ClassLoader jasperLoader = createReportClassLoader(reportContext);
 
 		final Map<String, Object> jrParameters = createJRParameters(reportContext);
-		final JasperReport jasperReport = createJasperReport(reportContext.getAD_Process_ID(), jrParameters, jasperLoader);
+		final JasperReport jasperReport = createJasperReport(reportContext.getAD_Process_ID(), reportContext.getOrgId(), jrParameters, jasperLoader);
 
 		// JSON Data source
 		if (jsonDSService.isJasperJSONReport(reportContext))
@@ -186,36 +220,28 @@ public class JasperEngine extends AbstractReportEngine
 
 	private final JasperReport createJasperReport(
 			final AdProcessId adProcessId,
+			final OrgId orgId,
 			final Map<String, Object> jrParameters,
 			final ClassLoader jasperLoader) throws JRException
 	{
 		final String reportPath = getReportPath(adProcessId, jrParameters);
-		final InputStream jasperInputStream;
-		if (reportPath.startsWith("resource:"))
+		if (!reportPath.startsWith("resource:"))
 		{
-			// load the jasper file(s) using an ordinary class loader.
-			final String name = reportPath.substring("resource:".length()).trim();
-			logger.debug("reportPath = {}", reportPath);
-			// logger.debug("getting resource from = {}", jasperLoader.getResource(name));
-
-			jasperInputStream = jasperLoader.getResourceAsStream(name);
-		}
-		else
-		{
-			jasperInputStream = jasperLoader.getResourceAsStream(reportPath);
 			jrParameters.put(JRParameter.REPORT_CLASS_LOADER, jasperLoader);
 		}
 
-		// Make sure the jasper input stream is not null
-		if (jasperInputStream == null)
+		//
+		// Load the jasper report (or get it from cache)
+		final JasperReport jasperReport;
+		if (isJasperReportsCacheable(jasperLoader))
 		{
-			// TODO ->A AD_Message
-			throw new AdempiereException("Berichtsdatei '" + reportPath + "' konnte nicht geöffnet werden");
+			final JasperReportKey jasperReportKey = createJasperReportKey(orgId, reportPath, jasperLoader);
+			jasperReport = jasperReports.getOrLoad(jasperReportKey, () -> loadJasperReport(reportPath, jasperLoader));
+		}
+		else
+		{
+			jasperReport = loadJasperReport(reportPath, jasperLoader);
 		}
-
-		//
-		// Load the jasper report from stream
-		final JasperReport jasperReport = (JasperReport)JRLoader.loadObject(jasperInputStream);
 
 		//
 		// Load report's resource bundles, if any.
@@ -227,6 +253,111 @@ public class JasperEngine extends AbstractReportEngine
 			loadJasperReportResourceBundle(resourceBundleName, jrParameters, jasperLoader);
 		}
 
+		return jasperReport;
+	}
+
+	/**
+	 * In developer mode the reports are compiled on the fly from the workspace's jrxml files, which change all the time; so we don't cache them.
+	 */
+	private static boolean isJasperReportsCacheable(final ClassLoader jasperLoader)
+	{
+		return !(jasperLoader.getParent() instanceof JasperCompileClassLoader);
+	}
+
+	private static JasperReportKey createJasperReportKey(
+			final OrgId orgId,
+			final String reportPath,
+			final ClassLoader jasperLoader)
+	{
+		final URL url = jasperLoader.getResource(extractResourceName(reportPath));
+		return new JasperReportKey(
+				orgId,
+				reportPath,
+				url != null ? url.toString() : null,
+				getLastModified(url));
+	}
+
+	/**
+	 * @return the resource's last-modified timestamp or 0 if it's not known
+	 */
+	private static long getLastModified(@Nullable final URL url)
+	{
+		if (url == null)
+		{
+			return 0;
+		}
+
+		if ("file".equals(url.getProtocol()))
+		{
+			try
+			{
+				return new File(url.toURI()).lastModified();
+			}
+			catch (final URISyntaxException | IllegalArgumentException ex)
+			{
+				logger.debug("Failed retrieving last modified timestamp of {}. Returning 0.", url, ex);
+				return 0;
+			}
+		}
+
+		return remoteLastModifiedByURL.getOrLoad(url.toString(), () -> retrieveRemoteLastModified(url));
+	}
+
+	private static long retrieveRemoteLastModified(@NonNull final URL url)
+	{
+		try
+		{
+			final URLConnection conn = url.openConnection();
+			if (conn instanceof HttpURLConnection)
+			{
+				final HttpURLConnection httpConn = (HttpURLConnection)conn;
+				httpConn.setRequestMethod("HEAD");
+				try
+				{
+					return httpConn.getLastModified();
+				}
+				finally
+				{
+					httpConn.disconnect();
+				}
+			}
+			return conn.getLastModified();
+		}
+		catch (final IOException | IllegalArgumentException ex)
+		{
+			logger.debug("Failed retrieving last modified timestamp of {}. Returning 0.", url, ex);
+			return 0;
+		}
+	}
+
+	private static String extractResourceName(final String reportPath)
+	{
+		if (reportPath.startsWith("resource:"))
+		{
+			return reportPath.substring("resource:".length()).trim();
+		}
+		else
+		{
+			return reportPath;
+		}
+	}
+
+	private static JasperReport loadJasperReport(final String reportPath, final ClassLoader jasperLoader) throws JRException
+	{
+		// in case of "resource:" report paths, load the jasper file(s) using an ordinary class loader.
+		logger.debug("reportPath = {}", reportPath);
+		final InputStream jasperInputStream = jasperLoader.getResourceAsStream(extractResourceName(reportPath));
+
+		// Make sure the jasper input stream is not null
+		if (jasperInputStream == null)
+		{
+			// TODO ->A AD_Message
+			throw new AdempiereException("Berichtsdatei '" + reportPath + "' konnte nicht geöffnet werden");
+		}
+
+		//
+		// Load the jasper report from stream
+		final JasperReport jasperReport = (JasperReport)JRLoader.loadObject(jasperInputStream);
 		jasperReport.setProperty(JRPROPERTY_ReportPath, reportPath);
 
 		return jasperReport;
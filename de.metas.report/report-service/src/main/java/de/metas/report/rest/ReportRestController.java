@@ -1,11 +1,14 @@
 package de.metas.report.rest;
 
+import java.util.List;
+
 import org.springframework.context.annotation.Profile;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
@@ -38,6 +41,30 @@ public class ReportRestController
 		final String reportContentType = outputType.getContentType();
 		final String reportFilename = "report." + outputType.getFileExtension();
 
+		return toResponseEntity(reportData, reportContentType, reportFilename);
+	}
+
+	/**
+	 * Renders the given process for each of the given records and returns one single PDF containing all documents, in the given order.
+	 */
+	@PostMapping("/batch")
+	public ResponseEntity<byte[]> reportBatch( //
+			@RequestParam(name = "AD_Process_ID") final int processId //
+			, @RequestParam(name = "AD_Table_ID") final int adTableId //
+			, @RequestParam(name = "Record_ID") final List<Integer> recordIds //
+			, @RequestParam(name = "AD_Language", required = false) final String adLanguage //
+	)
+	{
+		final byte[] reportData = server.reportBatch(processId, adTableId, recordIds, adLanguage);
+		final OutputType outputType = OutputType.PDF;
+		final String reportContentType = outputType.getContentType();
+		final String reportFilename = "report." + outputType.getFileExtension();
+
+		return toResponseEntity(reportData, reportContentType, reportFilename);
+	}
+
+	private static ResponseEntity<byte[]> toResponseEntity(final byte[] reportData, final String reportContentType, final String reportFilename)
+	{
 		final HttpHeaders headers = new HttpHeaders();
 		headers.setContentType(MediaType.parseMediaType(reportContentType));
 		headers.set(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\"" + reportFilename + "\"");
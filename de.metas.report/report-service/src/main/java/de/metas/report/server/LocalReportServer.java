@@ -23,15 +23,35 @@ package de.metas.report.server;
  */
 
 import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Properties;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+
+import javax.annotation.Nullable;
 
 import org.adempiere.exceptions.AdempiereException;
 import org.adempiere.model.InterfaceWrapperHelper;
+import org.adempiere.service.ISysConfigBL;
 import org.adempiere.util.lang.IAutoCloseable;
 import org.compiere.util.Env;
 import org.slf4j.Logger;
 
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Suppliers;
 import com.google.common.io.Files;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.lowagie.text.Document;
+import com.lowagie.text.pdf.PdfCopy;
+import com.lowagie.text.pdf.PdfReader;
 
 import de.metas.logging.LogManager;
 import de.metas.process.IADPInstanceDAO;
@@ -43,11 +63,51 @@ import de.metas.report.server.OutputType;
 import de.metas.report.xls.engine.XlsReportEngine;
 import de.metas.util.Check;
 import de.metas.util.Services;
+import lombok.NonNull;
 
 public class LocalReportServer implements IReportServer
 {
 	private static final Logger logger = LogManager.getLogger(LocalReportServer.class);
 
+	private static final String SYSCONFIG_BatchMaxThreads = "de.metas.report.server.LocalReportServer.BatchMaxThreads";
+	private static final int DEFAULT_BatchMaxThreads = 4;
+
+	private static final byte[] PDF_MAGIC = "%PDF-".getBytes(StandardCharsets.US_ASCII);
+
+	/**
+	 * Renders the documents of all batches, so the number of concurrently rendered documents is bounded for the whole server and not per batch.
+	 * Created on first use, because the sysconfig might not be available yet when the server is created.
+	 */
+	private final Supplier<ExecutorService> batchExecutor;
+
+	public LocalReportServer()
+	{
+		this(LocalReportServer::createBatchExecutor);
+	}
+
+	@VisibleForTesting
+	LocalReportServer(@NonNull final Supplier<ExecutorService> batchExecutorFactory)
+	{
+		this.batchExecutor = Suppliers.memoize(batchExecutorFactory::get);
+	}
+
+	private static ExecutorService createBatchExecutor()
+	{
+		final int maxThreads = Math.max(1, Services.get(ISysConfigBL.class).getIntValue(SYSCONFIG_BatchMaxThreads, DEFAULT_BatchMaxThreads));
+
+		final ThreadPoolExecutor executor = new ThreadPoolExecutor(
+				maxThreads, // corePoolSize
+				maxThreads, // maximumPoolSize
+				1, TimeUnit.MINUTES, // keepAliveTime
+				new LinkedBlockingQueue<>(),
+				new ThreadFactoryBuilder()
+						.setNameFormat(LocalReportServer.class.getSimpleName() + "-batch-%d")
+						.setDaemon(true)
+						.build());
+		executor.allowCoreThreadTimeOut(true);
+		return executor;
+	}
+
 	@Override
 	public byte[] report(int processId, int pinstanceRepoId, final String adLanguage, final OutputType outputType)
 	{
@@ -62,6 +122,110 @@ public class LocalReportServer implements IReportServer
 				.setJRDesiredOutputType(outputType)
 				.build();
 
+		return report(processInfo);
+	}
+
+	/**
+	 * Renders the given process once for each of the given records and returns the concatenated PDF.
+	 * <p>
+	 * The records are rendered in parallel, using the server's batch executor which has as many threads as configured by the {@value #SYSCONFIG_BatchMaxThreads} sysconfig.
+	 * The loaded jasper report is shared between the records, so only the fill and the export are done per record.
+	 * The documents are concatenated in the same order as the given record IDs.
+	 * <p>
+	 * If one record fails, the records which were not rendered yet are cancelled and the whole batch fails.
+	 * Also, the process needs to produce PDFs; e.g. an excel report can't be rendered as batch.
+	 */
+	public byte[] reportBatch(
+			final int processId,
+			final int adTableId,
+			@NonNull final List<Integer> recordIds,
+			final String adLanguage)
+	{
+		return reportBatch(recordIds, recordId -> reportForRecord(processId, adTableId, recordId, adLanguage));
+	}
+
+	@VisibleForTesting
+	byte[] reportBatch(
+			@NonNull final List<Integer> recordIds,
+			@NonNull final IntFunction<byte[]> recordReporter)
+	{
+		Check.assumeNotEmpty(recordIds, "recordIds is not empty");
+
+		final ExecutorService executor = batchExecutor.get();
+		final List<Future<byte[]>> futures = new ArrayList<>(recordIds.size());
+		try
+		{
+			for (final int recordId : recordIds)
+			{
+				futures.add(executor.submit(() -> reportForRecordAndAssumePDF(recordId, recordReporter)));
+			}
+
+			final List<byte[]> pdfDatas = new ArrayList<>(futures.size());
+			for (final Future<byte[]> future : futures)
+			{
+				pdfDatas.add(future.get());
+			}
+
+			return concatenatePDFs(pdfDatas);
+		}
+		catch (final ExecutionException e)
+		{
+			throw AdempiereException.wrapIfNeeded(e.getCause());
+		}
+		catch (final InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+			throw AdempiereException.wrapIfNeeded(e);
+		}
+		finally
+		{
+			// the executor is shared, so we only cancel what's left of this batch; no-op if the batch is complete
+			futures.forEach(future -> future.cancel(true));
+		}
+	}
+
+	private static byte[] reportForRecordAndAssumePDF(final int recordId, final IntFunction<byte[]> recordReporter)
+	{
+		final byte[] data = recordReporter.apply(recordId);
+		if (!isPDF(data))
+		{
+			throw new AdempiereException("The report for Record_ID=" + recordId + " is not a PDF. Only PDF reports can be rendered as batch.");
+		}
+		return data;
+	}
+
+	private static boolean isPDF(@Nullable final byte[] data)
+	{
+		if (data == null || data.length < PDF_MAGIC.length)
+		{
+			return false;
+		}
+		for (int i = 0; i < PDF_MAGIC.length; i++)
+		{
+			if (data[i] != PDF_MAGIC[i])
+			{
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private byte[] reportForRecord(final int processId, final int adTableId, final int recordId, final String adLanguage)
+	{
+		final ProcessInfo processInfo = ProcessInfo.builder()
+				.setCtx(Env.newTemporaryCtx())
+				.setCreateTemporaryCtx()
+				.setAD_Process_ID(processId)
+				.setRecord(adTableId, recordId)
+				.setReportLanguage(adLanguage)
+				.setJRDesiredOutputType(OutputType.PDF)
+				.build();
+
+		return report(processInfo);
+	}
+
+	private byte[] report(final ProcessInfo processInfo)
+	{
 		//
 		// If there is no AD_PInstance already, we need to create it now
 		if(processInfo.getPinstanceId() == null)
@@ -104,6 +268,41 @@ public class LocalReportServer implements IReportServer
 		}
 	}
 
+	private static byte[] concatenatePDFs(final List<byte[]> pdfDatas)
+	{
+		if (pdfDatas.size() == 1)
+		{
+			return pdfDatas.get(0);
+		}
+
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+		final Document document = new Document();
+		try
+		{
+			final PdfCopy copy = new PdfCopy(document, out);
+			document.open();
+
+			for (final byte[] pdfData : pdfDatas)
+			{
+				final PdfReader reader = new PdfReader(pdfData);
+				for (int page = 0; page < reader.getNumberOfPages();)
+				{
+					copy.addPage(copy.getImportedPage(reader, ++page));
+				}
+				copy.freeReader(reader);
+				reader.close();
+			}
+
+			document.close();
+		}
+		catch (final Exception e)
+		{
+			throw AdempiereException.wrapIfNeeded(e);
+		}
+
+		return out.toByteArray();
+	}
+
 	private IReportEngine createReportEngine(final ReportContext reportContext)
 	{
 		//
@@ -0,0 +1,239 @@
+package de.metas.report.server;
+
+/*
+ * #%L
+ * report-service
+ * %%
+ * Copyright (C) 2019 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.adempiere.exceptions.AdempiereException;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.lowagie.text.Document;
+import com.lowagie.text.Paragraph;
+import com.lowagie.text.Rectangle;
+import com.lowagie.text.pdf.PdfReader;
+import com.lowagie.text.pdf.PdfWriter;
+
+public class LocalReportServerBatchTest
+{
+	private static final int MAX_THREADS = 2;
+
+	private ExecutorService executor;
+	private AtomicInteger executorsCreated;
+	private LocalReportServer server;
+
+	@Before
+	public void init()
+	{
+		executor = Executors.newFixedThreadPool(MAX_THREADS);
+		executorsCreated = new AtomicInteger();
+		server = new LocalReportServer(() -> {
+			executorsCreated.incrementAndGet();
+			return executor;
+		});
+	}
+
+	@After
+	public void shutdown()
+	{
+		executor.shutdownNow();
+	}
+
+	/**
+	 * @return a one page PDF whose page width is the record ID, so we can tell the documents apart in the concatenated PDF
+	 */
+	private static byte[] createPDF(final int recordId)
+	{
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+		final Document document = new Document(new Rectangle(100 + recordId, 100));
+		try
+		{
+			PdfWriter.getInstance(document, out);
+			document.open();
+			document.add(new Paragraph("Record " + recordId));
+			document.close();
+		}
+		catch (final Exception e)
+		{
+			throw AdempiereException.wrapIfNeeded(e);
+		}
+		return out.toByteArray();
+	}
+
+	private static List<Integer> extractRecordIds(final byte[] pdfData) throws Exception
+	{
+		final PdfReader reader = new PdfReader(pdfData);
+		try
+		{
+			final List<Integer> recordIds = new ArrayList<>();
+			for (int page = 1; page <= reader.getNumberOfPages(); page++)
+			{
+				recordIds.add(Math.round(reader.getPageSize(page).getWidth()) - 100);
+			}
+			return recordIds;
+		}
+		finally
+		{
+			reader.close();
+		}
+	}
+
+	private static void sleep(final long millis)
+	{
+		try
+		{
+			Thread.sleep(millis);
+		}
+		catch (final InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+			throw AdempiereException.wrapIfNeeded(e);
+		}
+	}
+
+	@Test
+	public void documentsAreConcatenatedInTheGivenOrder() throws Exception
+	{
+		final List<Integer> recordIds = Arrays.asList(5, 1, 4, 2, 3);
+
+		// the first records are the slowest ones, so they finish after the later ones
+		final byte[] pdfData = server.reportBatch(recordIds, recordId -> {
+			sleep(recordId * 20);
+			return createPDF(recordId);
+		});
+
+		Assert.assertEquals(recordIds, extractRecordIds(pdfData));
+	}
+
+	@Test
+	public void singleRecord() throws Exception
+	{
+		final byte[] pdfData = server.reportBatch(Arrays.asList(7), LocalReportServerBatchTest::createPDF);
+
+		Assert.assertEquals(Arrays.asList(7), extractRecordIds(pdfData));
+	}
+
+	@Test
+	public void batchesShareTheServersExecutor() throws Exception
+	{
+		final AtomicInteger running = new AtomicInteger();
+		final AtomicInteger maxRunning = new AtomicInteger();
+
+		for (int batch = 0; batch < 3; batch++)
+		{
+			final byte[] pdfData = server.reportBatch(Arrays.asList(1, 2, 3, 4, 5, 6), recordId -> {
+				maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+				try
+				{
+					sleep(10);
+					return createPDF(recordId);
+				}
+				finally
+				{
+					running.decrementAndGet();
+				}
+			});
+			Assert.assertEquals(Arrays.asList(1, 2, 3, 4, 5, 6), extractRecordIds(pdfData));
+		}
+
+		Assert.assertEquals("executors created", 1, executorsCreated.get());
+		Assert.assertFalse("executor shall not be shut down after a batch", executor.isShutdown());
+		Assert.assertTrue("max running=" + maxRunning.get(), maxRunning.get() <= MAX_THREADS);
+	}
+
+	@Test
+	public void failingRecordFailsTheBatchAndCancelsTheRemainingRecords() throws Exception
+	{
+		final CountDownLatch neverReleased = new CountDownLatch(1);
+		final AtomicInteger interruptedRecords = new AtomicInteger();
+
+		try
+		{
+			server.reportBatch(Arrays.asList(1, 2, 3, 4, 5, 6), recordId -> {
+				if (recordId == 1)
+				{
+					sleep(50); // give record 2 the time to start
+					throw new AdempiereException("Record 1 failed");
+				}
+
+				// all other records would block until the test times out, unless they are cancelled
+				try
+				{
+					neverReleased.await(30, TimeUnit.SECONDS);
+				}
+				catch (final InterruptedException e)
+				{
+					interruptedRecords.incrementAndGet();
+				}
+				return createPDF(recordId);
+			});
+			Assert.fail("batch shall fail");
+		}
+		catch (final AdempiereException e)
+		{
+			Assert.assertTrue(e.getMessage(), e.getMessage().contains("Record 1 failed"));
+		}
+
+		executor.shutdown();
+		Assert.assertTrue("all tasks of the failed batch shall be cancelled", executor.awaitTermination(5, TimeUnit.SECONDS));
+		Assert.assertTrue("the running records shall be interrupted", interruptedRecords.get() >= 1);
+	}
+
+	@Test
+	public void nonPDFDocumentFailsTheBatch()
+	{
+		try
+		{
+			server.reportBatch(Arrays.asList(1, 2), recordId -> recordId == 2 ? "not a pdf".getBytes() : createPDF(recordId));
+			Assert.fail("batch shall fail");
+		}
+		catch (final AdempiereException e)
+		{
+			Assert.assertTrue(e.getMessage(), e.getMessage().contains("Record_ID=2 is not a PDF"));
+		}
+	}
+
+	@Test
+	public void nonPDFSingleDocumentFailsTheBatch()
+	{
+		try
+		{
+			server.reportBatch(Arrays.asList(1), recordId -> new byte[] { 0x50, 0x4B, 0x03, 0x04 }); // xlsx (zip) header
+			Assert.fail("batch shall fail");
+		}
+		catch (final AdempiereException e)
+		{
+			Assert.assertTrue(e.getMessage(), e.getMessage().contains("Record_ID=1 is not a PDF"));
+		}
+	}
+}
@@ -2,7 +2,9 @@ package de.metas.ordercandidate.api;
 
 import java.time.LocalTime;
 import java.time.ZoneId;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.adempiere.ad.dao.IQueryBL;
 import org.adempiere.ad.dao.IQueryBuilder;
@@ -69,15 +71,18 @@ public class OLCandRepository
 		Check.assumeNotEmpty(requests, "requests is not empty");
 
 		final OLCandFactory olCandFactory = new OLCandFactory();
+		final CreateBatchContext batchContext = new CreateBatchContext();
 
 		final ITrxManager trxManager = Services.get(ITrxManager.class);
 		return trxManager.callInThreadInheritedTrx(() -> requests.stream()
-				.map(this::createAndSaveOLCandRecord)
+				.map(request -> createAndSaveOLCandRecord(request, batchContext))
 				.map(olCandFactory::toOLCand)
 				.collect(ImmutableList.toImmutableList()));
 	}
 
-	private I_C_OLCand createAndSaveOLCandRecord(@NonNull final OLCandCreateRequest request)
+	private I_C_OLCand createAndSaveOLCandRecord(
+			@NonNull final OLCandCreateRequest request,
+			@NonNull final CreateBatchContext batchContext)
 	{
 		final I_C_OLCand olCandPO = InterfaceWrapperHelper.newInstance(I_C_OLCand.class);
 
@@ -86,7 +91,7 @@ public class OLCandRepository
 			olCandPO.setAD_Org_ID(request.getOrgId().getRepoId());
 		}
 		final OrgId orgId = OrgId.ofRepoIdOrAny(olCandPO.getAD_Org_ID());
-		final ZoneId timeZone = orgDAO.getTimeZone(orgId);
+		final ZoneId timeZone = batchContext.getTimeZone(orgId);
 
 		{
 			final BPartnerInfo bpartner = request.getBpartner();
@@ -174,17 +179,16 @@ public class OLCandRepository
 			olCandPO.setM_Warehouse_Dest_ID(request.getWarehouseDestId().getRepoId());
 		}
 
-		olCandPO.setAD_User_EnteredBy_ID(Env.getAD_User_ID());
+		olCandPO.setAD_User_EnteredBy_ID(batchContext.getUserId());
 
-		final IInputDataSourceDAO inputDataSourceDAO = Services.get(IInputDataSourceDAO.class);
 		if (request.getDataSourceInternalName() != null)
 		{
-			final int inputDataSourceId = inputDataSourceDAO.retrieveInputDataSourceId(request.getDataSourceInternalName());
+			final int inputDataSourceId = batchContext.getInputDataSourceId(request.getDataSourceInternalName());
 			olCandPO.setAD_InputDataSource_ID(inputDataSourceId);
 		}
 		if (request.getDataDestInternalName() != null)
 		{
-			final int inputDataDestId = inputDataSourceDAO.retrieveInputDataSourceId(request.getDataDestInternalName());
+			final int inputDataDestId = batchContext.getInputDataSourceId(request.getDataDestInternalName());
 			olCandPO.setAD_DataDestination_ID(inputDataDestId);
 		}
 
@@ -225,4 +229,31 @@ public class OLCandRepository
 
 		return queryBuilder;
 	}
+
+	/**
+	 * Remembers the master data which is the same for many of the candidates that are created in one go.
+	 */
+	private final class CreateBatchContext
+	{
+		private final IInputDataSourceDAO inputDataSourceDAO = Services.get(IInputDataSourceDAO.class);
+
+		private final int userId = Env.getAD_User_ID();
+		private final Map<OrgId, ZoneId> timeZonesByOrgId = new HashMap<>();
+		private final Map<String, Integer> inputDataSourceIdsByInternalName = new HashMap<>();
+
+		public int getUserId()
+		{
+			return userId;
+		}
+
+		public ZoneId getTimeZone(@NonNull final OrgId orgId)
+		{
+			return timeZonesByOrgId.computeIfAbsent(orgId, orgDAO::getTimeZone);
+		}
+
+		public int getInputDataSourceId(@NonNull final String internalName)
+		{
+			return inputDataSourceIdsByInternalName.computeIfAbsent(internalName, inputDataSourceDAO::retrieveInputDataSourceId);
+		}
+	}
 }
@@ -2,25 +2,48 @@ package de.metas.ordercandidate.api;
 
 import java.sql.Timestamp;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Properties;
+import java.util.Queue;
 import java.util.Set;
-
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import org.adempiere.ad.trx.api.ITrxManager;
 import org.adempiere.exceptions.AdempiereException;
+import org.adempiere.service.ISysConfigBL;
+import org.adempiere.util.concurrent.CustomizableThreadFactory;
+import org.adempiere.util.lang.IAutoCloseable;
 import org.compiere.util.ArrayKeyBuilder;
+import org.compiere.util.Env;
 import org.compiere.util.TimeUtil;
 import org.compiere.util.Util;
 import org.compiere.util.Util.ArrayKey;
 import org.slf4j.Logger;
 
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
 import com.google.common.collect.ArrayListMultimap;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ListMultimap;
+import com.google.common.collect.MultimapBuilder;
+import com.google.common.collect.Multimaps;
 
 import ch.qos.logback.classic.Level;
+import de.metas.bpartner.BPartnerId;
 import de.metas.impex.api.IInputDataSourceDAO;
 import de.metas.logging.LogManager;
 import de.metas.ordercandidate.OrderCandidate_Constants;
@@ -78,6 +101,18 @@ public class OLCandsProcessorExecutor
 
 	private final OLCandSource candidatesSource;
 
+	/**
+	 * If set to a value greater than one, the candidates are partitioned by bpartner and the partitions are processed by that many threads.
+	 * Each partition is then processed in its own trx.
+	 */
+	private static final String SYSCONFIG_Parallelism = "de.metas.ordercandidate.api.OLCandsProcessorExecutor.Parallelism";
+
+	/**
+	 * Shared by all processor runs, so that concurrent runs don't create more threads than the {@link #SYSCONFIG_Parallelism} which was set when the first run needed it.
+	 * If a run has more partitions than threads, its partitions wait in the executor's queue.
+	 */
+	private static final Supplier<ExecutorService> sharedExecutor = Suppliers.memoize(OLCandsProcessorExecutor::createSharedExecutor);
+
 	@Builder
 	private OLCandsProcessorExecutor(
 			@NonNull final OLCandProcessorDescriptor processorDescriptor,
@@ -115,6 +150,145 @@ public class OLCandsProcessorExecutor
 				.collect(ImmutableList.toImmutableList());
 		loggable.addLog("Processing {} order line candidates", candidates.size());
 
+		final int parallelism = getParallelism();
+		if (parallelism > 1)
+		{
+			processInParallel(candidates, parallelism);
+		}
+		else
+		{
+			processCandidates(candidates, loggable);
+		}
+	}
+
+	private static int getParallelism()
+	{
+		return Services.get(ISysConfigBL.class).getIntValue(SYSCONFIG_Parallelism, 1);
+	}
+
+	/**
+	 * Partitions the given candidates by their bpartner and processes each partition in its own trx, using up to {@code parallelism} threads of the {@link #sharedExecutor}.
+	 * The candidates of one partition are processed in the same order as in the sequential case, so each order's lines are created in the same order, too.
+	 * <p>
+	 * Note that candidates with different bpartners never end up in the same order anyways (see {@link #isOrderSplit(OLCand, OLCand)}).
+	 * If one partition fails, the orders of the other partitions are still created and committed, i.e. the result might be a partial one,
+	 * just like when the failed partition's candidates had been processed in a later run.
+	 */
+	private void processInParallel(final List<OLCand> candidates, final int parallelism)
+	{
+		final Collection<List<OLCand>> partitions = partitionByBPartner(candidates);
+		if (partitions.size() <= 1)
+		{
+			processCandidates(candidates, loggable);
+			return;
+		}
+		loggable.addLog("Processing {} partitions of order line candidates using {} threads", partitions.size(), Math.min(parallelism, partitions.size()));
+
+		final ILoggable workerLoggable = new SynchronizedLoggable(loggable);
+		final Properties ctx = Env.getCtx();
+		final ITrxManager trxManager = Services.get(ITrxManager.class);
+
+		processPartitionsInParallel(partitions, parallelism, sharedExecutor.get(), partition -> {
+			try (final IAutoCloseable ctxRestorer = Env.switchContext(Env.copyCtx(ctx)))
+			{
+				trxManager.runInNewTrx(() -> processCandidates(partition, workerLoggable));
+			}
+		});
+	}
+
+	/**
+	 * @return the given candidates, grouped by their bpartner; the partitions and the candidates within them are in the same order as the given candidates.
+	 */
+	@VisibleForTesting
+	static Collection<List<OLCand>> partitionByBPartner(@NonNull final List<OLCand> candidates)
+	{
+		final ListMultimap<Integer, OLCand> candidatesByBPartnerId = MultimapBuilder.linkedHashKeys().arrayListValues().build();
+		for (final OLCand candidate : candidates)
+		{
+			final BPartnerId bpartnerId = candidate.getBPartnerInfo().getBpartnerId();
+			candidatesByBPartnerId.put(BPartnerId.toRepoIdOr(bpartnerId, -1), candidate);
+		}
+		return Multimaps.asMap(candidatesByBPartnerId).values();
+	}
+
+	/**
+	 * Submits up to {@code parallelism} workers to the given executor, which take the partitions one by one and process each of them with the given {@code partitionProcessor}.
+	 * A failing partition does not stop the other ones; after all partitions were processed, the first failure is thrown.
+	 */
+	@VisibleForTesting
+	static <T> void processPartitionsInParallel(
+			@NonNull final Collection<? extends List<T>> partitions,
+			final int parallelism,
+			@NonNull final ExecutorService executor,
+			@NonNull final Consumer<List<T>> partitionProcessor)
+	{
+		final Queue<List<T>> remainingPartitions = new ConcurrentLinkedQueue<>(partitions);
+		final Queue<AdempiereException> exceptions = new ConcurrentLinkedQueue<>();
+
+		final int workersCount = Math.max(1, Math.min(parallelism, partitions.size()));
+		final List<Future<?>> workers = new ArrayList<>(workersCount);
+		for (int i = 0; i < workersCount; i++)
+		{
+			workers.add(executor.submit(() -> {
+				for (List<T> partition = remainingPartitions.poll(); partition != null; partition = remainingPartitions.poll())
+				{
+					try
+					{
+						partitionProcessor.accept(partition);
+					}
+					catch (final RuntimeException e)
+					{
+						final AdempiereException partitionException = AdempiereException.wrapIfNeeded(e);
+						logger.warn("Failed processing a partition of order line candidates", partitionException);
+						exceptions.add(partitionException);
+					}
+				}
+			}));
+		}
+
+		try
+		{
+			for (final Future<?> worker : workers)
+			{
+				worker.get();
+			}
+		}
+		catch (final InterruptedException e)
+		{
+			remainingPartitions.clear();
+			workers.forEach(worker -> worker.cancel(true));
+			Thread.currentThread().interrupt();
+			throw AdempiereException.wrapIfNeeded(e);
+		}
+		catch (final ExecutionException e)
+		{
+			throw AdempiereException.wrapIfNeeded(e.getCause());
+		}
+
+		if (!exceptions.isEmpty())
+		{
+			throw exceptions.peek();
+		}
+	}
+
+	private static ExecutorService createSharedExecutor()
+	{
+		final int maxThreads = Math.max(1, getParallelism());
+		final ThreadPoolExecutor executor = new ThreadPoolExecutor(
+				maxThreads,
+				maxThreads,
+				1, TimeUnit.MINUTES,
+				new LinkedBlockingQueue<>(),
+				CustomizableThreadFactory.builder()
+						.setThreadNamePrefix(OLCandsProcessorExecutor.class.getSimpleName())
+						.setDaemon(true)
+						.build());
+		executor.allowCoreThreadTimeOut(true);
+		return executor;
+	}
+
+	private void processCandidates(final List<OLCand> candidates, final ILoggable loggable)
+	{
 		//
 		// Compute a grouping key for each candidate and group them according to their key
 		final Map<Integer, ArrayKey> toProcess = new HashMap<>();
@@ -167,7 +341,7 @@ public class OLCandsProcessorExecutor
 				}
 				if (currentOrder == null)
 				{
-					currentOrder = newOrderFactory();
+					currentOrder = newOrderFactory(loggable);
 				}
 
 				currentOrder.addOLCand(candOfGroup);
@@ -196,7 +370,7 @@ public class OLCandsProcessorExecutor
 		return candidate;
 	}
 
-	private OLCandOrderFactory newOrderFactory()
+	private OLCandOrderFactory newOrderFactory(final ILoggable loggable)
 	{
 		return OLCandOrderFactory.builder()
 				.orderDefaults(orderDefaults)
@@ -340,4 +514,27 @@ public class OLCandsProcessorExecutor
 
 		return true;
 	}
+
+	/**
+	 * Needed because the loggables we get from processes are not thread-safe.
+	 */
+	private static final class SynchronizedLoggable implements ILoggable
+	{
+		private final ILoggable delegate;
+
+		private SynchronizedLoggable(@NonNull final ILoggable delegate)
+		{
+			this.delegate = delegate;
+		}
+
+		@Override
+		public ILoggable addLog(final String msg, final Object... msgParameters)
+		{
+			synchronized (delegate)
+			{
+				delegate.addLog(msg, msgParameters);
+			}
+			return this;
+		}
+	}
 }
@@ -0,0 +1,218 @@
+package de.metas.ordercandidate.api;
+
+import static org.adempiere.model.InterfaceWrapperHelper.newInstance;
+import static org.adempiere.model.InterfaceWrapperHelper.saveRecord;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.adempiere.exceptions.AdempiereException;
+import org.adempiere.test.AdempiereTestHelper;
+import org.compiere.model.I_C_UOM;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+
+import de.metas.ordercandidate.model.I_C_OLCand;
+import de.metas.util.Services;
+
+/*
+ * #%L
+ * de.metas.salescandidate.base
+ * %%
+ * Copyright (C) 2019 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class OLCandsProcessorExecutorTest
+{
+	private ExecutorService executor;
+	private I_C_UOM uomRecord;
+
+	@Before
+	public void init()
+	{
+		AdempiereTestHelper.get().init();
+
+		uomRecord = newInstance(I_C_UOM.class);
+		saveRecord(uomRecord);
+
+		executor = Executors.newFixedThreadPool(4);
+	}
+
+	@After
+	public void shutdown()
+	{
+		executor.shutdownNow();
+	}
+
+	private OLCand createOLCand(final int bpartnerId)
+	{
+		final I_C_OLCand olCandRecord = newInstance(I_C_OLCand.class);
+		olCandRecord.setC_BPartner_ID(bpartnerId);
+		olCandRecord.setC_UOM_ID(uomRecord.getC_UOM_ID());
+		olCandRecord.setQtyEntered(BigDecimal.ONE);
+		saveRecord(olCandRecord);
+
+		return OLCand.builder()
+				.olCandEffectiveValuesBL(Services.get(IOLCandEffectiveValuesBL.class))
+				.olCandRecord(olCandRecord)
+				.build();
+	}
+
+	private static List<List<Integer>> toIds(final Collection<List<OLCand>> partitions)
+	{
+		final List<List<Integer>> result = new ArrayList<>();
+		partitions.forEach(partition -> result.add(partition.stream().map(OLCand::getId).collect(ImmutableList.toImmutableList())));
+		return result;
+	}
+
+	@Test
+	public void partitionByBPartner_keeps_the_order()
+	{
+		final OLCand cand1 = createOLCand(20);
+		final OLCand cand2 = createOLCand(10);
+		final OLCand cand3 = createOLCand(20);
+		final OLCand cand4 = createOLCand(30);
+		final OLCand cand5 = createOLCand(10);
+		final OLCand cand6 = createOLCand(20);
+
+		final Collection<List<OLCand>> partitions = OLCandsProcessorExecutor.partitionByBPartner(ImmutableList.of(cand1, cand2, cand3, cand4, cand5, cand6));
+
+		assertThat(toIds(partitions)).containsExactly(
+				ImmutableList.of(cand1.getId(), cand3.getId(), cand6.getId()),
+				ImmutableList.of(cand2.getId(), cand5.getId()),
+				ImmutableList.of(cand4.getId()));
+	}
+
+	@Test
+	public void partitionByBPartner_without_bpartner()
+	{
+		final OLCand cand1 = createOLCand(0);
+		final OLCand cand2 = createOLCand(10);
+		final OLCand cand3 = createOLCand(0);
+
+		final Collection<List<OLCand>> partitions = OLCandsProcessorExecutor.partitionByBPartner(ImmutableList.of(cand1, cand2, cand3));
+
+		assertThat(toIds(partitions)).containsExactly(
+				ImmutableList.of(cand1.getId(), cand3.getId()),
+				ImmutableList.of(cand2.getId()));
+	}
+
+	@Test
+	public void processPartitionsInParallel_processes_each_partition_in_order()
+	{
+		final List<List<Integer>> partitions = new ArrayList<>();
+		for (int p = 0; p < 10; p++)
+		{
+			final List<Integer> partition = new ArrayList<>();
+			for (int i = 0; i < 20; i++)
+			{
+				partition.add(p * 100 + i);
+			}
+			partitions.add(partition);
+		}
+
+		final List<List<Integer>> processed = Collections.synchronizedList(new ArrayList<>());
+		final AtomicInteger running = new AtomicInteger();
+		final AtomicInteger maxRunning = new AtomicInteger();
+
+		OLCandsProcessorExecutor.processPartitionsInParallel(partitions, 2, executor, partition -> {
+			maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+			try
+			{
+				final List<Integer> processedItems = new ArrayList<>();
+				for (final Integer item : partition)
+				{
+					processedItems.add(item);
+					sleep(1);
+				}
+				processed.add(processedItems);
+			}
+			finally
+			{
+				running.decrementAndGet();
+			}
+		});
+
+		assertThat(processed).containsExactlyInAnyOrderElementsOf(partitions);
+		assertThat(maxRunning.get()).as("not more than the given parallelism").isLessThanOrEqualTo(2);
+		assertThat(executor.isShutdown()).as("the shared executor is not shut down").isFalse();
+	}
+
+	@Test
+	public void processPartitionsInParallel_failing_partition_does_not_stop_the_others()
+	{
+		final List<List<Integer>> partitions = ImmutableList.of(
+				ImmutableList.of(1, 2),
+				ImmutableList.of(3),
+				ImmutableList.of(4, 5),
+				ImmutableList.of(6));
+
+		final List<List<Integer>> processed = Collections.synchronizedList(new ArrayList<>());
+
+		assertThatThrownBy(() -> OLCandsProcessorExecutor.processPartitionsInParallel(partitions, 2, executor, partition -> {
+			if (partition.contains(3))
+			{
+				throw new AdempiereException("partition 3 failed");
+			}
+			processed.add(partition);
+		}))
+				.isInstanceOf(AdempiereException.class)
+				.hasMessageContaining("partition 3 failed");
+
+		// the other partitions were processed (and in real life committed), so the result is a partial one
+		assertThat(processed).containsExactlyInAnyOrder(
+				ImmutableList.of(1, 2),
+				ImmutableList.of(4, 5),
+				ImmutableList.of(6));
+	}
+
+	@Test
+	public void processPartitionsInParallel_single_partition()
+	{
+		final List<List<Integer>> processed = Collections.synchronizedList(new ArrayList<>());
+
+		OLCandsProcessorExecutor.processPartitionsInParallel(ImmutableList.of(ImmutableList.of(1, 2, 3)), 4, executor, processed::add);
+
+		assertThat(processed).containsExactly(ImmutableList.of(1, 2, 3));
+	}
+
+	private static void sleep(final long millis)
+	{
+		try
+		{
+			TimeUnit.MILLISECONDS.sleep(millis);
+		}
+		catch (final InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+			throw AdempiereException.wrapIfNeeded(e);
+		}
+	}
+}
@@ -52,6 +52,9 @@ public class JdbcExportDataSource implements IExportDataSource
 {
 	private static final Logger logger = LogManager.getLogger(JdbcExportDataSource.class);
 
+	/** Number of rows to be fetched per round trip; the rows are read through a server-side cursor, so the whole result is never held in memory. */
+	public static final int DEFAULT_FetchSize = 100;
+
 	private final List<String> fields;
 	private final List<String> sqlFields;
 	private final String sqlSelect;
@@ -61,6 +64,7 @@ public class JdbcExportDataSource implements IExportDataSource
 	 */
 	private final String sqlWhereClause;
 	private final List<Object> sqlParams;
+	private final int fetchSize;
 
 	private Connection conn = null;
 	private PreparedStatement pstmt = null;
@@ -75,12 +79,25 @@ public class JdbcExportDataSource implements IExportDataSource
 			final String sqlWhereClause,
 			final List<Object> sqlParams)
 	{
+		this(fields, sqlFields, sqlSelect, sqlCount, sqlWhereClause, sqlParams, DEFAULT_FetchSize);
+	}
+
+	public JdbcExportDataSource(final List<String> fields, final List<String> sqlFields,
+			final String sqlSelect,
+			final String sqlCount,
+			final String sqlWhereClause,
+			final List<Object> sqlParams,
+			final int fetchSize)
+	{
+		Check.assume(fetchSize > 0, "fetchSize > 0");
+
 		this.fields = Collections.unmodifiableList(new ArrayList<String>(fields));
 		this.sqlFields = Collections.unmodifiableList(new ArrayList<String>(sqlFields));
 		this.sqlSelect = sqlSelect;
 		this.sqlCount = sqlCount;
 		this.sqlWhereClause = sqlWhereClause;
 		this.sqlParams = sqlParams == null ? null : Collections.unmodifiableList(new ArrayList<Object>(sqlParams));
+		this.fetchSize = fetchSize;
 	}
 
 	/**
@@ -118,7 +135,7 @@ public class JdbcExportDataSource implements IExportDataSource
 			Check.assume(!conn.getAutoCommit(), "JDBC Connection's AutoCommit flag shall be false");
 
 			pstmt = conn.prepareStatement(sqlSelect);
-			pstmt.setFetchSize(100);
+			pstmt.setFetchSize(fetchSize);
 
 			DB.setParameters(pstmt, sqlParams);
 			rs = pstmt.executeQuery();
@@ -65,6 +65,8 @@ public class JdbcExporterBuilder
 
 	private final List<String> sqlOrderBys = new ArrayList<>();
 
+	private int fetchSize = JdbcExportDataSource.DEFAULT_FetchSize;
+
 	public JdbcExporterBuilder(final String tableName)
 	{
 		Check.assumeNotNull(tableName, "tableName not null");
@@ -98,10 +100,20 @@ public class JdbcExporterBuilder
 				+ "\r\n FROM " + tableName
 				+ "\r\n WHERE \r\n" + sqlWhereClause;
 
-		final JdbcExportDataSource dataSource = new JdbcExportDataSource(csvFields, sqlFields, sqlSelect, sqlSelectCount, sqlWhereClause, sqlParams);
+		final JdbcExportDataSource dataSource = new JdbcExportDataSource(csvFields, sqlFields, sqlSelect, sqlSelectCount, sqlWhereClause, sqlParams, fetchSize);
 		return dataSource;
 	}
 
+	/**
+	 * @param fetchSize how many rows shall be fetched from database per round trip
+	 */
+	public JdbcExporterBuilder setFetchSize(final int fetchSize)
+	{
+		Check.assume(fetchSize > 0, "fetchSize > 0");
+		this.fetchSize = fetchSize;
+		return this;
+	}
+
 	public String getTableName()
 	{
 		return tableName;
@@ -26,6 +26,7 @@ package de.metas.modelvalidator;
  */
 
 import java.util.Properties;
+import java.util.concurrent.TimeUnit;
 
 import javax.sql.DataSource;
 
@@ -70,6 +71,8 @@ import org.compiere.util.Ini;
 import org.slf4j.Logger;
 
 import com.mchange.v2.c3p0.ComboPooledDataSource;
+import com.zaxxer.hikari.HikariConfigMXBean;
+import com.zaxxer.hikari.HikariDataSource;
 
 import de.metas.adempiere.callout.C_OrderFastInputTabCallout;
 import de.metas.adempiere.engine.MViewModelValidator;
@@ -413,9 +416,32 @@ public class SwatValidator implements ModelValidator
 				log.info("Config " + maxStatementsSysConfig + "=" + maxStatementsValue + " (Old: " + old + ")");
 			}
 		}
+		else if (ds instanceof HikariDataSource)
+		{
+			final HikariConfigMXBean hikariConfig = ((HikariDataSource)ds).getHikariConfigMXBean();
+
+			if (unreturnedConnectionTimeout > 0)
+			{
+				// unlike c3p0, hikari doesn't close such connections, but only logs them (including the stack trace of their checkout)
+				final long old = hikariConfig.getLeakDetectionThreshold();
+				final long leakDetectionThresholdMillis = TimeUnit.SECONDS.toMillis(unreturnedConnectionTimeout);
+				hikariConfig.setLeakDetectionThreshold(leakDetectionThresholdMillis);
+				log.info("Config " + SYSCONFIG_C3P0_UnreturnedConnectionTimeout + "=" + unreturnedConnectionTimeout + " as hikari leakDetectionThreshold=" + leakDetectionThresholdMillis + "ms (Old: " + old + "ms)");
+			}
+
+			if (debugUnreturnedConnectionStackTraces)
+			{
+				log.info("Ignoring " + SYSCONFIG_C3P0_DebugUnreturnedConnectionStackTraces + "=" + debugUnreturnedConnectionStackTraces + " because hikari always logs the stack traces of leaked connections");
+			}
+
+			if (maxStatementsValue > 0)
+			{
+				log.warn("Ignoring " + maxStatementsSysConfig + "=" + maxStatementsValue + " because hikari has no statement cache");
+			}
+		}
 		else
 		{
-			log.warn("Can not configure datasource because is not an instance of ComboPooledDataSource: " + ds);
+			log.warn("Can not configure datasource because is neither an instance of ComboPooledDataSource nor of HikariDataSource: " + ds);
 		}
 	}
 }
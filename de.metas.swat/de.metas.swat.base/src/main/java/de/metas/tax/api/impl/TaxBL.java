@@ -29,12 +29,10 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Timestamp;
-import java.util.Objects;
+import java.util.List;
 import java.util.Properties;
 
 import org.adempiere.ad.dao.IQueryBL;
-import org.adempiere.ad.dao.IQueryBuilder;
-import org.adempiere.ad.dao.impl.CompareQueryFilter.Operator;
 import org.adempiere.ad.trx.api.ITrx;
 import org.adempiere.exceptions.AdempiereException;
 import org.adempiere.exceptions.DBException;
@@ -42,7 +40,6 @@ import org.adempiere.exceptions.TaxNoExemptFoundException;
 import org.adempiere.model.InterfaceWrapperHelper;
 import org.adempiere.warehouse.WarehouseId;
 import org.adempiere.warehouse.api.IWarehouseBL;
-import org.compiere.model.IQuery;
 import org.compiere.model.I_C_BPartner;
 import org.compiere.model.I_C_BPartner_Location;
 import org.compiere.model.I_C_Country;
@@ -50,7 +47,6 @@ import org.compiere.model.I_C_Location;
 import org.compiere.model.I_C_Tax;
 import org.compiere.model.I_C_TaxCategory;
 import org.compiere.model.MBPartnerLocation;
-import org.compiere.model.X_C_Tax;
 import org.compiere.model.X_C_TaxCategory;
 import org.compiere.util.DB;
 import org.compiere.util.Env;
@@ -58,6 +54,8 @@ import org.slf4j.Logger;
 
 import de.metas.bpartner.service.IBPartnerDAO;
 import de.metas.bpartner.service.IBPartnerOrgBL;
+import de.metas.cache.CCache;
+import de.metas.cache.CCache.CacheMapType;
 import de.metas.location.CountryId;
 import de.metas.location.ICountryAreaBL;
 import de.metas.location.ICountryDAO;
@@ -69,6 +67,7 @@ import de.metas.product.ProductId;
 import de.metas.tax.api.ITaxDAO;
 import de.metas.tax.api.TaxCategoryId;
 import de.metas.tax.api.TaxNotFoundException;
+import de.metas.tax.api.impl.TaxMatcher.TaxLookup;
 import de.metas.util.Check;
 import de.metas.util.Services;
 import de.metas.util.StringUtils;
@@ -78,6 +77,21 @@ public class TaxBL implements de.metas.tax.api.ITaxBL
 {
 	private static final transient Logger log = LogManager.getLogger(TaxBL.class);
 
+	/** The active {@code C_Tax} records of each tax category, so that tax lookups don't need to query the database. */
+	private final CCache<TaxCategoryId, TaxMatcher> taxMatchersByCategoryId = CCache.<TaxCategoryId, TaxMatcher> builder()
+			.cacheName("TaxBL#TaxMatchersByCategoryId")
+			.tableName(I_C_Tax.Table_Name)
+			.initialCapacity(50)
+			.build();
+
+	/** The results of recent tax lookups; many document lines share the same lookup parameters. */
+	private final CCache<TaxLookup, Integer> taxIdsByLookup = CCache.<TaxLookup, Integer> builder()
+			.cacheName("TaxBL#TaxIdsByLookup")
+			.tableName(I_C_Tax.Table_Name)
+			.cacheMapType(CacheMapType.LRU)
+			.initialCapacity(1000)
+			.build();
+
 	/**
 	 * Do not attempt to retrieve the C_Tax for an order (i.e invoicing is done at a different time - 1 year - from the order)<br>
 	 * Also note that packaging material receipts don't have an order line and if this one had, no IC would be created for it by this handler.<br>
@@ -184,70 +198,26 @@ public class TaxBL implements de.metas.tax.api.ITaxBL
 				countryTo.getCountryCode(),
 				date);
 
-		final boolean toSameCountry = Objects.equals(countryToId, countryFromId);
-
-		final IQueryBuilder<I_C_Tax> queryBuilder = Services.get(IQueryBL.class)
-				.createQueryBuilder(I_C_Tax.class, ctx, ITrx.TRXNAME_None)
-				.addCompareFilter(I_C_Tax.COLUMNNAME_ValidFrom, Operator.LESS_OR_EQUAL, date)
-				.addOnlyActiveRecordsFilter();
-
-		if (countryFromId != null)
-		{
-			queryBuilder.addEqualsFilter(I_C_Tax.COLUMNNAME_C_Country_ID, countryFromId);
-		}
-		else
-		{
-			queryBuilder.addEqualsFilter(I_C_Tax.COLUMNNAME_C_Country_ID, null);
-		}
-
-		queryBuilder.addEqualsFilter(I_C_Tax.COLUMNNAME_C_TaxCategory_ID, taxCategoryId);
-
-		if (toSameCountry)
-		{
-			queryBuilder.addEqualsFilter(I_C_Tax.COLUMNNAME_To_Country_ID, countryToId);
-		}
-		else if (toEULocation)
-		{
-			queryBuilder.addInArrayFilter(I_C_Tax.COLUMNNAME_To_Country_ID, countryToId, null);
-			queryBuilder.addEqualsFilter(I_C_Tax.COLUMNNAME_IsToEULocation, true);
-
-			if (hasTaxCertificate)
-			{
-				queryBuilder.addEqualsFilter(I_C_Tax.COLUMNNAME_RequiresTaxCertificate, true);
-			}
-			else
-			{
-				queryBuilder.addEqualsFilter(I_C_Tax.COLUMNNAME_RequiresTaxCertificate, false);
-			}
-		}
-		else
-		{
-			queryBuilder.addInArrayFilter(I_C_Tax.COLUMNNAME_To_Country_ID, countryToId, null);
-			queryBuilder.addEqualsFilter(I_C_Tax.COLUMNNAME_IsToEULocation, false);
-		}
-
-		if (isSOTrx)
+		final int taxId;
+		if (taxCategoryId != null)
 		{
-			queryBuilder.addInArrayFilter(I_C_Tax.COLUMNNAME_SOPOType, X_C_Tax.SOPOTYPE_Both, X_C_Tax.SOPOTYPE_SalesTax);
+			final TaxLookup lookup = TaxLookup.builder()
+					.taxCategoryId(taxCategoryId)
+					.countryFromId(countryFromId)
+					.orgId(orgId)
+					.countryToId(countryToId)
+					.toEULocation(toEULocation)
+					.hasTaxCertificate(hasTaxCertificate)
+					.date(date)
+					.soTrx(isSOTrx)
+					.build();
+			taxId = taxIdsByLookup.getOrLoad(lookup, this::findTaxId);
 		}
 		else
 		{
-			queryBuilder.addInArrayFilter(I_C_Tax.COLUMNNAME_SOPOType, X_C_Tax.SOPOTYPE_Both, X_C_Tax.SOPOTYPE_PurchaseTax);
-		}
-
-		if (orgId != null)
-		{
-			queryBuilder.addInArrayFilter(I_C_Tax.COLUMNNAME_AD_Org_ID, orgId, OrgId.ANY);
+			taxId = -1;
 		}
 
-		final IQuery<I_C_Tax> query = queryBuilder
-				.orderBy()
-				.addColumnDescending(I_C_Tax.COLUMNNAME_AD_Org_ID)
-				.addColumn(I_C_Tax.COLUMNNAME_To_Country_ID)
-				.addColumnDescending(I_C_Tax.COLUMNNAME_ValidFrom)
-				.endOrderBy()
-				.create();
-		final int taxId = query.firstId();
 		if (taxId <= 0)
 		{
 			TaxNotFoundException.builder()
@@ -258,7 +228,8 @@ public class TaxBL implements de.metas.tax.api.ITaxBL
 					.shipFromCountryId(countryFromId)
 					.billToC_Location_ID(locationTo.getC_Location_ID())
 					.build()
-					.setParameter("query", query.toString())
+					.setParameter("hasTaxCertificate", hasTaxCertificate)
+					.setParameter("toEULocation", toEULocation)
 					.throwOrLogWarning(throwEx, log);
 			return -1;
 		}
@@ -266,6 +237,24 @@ public class TaxBL implements de.metas.tax.api.ITaxBL
 		return taxId;
 	}
 
+	private int findTaxId(@NonNull final TaxLookup lookup)
+	{
+		return taxMatchersByCategoryId
+				.getOrLoad(lookup.getTaxCategoryId(), this::retrieveTaxMatcher)
+				.findTaxId(lookup);
+	}
+
+	private TaxMatcher retrieveTaxMatcher(@NonNull final TaxCategoryId taxCategoryId)
+	{
+		final List<I_C_Tax> taxRecords = Services.get(IQueryBL.class)
+				.createQueryBuilderOutOfTrx(I_C_Tax.class)
+				.addOnlyActiveRecordsFilter()
+				.addEqualsFilter(I_C_Tax.COLUMNNAME_C_TaxCategory_ID, taxCategoryId)
+				.create()
+				.list(I_C_Tax.class);
+		return TaxMatcher.ofRecords(taxRecords);
+	}
+
 	private int getGermanTax(final Properties ctx,
 			final ProductId productId,
 			final int chargeId,
@@ -0,0 +1,187 @@
+package de.metas.tax.api.impl;
+
+/*
+ * #%L
+ * de.metas.swat.base
+ * %%
+ * Copyright (C) 2019 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+import java.sql.Timestamp;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+
+import javax.annotation.Nullable;
+
+import org.compiere.model.I_C_Tax;
+import org.compiere.model.X_C_Tax;
+
+import com.google.common.collect.ImmutableListMultimap;
+import com.google.common.collect.Multimaps;
+
+import de.metas.location.CountryId;
+import de.metas.organization.OrgId;
+import de.metas.tax.api.TaxCategoryId;
+import lombok.Builder;
+import lombok.NonNull;
+import lombok.ToString;
+import lombok.Value;
+
+/**
+ * In-memory representation of all active {@code C_Tax} records of one tax category, indexed by their {@code C_Country_ID} (i.e. the "from" country).
+ * <p>
+ * {@link #findTaxId(TaxLookup)} gives the same result as the {@code C_Tax} query that {@link TaxBL#retrieveTaxIdForCategory} used to run on each invocation.
+ */
+@ToString
+final class TaxMatcher
+{
+	public static TaxMatcher ofRecords(@NonNull final List<I_C_Tax> taxRecords)
+	{
+		return new TaxMatcher(taxRecords);
+	}
+
+	/**
+	 * Order the rules like {@code ORDER BY AD_Org_ID DESC, To_Country_ID (NULLS LAST), ValidFrom DESC}, so the first matching rule is the one we need.
+	 */
+	private static final Comparator<TaxRule> RULES_ORDER = Comparator
+			.<TaxRule, Integer> comparing(TaxRule::getOrgRepoId, Comparator.reverseOrder())
+			.thenComparing(TaxRule::getToCountryRepoId, Comparator.nullsLast(Comparator.<Integer> naturalOrder()))
+			.thenComparing(TaxRule::getValidFrom, Comparator.nullsLast(Comparator.<Timestamp> reverseOrder()));
+
+	/** key is the {@code C_Country_ID}, or {@code 0} for rules without a "from" country */
+	private final ImmutableListMultimap<Integer, TaxRule> rulesByCountryFromRepoId;
+
+	private TaxMatcher(final List<I_C_Tax> taxRecords)
+	{
+		rulesByCountryFromRepoId = Multimaps.index(
+				taxRecords.stream()
+						.map(TaxRule::ofRecord)
+						.sorted(RULES_ORDER)
+						.iterator(),
+				rule -> rule.getCountryFromRepoId());
+	}
+
+	/** @return the first matching {@code C_Tax_ID} or {@code -1} */
+	public int findTaxId(@NonNull final TaxLookup lookup)
+	{
+		final int countryFromRepoId = lookup.getCountryFromId() != null ? lookup.getCountryFromId().getRepoId() : 0;
+		for (final TaxRule rule : rulesByCountryFromRepoId.get(countryFromRepoId))
+		{
+			if (rule.matches(lookup))
+			{
+				return rule.getTaxId();
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * The parameters of one tax lookup. Also used as key for caching the lookup's result.
+	 */
+	@Value
+	@Builder
+	public static class TaxLookup
+	{
+		@NonNull
+		TaxCategoryId taxCategoryId;
+
+		@Nullable
+		CountryId countryFromId;
+
+		@Nullable
+		OrgId orgId;
+
+		@NonNull
+		CountryId countryToId;
+
+		boolean toEULocation;
+
+		boolean hasTaxCertificate;
+
+		@NonNull
+		Timestamp date;
+
+		boolean soTrx;
+
+		public boolean isToSameCountry()
+		{
+			return Objects.equals(countryToId, countryFromId);
+		}
+	}
+
+	@Value
+	private static class TaxRule
+	{
+		static TaxRule ofRecord(@NonNull final I_C_Tax record)
+		{
+			return new TaxRule(
+					record.getC_Tax_ID(),
+					record.getAD_Org_ID(),
+					record.getC_Country_ID() > 0 ? record.getC_Country_ID() : 0,
+					record.getTo_Country_ID() > 0 ? record.getTo_Country_ID() : null,
+					record.getValidFrom(),
+					record.isToEULocation(),
+					record.isRequiresTaxCertificate(),
+					record.getSOPOType());
+		}
+
+		int taxId;
+		int orgRepoId;
+		int countryFromRepoId;
+		Integer toCountryRepoId;
+		Timestamp validFrom;
+		boolean toEULocation;
+		boolean requiresTaxCertificate;
+		String soPOType;
+
+		boolean matches(final TaxLookup lookup)
+		{
+			if (validFrom != null && validFrom.after(lookup.getDate()))
+			{
+				return false;
+			}
+
+			if (lookup.getOrgId() != null && orgRepoId != lookup.getOrgId().getRepoId() && orgRepoId != OrgId.ANY.getRepoId())
+			{
+				return false;
+			}
+
+			final String matchingSOPOType = lookup.isSoTrx() ? X_C_Tax.SOPOTYPE_SalesTax : X_C_Tax.SOPOTYPE_PurchaseTax;
+			if (!X_C_Tax.SOPOTYPE_Both.equals(soPOType) && !matchingSOPOType.equals(soPOType))
+			{
+				return false;
+			}
+
+			final int countryToRepoId = lookup.getCountryToId().getRepoId();
+			if (lookup.isToSameCountry())
+			{
+				return toCountryRepoId != null && toCountryRepoId == countryToRepoId;
+			}
+			if (toCountryRepoId != null && toCountryRepoId != countryToRepoId)
+			{
+				return false;
+			}
+			if (lookup.isToEULocation())
+			{
+				return toEULocation && requiresTaxCertificate == lookup.isHasTaxCertificate();
+			}
+			return !toEULocation;
+		}
+	}
+}
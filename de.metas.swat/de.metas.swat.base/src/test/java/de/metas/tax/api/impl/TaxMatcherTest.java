@@ -0,0 +1,142 @@
+package de.metas.tax.api.impl;
+
+/*
+ * #%L
+ * de.metas.swat.base
+ * %%
+ * Copyright (C) 2019 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+import static org.adempiere.model.InterfaceWrapperHelper.newInstance;
+import static org.adempiere.model.InterfaceWrapperHelper.saveRecord;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+
+import org.adempiere.test.AdempiereTestHelper;
+import org.compiere.model.I_C_Tax;
+import org.compiere.model.X_C_Tax;
+import org.compiere.util.TimeUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.google.common.collect.ImmutableList;
+
+import de.metas.location.CountryId;
+import de.metas.tax.api.TaxCategoryId;
+import de.metas.tax.api.impl.TaxMatcher.TaxLookup;
+
+public class TaxMatcherTest
+{
+	private static final int COUNTRY_DE = 101;
+	private static final int COUNTRY_FR = 102;
+	private static final int COUNTRY_CH = 103;
+
+	private static final TaxCategoryId TAX_CATEGORY_ID = TaxCategoryId.ofRepoId(1);
+
+	private I_C_Tax domesticTax;
+	private I_C_Tax domesticTaxNew;
+	private I_C_Tax euTaxWithCertificate;
+	private I_C_Tax euTaxWithoutCertificate;
+	private I_C_Tax nonEuTax;
+	private TaxMatcher matcher;
+
+	@BeforeEach
+	public void init()
+	{
+		AdempiereTestHelper.get().init();
+
+		domesticTax = createTax(COUNTRY_DE, COUNTRY_DE, false, false, date(2018, 1, 1));
+		domesticTaxNew = createTax(COUNTRY_DE, COUNTRY_DE, false, false, date(2019, 1, 1));
+		euTaxWithCertificate = createTax(COUNTRY_DE, -1, true, true, date(2018, 1, 1));
+		euTaxWithoutCertificate = createTax(COUNTRY_DE, -1, true, false, date(2018, 1, 1));
+		nonEuTax = createTax(COUNTRY_DE, -1, false, false, date(2018, 1, 1));
+
+		matcher = TaxMatcher.ofRecords(ImmutableList.of(domesticTax, domesticTaxNew, euTaxWithCertificate, euTaxWithoutCertificate, nonEuTax));
+	}
+
+	private I_C_Tax createTax(
+			final int countryFromId,
+			final int countryToId,
+			final boolean toEULocation,
+			final boolean requiresTaxCertificate,
+			final Timestamp validFrom)
+	{
+		final I_C_Tax tax = newInstance(I_C_Tax.class);
+		tax.setC_TaxCategory_ID(TAX_CATEGORY_ID.getRepoId());
+		tax.setC_Country_ID(countryFromId);
+		tax.setTo_Country_ID(countryToId);
+		tax.setIsToEULocation(toEULocation);
+		tax.setRequiresTaxCertificate(requiresTaxCertificate);
+		tax.setValidFrom(validFrom);
+		tax.setSOPOType(X_C_Tax.SOPOTYPE_Both);
+		saveRecord(tax);
+		return tax;
+	}
+
+	private static Timestamp date(final int year, final int month, final int day)
+	{
+		return TimeUtil.asTimestamp(LocalDate.of(year, month, day));
+	}
+
+	private TaxLookup.TaxLookupBuilder lookup(final int countryToId, final Timestamp date)
+	{
+		return TaxLookup.builder()
+				.taxCategoryId(TAX_CATEGORY_ID)
+				.countryFromId(CountryId.ofRepoId(COUNTRY_DE))
+				.countryToId(CountryId.ofRepoId(countryToId))
+				.date(date)
+				.soTrx(true);
+	}
+
+	@Test
+	public void sameCountry_latestValidFrom()
+	{
+		assertThat(matcher.findTaxId(lookup(COUNTRY_DE, date(2018, 6, 1)).build())).isEqualTo(domesticTax.getC_Tax_ID());
+		assertThat(matcher.findTaxId(lookup(COUNTRY_DE, date(2019, 6, 1)).build())).isEqualTo(domesticTaxNew.getC_Tax_ID());
+	}
+
+	@Test
+	public void euCountry_withAndWithoutCertificate()
+	{
+		final TaxLookup.TaxLookupBuilder euLookup = lookup(COUNTRY_FR, date(2019, 6, 1)).toEULocation(true);
+
+		assertThat(matcher.findTaxId(euLookup.hasTaxCertificate(true).build())).isEqualTo(euTaxWithCertificate.getC_Tax_ID());
+		assertThat(matcher.findTaxId(euLookup.hasTaxCertificate(false).build())).isEqualTo(euTaxWithoutCertificate.getC_Tax_ID());
+	}
+
+	@Test
+	public void nonEuCountry()
+	{
+		assertThat(matcher.findTaxId(lookup(COUNTRY_CH, date(2019, 6, 1)).build())).isEqualTo(nonEuTax.getC_Tax_ID());
+	}
+
+	@Test
+	public void noMatch()
+	{
+		// all taxes are valid only from 2018 on
+		assertThat(matcher.findTaxId(lookup(COUNTRY_DE, date(2017, 6, 1)).build())).isEqualTo(-1);
+
+		// no tax with another "from" country
+		final TaxLookup lookupFromFR = lookup(COUNTRY_DE, date(2019, 6, 1))
+				.countryFromId(CountryId.ofRepoId(COUNTRY_FR))
+				.build();
+		assertThat(matcher.findTaxId(lookupFromFR)).isEqualTo(-1);
+	}
+}
@@ -0,0 +1,163 @@
+package de.metas.vertical.pharma.msv3.server.stockAvailability;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.annotation.PostConstruct;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import com.google.common.base.Stopwatch;
+
+import de.metas.vertical.pharma.msv3.server.stockAvailability.jpa.JpaProductExclude;
+import de.metas.vertical.pharma.msv3.server.stockAvailability.jpa.JpaProductExcludeRepository;
+import de.metas.vertical.pharma.msv3.server.stockAvailability.jpa.JpaStockAvailability;
+import de.metas.vertical.pharma.msv3.server.stockAvailability.jpa.JpaStockAvailabilityRepository;
+import lombok.NonNull;
+import lombok.Value;
+
+/*
+ * #%L
+ * metasfresh-pharma.msv3.server
+ * %%
+ * Copyright (C) 2019 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * In-memory copy of {@code msv3_stock_availability} and {@code msv3_product_exclude}, so that availability queries don't have to hit the database.
+ * <p>
+ * It's fully loaded on startup and afterwards kept in sync by {@link StockAvailabilityService} whenever it has committed an update event.
+ */
+@Component
+public class StockAvailabilityIndex
+{
+	private static final Logger logger = LoggerFactory.getLogger(StockAvailabilityIndex.class);
+
+	private final JpaStockAvailabilityRepository stockAvailabilityRepo;
+	private final JpaProductExcludeRepository productExcludeRepo;
+
+	/** PZN to stock */
+	private final ConcurrentHashMap<Long, Stock> stocksByPzn = new ConcurrentHashMap<>();
+	/** bpartnerId to excluded PZNs */
+	private final ConcurrentHashMap<Integer, Set<Long>> excludedPznsByBpartnerId = new ConcurrentHashMap<>();
+
+	public StockAvailabilityIndex(
+			@NonNull final JpaStockAvailabilityRepository stockAvailabilityRepo,
+			@NonNull final JpaProductExcludeRepository productExcludeRepo)
+	{
+		this.stockAvailabilityRepo = stockAvailabilityRepo;
+		this.productExcludeRepo = productExcludeRepo;
+	}
+
+	@Value
+	private static class Stock
+	{
+		int qty;
+		int eventVersion;
+	}
+
+	@PostConstruct
+	public void reloadAll()
+	{
+		reloadStocks();
+		reloadProductExcludes();
+	}
+
+	public synchronized void reloadStocks()
+	{
+		final Stopwatch stopwatch = Stopwatch.createStarted();
+
+		final Map<Long, Stock> stocks = new ConcurrentHashMap<>();
+		for (final JpaStockAvailability jpaStockAvailability : stockAvailabilityRepo.findAll())
+		{
+			stocks.put(jpaStockAvailability.getMfPzn(), new Stock(jpaStockAvailability.getMfQty(), jpaStockAvailability.getMfEventVersion()));
+		}
+
+		// don't clear the index first, so that concurrent queries never see it empty
+		stocksByPzn.keySet().retainAll(stocks.keySet());
+		stocks.forEach((pzn, stock) -> putStock(pzn, stock.getQty(), stock.getEventVersion()));
+
+		logger.info("Loaded {} stock availability records in {}", stocks.size(), stopwatch);
+	}
+
+	public synchronized void reloadProductExcludes()
+	{
+		final Stopwatch stopwatch = Stopwatch.createStarted();
+
+		final Map<Integer, Set<Long>> excludedPzns = new ConcurrentHashMap<>();
+		int countExcludes = 0;
+		for (final JpaProductExclude jpaProductExclude : productExcludeRepo.findAll())
+		{
+			excludedPzns.computeIfAbsent(jpaProductExclude.getMfBpartnerId(), bpartnerId -> ConcurrentHashMap.newKeySet())
+					.add(jpaProductExclude.getPzn());
+			countExcludes++;
+		}
+
+		excludedPznsByBpartnerId.keySet().retainAll(excludedPzns.keySet());
+		excludedPznsByBpartnerId.putAll(excludedPzns);
+
+		logger.info("Loaded {} product exclude records in {}", countExcludes, stopwatch);
+	}
+
+	/**
+	 * @return available qty or {@code -1} if the given PZN is not available for the given bpartner
+	 */
+	public int getQtyAvailable(final long pzn, final int bpartnerId)
+	{
+		final Set<Long> excludedPzns = excludedPznsByBpartnerId.getOrDefault(bpartnerId, Collections.emptySet());
+		if (excludedPzns.contains(pzn))
+		{
+			return -1;
+		}
+
+		final Stock stock = stocksByPzn.get(pzn);
+		return stock != null ? stock.getQty() : -1;
+	}
+
+	/**
+	 * Sets the given PZN's qty, unless the index already has a qty with a higher event version.
+	 */
+	public void putStock(final long pzn, final int qty, final int eventVersion)
+	{
+		stocksByPzn.merge(pzn, new Stock(qty, eventVersion), (oldStock, newStock) -> oldStock.getEventVersion() > newStock.getEventVersion() ? oldStock : newStock);
+	}
+
+	public void removeStock(final long pzn)
+	{
+		stocksByPzn.remove(pzn);
+	}
+
+	public void addProductExclude(final long pzn, final int bpartnerId)
+	{
+		excludedPznsByBpartnerId.computeIfAbsent(bpartnerId, k -> ConcurrentHashMap.newKeySet())
+				.add(pzn);
+	}
+
+	public void removeProductExclude(final long pzn, final int bpartnerId)
+	{
+		final Set<Long> excludedPzns = excludedPznsByBpartnerId.get(bpartnerId);
+		if (excludedPzns != null)
+		{
+			excludedPzns.remove(pzn);
+		}
+	}
+}
@@ -9,6 +9,8 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import de.metas.vertical.pharma.msv3.protocol.stockAvailability.AvailabilityType;
 import de.metas.vertical.pharma.msv3.protocol.stockAvailability.StockAvailabilityQuery;
@@ -64,6 +66,8 @@ public class StockAvailabilityService
 	private JpaStockAvailabilityRepository stockAvailabilityRepo;
 	@Autowired
 	private JpaProductExcludeRepository productExcludeRepo;
+	@Autowired
+	private StockAvailabilityIndex stockAvailabilityIndex;
 
 	public StockAvailabilityResponse checkAvailability(final StockAvailabilityQuery query)
 	{
@@ -123,19 +127,13 @@ public class StockAvailabilityService
 
 	public Optional<Quantity> getQtyAvailable(@NonNull final PZN pzn, @NonNull final BPartnerId bpartner)
 	{
-		if (productExcludeRepo.existsByPznAndMfBpartnerId(pzn.getValueAsLong(), bpartner.getBpartnerId()))
-		{
-			return Optional.empty();
-		}
-
-		final JpaStockAvailability jpaStockAvailability = stockAvailabilityRepo.findByMfPzn(pzn.getValueAsLong());
-		if (jpaStockAvailability == null)
+		final int qty = stockAvailabilityIndex.getQtyAvailable(pzn.getValueAsLong(), bpartner.getBpartnerId());
+		if (qty < 0)
 		{
 			return Optional.empty();
 		}
 
-		final Quantity qty = Quantity.of(jpaStockAvailability.getMfQty());
-		return Optional.of(qty);
+		return Optional.of(Quantity.of(qty));
 	}
 
 	@Transactional
@@ -166,6 +164,8 @@ public class StockAvailabilityService
 							mfSyncToken,
 							mfEventVersion.getAsInt());
 			logger.debug("Deleted {} stock availability records", countDeleted);
+
+			runAfterCommit(stockAvailabilityIndex::reloadStocks);
 		}
 
 	}
@@ -177,10 +177,14 @@ public class StockAvailabilityService
 	{
 		if (request.isDelete())
 		{
-			stockAvailabilityRepo
+			final long countDeleted = stockAvailabilityRepo
 					.deleteInBatchByMfPznAndMfEventVersionLessThan(
 							request.getPzn(),
 							mfEventVersion.getAsInt());
+			if (countDeleted > 0)
+			{
+				runAfterCommit(() -> stockAvailabilityIndex.removeStock(request.getPzn()));
+			}
 		}
 		else
 		{
@@ -201,6 +205,8 @@ public class StockAvailabilityService
 			jpaStockAvailability.setMfQty(request.getQty());
 			jpaStockAvailability.setMfSyncToken(mfSyncToken);
 			stockAvailabilityRepo.save(jpaStockAvailability);
+
+			runAfterCommit(() -> stockAvailabilityIndex.putStock(request.getPzn(), request.getQty(), mfEventVersion.getAsInt()));
 		}
 	}
 
@@ -226,6 +232,8 @@ public class StockAvailabilityService
 		{
 			final long countDeleted = productExcludeRepo.deleteInBatchBySyncTokenNot(syncToken);
 			logger.debug("Deleted {} product exclude records", countDeleted);
+
+			runAfterCommit(stockAvailabilityIndex::reloadProductExcludes);
 		}
 	}
 
@@ -234,6 +242,8 @@ public class StockAvailabilityService
 		if (request.isDelete())
 		{
 			productExcludeRepo.deleteInBatchByPznAndMfBpartnerId(request.getPzn().getValueAsLong(), request.getBpartnerId());
+
+			runAfterCommit(() -> stockAvailabilityIndex.removeProductExclude(request.getPzn().getValueAsLong(), request.getBpartnerId()));
 		}
 		else
 		{
@@ -247,6 +257,30 @@ public class StockAvailabilityService
 
 			jpaProductExclude.setSyncToken(syncToken);
 			productExcludeRepo.save(jpaProductExclude);
+
+			runAfterCommit(() -> stockAvailabilityIndex.addProductExclude(request.getPzn().getValueAsLong(), request.getBpartnerId()));
 		}
 	}
+
+	/**
+	 * Applies the given change to our {@link StockAvailabilityIndex} only after the current transaction was committed,
+	 * so that the index never contains anything which was rolled back.
+	 */
+	private static void runAfterCommit(@NonNull final Runnable runnable)
+	{
+		if (!TransactionSynchronizationManager.isSynchronizationActive())
+		{
+			runnable.run();
+			return;
+		}
+
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter()
+		{
+			@Override
+			public void afterCommit()
+			{
+				runnable.run();
+			}
+		});
+	}
 }
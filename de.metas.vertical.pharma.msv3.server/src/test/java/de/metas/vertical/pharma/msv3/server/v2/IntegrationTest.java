@@ -2,6 +2,12 @@ package de.metas.vertical.pharma.msv3.server.v2;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
 import javax.xml.bind.JAXBElement;
 
 import org.junit.Ignore;
@@ -261,6 +267,46 @@ public class IntegrationTest
 		testStockAvailability(PZN_1, 150, 0);
 	}
 
+	@Test
+	public void testStockAvailability_concurrentRequests() throws Exception
+	{
+		setupDummyCurrentUserForBPartnerId(1234);
+
+		createOrUpdateStockAvailability(PZN_1, 11);
+		createOrUpdateStockAvailability(PZN_2, 22);
+		createOrUpdateStockAvailability(PZN_3, 33);
+		excludeProduct(PZN_3, 1234);
+
+		final int threads = 8;
+		final int requestsPerThread = 500;
+		final ExecutorService executor = Executors.newFixedThreadPool(threads);
+		try
+		{
+			final List<Future<?>> futures = new ArrayList<>();
+			for (int i = 0; i < threads; i++)
+			{
+				futures.add(executor.submit(() -> {
+					for (int j = 0; j < requestsPerThread; j++)
+					{
+						testStockAvailability(PZN_1, 10, 10);
+						testStockAvailability(PZN_2, 30, 0);
+						testStockAvailability(PZN_3, 10, 0); // excluded
+						testStockAvailability(PZN_MISSING, 10, 0);
+					}
+				}));
+			}
+
+			for (final Future<?> future : futures)
+			{
+				future.get(); // rethrows assertion errors
+			}
+		}
+		finally
+		{
+			executor.shutdownNow();
+		}
+	}
+
 	@Test
 	@Ignore // ATM it's failing on some H2 unique index issue
 	public void testOrder()